@@ -21,11 +21,17 @@ import flex.messaging.util.PropertyStringResourceLoader;
 import org.codehaus.enunciate.service.DefaultSecurityExceptionChecker;
 import org.codehaus.enunciate.service.SecurityExceptionChecker;
 
+import org.codehaus.enunciate.service.OperationStatistics;
+
 import javax.jws.WebMethod;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Base class for an AMF endpoint.
@@ -35,14 +41,12 @@ import java.util.HashMap;
 public abstract class AMFEndpointImpl {
 
   private SecurityExceptionChecker securityChecker = new DefaultSecurityExceptionChecker();
-  private final HashMap<String, Method> operationNames2Methods = new HashMap<String, Method>();
+  private final HashMap<String, OperationPlan> operationNames2Plans = new HashMap<String, OperationPlan>();
   protected Object serviceBean;
 
   protected AMFEndpointImpl(Object serviceBean) {
     this.serviceBean = serviceBean;
 
-    this.operationNames2Methods.clear();
-
     for (Method method : getServiceInterface().getMethods()) {
       String operationName = method.getName();
       WebMethod webMethodInfo = method.getAnnotation(WebMethod.class);
@@ -55,7 +59,7 @@ public abstract class AMFEndpointImpl {
         operationName = webMethodInfo.operationName();
       }
 
-      this.operationNames2Methods.put(operationName, method);
+      this.operationNames2Plans.put(operationName, new OperationPlan(operationName, method));
     }
   }
 
@@ -68,62 +72,34 @@ public abstract class AMFEndpointImpl {
    * @return The (AMF) result of the invocation.
    */
   protected final Object invokeOperation(String operationName, Object... params) throws Exception {
-    Method method = this.operationNames2Methods.get(operationName);
-    if (method == null) {
+    OperationPlan plan = this.operationNames2Plans.get(operationName);
+    if (plan == null) {
       throw new NoSuchMethodError("No such method: " + operationName);
     }
-    AMFMappingContext mappingContext = new AMFMappingContext();
-
-    Type[] paramTypes = method.getGenericParameterTypes();
-    if (paramTypes.length != params.length) {
-      throw new IllegalArgumentException(String.format("Wrong number of parameters for operation '%s'.  Expected %s, got %s.", operationName, paramTypes.length, params.length));
-    }
-
-    Object[] mappedParams = new Object[paramTypes.length];
-    for (int i = 0; i < paramTypes.length; i++) {
-      AMFMapper mapper;
-      if (params[i] instanceof AMFMapperAware) {
-        mapper = ((AMFMapperAware) params[i]).loadAMFMapper();
-      }
-      else {
-        mapper = AMFMapperIntrospector.getAMFMapper(paramTypes[i]);
-      }
-      mappedParams[i] = mapper.toJAXB(params[i], mappingContext);
-    }
 
-    Object returnValue;
+    long start = System.nanoTime();
+    boolean failed = true;
     try {
-      returnValue = method.invoke(serviceBean, mappedParams);
+      Object returnValue = plan.invoke(this.serviceBean, this.securityChecker, params);
+      failed = false;
+      return returnValue;
     }
-    catch (InvocationTargetException e) {
-      Throwable targetException = e.getTargetException();
-      if ((securityChecker.isAuthenticationFailed(targetException)) || (securityChecker.isAccessDenied(targetException))) {
-        flex.messaging.security.SecurityException se = new SecurityException(new PropertyStringResourceLoader("flex.messaging.vendors"));
-        se.setMessage(targetException.getMessage());
-        throw se;
-      }
-      else {
-        for (int i = 0; i < method.getExceptionTypes().length; i++) {
-          Class exceptionType = method.getExceptionTypes()[i];
-          if (exceptionType.isInstance(targetException)) {
-            throw (Exception) AMFMapperIntrospector.getAMFMapper(targetException.getClass(), exceptionType).toAMF(targetException, mappingContext);
-          }
-        }
-      }
-
-      if (targetException instanceof Error) {
-        throw (Error) targetException;
-      }
-      else {
-        throw (Exception) targetException;
-      }
+    finally {
+      plan.statistics.record(System.nanoTime() - start, failed);
     }
+  }
 
-    if (method.getReturnType() != Void.TYPE) {
-      returnValue = returnValue != null ? AMFMapperIntrospector.getAMFMapper(returnValue.getClass(), method.getGenericReturnType()).toAMF(returnValue, mappingContext) : null;
+  /**
+   * The invocation statistics for each operation of this endpoint, by operation name.
+   *
+   * @return The invocation statistics for each operation of this endpoint.
+   */
+  public Map<String, OperationStatistics> getOperationStatistics() {
+    TreeMap<String, OperationStatistics> statistics = new TreeMap<String, OperationStatistics>();
+    for (Map.Entry<String, OperationPlan> entry : this.operationNames2Plans.entrySet()) {
+      statistics.put(entry.getKey(), entry.getValue().statistics);
     }
-
-    return returnValue;
+    return Collections.unmodifiableMap(statistics);
   }
 
   /**
@@ -141,4 +117,129 @@ public abstract class AMFEndpointImpl {
    * @return The service interface.
    */
   protected abstract Class getServiceInterface();
+
+  /**
+   * The invocation plan for an operation, compiled once when the endpoint is constructed so that an invocation
+   * doesn't have to introspect the method or look up the parameter mappers.
+   */
+  private static final class OperationPlan {
+
+    private final String operationName;
+    private final Method method;
+    private final Type[] paramTypes;
+    private final AMFMapper[] paramMappers;
+    private final Class[] exceptionTypes;
+    private final boolean returnsVoid;
+    private final Type returnType;
+    private final ConcurrentHashMap<Class, AMFMapper> returnMappers = new ConcurrentHashMap<Class, AMFMapper>();
+    private final ConcurrentHashMap<Class, AMFMapper> faultMappers = new ConcurrentHashMap<Class, AMFMapper>();
+    private final OperationStatistics statistics;
+
+    OperationPlan(String operationName, Method method) {
+      this.operationName = operationName;
+      this.method = method;
+      try {
+        //skip the access checks on invoke.
+        method.setAccessible(true);
+      }
+      catch (SecurityException e) {
+        //fall through; we'll just have to pay for the access checks.
+      }
+
+      this.paramTypes = method.getGenericParameterTypes();
+      this.paramMappers = new AMFMapper[this.paramTypes.length];
+      for (int i = 0; i < this.paramTypes.length; i++) {
+        try {
+          this.paramMappers[i] = AMFMapperIntrospector.getAMFMapper(this.paramTypes[i]);
+        }
+        catch (RuntimeException e) {
+          //fall through: the mapper will be resolved (and the error reported) when the operation is invoked.
+        }
+      }
+
+      this.exceptionTypes = method.getExceptionTypes();
+      this.returnsVoid = method.getReturnType() == Void.TYPE;
+      this.returnType = method.getGenericReturnType();
+      this.statistics = new OperationStatistics(operationName);
+    }
+
+    Object invoke(Object serviceBean, SecurityExceptionChecker securityChecker, Object... params) throws Exception {
+      if (this.paramTypes.length != params.length) {
+        throw new IllegalArgumentException(String.format("Wrong number of parameters for operation '%s'.  Expected %s, got %s.", this.operationName, this.paramTypes.length, params.length));
+      }
+
+      AMFMappingContext mappingContext = new AMFMappingContext();
+      Object[] mappedParams = new Object[params.length];
+      for (int i = 0; i < params.length; i++) {
+        AMFMapper mapper;
+        if (params[i] instanceof AMFMapperAware) {
+          mapper = ((AMFMapperAware) params[i]).loadAMFMapper();
+        }
+        else {
+          mapper = this.paramMappers[i];
+          if (mapper == null) {
+            mapper = AMFMapperIntrospector.getAMFMapper(this.paramTypes[i]);
+          }
+        }
+        mappedParams[i] = mapper.toJAXB(params[i], mappingContext);
+      }
+
+      Object returnValue;
+      try {
+        returnValue = this.method.invoke(serviceBean, mappedParams);
+      }
+      catch (InvocationTargetException e) {
+        Throwable targetException = e.getTargetException();
+        if ((securityChecker.isAuthenticationFailed(targetException)) || (securityChecker.isAccessDenied(targetException))) {
+          flex.messaging.security.SecurityException se = new SecurityException(new PropertyStringResourceLoader("flex.messaging.vendors"));
+          se.setMessage(targetException.getMessage());
+          throw se;
+        }
+
+        AMFMapper faultMapper = getFaultMapper(targetException.getClass());
+        if (faultMapper != null) {
+          throw (Exception) faultMapper.toAMF(targetException, mappingContext);
+        }
+
+        if (targetException instanceof Error) {
+          throw (Error) targetException;
+        }
+        else {
+          throw (Exception) targetException;
+        }
+      }
+
+      if (this.returnsVoid || returnValue == null) {
+        return null;
+      }
+
+      Class returnClass = returnValue.getClass();
+      AMFMapper returnMapper = this.returnMappers.get(returnClass);
+      if (returnMapper == null) {
+        returnMapper = AMFMapperIntrospector.getAMFMapper(returnClass, this.returnType);
+        this.returnMappers.put(returnClass, returnMapper);
+      }
+      return returnMapper.toAMF(returnValue, mappingContext);
+    }
+
+    /**
+     * Get the mapper for the specified exception class, or null if it isn't one of the declared faults.
+     *
+     * @param exceptionClass The exception class.
+     * @return The fault mapper, or null.
+     */
+    private AMFMapper getFaultMapper(Class exceptionClass) {
+      AMFMapper faultMapper = this.faultMappers.get(exceptionClass);
+      if (faultMapper == null) {
+        for (Class exceptionType : this.exceptionTypes) {
+          if (exceptionType.isAssignableFrom(exceptionClass)) {
+            faultMapper = AMFMapperIntrospector.getAMFMapper(exceptionClass, exceptionType);
+            this.faultMappers.put(exceptionClass, faultMapper);
+            break;
+          }
+        }
+      }
+      return faultMapper;
+    }
+  }
 }
@@ -25,9 +25,9 @@ import javax.xml.namespace.QName;
 import java.lang.reflect.*;
 import java.net.URI;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Introspector used to lookup AMF mappers.
@@ -36,7 +36,7 @@ import java.util.UUID;
  */
 public class AMFMapperIntrospector {
 
-  private static final Map<Type, AMFMapper> MAPPERS = new HashMap<Type, AMFMapper>();
+  private static final Map<Type, AMFMapper> MAPPERS = new ConcurrentHashMap<Type, AMFMapper>();
 
   static {
     AMFMapperIntrospector.MAPPERS.put(DataHandler.class, new DataHandlerAMFMapper());
@@ -23,6 +23,8 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 
 /**
@@ -38,6 +40,9 @@ public abstract class BaseAMFMapper<J, G> implements CustomAMFMapper<J, G> {
   private final Class<G> amfClass;
   private final String[] properties;
   private final PropertyDescriptor[][] jaxbProperties2amfProperties;
+  private final Method[][] jaxbAccessors2amfAccessors;
+  private final Constructor<J> jaxbConstructor;
+  private final Constructor<G> amfConstructor;
 
   /**
    * Construct a base AMF mapper.
@@ -54,7 +59,10 @@ public abstract class BaseAMFMapper<J, G> implements CustomAMFMapper<J, G> {
     }
 
     this.properties = properties;
+    this.jaxbConstructor = findConstructor(jaxbClass);
+    this.amfConstructor = findConstructor(amfClass);
     this.jaxbProperties2amfProperties = new PropertyDescriptor[this.properties.length][];
+    this.jaxbAccessors2amfAccessors = new Method[this.properties.length][];
     for (int i = 0; i < properties.length; i++) {
       String property = properties[i];
       PropertyDescriptor jaxbProperty = findProperty(jaxbClass, property);
@@ -68,9 +76,45 @@ public abstract class BaseAMFMapper<J, G> implements CustomAMFMapper<J, G> {
       }
 
       this.jaxbProperties2amfProperties[i] = new PropertyDescriptor[]{jaxbProperty, amfProperty};
+      //the accessors are resolved (and made accessible) once: jaxb getter, jaxb setter, amf getter, amf setter.
+      this.jaxbAccessors2amfAccessors[i] = new Method[]{makeAccessible(jaxbProperty.getReadMethod()), makeAccessible(jaxbProperty.getWriteMethod()),
+                                                       makeAccessible(amfProperty.getReadMethod()), makeAccessible(amfProperty.getWriteMethod())};
     }
   }
 
+  /**
+   * Find the no-arg constructor for the given class, made accessible so it can be invoked without an access check.
+   *
+   * @param clazz The class.
+   * @return The constructor, or null if there is no no-arg constructor or it can't be made accessible.
+   */
+  private static <T> Constructor<T> findConstructor(Class<T> clazz) {
+    try {
+      return makeAccessible(clazz.getDeclaredConstructor());
+    }
+    catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Make the specified member accessible so it can be invoked without an access check, if allowed.
+   *
+   * @param member The member.
+   * @return The member.
+   */
+  private static <M extends AccessibleObject> M makeAccessible(M member) {
+    if (member != null) {
+      try {
+        member.setAccessible(true);
+      }
+      catch (SecurityException e) {
+        //fall through; the member will be access-checked.
+      }
+    }
+    return member;
+  }
+
   /**
    * Find the specified property for the given class.
    *
@@ -119,17 +163,17 @@ public abstract class BaseAMFMapper<J, G> implements CustomAMFMapper<J, G> {
 
     G amfObject;
     try {
-      amfObject = amfClass.newInstance();
+      amfObject = newAMFObject();
     }
     catch (Exception e) {
       throw new AMFMappingException("Unable to instantiate an instance AMF class " + amfClass.getName() + ".", e);
     }
 
     context.objectMapped(jaxbObject, amfObject);
-    for (PropertyDescriptor[] pds : this.jaxbProperties2amfProperties) {
-      PropertyDescriptor jaxbProperty = pds[0];
-      PropertyDescriptor amfProperty = pds[1];
-      Method getter = jaxbProperty.getReadMethod();
+    for (int i = 0; i < this.jaxbProperties2amfProperties.length; i++) {
+      PropertyDescriptor jaxbProperty = this.jaxbProperties2amfProperties[i][0];
+      Method[] accessors = this.jaxbAccessors2amfAccessors[i];
+      Method getter = accessors[0];
       if (getter == null) {
         throw new AMFMappingException("In order to convert from JAXB classes to AMF, you must provide a getter for property '"
           + jaxbProperty.getName() + "' on class " + jaxbProperty.getWriteMethod().getDeclaringClass());
@@ -151,7 +195,7 @@ public abstract class BaseAMFMapper<J, G> implements CustomAMFMapper<J, G> {
       XmlElement xmlElement = findXmlElement(jaxbProperty);
       AMFMapper mapper = AMFMapperIntrospector.getAMFMapper(propertyValue.getClass(), getter.getGenericReturnType(), adapterInfo, xmlElement);
       try {
-        amfProperty.getWriteMethod().invoke(amfObject, mapper.toAMF(propertyValue, context));
+        setAMFProperty(i, amfObject, mapper.toAMF(propertyValue, context));
       }
       catch (Exception e) {
         throw new AMFMappingException("Unable to set property " + jaxbProperty.getName() + " for the amf bean " + amfClass.getName(), e);
@@ -161,6 +205,60 @@ public abstract class BaseAMFMapper<J, G> implements CustomAMFMapper<J, G> {
     return amfObject;
   }
 
+  /**
+   * The index of the specified property, or -1 if the property isn't mapped by this mapper.
+   *
+   * @param property The property.
+   * @return The index of the property.
+   */
+  int indexOfProperty(String property) {
+    for (int i = 0; i < this.properties.length; i++) {
+      if (this.properties[i].equals(property)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Read the value of the property at the specified index from a JAXB object so that it can be written directly to an AMF
+   * stream. Unless the property is adapted or its type is specified by annotation, the JAXB value is returned as-is and is
+   * mapped as it is written; otherwise it's mapped to its AMF value here.
+   *
+   * @param jaxbObject The JAXB object.
+   * @param index The index of the property.
+   * @param context The mapping context.
+   * @return The value to write, or null if the property value is null.
+   */
+  Object getStreamingValue(J jaxbObject, int index, AMFMappingContext context) throws AMFMappingException {
+    PropertyDescriptor jaxbProperty = this.jaxbProperties2amfProperties[index][0];
+    Method getter = this.jaxbAccessors2amfAccessors[index][0];
+    if (getter == null) {
+      throw new AMFMappingException("In order to convert from JAXB classes to AMF, you must provide a getter for property '"
+        + jaxbProperty.getName() + "' on class " + jaxbProperty.getWriteMethod().getDeclaringClass());
+    }
+
+    Object propertyValue;
+    try {
+      propertyValue = getter.invoke(jaxbObject);
+    }
+    catch (Exception e) {
+      throw new AMFMappingException("Unable to read property '" + jaxbProperty.getName() + "' on " + jaxbObject, e);
+    }
+
+    if (propertyValue == null) {
+      return null;
+    }
+
+    XmlJavaTypeAdapter adapterInfo = findTypeAdapter(jaxbProperty);
+    XmlElement xmlElement = findXmlElement(jaxbProperty);
+    if (adapterInfo == null && (xmlElement == null || xmlElement.type() == XmlElement.DEFAULT.class)) {
+      return propertyValue;
+    }
+
+    return AMFMapperIntrospector.getAMFMapper(propertyValue.getClass(), getter.getGenericReturnType(), adapterInfo, xmlElement).toAMF(propertyValue, context);
+  }
+
   /**
    * Find the type adapter for the specified JAXB property.
    *
@@ -237,20 +335,20 @@ public abstract class BaseAMFMapper<J, G> implements CustomAMFMapper<J, G> {
 
     J jaxbObject;
     try {
-      jaxbObject = jaxbClass.newInstance();
+      jaxbObject = newJAXBObject();
     }
     catch (Exception e) {
       throw new AMFMappingException("Unable to instantiate an instance JAXB class " + jaxbClass.getName() + ".", e);
     }
 
     context.objectMapped(amfObject, jaxbObject);
-    for (PropertyDescriptor[] pds : this.jaxbProperties2amfProperties) {
-      PropertyDescriptor jaxbProperty = pds[0];
-      PropertyDescriptor amfProperty = pds[1];
-      Method getter = amfProperty.getReadMethod();
+    for (int i = 0; i < this.jaxbProperties2amfProperties.length; i++) {
+      PropertyDescriptor jaxbProperty = this.jaxbProperties2amfProperties[i][0];
+      PropertyDescriptor amfProperty = this.jaxbProperties2amfProperties[i][1];
+      Method[] accessors = this.jaxbAccessors2amfAccessors[i];
       Object propertyValue;
       try {
-        propertyValue = getter.invoke(amfObject);
+        propertyValue = getAMFProperty(i, amfObject);
       }
       catch (Exception e) {
         throw new AMFMappingException("Unable to read property '" + amfProperty.getName() + "' on " + amfObject, e);
@@ -260,7 +358,7 @@ public abstract class BaseAMFMapper<J, G> implements CustomAMFMapper<J, G> {
         continue;
       }
 
-      Method setter = jaxbProperty.getWriteMethod();
+      Method setter = accessors[1];
       if (setter == null) {
         throw new AMFMappingException("In order to convert from AMF back to JAXB classes, you must provide a setter for property '"
           + jaxbProperty.getName() + "' on class " + jaxbProperty.getReadMethod().getDeclaringClass());
@@ -286,6 +384,59 @@ public abstract class BaseAMFMapper<J, G> implements CustomAMFMapper<J, G> {
     return jaxbObject;
   }
 
+  /**
+   * Read the property at the specified index from an AMF object. Generated mappers override this to call the getters of
+   * the AMF class directly.
+   *
+   * @param index The index of the property.
+   * @param amfObject The AMF object.
+   * @return The value of the property.
+   */
+  protected Object getAMFProperty(int index, G amfObject) throws Exception {
+    return this.jaxbAccessors2amfAccessors[index][2].invoke(amfObject);
+  }
+
+  /**
+   * Write the property at the specified index to an AMF object. Generated mappers override this to call the setters of
+   * the AMF class directly.
+   *
+   * @param index The index of the property.
+   * @param amfObject The AMF object.
+   * @param value The (non-null) value of the property.
+   */
+  protected void setAMFProperty(int index, G amfObject, Object value) throws Exception {
+    this.jaxbAccessors2amfAccessors[index][3].invoke(amfObject, value);
+  }
+
+  /**
+   * The number of properties mapped by this mapper. The properties of a superclass come before the properties of its
+   * subclasses, so a generated mapper finds the index of its first property by subtracting the properties it and its
+   * subclasses added.
+   *
+   * @return The number of properties mapped by this mapper.
+   */
+  protected int getPropertyCount() {
+    return this.properties.length;
+  }
+
+  /**
+   * Create a new instance of the AMF class. Generated mappers override this to invoke the constructor directly.
+   *
+   * @return The new instance.
+   */
+  protected G newAMFObject() throws Exception {
+    return this.amfConstructor != null ? this.amfConstructor.newInstance() : this.amfClass.newInstance();
+  }
+
+  /**
+   * Create a new instance of the JAXB class.
+   *
+   * @return The new instance.
+   */
+  protected J newJAXBObject() throws Exception {
+    return this.jaxbConstructor != null ? this.jaxbConstructor.newInstance() : this.jaxbClass.newInstance();
+  }
+
   /**
    * Utility for appending one string array to another.
    * @param args1 The first set of args.
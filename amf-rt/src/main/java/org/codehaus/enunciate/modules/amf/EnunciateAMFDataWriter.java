@@ -27,8 +27,17 @@ public class EnunciateAMFDataWriter implements AMFDataWriter {
   public void writeTo(Object obj, Class realType, Type genericType, OutputStream stream) throws IOException {
     AMFMapper mapper = AMFMapperIntrospector.getAMFMapper(realType, genericType);
     SerializationContext context = new SerializationContext();
-    Amf3Output output = new Amf3Output(context);
-    output.setOutputStream(stream);
-    output.writeObject(mapper.toAMF(obj, new AMFMappingContext()));
+    if (!(mapper instanceof AdaptingAMFMapper)) {
+      //write the JAXB object directly to the stream instead of mapping it to an AMF object first.
+      EnunciateAmf3Output output = new EnunciateAmf3Output(context);
+      output.setOutputStream(stream);
+      output.writeObject(obj);
+      output.flush();
+    }
+    else {
+      Amf3Output output = new Amf3Output(context);
+      output.setOutputStream(stream);
+      output.writeObject(mapper.toAMF(obj, new AMFMappingContext()));
+    }
   }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.amf;
+
+import flex.messaging.io.AbstractProxy;
+import flex.messaging.io.PropertyProxy;
+import flex.messaging.io.PropertyProxyRegistry;
+import flex.messaging.io.SerializationContext;
+import flex.messaging.io.amf.Amf3Output;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * AMF3 output that writes JAXB objects directly to the stream. Each JAXB object that has a custom mapper is written with the
+ * traits (alias and properties) of its AMF class, reading the values of its properties straight from the JAXB object, so the
+ * AMF object graph is never created. Objects are written by reference the second time they're encountered, so cycles in the
+ * JAXB graph are preserved the same way they would be for the AMF graph.
+ * <p/>
+ * Like any AMF output, an instance is not thread-safe and is intended to be used for a single stream.
+ *
+ * @author Ryan Heaton
+ */
+public class EnunciateAmf3Output extends Amf3Output {
+
+  private final AMFMappingContext mappingContext = new AMFMappingContext();
+  private final Map<BaseAMFMapper, JAXBPropertyProxy> proxies = new HashMap<BaseAMFMapper, JAXBPropertyProxy>();
+
+  public EnunciateAmf3Output(SerializationContext context) {
+    super(context);
+  }
+
+  @Override
+  public void writeObject(Object object) throws IOException {
+    if (isNativeAMFType(object)) {
+      //note that the items of collections, maps, and arrays are written back through this method.
+      super.writeObject(object);
+      return;
+    }
+
+    AMFMapper mapper = AMFMapperIntrospector.getAMFMapper(object.getClass(), null);
+    if (mapper instanceof BaseAMFMapper && ((BaseAMFMapper) mapper).getJaxbClass().isInstance(object)) {
+      JAXBPropertyProxy proxy = getProxy((BaseAMFMapper) mapper);
+      if (proxy != null) {
+        this.out.write(kObjectType);
+        if (!byReference(object)) {
+          writePropertyProxy(proxy, object);
+        }
+        return;
+      }
+    }
+
+    super.writeObject(mapper.toAMF(object, this.mappingContext));
+  }
+
+  /**
+   * Whether the specified object is written as-is, without being mapped.
+   *
+   * @param object The object.
+   * @return Whether the specified object is written as-is.
+   */
+  protected boolean isNativeAMFType(Object object) {
+    return object == null
+      || object instanceof String
+      || object instanceof Number
+      || object instanceof Boolean
+      || object instanceof Character
+      || object instanceof Date
+      || object instanceof Calendar
+      || object instanceof Collection
+      || object instanceof Map
+      || object.getClass().isArray();
+  }
+
+  /**
+   * Get the proxy used to write the JAXB objects of the specified mapper.
+   *
+   * @param mapper The mapper.
+   * @return The proxy, or null if the JAXB objects of the mapper can't be written directly.
+   */
+  protected JAXBPropertyProxy getProxy(BaseAMFMapper mapper) {
+    if (this.proxies.containsKey(mapper)) {
+      return this.proxies.get(mapper);
+    }
+
+    JAXBPropertyProxy proxy;
+    try {
+      proxy = new JAXBPropertyProxy(mapper, this.mappingContext);
+    }
+    catch (Exception e) {
+      proxy = null;
+    }
+
+    if (proxy != null && proxy.amfProxy.isExternalizable(proxy.amfDefaults)) {
+      //externalizable AMF classes write themselves.
+      proxy = null;
+    }
+
+    this.proxies.put(mapper, proxy);
+    return proxy;
+  }
+
+  /**
+   * Proxy that presents a JAXB object as an instance of its AMF class.
+   */
+  protected static class JAXBPropertyProxy extends AbstractProxy {
+
+    private final BaseAMFMapper mapper;
+    private final AMFMappingContext mappingContext;
+    private final Object amfDefaults;
+    private final PropertyProxy amfProxy;
+    private final String alias;
+    private final List propertyNames;
+    private final Map<String, Integer> propertyIndexes = new HashMap<String, Integer>();
+
+    protected JAXBPropertyProxy(BaseAMFMapper mapper, AMFMappingContext mappingContext) throws Exception {
+      super(null);
+      this.mapper = mapper;
+      this.mappingContext = mappingContext;
+      this.amfDefaults = mapper.newAMFObject();
+      this.amfProxy = PropertyProxyRegistry.getProxyAndRegister(this.amfDefaults);
+      this.alias = this.amfProxy.getAlias(this.amfDefaults);
+      this.propertyNames = this.amfProxy.getPropertyNames(this.amfDefaults);
+      if (this.propertyNames != null) {
+        for (Object propertyName : this.propertyNames) {
+          this.propertyIndexes.put((String) propertyName, mapper.indexOfProperty((String) propertyName));
+        }
+      }
+    }
+
+    @Override
+    public String getAlias(Object instance) {
+      return this.alias;
+    }
+
+    @Override
+    public List getPropertyNames(Object instance) {
+      return this.propertyNames;
+    }
+
+    @Override
+    public boolean isExternalizable(Object instance) {
+      return false;
+    }
+
+    @Override
+    public boolean isDynamic() {
+      return false;
+    }
+
+    @Override
+    public Class getType(Object instance, String propertyName) {
+      return this.amfProxy.getType(this.amfDefaults, propertyName);
+    }
+
+    @Override
+    public Object getValue(Object instance, String propertyName) {
+      Integer index = this.propertyIndexes.get(propertyName);
+      Object value = index != null && index >= 0 ? this.mapper.getStreamingValue(instance, index, this.mappingContext) : null;
+      //a property that isn't mapped (or is null) has the value of a new AMF object.
+      return value != null ? value : this.amfProxy.getValue(this.amfDefaults, propertyName);
+    }
+
+    @Override
+    public void setValue(Object instance, String propertyName, Object value) {
+      //not routed to the AMF proxy: the AMF defaults are shared by every object this proxy writes.
+      throw new UnsupportedOperationException("The streaming proxy for " + this.mapper.getClass().getName() + " is write-only: unable to set property " + propertyName + ".");
+    }
+
+    @Override
+    public Object clone() {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.enunciate.modules.amf;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import java.util.List;
+
+/**
+ * @author Ryan Heaton
+ */
+@XmlRootElement
+public class Person {
+
+  private String name;
+  private int age;
+  private TestEnum status;
+  private List<Person> friends;
+  private Person spouse;
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public int getAge() {
+    return age;
+  }
+
+  public void setAge(int age) {
+    this.age = age;
+  }
+
+  public TestEnum getStatus() {
+    return status;
+  }
+
+  public void setStatus(TestEnum status) {
+    this.status = status;
+  }
+
+  public List<Person> getFriends() {
+    return friends;
+  }
+
+  public void setFriends(List<Person> friends) {
+    this.friends = friends;
+  }
+
+  public Person getSpouse() {
+    return spouse;
+  }
+
+  public void setSpouse(Person spouse) {
+    this.spouse = spouse;
+  }
+}
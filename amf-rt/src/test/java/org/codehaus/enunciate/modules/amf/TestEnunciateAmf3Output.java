@@ -0,0 +1,98 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.amf;
+
+import flex.messaging.io.SerializationContext;
+import flex.messaging.io.amf.Amf3Input;
+import flex.messaging.io.amf.Amf3Output;
+import junit.framework.TestCase;
+import org.codehaus.enunciate.modules.amf.amf.AMFPerson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestEnunciateAmf3Output extends TestCase {
+
+  /**
+   * tests that writing the JAXB objects directly produces the same stream as writing the mapped AMF objects.
+   */
+  public void testWriteObject() throws Exception {
+    Person husband = new Person();
+    husband.setName("husband");
+    husband.setAge(40);
+    husband.setStatus(TestEnum.VAL2);
+    Person wife = new Person();
+    wife.setName("wife");
+    wife.setAge(38);
+    husband.setSpouse(wife);
+    wife.setSpouse(husband);
+    Person friend = new Person();
+    friend.setName("friend");
+    husband.setFriends(new ArrayList<Person>(Arrays.asList(friend, wife)));
+
+    AMFMapper mapper = AMFMapperIntrospector.getAMFMapper(Person.class);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    Amf3Output output = new Amf3Output(new SerializationContext());
+    output.setOutputStream(expected);
+    output.writeObject(mapper.toAMF(husband, new AMFMappingContext()));
+
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    EnunciateAmf3Output streamingOutput = new EnunciateAmf3Output(new SerializationContext());
+    streamingOutput.setOutputStream(actual);
+    streamingOutput.writeObject(husband);
+    assertTrue(Arrays.equals(expected.toByteArray(), actual.toByteArray()));
+
+    Amf3Input input = new Amf3Input(new SerializationContext());
+    input.setInputStream(new ByteArrayInputStream(actual.toByteArray()));
+    AMFPerson amfHusband = (AMFPerson) input.readObject();
+    assertEquals("husband", amfHusband.getName());
+    assertEquals(40, amfHusband.getAge());
+    assertEquals("VAL2", amfHusband.getStatus());
+    AMFPerson amfWife = amfHusband.getSpouse();
+    assertEquals("wife", amfWife.getName());
+    assertNull(amfWife.getStatus());
+    assertSame(amfHusband, amfWife.getSpouse());
+    List<AMFPerson> friends = amfHusband.getFriends();
+    assertEquals(2, friends.size());
+    assertEquals("friend", friends.get(0).getName());
+    assertSame(amfWife, friends.get(1));
+  }
+
+  /**
+   * tests that the streaming proxy can't be used to set a property.
+   */
+  public void testProxyIsWriteOnly() throws Exception {
+    BaseAMFMapper mapper = (BaseAMFMapper) AMFMapperIntrospector.getAMFMapper(Person.class);
+    EnunciateAmf3Output.JAXBPropertyProxy proxy = new EnunciateAmf3Output.JAXBPropertyProxy(mapper, new AMFMappingContext());
+    Person person = new Person();
+    try {
+      proxy.setValue(person, "name", "name");
+      fail();
+    }
+    catch (UnsupportedOperationException e) {
+      assertTrue(e.getMessage().contains("write-only"));
+    }
+    assertNull(proxy.getValue(person, "name"));
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.enunciate.modules.amf.amf;
+
+import java.util.List;
+
+/**
+ * @author Ryan Heaton
+ */
+public class AMFPerson {
+
+  private String name;
+  private int age;
+  private String status;
+  private List<AMFPerson> friends;
+  private AMFPerson spouse;
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public int getAge() {
+    return age;
+  }
+
+  public void setAge(int age) {
+    this.age = age;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public List<AMFPerson> getFriends() {
+    return friends;
+  }
+
+  public void setFriends(List<AMFPerson> friends) {
+    this.friends = friends;
+  }
+
+  public AMFPerson getSpouse() {
+    return spouse;
+  }
+
+  public void setSpouse(AMFPerson spouse) {
+    this.spouse = spouse;
+  }
+}
@@ -33,6 +33,7 @@ import org.codehaus.enunciate.contract.jaxb.LocalElementDeclaration;
 import org.codehaus.enunciate.main.ClientLibraryArtifact;
 import org.codehaus.enunciate.main.NamedFileArtifact;
 import org.codehaus.enunciate.main.ArtifactType;
+import org.codehaus.enunciate.modules.ConcurrentGenerationModule;
 import org.codehaus.enunciate.modules.FreemarkerDeploymentModule;
 import org.codehaus.enunciate.modules.c.config.CRuleSet;
 
@@ -87,7 +88,7 @@ import com.sun.mirror.declaration.ClassDeclaration;
  * @author Ryan Heaton
  * @docFileName module_c.html
  */
-public class CDeploymentModule extends FreemarkerDeploymentModule {
+public class CDeploymentModule extends FreemarkerDeploymentModule implements ConcurrentGenerationModule {
 
   /**
    * The pattern to scrub is any non-word character.
@@ -87,4 +87,12 @@ public class CValidator extends BaseValidator {
     return result;
   }
 
+  /**
+   * @return true (the checks of this validator don't share any state).
+   */
+  @Override
+  public boolean isPartitionSafe() {
+    return true;
+  }
+
 }
@@ -13,11 +13,18 @@ int main ( int argc, char *argv[] ) {
   struct enunciate_draw_canvas *canvas;
   struct enunciate_structures_house *house;
   struct enunciate_vehicles_bus *bus;
-  if (argc != 4) {
-    printf("Usage: %s [cat|canvas|house|bus|circle|triangle|rectangle] [infile] [outfile]", argv[0]);
+  struct enunciate_arena *arena = NULL;
+  if (argc != 4 && !(argc == 5 && strcmp("arena", argv[4]) == 0)) {
+    printf("Usage: %s [cat|canvas|house|bus|circle|triangle|rectangle] [infile] [outfile] (arena)", argv[0]);
     return 1;
   }
 
+  if (argc == 5) {
+    //read (and free) the document with the memory of an arena.
+    arena = enunciate_arena_new();
+    enunciate_arena_use(arena);
+  }
+
   reader = xmlReaderForFile(argv[2], NULL, 0);
   writer = xmlNewTextWriterFilename(argv[3], 0);
   if (strcmp("circle", argv[1]) == 0) {
@@ -212,9 +219,16 @@ int main ( int argc, char *argv[] ) {
 #endif
   }
   else {
-    printf("Unrecognized xml type: %s\nUsage: %s [cat|canvas|house|bus||circle|triangle|rectangle] [infile] [outfile]", argv[1], argv[0]);
+    printf("Unrecognized xml type: %s\nUsage: %s [cat|canvas|house|bus||circle|triangle|rectangle] [infile] [outfile] (arena)", argv[1], argv[0]);
     return 1;
   }
 
+  if (arena != NULL) {
+    enunciate_arena_free(arena); //free everything that was read into the arena.
+#if DEBUG_ENUNCIATE
+    printf("Successfully freed the arena.\n");
+#endif
+  }
+
   return 0;
 }
\ No newline at end of file
@@ -529,14 +529,55 @@ public class TestCSerialization extends TestCase {
     //todo: test element refs of attachment elements.
   }
 
-  protected <T> T processThroughXml(T object) throws Exception {
+  /**
+   * tests (and times) the (de)serialization of large arrays, with the memory of the heap and with the memory of an arena.
+   */
+  public void testLargeArrays() throws Exception {
+    if (this.skipCTests) {
+      System.out.println("C tests have been disabled.");
+      return;
+    }
+
+    int count = 100000;
+    Canvas canvas = new Canvas();
+    List<Shape> shapes = new ArrayList<Shape>(count);
+    for (int i = 0; i < count; i++) {
+      Circle circle = new Circle();
+      circle.setId("circle" + i);
+      circle.setRadius(i);
+      shapes.add(circle);
+    }
+    canvas.setShapes(shapes);
+
+    long start = System.currentTimeMillis();
+    Canvas heapCanvas = processThroughXml(canvas);
+    long heapTime = System.currentTimeMillis() - start;
+    start = System.currentTimeMillis();
+    Canvas arenaCanvas = processThroughXml(canvas, "arena");
+    long arenaTime = System.currentTimeMillis() - start;
+    System.out.printf("Processed %d shapes through C in %d ms (heap) and %d ms (arena).\n", count, heapTime, arenaTime);
+
+    for (Canvas processed : Arrays.asList(heapCanvas, arenaCanvas)) {
+      assertEquals(count, processed.getShapes().size());
+      int i = 0;
+      for (Object shape : processed.getShapes()) {
+        assertEquals("circle" + i, ((Circle) shape).getId());
+        assertEquals(i, ((Circle) shape).getRadius());
+        i++;
+      }
+    }
+  }
+
+  protected <T> T processThroughXml(T object, String... options) throws Exception {
     JAXBContext context = JAXBContext.newInstance(object.getClass());
     Marshaller marshaller = context.createMarshaller();
     File in = File.createTempFile(getName(), ".in.xml", this.tempDir);
     File out = File.createTempFile(getName(), ".in.xml", this.tempDir);
     marshaller.marshal(object, in);
 //    System.out.printf("%s %s %s %s\n", this.exe.getAbsolutePath(), object.getClass().getSimpleName().toLowerCase(), in.getAbsolutePath(), out.getAbsolutePath());
-    Process process = new ProcessBuilder(this.exe.getAbsolutePath(), object.getClass().getSimpleName().toLowerCase(), in.getAbsolutePath(), out.getAbsolutePath())
+    List<String> command = new ArrayList<String>(Arrays.asList(this.exe.getAbsolutePath(), object.getClass().getSimpleName().toLowerCase(), in.getAbsolutePath(), out.getAbsolutePath()));
+    command.addAll(Arrays.asList(options));
+    Process process = new ProcessBuilder(command)
       .redirectErrorStream(true)
       .start();
     BufferedReader procReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
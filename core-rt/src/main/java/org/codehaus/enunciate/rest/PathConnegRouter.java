@@ -0,0 +1,225 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.rest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Router for path-based content negotiation (e.g. "/xml/resource" vs. "/json/resource"). The path keys of the
+ * media type mappings are compiled into an immutable prefix trie when the router is constructed, so a request path
+ * can be matched against all the mappings in a single pass over the path, without allocating substrings.
+ * <p/>
+ * The router is immutable and can be shared between threads.
+ *
+ * @author Ryan Heaton
+ */
+public class PathConnegRouter<T> {
+
+  private final Node<T> root;
+
+  /**
+   * @param mappings The mappings of path keys (e.g. "xml") to values (e.g. media types).
+   */
+  public PathConnegRouter(Map<String, ? extends T> mappings) {
+    Builder<T> builder = new Builder<T>();
+    for (Map.Entry<String, ? extends T> mapping : mappings.entrySet()) {
+      if (mapping.getKey() != null && mapping.getKey().length() > 0) {
+        builder.add(mapping.getKey(), mapping.getValue());
+      }
+    }
+    this.root = builder.build();
+  }
+
+  /**
+   * Match the longest key that is a prefix of the path at the specified offset.
+   *
+   * @param path The path.
+   * @param offset The offset into the path at which to match.
+   * @return The match, or null if no key is a prefix of the path at the offset.
+   */
+  public Match<T> matchPrefix(String path, int offset) {
+    Node<T> node = this.root;
+    Node<T> matched = null;
+    int matchedEnd = -1;
+    for (int i = offset; i < path.length(); i++) {
+      node = node.child(path.charAt(i));
+      if (node == null) {
+        break;
+      }
+
+      if (node.key != null) {
+        matched = node;
+        matchedEnd = i + 1;
+      }
+    }
+
+    return matched == null ? null : new Match<T>(matched.key, matched.value, offset, matchedEnd);
+  }
+
+  /**
+   * Match the first path segment that is a key and is followed by another segment (i.e. "/key/" appears in the path).
+   *
+   * @param path The path.
+   * @return The match (the start is the index of the key, the end the index of the '/' that follows it), or null if
+   * no segment of the path is a key.
+   */
+  public Match<T> matchSegment(String path) {
+    int slash = path.indexOf('/');
+    while (slash >= 0) {
+      Node<T> node = this.root;
+      int i = slash + 1;
+      while (node != null && i < path.length() && path.charAt(i) != '/') {
+        node = node.child(path.charAt(i));
+        i++;
+      }
+
+      if (node != null && node.key != null && i < path.length()) {
+        //path.charAt(i) == '/'
+        return new Match<T>(node.key, node.value, slash + 1, i);
+      }
+
+      slash = path.indexOf('/', slash + 1);
+    }
+
+    return null;
+  }
+
+  /**
+   * Whether the router has no mappings.
+   *
+   * @return Whether the router has no mappings.
+   */
+  public boolean isEmpty() {
+    return this.root.chars.length == 0;
+  }
+
+  /**
+   * A match of a key in a path.
+   */
+  public static final class Match<T> {
+
+    private final String key;
+    private final T value;
+    private final int start;
+    private final int end;
+
+    private Match(String key, T value, int start, int end) {
+      this.key = key;
+      this.value = value;
+      this.start = start;
+      this.end = end;
+    }
+
+    /**
+     * The key that was matched.
+     *
+     * @return The key that was matched.
+     */
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * The value mapped to the key.
+     *
+     * @return The value mapped to the key.
+     */
+    public T getValue() {
+      return value;
+    }
+
+    /**
+     * The index in the path at which the key starts.
+     *
+     * @return The index in the path at which the key starts.
+     */
+    public int getStart() {
+      return start;
+    }
+
+    /**
+     * The index in the path at which the key ends (exclusive).
+     *
+     * @return The index in the path at which the key ends.
+     */
+    public int getEnd() {
+      return end;
+    }
+  }
+
+  /**
+   * An immutable node in the trie. The children are sorted by character for binary search.
+   */
+  private static final class Node<T> {
+
+    private final char[] chars;
+    private final Node<T>[] children;
+    private final String key;
+    private final T value;
+
+    private Node(char[] chars, Node<T>[] children, String key, T value) {
+      this.chars = chars;
+      this.children = children;
+      this.key = key;
+      this.value = value;
+    }
+
+    Node<T> child(char c) {
+      int index = Arrays.binarySearch(this.chars, c);
+      return index < 0 ? null : this.children[index];
+    }
+  }
+
+  /**
+   * Mutable node used to build the trie.
+   */
+  private static final class Builder<T> {
+
+    private final TreeMap<Character, Builder<T>> children = new TreeMap<Character, Builder<T>>();
+    private String key;
+    private T value;
+
+    void add(String key, T value) {
+      Builder<T> node = this;
+      for (int i = 0; i < key.length(); i++) {
+        Builder<T> child = node.children.get(key.charAt(i));
+        if (child == null) {
+          child = new Builder<T>();
+          node.children.put(key.charAt(i), child);
+        }
+        node = child;
+      }
+      node.key = key;
+      node.value = value;
+    }
+
+    @SuppressWarnings ( "unchecked" )
+    Node<T> build() {
+      char[] chars = new char[this.children.size()];
+      Node<T>[] children = new Node[this.children.size()];
+      int i = 0;
+      for (Map.Entry<Character, Builder<T>> child : this.children.entrySet()) {
+        chars[i] = child.getKey();
+        children[i] = child.getValue().build();
+        i++;
+      }
+      return new Node<T>(chars, children, this.key, this.value);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invocation statistics for a service operation. The counters are updated without locking, so they can be
+ * recorded on every invocation.
+ *
+ * @author Ryan Heaton
+ */
+public class OperationStatistics {
+
+  private final String operationName;
+  private final AtomicLong invocationCount = new AtomicLong();
+  private final AtomicLong failureCount = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  public OperationStatistics(String operationName) {
+    this.operationName = operationName;
+  }
+
+  /**
+   * Record an invocation of the operation.
+   *
+   * @param nanos The time (in nanoseconds) the invocation took.
+   * @param failed Whether the invocation failed.
+   */
+  public void record(long nanos, boolean failed) {
+    this.invocationCount.incrementAndGet();
+    if (failed) {
+      this.failureCount.incrementAndGet();
+    }
+    this.totalNanos.addAndGet(nanos);
+
+    long max = this.maxNanos.get();
+    while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) {
+      max = this.maxNanos.get();
+    }
+  }
+
+  /**
+   * The name of the operation.
+   *
+   * @return The name of the operation.
+   */
+  public String getOperationName() {
+    return operationName;
+  }
+
+  /**
+   * The number of times the operation was invoked.
+   *
+   * @return The number of times the operation was invoked.
+   */
+  public long getInvocationCount() {
+    return invocationCount.get();
+  }
+
+  /**
+   * The number of invocations that failed (i.e. threw an exception).
+   *
+   * @return The number of invocations that failed.
+   */
+  public long getFailureCount() {
+    return failureCount.get();
+  }
+
+  /**
+   * The total time (in nanoseconds) spent in the operation.
+   *
+   * @return The total time spent in the operation.
+   */
+  public long getTotalNanos() {
+    return totalNanos.get();
+  }
+
+  /**
+   * The longest time (in nanoseconds) an invocation of the operation took.
+   *
+   * @return The longest time an invocation of the operation took.
+   */
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * The average time (in nanoseconds) an invocation of the operation took.
+   *
+   * @return The average time an invocation of the operation took.
+   */
+  public long getAverageNanos() {
+    long count = getInvocationCount();
+    return count == 0 ? 0 : getTotalNanos() / count;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %d invocations (%d failed), %d ns average, %d ns max", this.operationName, getInvocationCount(), getFailureCount(), getAverageNanos(), getMaxNanos());
+  }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.webapp;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Base filter for serving a document (e.g. WSDL or WADL) from the servlet context with its assumed base address
+ * replaced by the actual base address of the request. The rewritten documents are cached per resource and base address
+ * as encoded bytes, and are served with an ETag and a Last-Modified date so clients can make conditional requests.
+ *
+ * @author Ryan Heaton
+ */
+public abstract class BaseAddressFilter implements Filter {
+
+  public static final String ASSUMED_BASE_ADDRESS_PARAM = "assumed-base-address";
+  public static final String MATCH_PREFIX_PARAM = "match-prefix";
+  public static final String MATCH_SUFFIX_PARAM = "match-suffix";
+  public static final String GZIP_PARAM = "gzip";
+
+  private static final int MAX_CACHED_DOCUMENTS = 128;
+
+  private String matchPrefix;
+  private String matchSuffix = "";
+  private String assumedBaseAddress = null;
+  private boolean gzip = false;
+  private ServletContext servletContext = null;
+  private final Map<String, Document> documents = new ConcurrentHashMap<String, Document>();
+
+  protected BaseAddressFilter(String matchPrefix) {
+    this.matchPrefix = matchPrefix;
+  }
+
+  public void init(FilterConfig filterConfig) throws ServletException {
+    this.assumedBaseAddress = filterConfig.getInitParameter(ASSUMED_BASE_ADDRESS_PARAM);
+    if (this.assumedBaseAddress != null) {
+      while (this.assumedBaseAddress.endsWith("/")) {
+        this.assumedBaseAddress = this.assumedBaseAddress.substring(0, this.assumedBaseAddress.length() - 1);
+      }
+    }
+
+    String matchPrefix = filterConfig.getInitParameter(MATCH_PREFIX_PARAM);
+    if (matchPrefix != null) {
+      this.matchPrefix = matchPrefix;
+    }
+
+    String matchSuffix = filterConfig.getInitParameter(MATCH_SUFFIX_PARAM);
+    if (matchSuffix != null) {
+      this.matchSuffix = matchSuffix;
+    }
+
+    this.gzip = Boolean.valueOf(filterConfig.getInitParameter(GZIP_PARAM));
+    this.servletContext = filterConfig.getServletContext();
+  }
+
+  public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain) throws IOException, ServletException {
+    if (this.assumedBaseAddress != null) {
+      HttpServletRequest request = (HttpServletRequest) servletRequest;
+      StringBuffer requestURI = request.getRequestURL();
+      String contextPath = request.getContextPath();
+      if (requestURI.indexOf(contextPath) >= 0) {
+        int splitIndex = requestURI.indexOf(contextPath) + contextPath.length();
+        String fullContextPath = requestURI.substring(0, splitIndex);
+        String postContextPath = requestURI.substring(splitIndex);
+        Document document = getDocument(postContextPath, fullContextPath);
+        if (document != null) {
+          serve(document, request, (HttpServletResponse) servletResponse);
+          return;
+        }
+      }
+    }
+
+    chain.doFilter(servletRequest, servletResponse);
+  }
+
+  /**
+   * Get the rewritten document for the specified resource and base address, loading (and caching) it if needed.
+   *
+   * @param resource The resource path in the servlet context.
+   * @param baseAddress The base address.
+   * @return The document, or null if the resource doesn't exist.
+   */
+  protected Document getDocument(String resource, String baseAddress) throws IOException {
+    String key = resource + '\n' + baseAddress;
+    Document document = this.documents.get(key);
+    if (document == null) {
+      InputStream stream = getServletContext().getResourceAsStream(resource);
+      if (stream == null) {
+        return null;
+      }
+
+      byte[] contents;
+      try {
+        contents = readFully(stream);
+      }
+      finally {
+        stream.close();
+      }
+
+      byte[] match = (this.matchPrefix + this.assumedBaseAddress + this.matchSuffix).getBytes("utf-8");
+      byte[] replacement = (this.matchPrefix + baseAddress + this.matchSuffix).getBytes("utf-8");
+      document = new Document(replace(contents, match, replacement), this.gzip);
+      if (this.documents.size() >= MAX_CACHED_DOCUMENTS) {
+        //base addresses are supplied by the requests; don't let the cache grow without bound.
+        this.documents.clear();
+      }
+      this.documents.put(key, document);
+    }
+    return document;
+  }
+
+  /**
+   * Serve the document, honoring conditional requests.
+   *
+   * @param document The document.
+   * @param request The request.
+   * @param response The response.
+   */
+  protected void serve(Document document, HttpServletRequest request, HttpServletResponse response) throws IOException {
+    response.setHeader("ETag", document.etag);
+    response.setDateHeader("Last-Modified", document.lastModified);
+    if (isNotModified(document, request)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    byte[] bytes = document.contents;
+    if (document.gzipped != null) {
+      response.setHeader("Vary", "Accept-Encoding");
+      String acceptEncoding = request.getHeader("Accept-Encoding");
+      if (acceptEncoding != null && acceptEncoding.indexOf("gzip") >= 0) {
+        response.setHeader("Content-Encoding", "gzip");
+        bytes = document.gzipped;
+      }
+    }
+
+    response.setContentType("application/xml");
+    response.setContentLength(bytes.length);
+    OutputStream out = response.getOutputStream();
+    out.write(bytes);
+    out.flush();
+    out.close();
+  }
+
+  /**
+   * Whether the client already has the current version of the document.
+   *
+   * @param document The document.
+   * @param request The request.
+   * @return Whether the client already has the current version of the document.
+   */
+  protected boolean isNotModified(Document document, HttpServletRequest request) {
+    String ifNoneMatch = request.getHeader("If-None-Match");
+    if (ifNoneMatch != null) {
+      return "*".equals(ifNoneMatch.trim()) || ifNoneMatch.indexOf(document.etag) >= 0;
+    }
+
+    long ifModifiedSince;
+    try {
+      ifModifiedSince = request.getDateHeader("If-Modified-Since");
+    }
+    catch (IllegalArgumentException e) {
+      ifModifiedSince = -1;
+    }
+    return ifModifiedSince >= 0 && document.lastModified <= ifModifiedSince;
+  }
+
+  /**
+   * Replace all occurrences of the match in the specified bytes, in a single pass.
+   *
+   * @param bytes The bytes.
+   * @param match The bytes to match.
+   * @param replacement The replacement bytes.
+   * @return The bytes with the replacements.
+   */
+  protected static byte[] replace(byte[] bytes, byte[] match, byte[] replacement) {
+    if (match.length == 0) {
+      return bytes;
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + 256);
+    int copyFrom = 0;
+    int last = bytes.length - match.length;
+    int i = 0;
+    while (i <= last) {
+      if (bytes[i] == match[0] && regionMatches(bytes, i, match)) {
+        out.write(bytes, copyFrom, i - copyFrom);
+        out.write(replacement, 0, replacement.length);
+        i += match.length;
+        copyFrom = i;
+      }
+      else {
+        i++;
+      }
+    }
+
+    if (copyFrom == 0) {
+      return bytes;
+    }
+
+    out.write(bytes, copyFrom, bytes.length - copyFrom);
+    return out.toByteArray();
+  }
+
+  private static boolean regionMatches(byte[] bytes, int offset, byte[] match) {
+    for (int j = 1; j < match.length; j++) {
+      if (bytes[offset + j] != match[j]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1024 * 8];
+    int len;
+    while ((len = in.read(buffer)) > 0) {
+      out.write(buffer, 0, len);
+    }
+    return out.toByteArray();
+  }
+
+  public void destroy() {
+    this.documents.clear();
+  }
+
+  public String getMatchPrefix() {
+    return matchPrefix;
+  }
+
+  public void setMatchPrefix(String matchPrefix) {
+    this.matchPrefix = matchPrefix;
+    this.documents.clear();
+  }
+
+  public String getMatchSuffix() {
+    return matchSuffix;
+  }
+
+  public void setMatchSuffix(String matchSuffix) {
+    this.matchSuffix = matchSuffix;
+    this.documents.clear();
+  }
+
+  public String getAssumedBaseAddress() {
+    return assumedBaseAddress;
+  }
+
+  public void setAssumedBaseAddress(String assumedBaseAddress) {
+    this.assumedBaseAddress = assumedBaseAddress;
+    this.documents.clear();
+  }
+
+  public boolean isGzip() {
+    return gzip;
+  }
+
+  public void setGzip(boolean gzip) {
+    this.gzip = gzip;
+    this.documents.clear();
+  }
+
+  public ServletContext getServletContext() {
+    return servletContext;
+  }
+
+  public void setServletContext(ServletContext servletContext) {
+    this.servletContext = servletContext;
+  }
+
+  /**
+   * A rewritten document.
+   */
+  protected static class Document {
+
+    private final byte[] contents;
+    private final byte[] gzipped;
+    private final String etag;
+    private final long lastModified;
+
+    protected Document(byte[] contents, boolean gzip) throws IOException {
+      this.contents = contents;
+      this.etag = etag(contents);
+      //http dates have a resolution of a second.
+      this.lastModified = (System.currentTimeMillis() / 1000) * 1000;
+
+      if (gzip) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(bytes);
+        out.write(contents);
+        out.close();
+        this.gzipped = bytes.toByteArray();
+      }
+      else {
+        this.gzipped = null;
+      }
+    }
+
+    private static String etag(byte[] contents) {
+      MessageDigest digest;
+      try {
+        digest = MessageDigest.getInstance("MD5");
+      }
+      catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+
+      StringBuilder etag = new StringBuilder("\"");
+      for (byte b : digest.digest(contents)) {
+        etag.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return etag.append('"').toString();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.rest;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestPathConnegRouter extends TestCase {
+
+  /**
+   * tests matching a prefix of the path.
+   */
+  public void testMatchPrefix() throws Exception {
+    PathConnegRouter<String> router = new PathConnegRouter<String>(createMappings());
+    PathConnegRouter.Match<String> match = router.matchPrefix("/xml/person/123", 1);
+    assertNotNull(match);
+    assertEquals("xml", match.getKey());
+    assertEquals("application/xml", match.getValue());
+    assertEquals(1, match.getStart());
+    assertEquals(4, match.getEnd());
+
+    match = router.matchPrefix("json/person", 0);
+    assertEquals("json", match.getKey());
+    assertEquals("application/json", match.getValue());
+    assertEquals(4, match.getEnd());
+
+    //longest key wins.
+    match = router.matchPrefix("/jsonp/person", 1);
+    assertEquals("jsonp", match.getKey());
+
+    assertNull(router.matchPrefix("/rest/person", 1));
+    assertNull(router.matchPrefix("/", 1));
+    match = router.matchPrefix("/type59/person", 1);
+    assertEquals("application/type59", match.getValue());
+  }
+
+  /**
+   * tests matching a segment of the path.
+   */
+  public void testMatchSegment() throws Exception {
+    PathConnegRouter<String> router = new PathConnegRouter<String>(createMappings());
+    String path = "/xml/person/123";
+    PathConnegRouter.Match<String> match = router.matchSegment(path);
+    assertNotNull(match);
+    assertEquals("xml", match.getKey());
+    assertEquals("/person/123", path.substring(match.getEnd()));
+
+    path = "/context/json/person";
+    match = router.matchSegment(path);
+    assertEquals("json", match.getKey());
+    assertEquals("/person", path.substring(match.getEnd()));
+
+    //a key must be a whole segment followed by another segment.
+    assertNull(router.matchSegment("/xmlish/person"));
+    assertNull(router.matchSegment("/person/xml"));
+    assertNull(router.matchSegment("xml/person"));
+    assertNull(new PathConnegRouter<String>(new HashMap<String, String>()).matchSegment("/xml/person"));
+  }
+
+  private Map<String, String> createMappings() {
+    Map<String, String> mappings = new HashMap<String, String>();
+    mappings.put("xml", "application/xml");
+    mappings.put("json", "application/json");
+    mappings.put("jsonp", "application/javascript");
+    for (int i = 0; i < 60; i++) {
+      mappings.put("type" + i, "application/type" + i);
+    }
+    return mappings;
+  }
+}
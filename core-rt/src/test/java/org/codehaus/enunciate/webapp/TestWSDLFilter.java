@@ -24,7 +24,10 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 
@@ -58,19 +61,64 @@ public class TestWSDLFilter extends TestCase {
     expect(req.getRequestURL()).andReturn(new StringBuffer("http://myhost.com/mycontext/something/test.wsdl"));
     expect(req.getContextPath()).andReturn("/mycontext");
     expect(context.getResourceAsStream("/something/test.wsdl")).andReturn(new ByteArrayInputStream(WSDL_HEADER.getBytes("utf-8")));
-	StringWriter writer = new StringWriter();
+    expect(req.getHeader("If-None-Match")).andReturn(null);
+    expect(req.getDateHeader("If-Modified-Since")).andReturn(-1L);
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    res.setHeader(eq("ETag"), (String) notNull());
+    res.setDateHeader(eq("Last-Modified"), anyLong());
     res.setContentType("application/xml");
-    expect(res.getWriter()).andReturn(new PrintWriter(writer));
+    res.setContentLength(anyInt());
+    expect(res.getOutputStream()).andReturn(new ServletOutputStream() {
+      public void write(int b) throws IOException {
+        bytes.write(b);
+      }
+    });
     replay(context, req, res, chain);
     filter.doFilter(req, res, chain);
     verify(context, req, res, chain);
     reset(context, req, res, chain);
 
 	
-	String actualHeader = writer.toString().trim();
+	String actualHeader = new String(bytes.toByteArray(), "utf-8").trim();
 	String expectedOut = buildExpectedOut();
 	assertEquals(expectedOut, actualHeader);
   }
+
+  /**
+   * tests that the rewritten document is cached and conditional requests are honored.
+   */
+  public void testConditionalRequest() throws Exception {
+    final ServletContext context = createMock(ServletContext.class);
+    WSDLFilter filter = new WSDLFilter() {
+      @Override
+      public ServletContext getServletContext() {
+        return context;
+      }
+    };
+
+    filter.setAssumedBaseAddress("http://localhost:8080/full");
+    expect(context.getResourceAsStream("/something/test.wsdl")).andReturn(new ByteArrayInputStream(WSDL_HEADER.getBytes("utf-8")));
+    replay(context);
+    BaseAddressFilter.Document document = filter.getDocument("/something/test.wsdl", "http://myhost.com/mycontext");
+    verify(context);
+    reset(context);
+
+    //the second request for the same document doesn't read the resource.
+    replay(context);
+    assertSame(document, filter.getDocument("/something/test.wsdl", "http://myhost.com/mycontext"));
+    verify(context);
+
+    HttpServletRequest req = createMock(HttpServletRequest.class);
+    HttpServletResponse res = createMock(HttpServletResponse.class);
+    res.setHeader(eq("ETag"), (String) notNull());
+    res.setDateHeader(eq("Last-Modified"), anyLong());
+    expect(req.getHeader("If-None-Match")).andReturn(null);
+    expect(req.getDateHeader("If-Modified-Since")).andReturn(System.currentTimeMillis() + 1000);
+    res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    replay(req, res);
+    filter.serve(document, req, res);
+    verify(req, res);
+  }
   
   /**
    * Windows uses /r/n instead of only /n to write new lines. 
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.apt;
+
+import com.sun.mirror.declaration.TypeDeclaration;
+import org.codehaus.enunciate.util.TypeDeclarationComparator;
+
+import java.util.*;
+
+/**
+ * A registry of the declarations in the model, indexed by qualified name. Declarations are added and looked up by hash;
+ * the list view of the registry (sorted by qualified name) is only built when it's needed, and is rebuilt only after the
+ * registry changes.
+ * <p/>
+ * The list view is read-only; it's safe to read the registry from multiple threads once the model has been built.
+ *
+ * @author Ryan Heaton
+ */
+final class DeclarationRegistry<D extends TypeDeclaration> extends AbstractList<D> implements RandomAccess {
+
+  private static final Comparator<TypeDeclaration> CLASS_COMPARATOR = new TypeDeclarationComparator();
+
+  private final Map<String, D> declarations = new HashMap<String, D>();
+  private List<D> sorted = Collections.emptyList();
+  private boolean dirty = false;
+
+  /**
+   * Add a declaration to the registry, unless a declaration of the same qualified name has already been added.
+   *
+   * @param declaration The declaration.
+   * @return Whether the declaration was added.
+   */
+  public synchronized boolean register(D declaration) {
+    String qualifiedName = declaration.getQualifiedName();
+    if (this.declarations.containsKey(qualifiedName)) {
+      return false;
+    }
+
+    this.declarations.put(qualifiedName, declaration);
+    this.dirty = true;
+    return true;
+  }
+
+  /**
+   * Whether a declaration of the specified qualified name has been added.
+   *
+   * @param qualifiedName The qualified name.
+   * @return Whether a declaration of the specified qualified name has been added.
+   */
+  public synchronized boolean containsName(String qualifiedName) {
+    return this.declarations.containsKey(qualifiedName);
+  }
+
+  /**
+   * Find the declaration of the specified qualified name.
+   *
+   * @param qualifiedName The qualified name.
+   * @return The declaration, or null if none has been added.
+   */
+  public synchronized D find(String qualifiedName) {
+    return this.declarations.get(qualifiedName);
+  }
+
+  /**
+   * The declarations, sorted by qualified name.
+   *
+   * @return The declarations, sorted by qualified name.
+   */
+  public synchronized List<D> sorted() {
+    if (this.dirty) {
+      ArrayList<D> sorted = new ArrayList<D>(this.declarations.values());
+      Collections.sort(sorted, CLASS_COMPARATOR);
+      this.sorted = Collections.unmodifiableList(sorted);
+      this.dirty = false;
+    }
+    return this.sorted;
+  }
+
+  @Override
+  public D get(int index) {
+    return sorted().get(index);
+  }
+
+  @Override
+  public synchronized int size() {
+    return this.declarations.size();
+  }
+
+  @Override
+  public Iterator<D> iterator() {
+    return sorted().iterator();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (o instanceof TypeDeclaration) {
+      D declaration = find(((TypeDeclaration) o).getQualifiedName());
+      return declaration != null && o.equals(declaration);
+    }
+    return false;
+  }
+}
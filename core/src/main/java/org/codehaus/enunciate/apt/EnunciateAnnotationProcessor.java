@@ -43,7 +43,9 @@ import org.codehaus.enunciate.contract.json.JsonTypeDefinition;
 import org.codehaus.enunciate.contract.validation.*;
 import org.codehaus.enunciate.json.JsonRootType;
 import org.codehaus.enunciate.json.JsonType;
+import org.codehaus.enunciate.main.BuildProfile;
 import org.codehaus.enunciate.main.Enunciate;
+import org.codehaus.enunciate.modules.ConcurrentGenerationModule;
 import org.codehaus.enunciate.modules.DeploymentModule;
 import org.codehaus.enunciate.template.freemarker.*;
 import org.codehaus.enunciate.util.AntPatternMatcher;
@@ -59,6 +61,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Root annotation processor for enunciate.  Initializes the model and signals the modules to generate.
@@ -109,9 +112,14 @@ public class EnunciateAnnotationProcessor extends FreemarkerProcessor {
         }
       }
 
-      for (DeploymentModule module : config.getEnabledModules()) {
-        debug("Invoking %s step for module %s", Enunciate.Target.GENERATE, module.getName());
-        module.step(Enunciate.Target.GENERATE);
+      if (this.enunciate.getGenerateThreads() > 1) {
+        generateConcurrently(model, config.getEnabledModules());
+      }
+      else {
+        for (DeploymentModule module : config.getEnabledModules()) {
+          debug("Invoking %s step for module %s", Enunciate.Target.GENERATE, module.getName());
+          module.step(Enunciate.Target.GENERATE);
+        }
       }
     }
     catch (TemplateException e) {
@@ -128,6 +136,143 @@ public class EnunciateAnnotationProcessor extends FreemarkerProcessor {
     }
   }
 
+  /**
+   * Invokes the generate step of the specified modules concurrently. Consecutive modules of the same order that have
+   * declared themselves to be {@link ConcurrentGenerationModule independent} are generated concurrently, each against its
+   * own fork of the model, and the forks are joined back into the model (in module order) before the next module is
+   * generated. Any other module is generated alone, against the model itself.
+   *
+   * @param model The model.
+   * @param modules The (ordered) modules to generate.
+   */
+  protected void generateConcurrently(EnunciateFreemarkerModel model, List<DeploymentModule> modules) throws EnunciateException, IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(this.enunciate.getGenerateThreads());
+    try {
+      List<DeploymentModule> batch = new ArrayList<DeploymentModule>();
+      for (DeploymentModule module : modules) {
+        if (!batch.isEmpty() && batch.get(0).getOrder() != module.getOrder()) {
+          generateBatch(model, batch, executor);
+          batch.clear();
+        }
+
+        if (module instanceof ConcurrentGenerationModule) {
+          batch.add(module);
+        }
+        else {
+          generateBatch(model, batch, executor);
+          batch.clear();
+          debug("Invoking %s step for module %s", Enunciate.Target.GENERATE, module.getName());
+          module.step(Enunciate.Target.GENERATE);
+        }
+      }
+      generateBatch(model, batch, executor);
+    }
+    finally {
+      executor.shutdownNow();
+      FreemarkerModel.set(model);
+    }
+  }
+
+  /**
+   * Invokes the generate step of a batch of independent modules concurrently.
+   *
+   * @param model The model.
+   * @param batch The (ordered) modules to generate.
+   * @param executor The executor with which to generate the modules.
+   */
+  private void generateBatch(EnunciateFreemarkerModel model, List<DeploymentModule> batch, ExecutorService executor) throws EnunciateException, IOException {
+    if (batch.size() == 1) {
+      DeploymentModule module = batch.get(0);
+      debug("Invoking %s step for module %s", Enunciate.Target.GENERATE, module.getName());
+      module.step(Enunciate.Target.GENERATE);
+    }
+    else if (batch.size() > 1) {
+      List<EnunciateFreemarkerModel> forks = new ArrayList<EnunciateFreemarkerModel>();
+      List<Future<?>> steps = new ArrayList<Future<?>>();
+      for (DeploymentModule module : batch) {
+        EnunciateFreemarkerModel fork = model.fork();
+        forks.add(fork);
+        steps.add(executor.submit(new ModuleGenerator(module, fork)));
+      }
+
+      try {
+        for (Future<?> step : steps) {
+          awaitStep(step);
+        }
+      }
+      finally {
+        for (EnunciateFreemarkerModel fork : forks) {
+          model.join(fork);
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits for the generate step of a module to complete, rethrowing any exception from the step.
+   *
+   * @param step The step.
+   */
+  private void awaitStep(Future<?> step) throws EnunciateException, IOException {
+    try {
+      step.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new EnunciateException("Interrupted while generating.");
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof EnunciateException) {
+        throw (EnunciateException) cause;
+      }
+      else if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      else {
+        throw new EnunciateException(cause);
+      }
+    }
+  }
+
+  /**
+   * Invokes the generate step of a module against a fork of the model.
+   */
+  private class ModuleGenerator implements Callable<Object> {
+
+    private final DeploymentModule module;
+    private final EnunciateFreemarkerModel model;
+    private final ProcessingContext context = ProcessingContext.current();
+    private final BuildProfile.Span parentSpan = BuildProfile.current();
+
+    private ModuleGenerator(DeploymentModule module, EnunciateFreemarkerModel model) {
+      this.module = module;
+      this.model = model;
+    }
+
+    public Object call() throws Exception {
+      FreemarkerModel.set(this.model);
+      ProcessingContext.bind(this.context);
+      BuildProfile.Span span = this.parentSpan.fork("task", "generate " + this.module.getName());
+      try {
+        debug("Invoking %s step for module %s", Enunciate.Target.GENERATE, this.module.getName());
+        this.module.step(Enunciate.Target.GENERATE);
+        return null;
+      }
+      finally {
+        span.end();
+        ProcessingContext.unbind();
+        FreemarkerModel.set(null);
+      }
+    }
+  }
+
   /**
    * Getting the root model pulls all endpoint interfaces and schema types out of the source
    * base, adds the classes specified to be included, and adds them to the model, then validates
@@ -427,6 +572,7 @@ public class EnunciateAnnotationProcessor extends FreemarkerProcessor {
     debug("Validating the model...");
     Messager messager = getMessager();
     ValidatorChain validator = new ValidatorChain();
+    validator.setThreads(this.enunciate.getValidateThreads());
     EnunciateConfiguration config = this.enunciate.getConfig();
     Set<String> disabledRules = new TreeSet<String>(config.getDisabledRules());
     if (this.enunciate.isModuleEnabled("rest")) {
@@ -457,6 +603,7 @@ public class EnunciateAnnotationProcessor extends FreemarkerProcessor {
     }
 
     ValidationResult validationResult = validate(model, validator);
+    logValidationTimings(validator.getTimings());
 
     if (validationResult.hasWarnings()) {
       warn("Validation result has warnings.");
@@ -499,6 +646,29 @@ public class EnunciateAnnotationProcessor extends FreemarkerProcessor {
     }
   }
 
+  /**
+   * Log the time spent in each validator (and, at debug level, in each kind of check of each validator), slowest first.
+   *
+   * @param timings The timings, in nanoseconds.
+   */
+  protected void logValidationTimings(Map<String, Long> timings) {
+    List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>(timings.entrySet());
+    Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+      public int compare(Map.Entry<String, Long> timing1, Map.Entry<String, Long> timing2) {
+        return timing2.getValue().compareTo(timing1.getValue());
+      }
+    });
+
+    for (Map.Entry<String, Long> timing : entries) {
+      if (timing.getKey().indexOf('.') < 0) {
+        info("Validator %s took %d ms.", timing.getKey(), timing.getValue() / 1000000);
+      }
+      else {
+        debug("Validation check %s took %d ms.", timing.getKey(), timing.getValue() / 1000000);
+      }
+    }
+  }
+
   /**
    * Get the messager for the current environment.
    *
@@ -17,6 +17,8 @@
 package org.codehaus.enunciate.apt;
 
 import com.sun.mirror.apt.AnnotationProcessor;
+import com.sun.mirror.apt.AnnotationProcessorEnvironment;
+import com.sun.mirror.apt.AnnotationProcessors;
 import com.sun.mirror.declaration.AnnotationTypeDeclaration;
 import net.sf.jelly.apt.ProcessorFactory;
 import net.sf.jelly.apt.freemarker.FreemarkerProcessorFactory;
@@ -57,10 +59,10 @@ public class EnunciateAnnotationProcessorFactory extends ProcessorFactory {
   private static final Collection<String> SUPPORTED_TYPES = Collections.unmodifiableCollection(Arrays.asList("*"));
 
   private final EnunciateAnnotationProcessor processor;
+  private int rounds = 0;
 
   public EnunciateAnnotationProcessorFactory(Enunciate enunciate, String... additionalApiClasses) throws EnunciateException {
     this.processor = new EnunciateAnnotationProcessor(enunciate, additionalApiClasses);
-    this.round = 0; //todo: fix this in APT-Jelly.  What it really needs to do is listen to the rounds.
   }
 
   //Inherited.
@@ -73,6 +75,26 @@ public class EnunciateAnnotationProcessorFactory extends ProcessorFactory {
     return SUPPORTED_TYPES;
   }
 
+  /**
+   * Gets the processor for the first round. Unlike APT-Jelly, the rounds are counted per factory and the (decorated)
+   * environment is bound to the current thread instead of being set globally, so concurrent executions don't interfere
+   * with each other.
+   *
+   * @param annotations The annotations.
+   * @param env The environment.
+   * @return The processor.
+   * @see ProcessingContext
+   */
+  @Override
+  public AnnotationProcessor getProcessorFor(Set<AnnotationTypeDeclaration> annotations, AnnotationProcessorEnvironment env) {
+    if (++this.rounds > 1) {
+      return AnnotationProcessors.NO_OP;
+    }
+
+    ProcessingContext.bind(decorateEnvironment(env));
+    return getProcessorFor(annotations);
+  }
+
   @Override
   protected AnnotationProcessor getProcessorFor(Set<AnnotationTypeDeclaration> annotations) {
     return processor;
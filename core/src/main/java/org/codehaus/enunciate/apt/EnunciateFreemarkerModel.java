@@ -51,7 +51,6 @@ import org.codehaus.enunciate.qname.XmlQNameEnum;
 import org.codehaus.enunciate.rest.MimeType;
 import org.codehaus.enunciate.util.MapType;
 import org.codehaus.enunciate.util.MapTypeUtil;
-import org.codehaus.enunciate.util.TypeDeclarationComparator;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
@@ -73,8 +72,6 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
     }
   };
   
-  private static final Comparator<TypeDeclaration> CLASS_COMPARATOR = new TypeDeclarationComparator();
-
   int prefixIndex = 0;
   final Map<String, String> namespacesToPrefixes;
   final Map<String, String> contentTypesToIds;
@@ -82,16 +79,20 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
   final Map<String, WsdlInfo> namespacesToWsdls;
   final Map<String, XmlType> knownTypes;
   final Map<String, JsonType> knownJsonTypes;
-  final List<TypeDefinition> typeDefinitions = new ArrayList<TypeDefinition>();
-  final List<RootElementDeclaration> rootElements = new ArrayList<RootElementDeclaration>();
-  final List<EndpointInterface> endpointInterfaces = new ArrayList<EndpointInterface>();
-  final List<RootResource> rootResources = new ArrayList<RootResource>();
-  final List<TypeDeclaration> jaxrsProviders = new ArrayList<TypeDeclaration>();
+  final DeclarationRegistry<TypeDefinition> typeDefinitions;
+  final DeclarationRegistry<RootElementDeclaration> rootElements;
+  final List<EndpointInterface> endpointInterfaces;
+  final List<RootResource> rootResources;
+  final List<TypeDeclaration> jaxrsProviders;
   private File fileOutputDirectory = null;
   private String baseDeploymentAddress = null;
   private EnunciateConfiguration enunciateConfig = null;
   final Map<String, JsonSchemaInfo> idsToJsonSchemas;
   private File wadlFile = null;
+  private EnunciateFreemarkerModel forkOf = null;
+  private final Map<String, Object> variables = new LinkedHashMap<String, Object>();
+  private final Map<String, Object> changedVariables = new LinkedHashMap<String, Object>();
+  private static final Object REMOVED = new Object();
 
   public EnunciateFreemarkerModel() {
     this.namespacesToPrefixes = loadKnownNamespaces();
@@ -101,6 +102,11 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
     this.namespacesToSchemas = new HashMap<String, SchemaInfo>();
     this.namespacesToWsdls = new HashMap<String, WsdlInfo>();
     this.idsToJsonSchemas = new HashMap<String, JsonSchemaInfo>();
+    this.typeDefinitions = new DeclarationRegistry<TypeDefinition>();
+    this.rootElements = new DeclarationRegistry<RootElementDeclaration>();
+    this.endpointInterfaces = new ArrayList<EndpointInterface>();
+    this.rootResources = new ArrayList<RootResource>();
+    this.jaxrsProviders = new ArrayList<TypeDeclaration>();
 
     setVariable("knownNamespaces", new ArrayList<String>(this.namespacesToPrefixes.keySet()));
     setVariable("ns2prefix", this.namespacesToPrefixes);
@@ -113,6 +119,113 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
     setVariable("baseDeploymentAddress", "");
   }
 
+  /**
+   * Creates a fork of the specified model. The fork shares the API model (type definitions, endpoints, schemas, etc.) of
+   * the original model, but has its own copy of the template variables, file output directory and object wrapper so
+   * it can be used by a module that is generating concurrently with other modules.
+   *
+   * @param model The model to fork.
+   */
+  protected EnunciateFreemarkerModel(EnunciateFreemarkerModel model) {
+    this.prefixIndex = model.prefixIndex;
+    this.namespacesToPrefixes = model.namespacesToPrefixes;
+    this.contentTypesToIds = model.contentTypesToIds;
+    this.knownTypes = model.knownTypes;
+    this.knownJsonTypes = model.knownJsonTypes;
+    this.namespacesToSchemas = model.namespacesToSchemas;
+    this.namespacesToWsdls = model.namespacesToWsdls;
+    this.idsToJsonSchemas = model.idsToJsonSchemas;
+    this.typeDefinitions = model.typeDefinitions;
+    this.rootElements = model.rootElements;
+    this.endpointInterfaces = model.endpointInterfaces;
+    this.rootResources = model.rootResources;
+    this.jaxrsProviders = model.jaxrsProviders;
+    this.fileOutputDirectory = model.fileOutputDirectory;
+    this.baseDeploymentAddress = model.baseDeploymentAddress;
+    this.enunciateConfig = model.enunciateConfig;
+    this.wadlFile = model.wadlFile;
+    this.forkOf = model;
+
+    synchronized (model) {
+      for (Map.Entry<String, Object> variable : model.variables.entrySet()) {
+        put(variable.getKey(), variable.getValue());
+      }
+    }
+
+    //the variables copied from the original model weren't set on the fork.
+    this.changedVariables.clear();
+  }
+
+  /**
+   * Fork this model.
+   *
+   * @return The fork.
+   * @see #EnunciateFreemarkerModel(EnunciateFreemarkerModel)
+   */
+  public EnunciateFreemarkerModel fork() {
+    return new EnunciateFreemarkerModel(this);
+  }
+
+  /**
+   * Whether this model is a fork (or a fork of a fork) of the specified model.
+   *
+   * @param model The model.
+   * @return Whether this model is a fork of the specified model.
+   */
+  public boolean isForkOf(EnunciateFreemarkerModel model) {
+    EnunciateFreemarkerModel origin = this.forkOf;
+    while (origin != null) {
+      if (origin == model) {
+        return true;
+      }
+      origin = origin.forkOf;
+    }
+    return false;
+  }
+
+  /**
+   * Joins a fork of this model back into this model: the template variables that were set on the fork (and the wadl
+   * file, if one was established) are set on this model, and the template variables that were removed from the fork are
+   * removed from this model. The variables the fork copied from this model are left alone.
+   *
+   * @param fork The fork.
+   */
+  public void join(EnunciateFreemarkerModel fork) {
+    Map<String, Object> changes;
+    synchronized (fork) {
+      changes = new LinkedHashMap<String, Object>(fork.changedVariables);
+    }
+
+    for (Map.Entry<String, Object> change : changes.entrySet()) {
+      if (change.getValue() == REMOVED) {
+        remove(change.getKey());
+      }
+      else {
+        put(change.getKey(), change.getValue());
+      }
+    }
+
+    if (changes.containsKey("wadlFile") && fork.wadlFile != null) {
+      this.wadlFile = fork.wadlFile;
+    }
+  }
+
+  @Override
+  public synchronized void put(String key, Object value) {
+    super.put(key, value);
+    this.variables.put(key, value);
+    this.changedVariables.remove(key);
+    this.changedVariables.put(key, value);
+  }
+
+  @Override
+  public synchronized void remove(String key) {
+    super.remove(key);
+    this.variables.remove(key);
+    this.changedVariables.remove(key);
+    this.changedVariables.put(key, REMOVED);
+  }
+
   /**
    * Load the known content types (map of content type to id).
    *
@@ -385,17 +498,16 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
    */
   public void add(TypeDefinition typeDef) {
     if (typeDef.getAnnotation(XmlTransient.class) == null) { //make sure we don't add a transient type definition.
-      if (typeDef.getAnnotation(XmlRootElement.class) != null && Collections.binarySearch(this.rootElements, typeDef, CLASS_COMPARATOR) < 0) {
+      if (typeDef.getAnnotation(XmlRootElement.class) != null && !this.rootElements.containsName(typeDef.getQualifiedName())) {
         //if the type definition is a root element, we want to make sure it's added to the model.
         add(new RootElementDeclaration((ClassDeclaration) typeDef.getDelegate(), typeDef));
       }
 
-      int position = Collections.binarySearch(this.typeDefinitions, typeDef, CLASS_COMPARATOR);
-      if (position < 0 && !isKnownType(typeDef)) {
+      if (!this.typeDefinitions.containsName(typeDef.getQualifiedName()) && !isKnownType(typeDef)) {
         if (getEnunciateConfig() != null && getEnunciateConfig().isIncludeReferenceTrailInErrors()) {
           typeDef.getReferencedFrom().add(currentReferenceLocation());
         }
-        this.typeDefinitions.add(-position - 1, typeDef);
+        this.typeDefinitions.register(typeDef);
         add(typeDef.getSchema());
 
         String namespace = typeDef.getNamespace();
@@ -833,9 +945,7 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
    * @param rootElement The root element to add.
    */
   public void add(RootElementDeclaration rootElement) {
-    int position = Collections.binarySearch(this.rootElements, rootElement, CLASS_COMPARATOR);
-    if (position < 0) {
-      this.rootElements.add(-position - 1, rootElement);
+    if (this.rootElements.register(rootElement)) {
       add(rootElement.getSchema());
 
       String namespace = rootElement.getNamespace();
@@ -1268,12 +1378,14 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
    * @return The prefix for the namespace.
    */
   public String addNamespace(String namespace) {
-    String prefix = namespacesToPrefixes.get(namespace);
-    if (prefix == null) {
-      prefix = generatePrefix(namespace);
-      namespacesToPrefixes.put(namespace, prefix);
+    synchronized (namespacesToPrefixes) {
+      String prefix = namespacesToPrefixes.get(namespace);
+      if (prefix == null) {
+        prefix = generatePrefix(namespace);
+        namespacesToPrefixes.put(namespace, prefix);
+      }
+      return prefix;
     }
-    return prefix;
   }
 
   /**
@@ -1282,10 +1394,12 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
    * @param contentType The content type to add.
    */
   public void addContentType(String contentType) {
-    if (!contentTypesToIds.containsKey(contentType)) {
-      String id = getDefaultContentTypeId(contentType);
-      if (id != null) {
-        contentTypesToIds.put(contentType, id);
+    synchronized (contentTypesToIds) {
+      if (!contentTypesToIds.containsKey(contentType)) {
+        String id = getDefaultContentTypeId(contentType);
+        if (id != null) {
+          contentTypesToIds.put(contentType, id);
+        }
       }
     }
   }
@@ -1402,12 +1516,17 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
    * @return The type definition.
    */
   public TypeDefinition findTypeDefinition(ClassDeclaration declaration) {
-    int index = Collections.binarySearch(this.typeDefinitions, declaration, CLASS_COMPARATOR);
-    if (index >= 0) {
-      return this.typeDefinitions.get(index);
-    }
+    return findTypeDefinition(declaration.getQualifiedName());
+  }
 
-    return null;
+  /**
+   * Find the type definition for a class given the class's qualified name, or null if the class hasn't been added to the model.
+   *
+   * @param qualifiedName The qualified name of the class.
+   * @return The type definition.
+   */
+  public TypeDefinition findTypeDefinition(String qualifiedName) {
+    return this.typeDefinitions.find(qualifiedName);
   }
 
   /**
@@ -1434,11 +1553,7 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
    * @return The root element declaration, or null if the declaration hasn't been added to the model.
    */
   public RootElementDeclaration findRootElementDeclaration(ClassDeclaration declaration) {
-    int index = Collections.binarySearch(this.rootElements, declaration, CLASS_COMPARATOR);
-    if (index >= 0) {
-      return this.rootElements.get(index);
-    }
-    return null;
+    return this.rootElements.find(declaration.getQualifiedName());
   }
 
   /**
@@ -1546,12 +1661,12 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
   }
 
   /**
-   * The list of type definitions found in the model.
+   * The list of type definitions found in the model, sorted by qualified name.
    *
    * @return The list of type definitions found in the model.
    */
   public List<TypeDefinition> getTypeDefinitions() {
-    return typeDefinitions;
+    return typeDefinitions.sorted();
   }
 
   /**
@@ -1564,12 +1679,12 @@ public class EnunciateFreemarkerModel extends FreemarkerModel {
   }
 
   /**
-   * The list of root element declarations found in the model.
+   * The list of root element declarations found in the model, sorted by qualified name.
    *
    * @return The list of root element declarations found in the model.
    */
   public List<RootElementDeclaration> getRootElementDeclarations() {
-    return rootElements;
+    return rootElements.sorted();
   }
 
   /**
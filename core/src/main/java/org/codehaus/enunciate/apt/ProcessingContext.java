@@ -0,0 +1,172 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.apt;
+
+import com.sun.mirror.apt.AnnotationProcessorEnvironment;
+import net.sf.jelly.apt.Context;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The context of an execution of Enunciate's annotation processing: the processing environment and the caches that
+ * are derived from it.
+ * <p/>
+ * APT-Jelly keeps the environment in a static field, which makes concurrent executions in the same JVM (e.g. a parallel
+ * Maven build) clobber each other. To isolate the executions, each execution binds its own context to the thread that
+ * runs it (and explicitly to the worker threads it uses), and APT-Jelly's static environment is replaced by a proxy that
+ * delegates to the environment bound to the calling thread.
+ *
+ * @author Ryan Heaton
+ */
+public final class ProcessingContext {
+
+  private static final ThreadLocal<ProcessingContext> CURRENT = new ThreadLocal<ProcessingContext>();
+  private static final ProcessingContext GLOBAL = new ProcessingContext(null);
+  private static final AnnotationProcessorEnvironment THREAD_BOUND_ENVIRONMENT = (AnnotationProcessorEnvironment)
+    Proxy.newProxyInstance(ProcessingContext.class.getClassLoader(), new Class[]{AnnotationProcessorEnvironment.class}, new ThreadBoundEnvironmentHandler());
+
+  private final AnnotationProcessorEnvironment environment;
+  private final ConcurrentMap<String, ConcurrentMap<?, ?>> caches = new ConcurrentHashMap<String, ConcurrentMap<?, ?>>();
+
+  private ProcessingContext(AnnotationProcessorEnvironment environment) {
+    this.environment = environment;
+  }
+
+  /**
+   * Bind a new context for the specified environment to the current thread.
+   *
+   * @param environment The environment.
+   * @return The context.
+   */
+  public static ProcessingContext bind(AnnotationProcessorEnvironment environment) {
+    ProcessingContext context = new ProcessingContext(environment);
+    CURRENT.set(context);
+    installThreadBoundEnvironment();
+    return context;
+  }
+
+  /**
+   * Bind an existing context to the current thread, e.g. to a worker thread of the execution the context belongs to.
+   * The context should be unbound when the work is done.
+   *
+   * @param context The context.
+   */
+  public static void bind(ProcessingContext context) {
+    CURRENT.set(context);
+  }
+
+  /**
+   * Unbind the context from the current thread.
+   */
+  public static void unbind() {
+    CURRENT.remove();
+  }
+
+  /**
+   * The context bound to the current thread. If no context is bound, a shared context is returned.
+   *
+   * @return The context bound to the current thread.
+   */
+  public static ProcessingContext current() {
+    ProcessingContext context = CURRENT.get();
+    return context == null ? GLOBAL : context;
+  }
+
+  /**
+   * The processing environment of this context.
+   *
+   * @return The processing environment of this context.
+   */
+  public AnnotationProcessorEnvironment getEnvironment() {
+    return this.environment == null ? Context.getCurrentEnvironment() : this.environment;
+  }
+
+  /**
+   * Get a named cache of this context. Caches of values derived from the declarations of the environment (which are
+   * only valid for the execution) should be kept here instead of in static fields.
+   *
+   * @param name The name of the cache.
+   * @return The cache.
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> ConcurrentMap<K, V> getCache(String name) {
+    ConcurrentMap<K, V> cache = (ConcurrentMap<K, V>) this.caches.get(name);
+    if (cache == null) {
+      cache = new ConcurrentHashMap<K, V>();
+      ConcurrentMap<K, V> existing = (ConcurrentMap<K, V>) this.caches.putIfAbsent(name, cache);
+      if (existing != null) {
+        cache = existing;
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Install the thread-bound environment as APT-Jelly's current environment, if it isn't already installed.
+   */
+  private static synchronized void installThreadBoundEnvironment() {
+    if (Context.getCurrentEnvironment() != THREAD_BOUND_ENVIRONMENT) {
+      try {
+        //the setter is package-private.
+        Method setter = Context.class.getDeclaredMethod("setCurrentEnvironment", AnnotationProcessorEnvironment.class);
+        setter.setAccessible(true);
+        setter.invoke(null, THREAD_BOUND_ENVIRONMENT);
+      }
+      catch (Exception e) {
+        throw new IllegalStateException("Unable to establish the annotation processing environment.", e);
+      }
+    }
+  }
+
+  /**
+   * Handler for the thread-bound environment.
+   */
+  private static class ThreadBoundEnvironmentHandler implements InvocationHandler {
+
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        String name = method.getName();
+        if ("equals".equals(name)) {
+          return proxy == args[0];
+        }
+        else if ("hashCode".equals(name)) {
+          return System.identityHashCode(proxy);
+        }
+        else {
+          return "thread-bound annotation processing environment";
+        }
+      }
+
+      ProcessingContext context = CURRENT.get();
+      if (context == null || context.environment == null) {
+        throw new IllegalStateException("No annotation processing environment has been bound to thread " + Thread.currentThread().getName() + ".");
+      }
+
+      try {
+        return method.invoke(context.environment, args);
+      }
+      catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
@@ -52,6 +52,7 @@ public class WebAppConfig {
   private boolean doCompile = true;
   private boolean doLibCopy = true;
   private boolean doPackage = true;
+  private boolean hardLinks = false;
   private final Map<String, String> webXmlAttributes = new HashMap<String, String>();
 
   private final List<FilterComponent> globalServletFilters = new ArrayList<FilterComponent>();
@@ -132,6 +133,26 @@ public class WebAppConfig {
     this.includeClasspathLibs = includeClasspathLibs;
   }
 
+  /**
+   * Whether to hard-link the files of the expanded war to their sources (e.g. the libraries) instead of copying them,
+   * where the platform supports it.
+   *
+   * @return Whether to hard-link the files of the expanded war to their sources.
+   */
+  public boolean isHardLinks() {
+    return hardLinks;
+  }
+
+  /**
+   * Whether to hard-link the files of the expanded war to their sources (e.g. the libraries) instead of copying them,
+   * where the platform supports it.
+   *
+   * @param hardLinks Whether to hard-link the files of the expanded war to their sources.
+   */
+  public void setHardLinks(boolean hardLinks) {
+    this.hardLinks = hardLinks;
+  }
+
   /**
    * Whether to exclude the default libs.
    *
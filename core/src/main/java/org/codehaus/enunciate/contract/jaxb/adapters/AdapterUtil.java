@@ -23,6 +23,7 @@ import com.sun.mirror.declaration.PackageDeclaration;
 import com.sun.mirror.declaration.TypeDeclaration;
 import com.sun.mirror.type.*;
 import net.sf.jelly.apt.Context;
+import org.codehaus.enunciate.apt.ProcessingContext;
 import org.codehaus.enunciate.contract.jaxb.Accessor;
 import static org.codehaus.enunciate.contract.jaxb.util.JAXBUtil.unwrapComponentType;
 import org.codehaus.enunciate.contract.jaxws.WebParam;
@@ -34,6 +35,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Logic for the XML adapter stuff according to the JAXB specification. 
@@ -42,7 +44,7 @@ import java.util.Map;
  */
 public class AdapterUtil {
 
-  private static final HashMap<String, HashMap<String, XmlJavaTypeAdapter>> ADAPTERS_BY_PACKAGE = new HashMap<String, HashMap<String, XmlJavaTypeAdapter>>();
+  private static final String ADAPTERS_BY_PACKAGE = AdapterUtil.class.getName() + "#adaptersByPackage";
 
   /**
    * Finds the adapter type for the specified declaration, if any.
@@ -140,11 +142,11 @@ public class AdapterUtil {
    * @return The adapters for the package.
    */
   private static Map<String, XmlJavaTypeAdapter> getAdaptersOfPackage(PackageDeclaration pckg) {
-    HashMap<String, XmlJavaTypeAdapter> adaptersOfPackage = ADAPTERS_BY_PACKAGE.get(pckg.getQualifiedName());
+    ConcurrentMap<String, Map<String, XmlJavaTypeAdapter>> adaptersByPackage = ProcessingContext.current().getCache(ADAPTERS_BY_PACKAGE);
+    Map<String, XmlJavaTypeAdapter> adaptersOfPackage = adaptersByPackage.get(pckg.getQualifiedName());
 
     if (adaptersOfPackage == null) {
       adaptersOfPackage = new HashMap<String, XmlJavaTypeAdapter>();
-      ADAPTERS_BY_PACKAGE.put(pckg.getQualifiedName(), adaptersOfPackage);
 
       XmlJavaTypeAdapter javaType = pckg.getAnnotation(XmlJavaTypeAdapter.class);
       XmlJavaTypeAdapters javaTypes = pckg.getAnnotation(XmlJavaTypeAdapters.class);
@@ -185,6 +187,11 @@ public class AdapterUtil {
           adaptersOfPackage.put(typeFqn, adaptedTypeInfo);
         }
       }
+
+      Map<String, XmlJavaTypeAdapter> existing = adaptersByPackage.putIfAbsent(pckg.getQualifiedName(), adaptersOfPackage);
+      if (existing != null) {
+        adaptersOfPackage = existing;
+      }
     }
 
     return adaptersOfPackage;
@@ -28,6 +28,7 @@ import net.sf.jelly.apt.Context;
 import net.sf.jelly.apt.decorations.TypeMirrorDecorator;
 import net.sf.jelly.apt.decorations.declaration.DecoratedTypeDeclaration;
 import net.sf.jelly.apt.decorations.type.DecoratedTypeMirror;
+import org.codehaus.enunciate.apt.ProcessingContext;
 import org.codehaus.enunciate.contract.jaxb.Accessor;
 import org.codehaus.enunciate.contract.jaxb.adapters.Adaptable;
 import static org.codehaus.enunciate.contract.jaxb.util.JAXBUtil.unwrapComponentType;
@@ -36,6 +37,8 @@ import org.codehaus.enunciate.contract.validation.ValidationException;
 import javax.xml.bind.annotation.XmlSchemaType;
 import javax.xml.bind.annotation.XmlSchemaTypes;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.Arrays;
 import java.util.ArrayList;
 
@@ -46,7 +49,7 @@ import java.util.ArrayList;
  */
 public class XmlTypeFactory {
 
-  private static final HashMap<String, HashMap<String, XmlSchemaType>> EXPLICIT_ELEMENTS_BY_PACKAGE = new HashMap<String, HashMap<String, XmlSchemaType>>();
+  private static final String EXPLICIT_ELEMENTS_BY_PACKAGE = XmlTypeFactory.class.getName() + "#explicitElementsByPackage";
 
   /**
    * Find the specified type of the given adaptable element, if it exists.
@@ -90,10 +93,10 @@ public class XmlTypeFactory {
     if ((schemaType == null) && (typeMirror instanceof DeclaredType)) {
       PackageDeclaration pckg = accessor.getDeclaringType().getPackage();
       String packageName = pckg.getQualifiedName();
-      HashMap<String, XmlSchemaType> explicitTypes = EXPLICIT_ELEMENTS_BY_PACKAGE.get(packageName);
+      ConcurrentMap<String, Map<String, XmlSchemaType>> explicitElementsByPackage = ProcessingContext.current().getCache(EXPLICIT_ELEMENTS_BY_PACKAGE);
+      Map<String, XmlSchemaType> explicitTypes = explicitElementsByPackage.get(packageName);
       if (explicitTypes == null) {
         explicitTypes = new HashMap<String, XmlSchemaType>();
-        EXPLICIT_ELEMENTS_BY_PACKAGE.put(packageName, explicitTypes);
 
         XmlSchemaType schemaTypeInfo = pckg.getAnnotation(XmlSchemaType.class);
         XmlSchemaTypes schemaTypes = pckg.getAnnotation(XmlSchemaTypes.class);
@@ -129,6 +132,10 @@ public class XmlTypeFactory {
           }
         }
 
+        Map<String, XmlSchemaType> existing = explicitElementsByPackage.putIfAbsent(packageName, explicitTypes);
+        if (existing != null) {
+          explicitTypes = existing;
+        }
       }
 
       schemaType = explicitTypes.get(((DeclaredType) typeMirror).getDeclaration().getQualifiedName());
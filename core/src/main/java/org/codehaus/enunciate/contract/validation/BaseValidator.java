@@ -31,6 +31,12 @@ import java.util.List;
 public class BaseValidator implements Validator {
 
   public ValidationResult validate(EnunciateFreemarkerModel model) {
+    ValidationEngine engine = ValidationEngine.current();
+    if (engine != null) {
+      //the engine partitions the model and (possibly) runs the checks concurrently.
+      return engine.validatePartitions(this, model);
+    }
+
     ValidationResult validationResult = new ValidationResult();
 
     for (EndpointInterface ei : model.getEndpointInterfaces()) {
@@ -51,6 +57,18 @@ public class BaseValidator implements Validator {
     return validationResult;
   }
 
+  /**
+   * Whether the checks of this validator can be run concurrently on the partitions of the model (see
+   * {@link ValidationEngine#validatePartitions(BaseValidator, org.codehaus.enunciate.apt.EnunciateFreemarkerModel)}).
+   * A validator whose checks share state (e.g. the endpoints it has already visited) isn't partition-safe: its checks
+   * are always run in turn, in model order.
+   *
+   * @return false, unless overridden.
+   */
+  public boolean isPartitionSafe() {
+    return false;
+  }
+
   /**
    * @return An empty result.
    */
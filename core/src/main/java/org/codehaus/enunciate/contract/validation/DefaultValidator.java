@@ -835,4 +835,12 @@ public class DefaultValidator extends BaseValidator implements ConfigurableRules
 
     return result;
   }
+
+  /**
+   * @return true (the checks of this validator don't share any state).
+   */
+  @Override
+  public boolean isPartitionSafe() {
+    return true;
+  }
 }
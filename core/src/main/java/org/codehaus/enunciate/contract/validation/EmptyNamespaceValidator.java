@@ -81,4 +81,12 @@ public class EmptyNamespaceValidator extends BaseValidator {
     }
     return result;
   }
+
+  /**
+   * @return true (the checks of this validator don't share any state).
+   */
+  @Override
+  public boolean isPartitionSafe() {
+    return true;
+  }
 }
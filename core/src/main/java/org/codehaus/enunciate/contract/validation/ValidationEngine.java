@@ -0,0 +1,260 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.contract.validation;
+
+import net.sf.jelly.apt.freemarker.FreemarkerModel;
+import org.codehaus.enunciate.apt.EnunciateFreemarkerModel;
+import org.codehaus.enunciate.apt.ProcessingContext;
+import org.codehaus.enunciate.contract.jaxb.EnumTypeDefinition;
+import org.codehaus.enunciate.contract.jaxb.RootElementDeclaration;
+import org.codehaus.enunciate.contract.jaxb.SimpleTypeDefinition;
+import org.codehaus.enunciate.contract.jaxb.TypeDefinition;
+import org.codehaus.enunciate.contract.jaxrs.RootResource;
+import org.codehaus.enunciate.contract.jaxws.EndpointInterface;
+import org.codehaus.enunciate.main.BuildProfile;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Engine that runs the validators of a {@link ValidatorChain}. The model is partitioned into its endpoint interfaces,
+ * type definitions, root elements and root resources, and the checks of a {@link BaseValidator} on each partition can
+ * be run concurrently if the validator is {@link BaseValidator#isPartitionSafe() partition-safe}. The checks of any other
+ * validator are run in turn, in model order. The results of the checks are always aggregated in model order, so the
+ * validation messages are the same (and in the same order) as they are when all the checks are run in turn.
+ * <p/>
+ * The engine keeps the time spent in each validator and in each kind of check of each validator.
+ *
+ * @author Ryan Heaton
+ */
+public class ValidationEngine {
+
+  private static final ThreadLocal<ValidationEngine> CURRENT = new ThreadLocal<ValidationEngine>();
+
+  private final ExecutorService executor;
+  private final Map<String, Long> timings = new LinkedHashMap<String, Long>();
+  private String currentLabel;
+
+  /**
+   * @param threads The number of threads with which to run the checks (1 runs them in turn on the calling thread).
+   */
+  public ValidationEngine(int threads) {
+    this.executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+  }
+
+  /**
+   * The engine that is running validators on the current thread, if any.
+   *
+   * @return The engine that is running validators on the current thread, or null.
+   */
+  public static ValidationEngine current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Run a validator against the model.
+   *
+   * @param label The label of the validator.
+   * @param validator The validator.
+   * @param model The model.
+   * @return The result of the validation.
+   */
+  public ValidationResult validate(String label, Validator validator, EnunciateFreemarkerModel model) {
+    ValidationEngine previous = CURRENT.get();
+    String previousLabel = this.currentLabel;
+    CURRENT.set(this);
+    this.currentLabel = label;
+    long start = System.nanoTime();
+    try {
+      return validator.validate(model);
+    }
+    finally {
+      addTiming(label, System.nanoTime() - start);
+      this.currentLabel = previousLabel;
+      CURRENT.set(previous);
+    }
+  }
+
+  /**
+   * Run the checks of a validator on each partition of the model (endpoint interfaces, type definitions, root elements and
+   * root resources). The checks are run concurrently only if the engine has more than one thread and the validator is
+   * partition-safe.
+   *
+   * @param validator The validator.
+   * @param model The model.
+   * @return The aggregated result of the checks, in model order.
+   */
+  public ValidationResult validatePartitions(final BaseValidator validator, EnunciateFreemarkerModel model) {
+    List<Check> checks = new ArrayList<Check>();
+    for (final EndpointInterface ei : model.getEndpointInterfaces()) {
+      checks.add(new Check("validateEndpointInterface") {
+        protected ValidationResult run() {
+          return validator.validateEndpointInterface(ei);
+        }
+      });
+    }
+
+    for (final TypeDefinition typeDefinition : model.getTypeDefinitions()) {
+      String name = typeDefinition instanceof EnumTypeDefinition ? "validateEnumType" : typeDefinition instanceof SimpleTypeDefinition ? "validateSimpleType" : "validateComplexType";
+      checks.add(new Check(name) {
+        protected ValidationResult run() {
+          return typeDefinition.accept(validator);
+        }
+      });
+    }
+
+    for (final RootElementDeclaration rootElement : model.getRootElementDeclarations()) {
+      checks.add(new Check("validateRootElement") {
+        protected ValidationResult run() {
+          return validator.validateRootElement(rootElement);
+        }
+      });
+    }
+
+    final List<RootResource> rootResources = model.getRootResources();
+    checks.add(new Check("validateRootResources") {
+      protected ValidationResult run() {
+        return validator.validateRootResources(rootResources);
+      }
+    });
+
+    ValidationResult result = new ValidationResult();
+    if (this.executor == null || !validator.isPartitionSafe()) {
+      for (Check check : checks) {
+        result.aggregate(check.call());
+      }
+    }
+    else {
+      List<Future<ValidationResult>> results = new ArrayList<Future<ValidationResult>>(checks.size());
+      for (Check check : checks) {
+        results.add(this.executor.submit(new ModelBoundCheck(check, model)));
+      }
+
+      for (Future<ValidationResult> checkResult : results) {
+        result.aggregate(await(checkResult));
+      }
+    }
+
+    for (Check check : checks) {
+      addTiming(this.currentLabel + "." + check.name, check.nanos);
+    }
+
+    return result;
+  }
+
+  private ValidationResult await(Future<ValidationResult> result) {
+    try {
+      return result.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while validating.");
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      else {
+        throw new IllegalStateException(cause);
+      }
+    }
+  }
+
+  private synchronized void addTiming(String key, long nanos) {
+    Long total = this.timings.get(key);
+    this.timings.put(key, total == null ? nanos : total + nanos);
+  }
+
+  /**
+   * The time (in nanoseconds) spent in each validator (keyed by label) and in each kind of check of each validator (keyed by
+   * label and check, e.g. "core.validateComplexType"). The time spent in the checks of a validator is the sum of the time
+   * spent in each check, whichever thread it ran on.
+   *
+   * @return The timings.
+   */
+  public synchronized Map<String, Long> getTimings() {
+    return new LinkedHashMap<String, Long>(this.timings);
+  }
+
+  /**
+   * Shut down the engine.
+   */
+  public void shutdown() {
+    if (this.executor != null) {
+      this.executor.shutdownNow();
+    }
+  }
+
+  /**
+   * A check of a partition of the model.
+   */
+  private abstract static class Check implements Callable<ValidationResult> {
+
+    private final String name;
+    private long nanos;
+
+    protected Check(String name) {
+      this.name = name;
+    }
+
+    public ValidationResult call() {
+      long start = System.nanoTime();
+      try {
+        return run();
+      }
+      finally {
+        this.nanos = System.nanoTime() - start;
+      }
+    }
+
+    protected abstract ValidationResult run();
+  }
+
+  /**
+   * A check run on a thread of the engine, with the model established for the thread.
+   */
+  private static class ModelBoundCheck implements Callable<ValidationResult> {
+
+    private final Check check;
+    private final EnunciateFreemarkerModel model;
+    private final ProcessingContext context = ProcessingContext.current();
+    private final BuildProfile.Span parentSpan = BuildProfile.current();
+
+    private ModelBoundCheck(Check check, EnunciateFreemarkerModel model) {
+      this.check = check;
+      this.model = model;
+    }
+
+    public ValidationResult call() throws Exception {
+      FreemarkerModel.set(this.model);
+      ProcessingContext.bind(this.context);
+      BuildProfile.Span span = this.parentSpan.fork("validate", this.check.name);
+      try {
+        return this.check.call();
+      }
+      finally {
+        span.end();
+        ProcessingContext.unbind();
+        FreemarkerModel.set(null);
+      }
+    }
+  }
+}
@@ -27,13 +27,16 @@ import org.codehaus.enunciate.contract.jaxrs.RootResource;
 import java.util.*;
 
 /**
- * Chains a set of validators.
+ * Chains a set of validators. The validators are run by a {@link ValidationEngine}, which can run the checks of each
+ * partition-safe validator concurrently.
  *
  * @author Ryan Heaton
  */
 public class ValidatorChain implements Validator {
 
   private final Map<String, Validator> validators = new LinkedHashMap<String, Validator>();
+  private int threads = 1;
+  private Map<String, Long> timings = Collections.emptyMap();
 
   public ValidatorChain() {
   }
@@ -67,12 +70,47 @@ public class ValidatorChain implements Validator {
     this.validators.put(label, validator);
   }
 
+  /**
+   * The number of threads with which to run the checks of the validators. The default (1) runs the checks in turn.
+   *
+   * @return The number of threads with which to run the checks of the validators.
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * The number of threads with which to run the checks of the validators.
+   *
+   * @param threads The number of threads with which to run the checks of the validators.
+   */
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * The time (in nanoseconds) spent in each validator and in each kind of check of each validator during the last validation.
+   *
+   * @return The timings.
+   * @see ValidationEngine#getTimings()
+   */
+  public Map<String, Long> getTimings() {
+    return timings;
+  }
+
   //Inherited.
   public ValidationResult validate(EnunciateFreemarkerModel model) {
     ValidationResult result = new ValidationResult();
 
-    for (Map.Entry<String, Validator> validatorEntry : validators.entrySet()) {
-      result.aggregate(validatorEntry.getKey(), validatorEntry.getValue().validate(model));
+    ValidationEngine engine = new ValidationEngine(this.threads);
+    try {
+      for (Map.Entry<String, Validator> validatorEntry : validators.entrySet()) {
+        result.aggregate(validatorEntry.getKey(), engine.validate(validatorEntry.getKey(), validatorEntry.getValue(), model));
+      }
+    }
+    finally {
+      engine.shutdown();
+      this.timings = engine.getTimings();
     }
 
     return result;
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.main;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * A manifest of the outputs of a build. For each output file (or directory), the manifest records a fingerprint of the
+ * contents of the inputs the output was built from, along with a stamp of the output itself. An output is up-to-date
+ * if it was built from inputs with the same fingerprint and hasn't been touched since.
+ *
+ * @author Ryan Heaton
+ */
+public class BuildManifest {
+
+  private final Properties entries = new Properties();
+
+  /**
+   * Load the manifest from the specified file. If the file doesn't exist or can't be read, an empty manifest is returned.
+   *
+   * @param file The file.
+   * @return The manifest.
+   */
+  public static BuildManifest load(File file) {
+    BuildManifest manifest = new BuildManifest();
+    if (file != null && file.exists()) {
+      try {
+        InputStream in = new FileInputStream(file);
+        try {
+          manifest.entries.load(in);
+        }
+        finally {
+          in.close();
+        }
+      }
+      catch (IOException e) {
+        //corrupt manifest; everything will be rebuilt.
+        manifest.entries.clear();
+      }
+    }
+    return manifest;
+  }
+
+  /**
+   * Store the manifest to the specified file.
+   *
+   * @param file The file.
+   */
+  public synchronized void store(File file) throws IOException {
+    if (file.getParentFile() != null) {
+      file.getParentFile().mkdirs();
+    }
+
+    OutputStream out = new FileOutputStream(file);
+    try {
+      this.entries.store(out, "Enunciate build manifest");
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Whether the specified output was built from inputs with the specified fingerprint and hasn't changed since.
+   *
+   * @param output The output file or directory.
+   * @param inputFingerprint The fingerprint of the inputs.
+   * @return Whether the output is up-to-date.
+   */
+  public synchronized boolean isUpToDate(File output, String inputFingerprint) {
+    String entry = this.entries.getProperty(output.getAbsolutePath());
+    return entry != null && output.exists() && entry.equals(inputFingerprint + ';' + stamp(output));
+  }
+
+  /**
+   * Record that the specified output was built from inputs with the specified fingerprint.
+   *
+   * @param output The output file or directory.
+   * @param inputFingerprint The fingerprint of the inputs.
+   */
+  public synchronized void record(File output, String inputFingerprint) {
+    if (output.exists()) {
+      this.entries.setProperty(output.getAbsolutePath(), inputFingerprint + ';' + stamp(output));
+    }
+    else {
+      this.entries.remove(output.getAbsolutePath());
+    }
+  }
+
+  /**
+   * Computes a stamp for the output: the number of files, the total size of the files and the latest timestamp.
+   *
+   * @param output The output.
+   * @return The stamp.
+   */
+  protected String stamp(File output) {
+    long[] stamp = new long[3];
+    stampFiles(output, stamp);
+    return stamp[0] + ":" + stamp[1] + ":" + stamp[2];
+  }
+
+  private static void stampFiles(File file, long[] stamp) {
+    if (file.isDirectory()) {
+      File[] files = file.listFiles();
+      if (files != null) {
+        for (File child : files) {
+          stampFiles(child, stamp);
+        }
+      }
+    }
+    else {
+      stamp[0]++;
+      stamp[1] += file.length();
+      stamp[2] = Math.max(stamp[2], file.lastModified());
+    }
+  }
+
+  /**
+   * Computes a fingerprint of the contents of the specified files. The fingerprint doesn't depend on the timestamps
+   * of the files, so touching a file without changing it doesn't change the fingerprint.
+   *
+   * @param files The files.
+   * @return The fingerprint.
+   */
+  public static String fingerprint(Collection<File> files) throws IOException {
+    MessageDigest digest = newDigest();
+
+    byte[] buffer = new byte[1024 * 8];
+    for (File file : files) {
+      digest.update(file.getAbsolutePath().getBytes("utf-8"));
+      if (file.isFile()) {
+        InputStream in = new FileInputStream(file);
+        try {
+          int len;
+          while ((len = in.read(buffer)) > 0) {
+            digest.update(buffer, 0, len);
+          }
+        }
+        finally {
+          in.close();
+        }
+      }
+    }
+
+    return toHex(digest.digest());
+  }
+
+  /**
+   * Computes a fingerprint of the entries of the specified classpath: the path of each entry, along with the number of files,
+   * the total size of the files and the latest timestamp of the entry. A dependency that changes changes the fingerprint,
+   * even if the sources don't.
+   *
+   * @param classpath The classpath.
+   * @return The fingerprint.
+   */
+  public static String fingerprintClasspath(String classpath) throws IOException {
+    MessageDigest digest = newDigest();
+    if (classpath != null) {
+      for (String path : classpath.split(File.pathSeparator)) {
+        if (path.trim().length() == 0) {
+          continue;
+        }
+
+        File entry = new File(path);
+        long[] stamp = new long[3];
+        if (entry.exists()) {
+          stampFiles(entry, stamp);
+        }
+        digest.update((entry.getAbsolutePath() + '=' + stamp[0] + ':' + stamp[1] + ':' + stamp[2] + ';').getBytes("utf-8"));
+      }
+    }
+    return toHex(digest.digest());
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("MD5");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder fingerprint = new StringBuilder();
+    for (byte b : bytes) {
+      fingerprint.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return fingerprint.toString();
+  }
+}
@@ -0,0 +1,654 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.main;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Profile of an Enunciate build. The build is instrumented with spans (the steps, the module steps, the template processing,
+ * the compiles, the classpath scan, the copies and the zips). Each span records its wall time, the CPU time and the bytes
+ * allocated by its thread, and the number of files (and bytes) it wrote. The spans of a thread are nested: the files written
+ * by a span are counted in the span that encloses it. Work that is handed off to other threads is profiled by forking the
+ * span that hands it off (see {@link #current()} and {@link Span#fork(String, String)}): the forked spans are attributed to
+ * the module and target of their parent, and their files, CPU time and allocated bytes are counted in it.<br/><br/>
+ *
+ * The profile is written as a JSON report (the totals per target and per module, and the spans) and as a trace in the Chrome
+ * trace-event format, which can be loaded in chrome://tracing.
+ *
+ * @author Ryan Heaton
+ */
+public class BuildProfile {
+
+  /**
+   * A span that records nothing, used when the build isn't profiled.
+   */
+  public static final Span NO_SPAN = new Span(null, null, null, null, null, null);
+
+  /**
+   * The spans that are open on the current thread.
+   */
+  private static final ThreadLocal<LinkedList<Span>> OPEN_SPANS = new ThreadLocal<LinkedList<Span>>() {
+    @Override
+    protected LinkedList<Span> initialValue() {
+      return new LinkedList<Span>();
+    }
+  };
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+  private static final Method THREAD_ALLOCATED_BYTES = loadThreadAllocatedBytesMethod();
+
+  private final long startNanos = System.nanoTime();
+  private final List<Span> spans = new ArrayList<Span>();
+  private volatile Enunciate.Target target;
+
+  /**
+   * Start a span on the current thread.
+   *
+   * @param category The category of the span (e.g. "step", "module", "template").
+   * @param name The name of the span.
+   * @param module The module to which the span is attributed, or null to attribute it to the module of the enclosing span.
+   * @return The span.
+   */
+  public Span start(String category, String name, String module) {
+    LinkedList<Span> open = OPEN_SPANS.get();
+    Span parent = open.isEmpty() ? null : open.getLast();
+    if (module == null && parent != null) {
+      module = parent.module;
+    }
+    Enunciate.Target target = this.target;
+    Span span = new Span(this, parent, category, name, module, target == null ? null : target.toString().toLowerCase());
+    open.add(span);
+    return span;
+  }
+
+  /**
+   * The innermost span that is open on the current thread. A task that is to be run on another thread captures it so that
+   * the task can be profiled as a fork of it (see {@link Span#fork(String, String)}).
+   *
+   * @return The innermost span that is open on the current thread, or {@link #NO_SPAN} if there is none.
+   */
+  public static Span current() {
+    LinkedList<Span> open = OPEN_SPANS.get();
+    return open.isEmpty() ? NO_SPAN : open.getLast();
+  }
+
+  /**
+   * Set the target that is being executed. The spans that are started are attributed to this target.
+   *
+   * @param target The target that is being executed.
+   */
+  public void setTarget(Enunciate.Target target) {
+    this.target = target;
+  }
+
+  /**
+   * Record that a file was written by the innermost span that is open on the current thread, if any.
+   *
+   * @param file The file that was written.
+   */
+  public static void recordOutput(File file) {
+    LinkedList<Span> open = OPEN_SPANS.get();
+    if (!open.isEmpty()) {
+      open.getLast().addOutput(1, file.length());
+    }
+  }
+
+  /**
+   * The spans that have ended, in the order they ended.
+   *
+   * @return The spans that have ended.
+   */
+  public synchronized List<Span> getSpans() {
+    return new ArrayList<Span>(this.spans);
+  }
+
+  private synchronized void ended(Span span) {
+    this.spans.add(span);
+  }
+
+  /**
+   * Write the JSON report of this profile.
+   *
+   * @param out The writer.
+   */
+  public void writeReport(Writer out) throws IOException {
+    List<Span> spans = getSpans();
+    Map<String, Totals> targets = new LinkedHashMap<String, Totals>();
+    Map<String, Totals> modules = new TreeMap<String, Totals>();
+    for (Span span : spans) {
+      if ("step".equals(span.category)) {
+        totals(targets, span.name, null, span.name).add(span);
+      }
+      else if ("module".equals(span.category)) {
+        totals(modules, span.module + '|' + span.target, span.module, span.target).add(span);
+      }
+    }
+
+    out.write("{\n  \"wallMicros\": ");
+    out.write(String.valueOf(micros(System.nanoTime() - this.startNanos)));
+    out.write(",\n  \"targets\": [");
+    writeTotals(targets.values(), out);
+    out.write("],\n  \"modules\": [");
+    writeTotals(modules.values(), out);
+    out.write("],\n  \"spans\": [");
+    boolean first = true;
+    for (Span span : spans) {
+      out.write(first ? "\n    {" : ",\n    {");
+      first = false;
+      writeField("category", span.category, out);
+      out.write(", ");
+      writeField("name", span.name, out);
+      if (span.module != null) {
+        out.write(", ");
+        writeField("module", span.module, out);
+      }
+      if (span.target != null) {
+        out.write(", ");
+        writeField("target", span.target, out);
+      }
+      out.write(", ");
+      writeField("thread", span.threadName, out);
+      out.write(", \"startMicros\": ");
+      out.write(String.valueOf(micros(span.startNanos - this.startNanos)));
+      out.write(", ");
+      writeMetrics(span.getWallNanos(), span.getCpuNanos(), span.getAllocatedBytes(), span.getFiles(), span.getBytes(), out);
+      out.write('}');
+    }
+    out.write("\n  ]\n}\n");
+    out.flush();
+  }
+
+  /**
+   * Write this profile in the Chrome trace-event format.
+   *
+   * @param out The writer.
+   */
+  public void writeTrace(Writer out) throws IOException {
+    List<Span> spans = getSpans();
+    out.write("{\"displayTimeUnit\": \"ms\", \"traceEvents\": [");
+    Map<Long, String> threads = new TreeMap<Long, String>();
+    boolean first = true;
+    for (Span span : spans) {
+      threads.put(span.threadId, span.threadName);
+      out.write(first ? "\n  {" : ",\n  {");
+      first = false;
+      writeField("name", span.module == null || "module".equals(span.category) ? span.name : span.module + ": " + span.name, out);
+      out.write(", ");
+      writeField("cat", span.category, out);
+      out.write(", \"ph\": \"X\", \"pid\": 1, \"tid\": ");
+      out.write(String.valueOf(span.threadId));
+      out.write(", \"ts\": ");
+      out.write(String.valueOf(micros(span.startNanos - this.startNanos)));
+      out.write(", \"dur\": ");
+      out.write(String.valueOf(micros(span.getWallNanos())));
+      out.write(", \"args\": {");
+      if (span.target != null) {
+        writeField("target", span.target, out);
+        out.write(", ");
+      }
+      writeMetrics(-1, span.getCpuNanos(), span.getAllocatedBytes(), span.getFiles(), span.getBytes(), out);
+      out.write("}}");
+    }
+
+    for (Map.Entry<Long, String> thread : threads.entrySet()) {
+      out.write(first ? "\n  {" : ",\n  {");
+      first = false;
+      out.write("\"name\": \"thread_name\", \"ph\": \"M\", \"pid\": 1, \"tid\": ");
+      out.write(String.valueOf(thread.getKey()));
+      out.write(", \"args\": {");
+      writeField("name", thread.getValue(), out);
+      out.write("}}");
+    }
+    out.write("\n]}\n");
+    out.flush();
+  }
+
+  /**
+   * Write this profile: the JSON report to the specified file and the trace alongside it (see {@link #getTraceFile(File)}).
+   *
+   * @param reportFile The file to which to write the report.
+   */
+  public void write(File reportFile) throws IOException {
+    File dir = reportFile.getAbsoluteFile().getParentFile();
+    if (dir != null) {
+      dir.mkdirs();
+    }
+
+    Writer out = new OutputStreamWriter(new FileOutputStream(reportFile), "utf-8");
+    try {
+      writeReport(out);
+    }
+    finally {
+      out.close();
+    }
+
+    out = new OutputStreamWriter(new FileOutputStream(getTraceFile(reportFile)), "utf-8");
+    try {
+      writeTrace(out);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * The file to which the trace is written, given the file to which the report is written: "[name].trace.json" for
+   * "[name].json".
+   *
+   * @param reportFile The report file.
+   * @return The trace file.
+   */
+  public static File getTraceFile(File reportFile) {
+    String name = reportFile.getName();
+    if (name.endsWith(".json")) {
+      name = name.substring(0, name.length() - 5);
+    }
+    return new File(reportFile.getParentFile(), name + ".trace.json");
+  }
+
+  private static Totals totals(Map<String, Totals> totals, String key, String module, String target) {
+    Totals total = totals.get(key);
+    if (total == null) {
+      total = new Totals(module, target);
+      totals.put(key, total);
+    }
+    return total;
+  }
+
+  private static void writeTotals(Collection<Totals> totals, Writer out) throws IOException {
+    boolean first = true;
+    for (Totals total : totals) {
+      out.write(first ? "\n    {" : ",\n    {");
+      first = false;
+      if (total.module != null) {
+        writeField("module", total.module, out);
+        out.write(", ");
+      }
+      writeField("target", total.target, out);
+      out.write(", ");
+      writeMetrics(total.wallNanos, total.cpuNanos, total.allocatedBytes, total.files, total.bytes, out);
+      out.write('}');
+    }
+  }
+
+  private static void writeMetrics(long wallNanos, long cpuNanos, long allocatedBytes, int files, long bytes, Writer out) throws IOException {
+    if (wallNanos >= 0) {
+      out.write("\"wallMicros\": ");
+      out.write(String.valueOf(micros(wallNanos)));
+      out.write(", ");
+    }
+    if (cpuNanos >= 0) {
+      out.write("\"cpuMicros\": ");
+      out.write(String.valueOf(micros(cpuNanos)));
+      out.write(", ");
+    }
+    if (allocatedBytes >= 0) {
+      out.write("\"allocatedBytes\": ");
+      out.write(String.valueOf(allocatedBytes));
+      out.write(", ");
+    }
+    out.write("\"files\": ");
+    out.write(String.valueOf(files));
+    out.write(", \"bytes\": ");
+    out.write(String.valueOf(bytes));
+  }
+
+  private static void writeField(String name, String value, Writer out) throws IOException {
+    out.write('"');
+    out.write(name);
+    out.write("\": ");
+    if (value == null) {
+      out.write("null");
+      return;
+    }
+
+    out.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char ch = value.charAt(i);
+      switch (ch) {
+        case '"':
+          out.write("\\\"");
+          break;
+        case '\\':
+          out.write("\\\\");
+          break;
+        case '\n':
+          out.write("\\n");
+          break;
+        case '\r':
+          out.write("\\r");
+          break;
+        case '\t':
+          out.write("\\t");
+          break;
+        default:
+          if (ch < 0x20) {
+            out.write(String.format("\\u%04x", (int) ch));
+          }
+          else {
+            out.write(ch);
+          }
+      }
+    }
+    out.write('"');
+  }
+
+  private static long micros(long nanos) {
+    return nanos / 1000;
+  }
+
+  /**
+   * The CPU time of the current thread, or -1 if it's not supported.
+   *
+   * @return The CPU time of the current thread.
+   */
+  private static long currentThreadCpuTime() {
+    try {
+      return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+    catch (UnsupportedOperationException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Look up the (HotSpot-specific) method for the bytes allocated by a thread. The method is looked up reflectively
+   * because it isn't available on every JVM.
+   *
+   * @return The method, or null if it's not supported.
+   */
+  private static Method loadThreadAllocatedBytesMethod() {
+    try {
+      Class<?> threadsType = Class.forName("com.sun.management.ThreadMXBean");
+      if (threadsType.isInstance(THREADS)
+        && Boolean.TRUE.equals(threadsType.getMethod("isThreadAllocatedMemorySupported").invoke(THREADS))) {
+        return threadsType.getMethod("getThreadAllocatedBytes", long.class);
+      }
+    }
+    catch (Throwable e) {
+      //fall through...
+    }
+    return null;
+  }
+
+  /**
+   * The bytes allocated by the current thread, or -1 if it's not supported.
+   *
+   * @return The bytes allocated by the current thread.
+   */
+  private static long currentThreadAllocatedBytes() {
+    if (THREAD_ALLOCATED_BYTES == null) {
+      return -1;
+    }
+
+    try {
+      //-1 if the allocated memory measurement is disabled.
+      return (Long) THREAD_ALLOCATED_BYTES.invoke(THREADS, Thread.currentThread().getId());
+    }
+    catch (Exception e) {
+      return -1;
+    }
+  }
+
+  /**
+   * A span of the build.
+   */
+  public static class Span {
+
+    private final BuildProfile profile;
+    private final Span parent;
+    private final String category;
+    private final String name;
+    private final String module;
+    private final String target;
+    private final long threadId;
+    private final String threadName;
+    private final long startNanos;
+    private final long startCpuNanos;
+    private final long startAllocatedBytes;
+    private long endNanos = -1;
+    private long cpuNanos = -1;
+    private long allocatedBytes = -1;
+    private long forkedCpuNanos = 0;
+    private long forkedAllocatedBytes = 0;
+    private int files = 0;
+    private long bytes = 0;
+
+    private Span(BuildProfile profile, Span parent, String category, String name, String module, String target) {
+      this.profile = profile;
+      this.parent = parent;
+      this.category = category;
+      this.name = name;
+      this.module = module;
+      this.target = target;
+      Thread thread = Thread.currentThread();
+      this.threadId = thread.getId();
+      this.threadName = thread.getName();
+      this.startNanos = System.nanoTime();
+      this.startCpuNanos = profile == null ? -1 : currentThreadCpuTime();
+      this.startAllocatedBytes = profile == null ? -1 : currentThreadAllocatedBytes();
+    }
+
+    /**
+     * Add the files written by this span.
+     *
+     * @param files The number of files.
+     * @param bytes The number of bytes.
+     */
+    public synchronized void addOutput(int files, long bytes) {
+      if (this.profile != null) {
+        this.files += files;
+        this.bytes += bytes;
+      }
+    }
+
+    /**
+     * Start a child of this span on the current thread, which needn't be the thread of this span. The child is attributed to
+     * the module and target of this span, and when it ends its files, CPU time and allocated bytes are counted in this span.
+     *
+     * @param category The category of the child.
+     * @param name The name of the child.
+     * @return The child, which must be ended on the current thread.
+     */
+    public Span fork(String category, String name) {
+      if (this.profile == null) {
+        return NO_SPAN;
+      }
+
+      Span span = new Span(this.profile, this, category, name, this.module, this.target);
+      OPEN_SPANS.get().add(span);
+      return span;
+    }
+
+    /**
+     * Count the work of a child that has ended in this span.
+     *
+     * @param child The child.
+     */
+    private void addChild(Span child) {
+      long cpuNanos = child.getForkedCpuNanos();
+      long allocatedBytes = child.getForkedAllocatedBytes();
+      if (child.threadId != this.threadId) {
+        //the work of a child on the same thread is already counted in the thread times of this span.
+        cpuNanos += Math.max(0, child.cpuNanos);
+        allocatedBytes += Math.max(0, child.allocatedBytes);
+      }
+      int files = child.getFiles();
+      long bytes = child.getBytes();
+
+      synchronized (this) {
+        this.forkedCpuNanos += cpuNanos;
+        this.forkedAllocatedBytes += allocatedBytes;
+        this.files += files;
+        this.bytes += bytes;
+      }
+    }
+
+    private synchronized long getForkedCpuNanos() {
+      return forkedCpuNanos;
+    }
+
+    private synchronized long getForkedAllocatedBytes() {
+      return forkedAllocatedBytes;
+    }
+
+    /**
+     * End this span. Must be called on the thread that started the span.
+     */
+    public void end() {
+      if (this.profile == null || this.endNanos >= 0) {
+        return;
+      }
+
+      this.endNanos = System.nanoTime();
+      if (this.startCpuNanos >= 0) {
+        long cpu = currentThreadCpuTime();
+        this.cpuNanos = cpu >= 0 ? cpu - this.startCpuNanos : -1;
+      }
+      if (this.startAllocatedBytes >= 0) {
+        long allocated = currentThreadAllocatedBytes();
+        this.allocatedBytes = allocated >= 0 ? allocated - this.startAllocatedBytes : -1;
+      }
+
+      OPEN_SPANS.get().remove(this);
+      if (this.parent != null) {
+        this.parent.addChild(this);
+      }
+      this.profile.ended(this);
+    }
+
+    /**
+     * The category of this span.
+     *
+     * @return The category of this span.
+     */
+    public String getCategory() {
+      return category;
+    }
+
+    /**
+     * The name of this span.
+     *
+     * @return The name of this span.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * The module to which this span is attributed.
+     *
+     * @return The module to which this span is attributed.
+     */
+    public String getModule() {
+      return module;
+    }
+
+    /**
+     * The target to which this span is attributed.
+     *
+     * @return The target to which this span is attributed.
+     */
+    public String getTarget() {
+      return target;
+    }
+
+    /**
+     * The wall time of this span, in nanoseconds.
+     *
+     * @return The wall time of this span.
+     */
+    public long getWallNanos() {
+      return this.endNanos < 0 ? -1 : this.endNanos - this.startNanos;
+    }
+
+    /**
+     * The CPU time of the thread of this span (plus that of the forks of this span on other threads), in nanoseconds, or -1 if
+     * it's not supported.
+     *
+     * @return The CPU time of this span.
+     */
+    public long getCpuNanos() {
+      return this.cpuNanos < 0 ? -1 : this.cpuNanos + getForkedCpuNanos();
+    }
+
+    /**
+     * The bytes allocated by the thread of this span (plus those of the forks of this span on other threads), or -1 if it's
+     * not supported.
+     *
+     * @return The bytes allocated by this span.
+     */
+    public long getAllocatedBytes() {
+      return this.allocatedBytes < 0 ? -1 : this.allocatedBytes + getForkedAllocatedBytes();
+    }
+
+    /**
+     * The number of files written by this span.
+     *
+     * @return The number of files written by this span.
+     */
+    public synchronized int getFiles() {
+      return files;
+    }
+
+    /**
+     * The number of bytes written by this span.
+     *
+     * @return The number of bytes written by this span.
+     */
+    public synchronized long getBytes() {
+      return bytes;
+    }
+  }
+
+  /**
+   * The totals of the spans of a target or a module.
+   */
+  private static class Totals {
+
+    private final String module;
+    private final String target;
+    private long wallNanos = 0;
+    private long cpuNanos = -1;
+    private long allocatedBytes = -1;
+    private int files = 0;
+    private long bytes = 0;
+
+    private Totals(String module, String target) {
+      this.module = module;
+      this.target = target;
+    }
+
+    private void add(Span span) {
+      this.wallNanos += span.getWallNanos();
+      long cpuNanos = span.getCpuNanos();
+      if (cpuNanos >= 0) {
+        this.cpuNanos = Math.max(0, this.cpuNanos) + cpuNanos;
+      }
+      long allocatedBytes = span.getAllocatedBytes();
+      if (allocatedBytes >= 0) {
+        this.allocatedBytes = Math.max(0, this.allocatedBytes) + allocatedBytes;
+      }
+      this.files += span.getFiles();
+      this.bytes += span.getBytes();
+    }
+  }
+}
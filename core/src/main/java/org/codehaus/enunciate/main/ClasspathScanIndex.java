@@ -0,0 +1,281 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.main;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * An index of the jars on the Enunciate classpath. Each jar is indexed by its path, size and timestamp. The index records
+ * the names of the entries in the jar as well as the contents of the (small) entries that are always read by the classpath
+ * handlers (API export lists and package info), so an unchanged jar can be scanned without being opened.
+ *
+ * @author Ryan Heaton
+ */
+public class ClasspathScanIndex {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+  private final Set<String> touched = Collections.synchronizedSet(new HashSet<String>());
+
+  /**
+   * Load the index from the specified file. If the file doesn't exist or can't be read, an empty index is returned.
+   *
+   * @param file The file.
+   * @return The index.
+   */
+  public static ClasspathScanIndex load(File file) {
+    ClasspathScanIndex index = new ClasspathScanIndex();
+    if (file != null && file.exists()) {
+      try {
+        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+          if (in.readInt() == FORMAT_VERSION) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+              Entry entry = (Entry) in.readObject();
+              index.entries.put(entry.getPath(), entry);
+            }
+          }
+        }
+        finally {
+          in.close();
+        }
+      }
+      catch (Exception e) {
+        //corrupt or incompatible index; we'll just rebuild it.
+        index.entries.clear();
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Store the index to the specified file. Only the entries that were used since the index was loaded are stored.
+   *
+   * @param file The file.
+   */
+  public void store(File file) throws IOException {
+    if (file.getParentFile() != null) {
+      file.getParentFile().mkdirs();
+    }
+
+    List<Entry> toStore = new ArrayList<Entry>();
+    for (Entry entry : this.entries.values()) {
+      if (this.touched.contains(entry.getPath())) {
+        toStore.add(entry);
+      }
+    }
+
+    ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(toStore.size());
+      for (Entry entry : toStore) {
+        out.writeObject(entry);
+      }
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Get the index entry for the specified jar, opening and indexing the jar if the jar isn't indexed or has changed
+   * since it was indexed.
+   *
+   * @param jar The jar.
+   * @return The index entry, or null if the file isn't a jar.
+   */
+  public Entry getEntry(File jar) {
+    String path = jar.getAbsolutePath();
+    this.touched.add(path);
+    Entry entry = this.entries.get(path);
+    if (entry == null || entry.getSize() != jar.length() || entry.getLastModified() != jar.lastModified()) {
+      try {
+        entry = index(jar);
+      }
+      catch (IOException e) {
+        this.entries.remove(path);
+        return null;
+      }
+
+      this.entries.put(path, entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Whether the specified jar is currently indexed (and the index is up-to-date).
+   *
+   * @param jar The jar.
+   * @return Whether the specified jar is indexed.
+   */
+  public boolean isIndexed(File jar) {
+    Entry entry = this.entries.get(jar.getAbsolutePath());
+    return entry != null && entry.getSize() == jar.length() && entry.getLastModified() == jar.lastModified();
+  }
+
+  /**
+   * Index the specified jar.
+   *
+   * @param jar The jar.
+   * @return The index entry.
+   */
+  protected Entry index(File jar) throws IOException {
+    long size = jar.length();
+    long lastModified = jar.lastModified();
+    JarFile jarFile = new JarFile(jar);
+    try {
+      Manifest manifest = jarFile.getManifest();
+      if (manifest != null && manifest.getMainAttributes() != null) {
+        String specTitle = manifest.getMainAttributes().getValue(Attributes.Name.SPECIFICATION_TITLE);
+        if ("Java Platform API Specification".equalsIgnoreCase(String.valueOf(specTitle).trim())) {
+          return new Entry(jar.getAbsolutePath(), size, lastModified, true, new String[0], new HashMap<String, byte[]>());
+        }
+      }
+
+      List<String> resources = new ArrayList<String>();
+      HashMap<String, byte[]> contents = new HashMap<String, byte[]>();
+      Enumeration<JarEntry> jarEntries = jarFile.entries();
+      while (jarEntries.hasMoreElements()) {
+        JarEntry jarEntry = jarEntries.nextElement();
+        String name = jarEntry.getName();
+        resources.add(name);
+        if (isInlined(name)) {
+          InputStream in = jarFile.getInputStream(jarEntry);
+          try {
+            contents.put(name, readFully(in));
+          }
+          finally {
+            in.close();
+          }
+        }
+      }
+
+      return new Entry(jar.getAbsolutePath(), size, lastModified, false, resources.toArray(new String[resources.size()]), contents);
+    }
+    finally {
+      jarFile.close();
+    }
+  }
+
+  /**
+   * Whether the contents of the specified jar entry are to be stored in the index.
+   *
+   * @param name The name of the jar entry.
+   * @return Whether the contents of the specified jar entry are to be stored in the index.
+   */
+  protected boolean isInlined(String name) {
+    return "META-INF/enunciate/api-exports".equals(name) || name.endsWith("package-info.class") || name.endsWith("package-info.java");
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1024 * 8];
+    int len;
+    while ((len = in.read(buffer)) > 0) {
+      out.write(buffer, 0, len);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * An entry in the index.
+   */
+  public static class Entry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String path;
+    private final long size;
+    private final long lastModified;
+    private final boolean runtime;
+    private final String[] resources;
+    private final HashMap<String, byte[]> contents;
+
+    public Entry(String path, long size, long lastModified, boolean runtime, String[] resources, HashMap<String, byte[]> contents) {
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.runtime = runtime;
+      this.resources = resources;
+      this.contents = contents;
+    }
+
+    /**
+     * The absolute path to the jar.
+     *
+     * @return The absolute path to the jar.
+     */
+    public String getPath() {
+      return path;
+    }
+
+    /**
+     * The size of the jar when it was indexed.
+     *
+     * @return The size of the jar when it was indexed.
+     */
+    public long getSize() {
+      return size;
+    }
+
+    /**
+     * The timestamp of the jar when it was indexed.
+     *
+     * @return The timestamp of the jar when it was indexed.
+     */
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * Whether the jar appears to be the SDK runtime.
+     *
+     * @return Whether the jar appears to be the SDK runtime.
+     */
+    public boolean isRuntime() {
+      return runtime;
+    }
+
+    /**
+     * The paths of the resources in the jar, in jar order.
+     *
+     * @return The paths of the resources in the jar.
+     */
+    public String[] getResources() {
+      return resources;
+    }
+
+    /**
+     * The contents of the specified resource, if they were stored in the index.
+     *
+     * @param resource The resource.
+     * @return The contents, or null if they weren't stored.
+     */
+    public byte[] getContents(String resource) {
+      return contents.get(resource);
+    }
+  }
+}
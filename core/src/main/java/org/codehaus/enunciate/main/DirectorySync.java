@@ -0,0 +1,299 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.main;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Synchronizes files and directories to a destination, skipping the files that are already up to date. A destination file
+ * is considered up to date if it has the same size and last-modified date as its source; the last-modified date of the
+ * source is applied to each file that is copied. Files can optionally be hard-linked instead of copied, if the platform
+ * supports it. A destination file is always deleted before it's (re)written, so that a write never goes through a hard
+ * link to a source file (see {@link #unlink(java.io.File)}).
+ * <p/>
+ * A sync keeps track of every destination file it has written or found up to date, so that files that no longer have a
+ * source can be removed once all the sources have been synchronized. A sync also keeps count of the bytes it copied and
+ * skipped.
+ *
+ * @author Ryan Heaton
+ */
+public class DirectorySync {
+
+  private static final Method CREATE_LINK;
+  private static final Method TO_PATH;
+
+  static {
+    //hard links are only supported by the JDK 7 file api.
+    Method createLink = null;
+    Method toPath = null;
+    try {
+      Class<?> pathClass = Class.forName("java.nio.file.Path");
+      createLink = Class.forName("java.nio.file.Files").getMethod("createLink", pathClass, pathClass);
+      toPath = File.class.getMethod("toPath");
+    }
+    catch (Exception e) {
+      createLink = null;
+      toPath = null;
+    }
+    CREATE_LINK = createLink;
+    TO_PATH = toPath;
+  }
+
+  private final Set<File> synced = new HashSet<File>();
+  private boolean hardLinks = false;
+  private int filesCopied = 0;
+  private long bytesCopied = 0;
+  private int filesSkipped = 0;
+  private long bytesSkipped = 0;
+  private int filesDeleted = 0;
+  private long[] lastStep = new long[5];
+
+  /**
+   * Synchronize the contents of a directory to another directory.
+   *
+   * @param from The source directory.
+   * @param to The destination directory.
+   * @param excludes The files and directories (anywhere under the source directory) to exclude.
+   */
+  public void syncDir(File from, File to, File... excludes) throws IOException {
+    if (from == null || !from.exists()) {
+      return;
+    }
+
+    File[] files = from.listFiles();
+    if (!to.exists()) {
+      to.mkdirs();
+    }
+
+    SYNC_LOOP:
+    for (File file : files) {
+      if (excludes != null) {
+        for (File exclude : excludes) {
+          if (file.equals(exclude)) {
+            continue SYNC_LOOP;
+          }
+        }
+      }
+
+      if (file.isDirectory()) {
+        syncDir(file, new File(to, file.getName()), excludes);
+      }
+      else {
+        syncFile(file, new File(to, file.getName()));
+      }
+    }
+  }
+
+  /**
+   * Synchronize a file to a destination.
+   *
+   * @param from The source file.
+   * @param to The destination file.
+   * @return Whether the file was copied (false if the destination was up to date).
+   */
+  public boolean syncFile(File from, File to) throws IOException {
+    to = to.getAbsoluteFile();
+    this.synced.add(to);
+    long length = from.length();
+    if (to.isFile() && to.length() == length && to.lastModified() == from.lastModified()) {
+      this.filesSkipped++;
+      this.bytesSkipped += length;
+      return false;
+    }
+
+    if ((!to.exists()) && (to.getParentFile() != null)) {
+      to.getParentFile().mkdirs();
+    }
+
+    if (!this.hardLinks || !link(from, to)) {
+      FileChannel srcChannel = new FileInputStream(from).getChannel();
+      try {
+        //the destination may have been linked to another source by a previous sync.
+        unlink(to);
+        FileChannel dstChannel = new FileOutputStream(to, false).getChannel();
+        try {
+          long position = 0;
+          while (position < length) {
+            long transferred = dstChannel.transferFrom(srcChannel, position, length - position);
+            if (transferred <= 0) {
+              break;
+            }
+            position += transferred;
+          }
+        }
+        finally {
+          dstChannel.close();
+        }
+      }
+      finally {
+        srcChannel.close();
+      }
+      to.setLastModified(from.lastModified());
+    }
+
+    this.filesCopied++;
+    this.bytesCopied += length;
+    return true;
+  }
+
+  /**
+   * Hard-link a file, replacing the destination.
+   *
+   * @param from The source file.
+   * @param to The destination file.
+   * @return Whether the link was created.
+   */
+  protected boolean link(File from, File to) {
+    if (CREATE_LINK == null) {
+      return false;
+    }
+
+    if (to.exists() && !to.delete()) {
+      return false;
+    }
+
+    try {
+      CREATE_LINK.invoke(null, TO_PATH.invoke(to), TO_PATH.invoke(from));
+      return true;
+    }
+    catch (Exception e) {
+      return false;
+    }
+  }
+
+  /**
+   * Delete a file that is about to be written, if it exists. The file may be a hard link to its source (e.g. a file of
+   * the web app directory of a project), and writing it in place would write the source, too.
+   *
+   * @param file The file that is about to be written.
+   * @throws IOException If the file exists and can't be deleted.
+   */
+  public static void unlink(File file) throws IOException {
+    if (file.exists() && !file.delete()) {
+      throw new IOException("Unable to replace " + file + ".");
+    }
+  }
+
+  /**
+   * Delete the files in the specified directory that weren't synchronized by this sync.
+   *
+   * @param dir The directory.
+   */
+  public void deleteStale(File dir) {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.isDirectory()) {
+          deleteStale(file);
+        }
+        else if (!this.synced.contains(file.getAbsoluteFile()) && file.delete()) {
+          this.filesDeleted++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Whether to hard-link files instead of copying them, if the platform supports it. Note that the destination of a
+   * hard link shares the contents of its source.
+   *
+   * @return Whether to hard-link files instead of copying them.
+   */
+  public boolean isHardLinks() {
+    return hardLinks;
+  }
+
+  /**
+   * Whether to hard-link files instead of copying them, if the platform supports it.
+   *
+   * @param hardLinks Whether to hard-link files instead of copying them.
+   */
+  public void setHardLinks(boolean hardLinks) {
+    this.hardLinks = hardLinks;
+  }
+
+  /**
+   * The number of files copied (or linked).
+   *
+   * @return The number of files copied.
+   */
+  public int getFilesCopied() {
+    return filesCopied;
+  }
+
+  /**
+   * The number of bytes copied (or linked).
+   *
+   * @return The number of bytes copied.
+   */
+  public long getBytesCopied() {
+    return bytesCopied;
+  }
+
+  /**
+   * The number of files skipped because they were up to date.
+   *
+   * @return The number of files skipped.
+   */
+  public int getFilesSkipped() {
+    return filesSkipped;
+  }
+
+  /**
+   * The number of bytes skipped because they were up to date.
+   *
+   * @return The number of bytes skipped.
+   */
+  public long getBytesSkipped() {
+    return bytesSkipped;
+  }
+
+  /**
+   * The number of stale files deleted.
+   *
+   * @return The number of stale files deleted.
+   */
+  public int getFilesDeleted() {
+    return filesDeleted;
+  }
+
+  /**
+   * Summarize what was done since the last time this method was called (or since the sync started), e.g. to report
+   * the copying done by each step of a build.
+   *
+   * @return The summary.
+   */
+  public String summarizeStep() {
+    long[] current = new long[]{this.filesCopied, this.bytesCopied, this.filesSkipped, this.bytesSkipped, this.filesDeleted};
+    String summary = String.format("%d files (%d bytes) copied, %d files (%d bytes) up to date, %d stale files deleted",
+                                   current[0] - lastStep[0], current[1] - lastStep[1], current[2] - lastStep[2], current[3] - lastStep[3], current[4] - lastStep[4]);
+    this.lastStep = current;
+    return summary;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d files (%d bytes) copied, %d files (%d bytes) up to date, %d stale files deleted", this.filesCopied, this.bytesCopied, this.filesSkipped, this.bytesSkipped, this.filesDeleted);
+  }
+}
@@ -16,8 +16,10 @@
 
 package org.codehaus.enunciate.main;
 
+import net.sf.jelly.apt.freemarker.FreemarkerModel;
 import org.codehaus.enunciate.EnunciateException;
 import org.codehaus.enunciate.apt.EnunciateAnnotationProcessorFactory;
+import org.codehaus.enunciate.apt.ProcessingContext;
 import org.codehaus.enunciate.config.APIImport;
 import org.codehaus.enunciate.config.EnunciateConfiguration;
 import org.codehaus.enunciate.main.webapp.WebAppFragment;
@@ -32,13 +34,9 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.channels.FileChannel;
 import java.util.*;
-import java.util.jar.Attributes;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
+import java.util.concurrent.*;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Main enunciate entry point.
@@ -97,6 +95,18 @@ public class Enunciate {
   private final Set<WebAppFragment> webAppFragments = new TreeSet<WebAppFragment>(new WebAppFragmentComparator());
   private final List<ClasspathHandler> classpathHandlers = new ArrayList<ClasspathHandler>();
   private final List<String> configuredJavacArguments = new ArrayList<String>();
+  private int classpathScanThreads = Runtime.getRuntime().availableProcessors();
+  private File classpathIndexFile;
+  private int generateThreads = 1;
+  private int validateThreads = 1;
+  private JavacService javacService;
+  private File buildManifestFile;
+  private BuildManifest buildManifest;
+  private String sourcesFingerprint;
+  private List<File> existingSourceFiles;
+  private final Set<File> sourceDependentFiles = Collections.synchronizedSet(new HashSet<File>());
+  private File profileFile;
+  private BuildProfile profile;
 
   public static void main(String[] args) throws Exception {
     Main.main(args);
@@ -179,35 +189,57 @@ public class Enunciate {
    * the artifacts.
    */
   protected void doClose() throws EnunciateException, IOException {
-    info("closing enunciate.");
-    for (DeploymentModule deploymentModule : this.config.getAllModules()) {
-      debug("closing enunciate module %s.", deploymentModule.getName());
-      deploymentModule.close();
-    }
+    try {
+      info("closing enunciate.");
+      for (DeploymentModule deploymentModule : this.config.getAllModules()) {
+        debug("closing enunciate module %s.", deploymentModule.getName());
+        deploymentModule.close();
+      }
+
+      synchronized (this) {
+        if (this.javacService != null) {
+          this.javacService.close();
+          this.javacService = null;
+        }
+      }
+
+      HashSet<String> exportedArtifacts = new HashSet<String>();
+      for (Artifact artifact : artifacts) {
+        String artifactId = artifact.getId();
+        Map.Entry<String, File> export = null;
+        for (Map.Entry<String, File> entry : this.exports.entrySet()) {
+          if (artifactId.equals(entry.getKey()) || artifact.getAliases().contains(entry.getKey())) {
+            export = entry;
+          }
+        }
 
-    HashSet<String> exportedArtifacts = new HashSet<String>();
-    for (Artifact artifact : artifacts) {
-      String artifactId = artifact.getId();
-      Map.Entry<String, File> export = null;
-      for (Map.Entry<String, File> entry : this.exports.entrySet()) {
-        if (artifactId.equals(entry.getKey()) || artifact.getAliases().contains(entry.getKey())) {
-          export = entry;
+        if (export != null) {
+          File dest = export.getValue();
+          debug("Exporting artifact %s to %s.", export.getKey(), dest);
+          artifact.exportTo(dest, this);
+          exportedArtifacts.add(export.getKey());
         }
       }
 
-      if (export != null) {
-        File dest = export.getValue();
-        debug("Exporting artifact %s to %s.", export.getKey(), dest);
-        artifact.exportTo(dest, this);
-        exportedArtifacts.add(export.getKey());
+      for (String export : this.exports.keySet()) {
+        if (!exportedArtifacts.remove(export)) {
+          warn("WARNING: Unknown artifact '%s'.  Artifact will not be exported.", export);
+        }
       }
-    }
 
-    for (String export : this.exports.keySet()) {
-      if (!exportedArtifacts.remove(export)) {
-        warn("WARNING: Unknown artifact '%s'.  Artifact will not be exported.", export);
+      storeBuildManifest();
+
+      if (this.profile != null) {
+        this.profile.setTarget(null);
+        this.profile.write(getProfileFile());
+        info("Build profile written to %s (trace: %s).", getProfileFile(), BuildProfile.getTraceFile(getProfileFile()));
       }
     }
+    finally {
+      //release the state of this execution that is bound to the thread.
+      ProcessingContext.unbind();
+      FreemarkerModel.set(null);
+    }
   }
 
   /**
@@ -316,7 +348,13 @@ public class Enunciate {
     handlers.addAll(this.classpathHandlers);
 
     //now scan the classpath.
-    scanClasspath(handlers);
+    BuildProfile.Span span = startSpan("classpath", "scanClasspath", null);
+    try {
+      scanClasspath(handlers);
+    }
+    finally {
+      span.end();
+    }
 
     // initialize the list classes that were imported.
     final Map<String, File> classes2sources = importedClassesHandler.getClassesToSources();
@@ -362,86 +400,133 @@ public class Enunciate {
       sourceFiles.add(tempSource.getAbsolutePath());
     }
 
-    invokeApt(sourceFiles.toArray(new String[sourceFiles.size()]), importClasses.toArray(new String[importClasses.size()]));
+    span = startSpan("compile", "invokeApt", null);
+    try {
+      invokeApt(sourceFiles.toArray(new String[sourceFiles.size()]), importClasses.toArray(new String[importClasses.size()]));
+    }
+    finally {
+      span.end();
+    }
   }
 
   /**
-   * Scans the Enunciate classpath, handling each entry according to each {@link ClasspathHandler}.
+   * Scans the Enunciate classpath, handling each entry according to each {@link ClasspathHandler}. The entries of the
+   * classpath are listed concurrently (unchanged jars are listed from the {@link #getClasspathIndexFile() classpath index}),
+   * but the handlers are notified of each entry in classpath order on the calling thread.
    */
   protected void scanClasspath(final Collection<ClasspathHandler> classpathHandlers) throws IOException {
-    LinkedList<String> classpathToScan = new LinkedList<String>(Arrays.asList(getEnunciateRuntimeClasspath().split(File.pathSeparator)));
-    while (!classpathToScan.isEmpty()) {
-      String pathItem = classpathToScan.removeFirst();
-      final File pathFile = new File(pathItem);
-      if (pathFile.exists()) {
-        boolean lookupSourceEntry = false;
+    final ClasspathScanIndex index = ClasspathScanIndex.load(getClasspathIndexFile());
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, getClasspathScanThreads()));
+    try {
+      LinkedList<Future<ClasspathEntryListing>> listings = new LinkedList<Future<ClasspathEntryListing>>();
+      for (String pathItem : getEnunciateRuntimeClasspath().split(File.pathSeparator)) {
+        listings.add(executor.submit(new ClasspathEntryLister(new File(pathItem), index)));
+      }
 
-        //scan the file on the classpath to find any classes that are to be imported.
-        if (pathFile.isDirectory()) {
-          for (ClasspathHandler handler : classpathHandlers) {
-            handler.startPathEntry(pathFile);
+      while (!listings.isEmpty()) {
+        ClasspathEntryListing listing = awaitListing(listings.removeFirst());
+        final File pathFile = listing.pathFile;
+        if (listing.files == null && listing.indexEntry == null) {
+          if (!pathFile.exists()) {
+            debug("Classpath entry %s cannot be scanned because it doesn't exist on the filesystem.", pathFile);
+          }
+          else {
+            warn("%s doesn't appear to be a jar file, so it will be ignored on the classpath.", pathFile);
           }
+          continue;
+        }
 
-          visitFiles(pathFile, null, new FileVisitor() {
-            public void visit(File file) {
+        if (listing.indexEntry != null && listing.indexEntry.isRuntime()) {
+          debug("Not going to scan %s as it appears to be the SDK runtime.", pathFile);
+          continue;
+        }
+
+        boolean lookupSourceEntry = false;
+        for (ClasspathHandler handler : classpathHandlers) {
+          handler.startPathEntry(pathFile);
+        }
+
+        //the jar (if any) is kept open until the handlers are done with the entry, as they may read resources they've noticed.
+        JarClasspathResource.Source source = listing.files != null ? null : new JarClasspathResource.Source(pathFile);
+        try {
+          if (listing.files != null) {
+            for (File file : listing.files) {
               FileClasspathResource entry = new FileClasspathResource(file, pathFile);
               for (ClasspathHandler handler : classpathHandlers) {
                 handler.handleResource(entry);
               }
             }
-          });
-
-          for (ClasspathHandler handler : classpathHandlers) {
-            lookupSourceEntry |= handler.endPathEntry(pathFile);
-          }
-        }
-        else {
-          //assume it's a jar file.
-          JarFile jarFile;
-          try {
-            jarFile = new JarFile(pathFile);
           }
-          catch (IOException e) {
-            warn("%s doesn't appear to be a jar file, so it will be ignored on the classpath.", pathFile);
-            continue;
-          }
-
-          Manifest manifest = jarFile.getManifest();
-          if (manifest != null && manifest.getMainAttributes() != null) {
-            String specTitle = manifest.getMainAttributes().getValue(Attributes.Name.SPECIFICATION_TITLE);
-            if ("Java Platform API Specification".equalsIgnoreCase(String.valueOf(specTitle).trim())) {
-              debug("Not going to scan %s as it appears to be the SDK runtime.", pathFile);
-              continue;
+          else {
+            for (String resource : listing.indexEntry.getResources()) {
+              JarClasspathResource entry = new JarClasspathResource(source, resource, listing.indexEntry.getContents(resource));
+              for (ClasspathHandler handler : classpathHandlers) {
+                handler.handleResource(entry);
+              }
             }
           }
 
           for (ClasspathHandler handler : classpathHandlers) {
-            handler.startPathEntry(pathFile);
+            lookupSourceEntry |= handler.endPathEntry(pathFile);
           }
-
-          Enumeration<JarEntry> entries = jarFile.entries();
-          while (entries.hasMoreElements()) {
-            JarClasspathResource entry = new JarClasspathResource(jarFile, entries.nextElement());
-            for (ClasspathHandler handler : classpathHandlers) {
-              handler.handleResource(entry);
+        }
+        finally {
+          if (source != null) {
+            if (listing.fromIndex && !source.isOpened()) {
+              debug("Scanned %s from the classpath index without opening it.", pathFile);
             }
-          }
-
-          for (ClasspathHandler handler : classpathHandlers) {
-            lookupSourceEntry |= handler.endPathEntry(pathFile);
+            source.close();
           }
         }
 
         if (lookupSourceEntry) {
           String sourceEntry = lookupSourceEntry(pathFile);
           if (sourceEntry != null) {
-            classpathToScan.add(sourceEntry);
+            listings.add(executor.submit(new ClasspathEntryLister(new File(sourceEntry), index)));
           }
         }
       }
-      else {
-        debug("Classpath entry %s cannot be scanned because it doesn't exist on the filesystem.", pathItem);
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    File indexFile = getClasspathIndexFile();
+    if (indexFile != null) {
+      try {
+        index.store(indexFile);
+      }
+      catch (IOException e) {
+        warn("Unable to store the classpath index to %s: %s", indexFile, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Wait for the listing of a classpath entry.
+   *
+   * @param listing The listing.
+   * @return The listing.
+   */
+  private ClasspathEntryListing awaitListing(Future<ClasspathEntryListing> listing) throws IOException {
+    try {
+      return listing.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while scanning the classpath.");
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
       }
+      else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      IOException ioe = new IOException("Unable to scan the classpath: " + cause.getMessage());
+      ioe.initCause(cause);
+      throw ioe;
     }
   }
 
@@ -826,6 +911,16 @@ public class Enunciate {
    * @param sourceFiles    The source files. @throws EnunciateException if the compile fails.
    */
   public void invokeJavac(String classpath, String version, File compileDir, List<String> additionalArgs, String[] sourceFiles) throws EnunciateException {
+    BuildProfile.Span span = startSpan("compile", "invokeJavac", null);
+    try {
+      compile(classpath, version, compileDir, additionalArgs, sourceFiles);
+    }
+    finally {
+      span.end();
+    }
+  }
+
+  private void compile(String classpath, String version, File compileDir, List<String> additionalArgs, String[] sourceFiles) throws EnunciateException {
     if ((sourceFiles == null) || (sourceFiles.length == 0)) {
       warn("Skipping compile.  No source files specified.");
       return;
@@ -833,9 +928,6 @@ public class Enunciate {
 
     List<String> args = new ArrayList<String>();
 
-    args.add("-cp");
-    args.add(classpath);
-
     args.add("-source");
     args.add(version);
     args.add("-target");
@@ -849,33 +941,71 @@ public class Enunciate {
       args.add("-verbose");
     }
 
-    if (getEncoding() != null) {
-    	args.add("-encoding");
-      args.add(getEncoding());
-    }
-    
-    args.add("-d");
-    args.add(compileDir.getAbsolutePath());
     args.addAll(additionalArgs);
     args.addAll(this.configuredJavacArguments);
-    args.addAll(Arrays.asList(sourceFiles));
 
     if (isDebug()) {
-      StringBuilder message = new StringBuilder("Invoking Javac with arguments:");
+      StringBuilder message = new StringBuilder("Invoking Javac with arguments: -cp ").append(classpath);
+      if (getEncoding() != null) {
+        message.append(" -encoding ").append(getEncoding());
+      }
+      message.append(" -d ").append(compileDir.getAbsolutePath());
       for (String arg : args) {
         message.append(' ');
         message.append(arg);
       }
+      for (String sourceFile : sourceFiles) {
+        message.append(' ');
+        message.append(sourceFile);
+      }
       debug(message.toString());
     }
 
     compileDir.mkdirs();
-    int procCode = com.sun.tools.javac.Main.compile(args.toArray(new String[args.size()]));
-    if (procCode != 0) {
+    JavacService javac = getJavacService();
+    boolean success;
+    if (javac.isAvailable()) {
+      try {
+        success = javac.compile(classpath, getEncoding(), compileDir, args, sourceFiles, null);
+      }
+      catch (IOException e) {
+        throw new EnunciateException(e);
+      }
+    }
+    else {
+      //no system compiler; fall back to the javac main class.
+      List<String> mainArgs = new ArrayList<String>();
+      mainArgs.add("-cp");
+      mainArgs.add(classpath);
+      if (getEncoding() != null) {
+        mainArgs.add("-encoding");
+        mainArgs.add(getEncoding());
+      }
+      mainArgs.add("-d");
+      mainArgs.add(compileDir.getAbsolutePath());
+      mainArgs.addAll(args);
+      mainArgs.addAll(Arrays.asList(sourceFiles));
+      success = com.sun.tools.javac.Main.compile(mainArgs.toArray(new String[mainArgs.size()])) == 0;
+    }
+
+    if (!success) {
       throw new EnunciateException("compile failed.");
     }
   }
 
+  /**
+   * The compilation service used to invoke javac. The service is shared by all the compiles of this Enunciate
+   * mechanism so that compiles against the same classpath can reuse the opened classpath.
+   *
+   * @return The compilation service.
+   */
+  protected synchronized JavacService getJavacService() {
+    if (this.javacService == null) {
+      this.javacService = new JavacService();
+    }
+    return this.javacService;
+  }
+
   /**
    * Copy an entire directory from one place to another.
    *
@@ -884,6 +1014,16 @@ public class Enunciate {
    * @param excludes The files to exclude from the copy
    */
   public void copyDir(File from, File to, File... excludes) throws IOException {
+    BuildProfile.Span span = startSpan("io", "copyDir " + (from == null ? null : from.getName()), null);
+    try {
+      copyDirContents(from, to, excludes);
+    }
+    finally {
+      span.end();
+    }
+  }
+
+  private void copyDirContents(File from, File to, File... excludes) throws IOException {
     if (from != null && from.exists()) {
       File[] files = from.listFiles();
 
@@ -902,7 +1042,7 @@ public class Enunciate {
         }
 
         if (file.isDirectory()) {
-          copyDir(file, new File(to, file.getName()));
+          copyDirContents(file, new File(to, file.getName()));
         }
         else {
           copyFile(file, new File(to, file.getName()));
@@ -927,6 +1067,7 @@ public class Enunciate {
         file.mkdirs();
       }
       else {
+        DirectorySync.unlink(file);
         FileOutputStream out = new FileOutputStream(file);
         byte[] buffer = new byte[1024 * 2]; //2 kb buffer should suffice.
         int len;
@@ -970,10 +1111,12 @@ public class Enunciate {
     }
 
     debug("Copying %s to %s ", from, to);
+    DirectorySync.unlink(to);
     FileChannel dstChannel = new FileOutputStream(to, false).getChannel();
     dstChannel.transferFrom(srcChannel, 0, srcChannel.size());
     srcChannel.close();
     dstChannel.close();
+    BuildProfile.recordOutput(to);
   }
 
   /**
@@ -1000,6 +1143,7 @@ public class Enunciate {
     InputStream stream = url.openStream();
 
     debug("Copying resource %s to %s...", url, to);
+    DirectorySync.unlink(to);
     FileOutputStream out = new FileOutputStream(to);
     byte[] buffer = new byte[1024 * 2]; //2 kb buffer should suffice.
     int len;
@@ -1015,39 +1159,34 @@ public class Enunciate {
    * @param dirs   The directories to zip up.
    */
   public void zip(File toFile, File... dirs) throws IOException {
-    if (!toFile.getParentFile().exists()) {
-      debug("Creating directory %s...", toFile.getParentFile());
-      toFile.getParentFile().mkdirs();
-    }
-
-    byte[] buffer = new byte[2 * 1024]; //buffer of 2K should be fine.
-    ZipOutputStream zipout = new ZipOutputStream(new FileOutputStream(toFile));
-    for (File dir : dirs) {
-
-      URI baseURI = dir.toURI();
-      debug("Adding contents of directory %s to zip file %s...", dir, toFile);
-      ArrayList<File> files = new ArrayList<File>();
-      buildFileList(files, dir);
-      for (File file : files) {
-        ZipEntry entry = new ZipEntry(baseURI.relativize(file.toURI()).getPath());
-        debug("Adding entry %s...", entry.getName());
-        zipout.putNextEntry(entry);
-
-        if (!file.isDirectory()) {
-          FileInputStream in = new FileInputStream(file);
-          int len;
-          while ((len = in.read(buffer)) > 0) {
-            zipout.write(buffer, 0, len);
-          }
-          in.close();
-        }
+    BuildProfile.Span span = startSpan("io", "zip " + toFile.getName(), null);
+    try {
+      if (!toFile.getParentFile().exists()) {
+        debug("Creating directory %s...", toFile.getParentFile());
+        toFile.getParentFile().mkdirs();
+      }
 
-        // Complete the entry
-        zipout.closeEntry();
+      debug("Zipping up the contents of %s to %s...", Arrays.asList(dirs), toFile);
+      if (!createZipArchiver().zip(toFile, dirs)) {
+        debug("Zip file %s is up to date.", toFile);
+      }
+      else {
+        BuildProfile.recordOutput(toFile);
       }
     }
+    finally {
+      span.end();
+    }
+  }
 
-    zipout.close();
+  /**
+   * Create the archiver used to zip up directories. Already-compressed files are stored, the other entries are deflated
+   * in parallel, and the unchanged entries of an existing archive are copied as-is.
+   *
+   * @return The archiver.
+   */
+  protected ZipArchiver createZipArchiver() {
+    return new ZipArchiver();
   }
 
   /**
@@ -1123,15 +1262,94 @@ public class Enunciate {
    * @return Whether the destination directory is up-to-date.
    */
   public boolean isUpToDateWithSources(File destDir) {
-    List<File> sources = new ArrayList<File>();
-    for (String source : getSourceFiles()) {
-      File sourceFile = new File(source);
-      if (sourceFile.exists()) {
-        sources.add(sourceFile);
+    BuildManifest manifest = getBuildManifest();
+    if (manifest != null && destDir != null) {
+      this.sourceDependentFiles.add(destDir);
+      try {
+        if (manifest.isUpToDate(destDir, getSourcesFingerprint())) {
+          debug("%s is up-to-date because it was built from the current sources and hasn't changed since.", destDir);
+          return true;
+        }
+      }
+      catch (IOException e) {
+        debug("Unable to fingerprint the sources (%s). Falling back to timestamps.", e.getMessage());
       }
     }
 
-    return isUpToDate(sources, destDir);
+    return isUpToDate(getExistingSourceFiles(), destDir);
+  }
+
+  /**
+   * The source files that exist on the filesystem.
+   *
+   * @return The source files that exist on the filesystem.
+   */
+  protected synchronized List<File> getExistingSourceFiles() {
+    if (this.existingSourceFiles == null) {
+      List<File> sources = new ArrayList<File>();
+      for (String source : getSourceFiles()) {
+        File sourceFile = new File(source);
+        if (sourceFile.exists()) {
+          sources.add(sourceFile);
+        }
+      }
+      this.existingSourceFiles = sources;
+    }
+    return this.existingSourceFiles;
+  }
+
+  /**
+   * A fingerprint of the contents of the source files and the config file, and of the entries of the classpath, used to
+   * determine whether the outputs recorded in the {@link #getBuildManifestFile() build manifest} are up-to-date.
+   *
+   * @return The fingerprint of the sources.
+   */
+  protected synchronized String getSourcesFingerprint() throws IOException {
+    if (this.sourcesFingerprint == null) {
+      TreeSet<File> inputs = new TreeSet<File>(getExistingSourceFiles());
+      if (getConfigFile() != null && getConfigFile().exists()) {
+        inputs.add(getConfigFile());
+      }
+      String classpath = getEnunciateBuildClasspath();
+      if (!classpath.equals(getEnunciateRuntimeClasspath())) {
+        classpath = classpath + File.pathSeparator + getEnunciateRuntimeClasspath();
+      }
+      this.sourcesFingerprint = getVersion() + "-" + BuildManifest.fingerprint(inputs) + "-" + BuildManifest.fingerprintClasspath(classpath);
+    }
+    return this.sourcesFingerprint;
+  }
+
+  /**
+   * The build manifest, or null if no {@link #getBuildManifestFile() build manifest file} is configured.
+   *
+   * @return The build manifest.
+   */
+  protected synchronized BuildManifest getBuildManifest() {
+    if (this.buildManifest == null && getBuildManifestFile() != null) {
+      this.buildManifest = BuildManifest.load(getBuildManifestFile());
+    }
+    return this.buildManifest;
+  }
+
+  /**
+   * Records the outputs that depend on the sources in the build manifest and stores it.
+   */
+  protected void storeBuildManifest() {
+    BuildManifest manifest = getBuildManifest();
+    if (manifest != null) {
+      try {
+        String fingerprint = getSourcesFingerprint();
+        synchronized (this.sourceDependentFiles) {
+          for (File output : this.sourceDependentFiles) {
+            manifest.record(output, fingerprint);
+          }
+        }
+        manifest.store(getBuildManifestFile());
+      }
+      catch (IOException e) {
+        warn("Unable to store the build manifest to %s: %s", getBuildManifestFile(), e.getMessage());
+      }
+    }
   }
 
   /**
@@ -1489,6 +1707,145 @@ public class Enunciate {
     this.buildClasspath = buildClasspath;
   }
 
+  /**
+   * The number of threads to use to list the entries on the classpath.
+   *
+   * @return The number of threads to use to list the entries on the classpath.
+   */
+  public int getClasspathScanThreads() {
+    return classpathScanThreads;
+  }
+
+  /**
+   * The number of threads to use to list the entries on the classpath.
+   *
+   * @param classpathScanThreads The number of threads to use to list the entries on the classpath.
+   */
+  public void setClasspathScanThreads(int classpathScanThreads) {
+    this.classpathScanThreads = classpathScanThreads;
+  }
+
+  /**
+   * The file in which to persist the index of the jars on the classpath, or null if the index isn't to be persisted.
+   *
+   * @return The file in which to persist the index of the jars on the classpath.
+   */
+  public File getClasspathIndexFile() {
+    return classpathIndexFile;
+  }
+
+  /**
+   * The file in which to persist the index of the jars on the classpath, or null if the index isn't to be persisted.
+   *
+   * @param classpathIndexFile The file in which to persist the index of the jars on the classpath.
+   */
+  public void setClasspathIndexFile(File classpathIndexFile) {
+    this.classpathIndexFile = classpathIndexFile;
+  }
+
+  /**
+   * The number of threads to use to invoke the generate step of the modules. Modules of the same order that are
+   * {@link org.codehaus.enunciate.modules.ConcurrentGenerationModule independent} of each other are generated
+   * concurrently; every other module is generated alone, in turn. The default (1) invokes the generate step of each
+   * module in turn.
+   *
+   * @return The number of threads to use to invoke the generate step of the modules.
+   */
+  public int getGenerateThreads() {
+    return generateThreads;
+  }
+
+  /**
+   * The number of threads to use to invoke the generate step of the modules.
+   *
+   * @param generateThreads The number of threads to use to invoke the generate step of the modules.
+   */
+  public void setGenerateThreads(int generateThreads) {
+    this.generateThreads = generateThreads;
+  }
+
+  /**
+   * The number of threads with which to run the validation checks on the model. The checks of each validator are run
+   * concurrently on the endpoint interfaces, type definitions, root elements and root resources of the model. The
+   * default (1) runs the checks in turn.
+   *
+   * @return The number of threads with which to run the validation checks on the model.
+   */
+  public int getValidateThreads() {
+    return validateThreads;
+  }
+
+  /**
+   * The number of threads with which to run the validation checks on the model.
+   *
+   * @param validateThreads The number of threads with which to run the validation checks on the model.
+   */
+  public void setValidateThreads(int validateThreads) {
+    this.validateThreads = validateThreads;
+  }
+
+  /**
+   * The file to which to write a profile of the build, or null if the build isn't profiled. The profile is a JSON report of
+   * the wall time, CPU time, allocated bytes and files written per target and per module, and the spans of the build. A trace
+   * of the spans in the Chrome trace-event format is written alongside it (see {@link BuildProfile#getTraceFile(java.io.File)}).
+   *
+   * @return The file to which to write a profile of the build.
+   */
+  public File getProfileFile() {
+    return profileFile;
+  }
+
+  /**
+   * The file to which to write a profile of the build, or null if the build isn't profiled.
+   *
+   * @param profileFile The file to which to write a profile of the build.
+   */
+  public void setProfileFile(File profileFile) {
+    this.profileFile = profileFile;
+  }
+
+  /**
+   * The profile of the build, or null if the build isn't profiled.
+   *
+   * @return The profile of the build.
+   */
+  public BuildProfile getProfile() {
+    return profile;
+  }
+
+  /**
+   * Start a span of the build profile on the current thread. If the build isn't profiled, the span records nothing.
+   *
+   * @param category The category of the span.
+   * @param name The name of the span.
+   * @param module The module to which to attribute the span, or null to attribute it to the module of the enclosing span.
+   * @return The span, which must be ended on the current thread.
+   */
+  public BuildProfile.Span startSpan(String category, String name, String module) {
+    BuildProfile profile = this.profile;
+    return profile == null ? BuildProfile.NO_SPAN : profile.start(category, name, module);
+  }
+
+  /**
+   * The file in which to keep the manifest of the build outputs between builds, or null if outputs are to be checked
+   * against the timestamps of the sources only.
+   *
+   * @return The file in which to keep the manifest of the build outputs.
+   */
+  public File getBuildManifestFile() {
+    return buildManifestFile;
+  }
+
+  /**
+   * The file in which to keep the manifest of the build outputs between builds, or null if outputs are to be checked
+   * against the timestamps of the sources only.
+   *
+   * @param buildManifestFile The file in which to keep the manifest of the build outputs.
+   */
+  public void setBuildManifestFile(File buildManifestFile) {
+    this.buildManifestFile = buildManifestFile;
+  }
+
   /**
    * The target.
    *
@@ -1513,7 +1870,7 @@ public class Enunciate {
    * @param property The property.
    * @param value    The value.
    */
-  public void setProperty(String property, Object value) {
+  public synchronized void setProperty(String property, Object value) {
     this.properties.put(property, value);
   }
 
@@ -1550,7 +1907,7 @@ public class Enunciate {
    * @param artifact The artifact to add.
    * @return Whether the artifact was successfully added.
    */
-  public boolean addArtifact(Artifact artifact) {
+  public synchronized boolean addArtifact(Artifact artifact) {
     debug("Artifact %s added for module %s.", artifact.getId(), artifact.getModule());
     return this.artifacts.add(artifact);
   }
@@ -1560,7 +1917,7 @@ public class Enunciate {
    *
    * @param fragment The fragment.
    */
-  public void addWebAppFragment(WebAppFragment fragment) {
+  public synchronized void addWebAppFragment(WebAppFragment fragment) {
     this.webAppFragments.add(fragment);
   }
 
@@ -1587,7 +1944,7 @@ public class Enunciate {
    *
    * @param root The source root directory.
    */
-  public void addAdditionalSourceRoot(File root) {
+  public synchronized void addAdditionalSourceRoot(File root) {
     debug("Adding " + root + " as an additional source root.");
     this.additionalSourceRoots.add(root);
   }
@@ -1617,7 +1974,7 @@ public class Enunciate {
    * @param property The property whose value to retrieve.
    * @return The property value.
    */
-  public Object getProperty(String property) {
+  public synchronized Object getProperty(String property) {
     return this.properties.get(property);
   }
 
@@ -1690,6 +2047,54 @@ public class Enunciate {
     }
   };
 
+  /**
+   * The listing of an entry on the classpath.
+   */
+  private static class ClasspathEntryListing {
+
+    private final File pathFile;
+    private List<File> files;
+    private ClasspathScanIndex.Entry indexEntry;
+    private boolean fromIndex;
+
+    private ClasspathEntryListing(File pathFile) {
+      this.pathFile = pathFile;
+    }
+  }
+
+  /**
+   * Lists the contents of an entry on the classpath.
+   */
+  private class ClasspathEntryLister implements Callable<ClasspathEntryListing> {
+
+    private final File pathFile;
+    private final ClasspathScanIndex index;
+
+    private ClasspathEntryLister(File pathFile, ClasspathScanIndex index) {
+      this.pathFile = pathFile;
+      this.index = index;
+    }
+
+    public ClasspathEntryListing call() throws Exception {
+      ClasspathEntryListing listing = new ClasspathEntryListing(this.pathFile);
+      if (this.pathFile.isDirectory()) {
+        final List<File> files = new ArrayList<File>();
+        visitFiles(this.pathFile, null, new FileVisitor() {
+          public void visit(File file) {
+            files.add(file);
+          }
+        });
+        listing.files = files;
+      }
+      else if (this.pathFile.exists()) {
+        //assume it's a jar file.
+        listing.fromIndex = this.index.isIndexed(this.pathFile);
+        listing.indexEntry = this.index.getEntry(this.pathFile);
+      }
+      return listing;
+    }
+  }
+
   /**
    * File visitor interface used to visit files.
    */
@@ -1706,7 +2111,17 @@ public class Enunciate {
     private Target nextTarget;
 
     private Stepper() throws EnunciateException, IOException {
-      doInit();
+      if (getProfileFile() != null) {
+        profile = new BuildProfile();
+      }
+
+      BuildProfile.Span span = startSpan("step", "init", null);
+      try {
+        doInit();
+      }
+      finally {
+        span.end();
+      }
       this.nextTarget = Target.GENERATE;
     }
 
@@ -1727,29 +2142,38 @@ public class Enunciate {
         throw new EnunciateExecutionException("All steps completed.");
       }
 
-      info("invoking enunciate:%s step...", this.nextTarget.toString().toLowerCase());
-
-      switch (this.nextTarget) {
-        case GENERATE:
-          doGenerate();
-          this.nextTarget = Target.COMPILE;
-          break;
-        case COMPILE:
-          doCompile();
-          this.nextTarget = Target.BUILD;
-          break;
-        case BUILD:
-          doBuild();
-          this.nextTarget = Target.PACKAGE;
-          break;
-        case PACKAGE:
-          doPackage();
-          this.nextTarget = null;
-          break;
-        default:
-          throw new IllegalStateException("Unknown next step: " + this.nextTarget);
+      if (profile != null) {
+        profile.setTarget(this.nextTarget);
       }
+      BuildProfile.Span span = startSpan("step", this.nextTarget.toString().toLowerCase(), null);
+      try {
+        info("invoking enunciate:%s step...", this.nextTarget.toString().toLowerCase());
+
+        switch (this.nextTarget) {
+          case GENERATE:
+            doGenerate();
+            this.nextTarget = Target.COMPILE;
+            break;
+          case COMPILE:
+            doCompile();
+            this.nextTarget = Target.BUILD;
+            break;
+          case BUILD:
+            doBuild();
+            this.nextTarget = Target.PACKAGE;
+            break;
+          case PACKAGE:
+            doPackage();
+            this.nextTarget = null;
+            break;
+          default:
+            throw new IllegalStateException("Unknown next step: " + this.nextTarget);
+        }
 
+      }
+      finally {
+        span.end();
+      }
     }
 
     /**
@@ -55,6 +55,7 @@ public class EnunciateTask extends MatchingTask {
   private File buildDir;
   private File packageDir;
   private File scratchDir;
+  private File profile;
   private File gwtHome;
   private File flexHome;
   private Enunciate.Target target;
@@ -147,6 +148,10 @@ public class EnunciateTask extends MatchingTask {
         proxy.setTarget(this.target);
       }
 
+      if (this.profile != null) {
+        proxy.setProfileFile(this.profile);
+      }
+
       for (Export export : exports) {
         proxy.addExport(export.getArtifactId(), export.getDestination());
       }
@@ -233,6 +238,15 @@ public class EnunciateTask extends MatchingTask {
     this.scratchDir = scratchDir;
   }
 
+  /**
+   * The file to which to write a profile of the build (JSON). A Chrome trace is written alongside it.
+   *
+   * @param profile The profile file.
+   */
+  public void setProfile(File profile) {
+    this.profile = profile;
+  }
+
   /**
    * Whether to be verbose.
    *
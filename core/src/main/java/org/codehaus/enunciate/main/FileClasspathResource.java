@@ -24,6 +24,15 @@ public class FileClasspathResource implements ClasspathResource {
     return this.path;
   }
 
+  /**
+   * The file.
+   *
+   * @return The file.
+   */
+  public File getFile() {
+    return this.file;
+  }
+
   public InputStream read() throws IOException {
     return new FileInputStream(this.file);
   }
@@ -6,27 +6,28 @@ import org.codehaus.enunciate.modules.DeploymentModule;
 import org.codehaus.enunciate.util.AntPatternMatcher;
 
 import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.*;
 
 /**
-* @author Ryan Heaton
-*/
+ * Handler that notices the classes (and their sources) on the classpath that are to be imported into the API. The
+ * location of each source file is only recorded while scanning; a source file is only extracted (if it's in a jar)
+ * once its class is actually selected for import.
+ *
+ * @author Ryan Heaton
+ */
 public class ImportedClassesClasspathHandler implements ClasspathHandler {
 
   private final Enunciate enunciate;
   private final Map<String, File> classesToSources = new HashMap<String, File>();
-  private final File tempSourcesDir;
+  private File tempSourcesDir;
+  private List<CompiledImport> imports;
 
   private File currentEntry;
-  private Map<String, File> currentEntryClassesToSources;
+  private Map<String, ClasspathResource> currentEntryClassesToSources;
   private boolean classesImportedFromCurrentEntry;
 
   public ImportedClassesClasspathHandler(Enunciate enunciate) throws IOException {
     this.enunciate = enunciate;
-    this.tempSourcesDir = enunciate.createTempDir();
   }
 
   public Map<String, File> getClassesToSources() {
@@ -35,7 +36,7 @@ public class ImportedClassesClasspathHandler implements ClasspathHandler {
 
   public void startPathEntry(File pathEntry) {
     this.currentEntry = pathEntry;
-    this.currentEntryClassesToSources = new HashMap<String, File>();
+    this.currentEntryClassesToSources = new HashMap<String, ClasspathResource>();
     this.classesImportedFromCurrentEntry = false;
   }
 
@@ -51,25 +52,8 @@ public class ImportedClassesClasspathHandler implements ClasspathHandler {
     else if (path.endsWith(".java")) {
       String classname = path.substring(0, path.length() - 5).replace('/', '.');
       if (!classname.endsWith(".package-info")) {
-        File sourcesFile = new File(tempSourcesDir, path);
-        enunciate.debug("Noticed the source for class %s in %s, extracting to %s.", classname, currentEntry, sourcesFile);
-        try {
-          InputStream in = resource.read();
-          sourcesFile.getParentFile().mkdirs();
-          FileOutputStream out = new FileOutputStream(sourcesFile);
-          byte[] buffer = new byte[1024 * 2]; //2 kb buffer should suffice.
-          int len;
-          while ((len = in.read(buffer)) > 0) {
-            out.write(buffer, 0, len);
-          }
-          out.flush();
-          out.close();
-          in.close();
-          currentEntryClassesToSources.put(classname, sourcesFile);
-        }
-        catch (IOException e) {
-          enunciate.warn("Unable to extract source file %s (%s).", sourcesFile, e.getMessage());
-        }
+        enunciate.debug("Noticed the source for class %s in %s.", classname, currentEntry);
+        currentEntryClassesToSources.put(classname, resource);
       }
     }
     else if ("META-INF/enunciate/api-exports".equals(path)) {
@@ -124,50 +108,131 @@ public class ImportedClassesClasspathHandler implements ClasspathHandler {
   }
 
   /**
-   * Copy the relevant found classes that are imported to the specified map.
+   * Copy the relevant found classes that are imported to the specified map, extracting their sources as needed.
    *
    * @param foundClasses2Sources the found classes.
    * @param classes2sources      the target map.
    * @return whether any of the found classes were imported.
    */
-  protected boolean copyImportedClasses(Map<String, File> foundClasses2Sources, Map<String, File> classes2sources) {
+  protected boolean copyImportedClasses(Map<String, ClasspathResource> foundClasses2Sources, Map<String, File> classes2sources) {
     boolean imported = false;
-    for (Map.Entry<String, File> foundEntry : foundClasses2Sources.entrySet()) {
+    List<CompiledImport> imports = getImports();
+    for (Map.Entry<String, ClasspathResource> foundEntry : foundClasses2Sources.entrySet()) {
       if (foundEntry.getKey().endsWith(".package-info")) {
-        File sourceFile = foundEntry.getValue();
+        File sourceFile = extractSource(foundEntry.getValue());
         if (sourceFile != null) {
           //APT has a bug where it won't find the package-info file unless it's on the source path.
           imported |= !classes2sources.containsKey(foundEntry.getKey());
           classes2sources.put(foundEntry.getKey(), sourceFile);
         }
       }
-      else if (this.enunciate.getConfig() != null && this.enunciate.getConfig().getAPIImports() != null && !this.enunciate.getConfig().getAPIImports().isEmpty()) {
-        AntPatternMatcher matcher = new AntPatternMatcher();
-        matcher.setPathSeparator(".");
-        for (APIImport apiImport : this.enunciate.getConfig().getAPIImports()) {
-          String pattern = apiImport.getPattern();
-          if (pattern != null) {
-            if (!classes2sources.containsKey(foundEntry.getKey())) {
-              if (pattern.equals(foundEntry.getKey())) {
-                this.enunciate.debug("Class %s will be imported because it was explicitly listed.", foundEntry.getKey());
-                imported |= !classes2sources.containsKey(foundEntry.getKey());
-                classes2sources.put(foundEntry.getKey(), apiImport.isSeekSource() ? foundEntry.getValue() : null);
-              }
-              else if (matcher.isPattern(pattern) && matcher.match(pattern, foundEntry.getKey())) {
-                this.enunciate.debug("Class %s will be imported because it matches pattern %s.", foundEntry.getKey(), pattern);
-                imported |= !classes2sources.containsKey(foundEntry.getKey());
-                classes2sources.put(foundEntry.getKey(), apiImport.isSeekSource() ? foundEntry.getValue() : null);
-              }
+      else if (!imports.isEmpty()) {
+        for (CompiledImport apiImport : imports) {
+          if (!classes2sources.containsKey(foundEntry.getKey())) {
+            if (apiImport.pattern.getPattern().equals(foundEntry.getKey())) {
+              this.enunciate.debug("Class %s will be imported because it was explicitly listed.", foundEntry.getKey());
+              imported = true;
+              classes2sources.put(foundEntry.getKey(), apiImport.seekSource ? extractSource(foundEntry.getValue()) : null);
             }
-            else if (foundEntry.getValue() != null) {
-              imported |= !classes2sources.containsKey(foundEntry.getKey());
-              classes2sources.put(foundEntry.getKey(), foundEntry.getValue());
+            else if (apiImport.pattern.isPattern() && apiImport.pattern.match(foundEntry.getKey())) {
+              this.enunciate.debug("Class %s will be imported because it matches pattern %s.", foundEntry.getKey(), apiImport.pattern.getPattern());
+              imported = true;
+              classes2sources.put(foundEntry.getKey(), apiImport.seekSource ? extractSource(foundEntry.getValue()) : null);
             }
           }
+          else if (foundEntry.getValue() != null && classes2sources.get(foundEntry.getKey()) == null) {
+            classes2sources.put(foundEntry.getKey(), extractSource(foundEntry.getValue()));
+          }
         }
       }
     }
 
     return imported;
   }
+
+  /**
+   * The API imports, compiled once for the whole scan.
+   *
+   * @return The API imports.
+   */
+  protected List<CompiledImport> getImports() {
+    if (this.imports == null) {
+      List<CompiledImport> imports = new ArrayList<CompiledImport>();
+      if (this.enunciate.getConfig() != null && this.enunciate.getConfig().getAPIImports() != null) {
+        AntPatternMatcher matcher = new AntPatternMatcher();
+        matcher.setPathSeparator(".");
+        for (APIImport apiImport : this.enunciate.getConfig().getAPIImports()) {
+          if (apiImport.getPattern() != null) {
+            imports.add(new CompiledImport(matcher.compile(apiImport.getPattern()), apiImport.isSeekSource()));
+          }
+        }
+      }
+      this.imports = imports;
+    }
+    return this.imports;
+  }
+
+  /**
+   * Get a source file for the specified source resource. A source file that's on the filesystem is used where it is;
+   * a source file in a jar is extracted to a temporary directory.
+   *
+   * @param resource The source resource (may be null).
+   * @return The source file, or null if the resource is null or couldn't be extracted.
+   */
+  protected File extractSource(ClasspathResource resource) {
+    if (resource == null) {
+      return null;
+    }
+
+    if (resource instanceof FileClasspathResource) {
+      return ((FileClasspathResource) resource).getFile();
+    }
+
+    File sourcesFile = null;
+    try {
+      if (this.tempSourcesDir == null) {
+        this.tempSourcesDir = this.enunciate.createTempDir();
+      }
+
+      sourcesFile = new File(this.tempSourcesDir, resource.getPath());
+      this.enunciate.debug("Extracting the source %s in %s to %s.", resource.getPath(), currentEntry, sourcesFile);
+      sourcesFile.getParentFile().mkdirs();
+      InputStream in = resource.read();
+      try {
+        FileOutputStream out = new FileOutputStream(sourcesFile);
+        try {
+          byte[] buffer = new byte[1024 * 8];
+          int len;
+          while ((len = in.read(buffer)) > 0) {
+            out.write(buffer, 0, len);
+          }
+        }
+        finally {
+          out.close();
+        }
+      }
+      finally {
+        in.close();
+      }
+      return sourcesFile;
+    }
+    catch (IOException e) {
+      this.enunciate.warn("Unable to extract source file %s (%s).", sourcesFile == null ? resource.getPath() : sourcesFile, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * An API import with its pattern compiled.
+   */
+  protected static class CompiledImport {
+
+    private final AntPatternMatcher.CompiledPattern pattern;
+    private final boolean seekSource;
+
+    private CompiledImport(AntPatternMatcher.CompiledPattern pattern, boolean seekSource) {
+      this.pattern = pattern;
+      this.seekSource = seekSource;
+    }
+  }
 }
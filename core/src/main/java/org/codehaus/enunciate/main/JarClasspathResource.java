@@ -1,5 +1,7 @@
 package org.codehaus.enunciate.main;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.jar.JarEntry;
@@ -14,17 +16,96 @@ public class JarClasspathResource implements ClasspathResource {
 
   private final JarFile jarFile;
   private final JarEntry entry;
+  private final Source source;
+  private final String path;
+  private final byte[] contents;
 
   public JarClasspathResource(JarFile jarFile, JarEntry entry) {
     this.jarFile = jarFile;
     this.entry = entry;
+    this.source = null;
+    this.path = entry.getName();
+    this.contents = null;
+  }
+
+  /**
+   * A jar resource that was read from an index. The jar is only opened if the contents of the resource are read and
+   * they weren't stored in the index.
+   *
+   * @param source The source of the jar.
+   * @param path The path of the resource.
+   * @param contents The contents of the resource, or null if they weren't indexed.
+   */
+  public JarClasspathResource(Source source, String path, byte[] contents) {
+    this.jarFile = null;
+    this.entry = null;
+    this.source = source;
+    this.path = path;
+    this.contents = contents;
   }
 
   public String getPath() {
-    return this.entry.getName();
+    return this.path;
   }
 
   public InputStream read() throws IOException {
-    return this.jarFile.getInputStream(this.entry);
+    if (this.contents != null) {
+      return new ByteArrayInputStream(this.contents);
+    }
+    else if (this.jarFile != null) {
+      return this.jarFile.getInputStream(this.entry);
+    }
+    else {
+      JarFile jarFile = this.source.open();
+      JarEntry entry = jarFile.getJarEntry(this.path);
+      if (entry == null) {
+        throw new IOException("Entry " + this.path + " not found in " + jarFile.getName());
+      }
+      return jarFile.getInputStream(entry);
+    }
+  }
+
+  /**
+   * A lazily-opened jar file, shared by all the resources of a classpath entry.
+   */
+  public static class Source {
+
+    private final File file;
+    private JarFile jarFile;
+
+    public Source(File file) {
+      this.file = file;
+    }
+
+    /**
+     * Open the jar file (if it isn't already open).
+     *
+     * @return The jar file.
+     */
+    public synchronized JarFile open() throws IOException {
+      if (this.jarFile == null) {
+        this.jarFile = new JarFile(this.file);
+      }
+      return this.jarFile;
+    }
+
+    /**
+     * Whether the jar file was opened.
+     *
+     * @return Whether the jar file was opened.
+     */
+    public synchronized boolean isOpened() {
+      return this.jarFile != null;
+    }
+
+    /**
+     * Close the jar file, if it was opened.
+     */
+    public synchronized void close() throws IOException {
+      if (this.jarFile != null) {
+        this.jarFile.close();
+        this.jarFile = null;
+      }
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.main;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * An in-process compilation service built on the <code>javax.tools</code> compiler API. File managers are pooled by classpath
+ * (and encoding), so compiles against the same classpath reuse the opened classpath archives and their indexes instead of
+ * re-reading them for every compile. A file manager is used by only one compile at a time, so compiles can be invoked
+ * concurrently.
+ *
+ * @author Ryan Heaton
+ */
+public class JavacService {
+
+  private final JavaCompiler compiler;
+  private final Map<String, LinkedList<StandardJavaFileManager>> idleFileManagers = new HashMap<String, LinkedList<StandardJavaFileManager>>();
+  private final List<StandardJavaFileManager> fileManagers = new ArrayList<StandardJavaFileManager>();
+
+  public JavacService() {
+    this(ToolProvider.getSystemJavaCompiler());
+  }
+
+  public JavacService(JavaCompiler compiler) {
+    this.compiler = compiler;
+  }
+
+  /**
+   * Whether a system compiler is available (i.e. we're running on a JDK).
+   *
+   * @return Whether a system compiler is available.
+   */
+  public boolean isAvailable() {
+    return this.compiler != null;
+  }
+
+  /**
+   * Compile the specified source files.
+   *
+   * @param classpath The classpath.
+   * @param encoding The encoding of the source files (null for the platform default).
+   * @param compileDir The directory to which to write the class files.
+   * @param options The compiler options (not including the classpath, encoding, or output directory).
+   * @param sourceFiles The source files.
+   * @param out Where to write the compiler messages (null for System.err).
+   * @return Whether the compile succeeded.
+   */
+  public boolean compile(String classpath, String encoding, File compileDir, List<String> options, String[] sourceFiles, Writer out) throws IOException {
+    if (!isAvailable()) {
+      throw new IllegalStateException("No system Java compiler is available.");
+    }
+
+    String key = String.valueOf(encoding) + '|' + classpath;
+    StandardJavaFileManager fileManager = borrowFileManager(key, classpath, encoding);
+    boolean success = false;
+    try {
+      fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Arrays.asList(compileDir));
+      List<File> files = new ArrayList<File>(sourceFiles.length);
+      for (String sourceFile : sourceFiles) {
+        files.add(new File(sourceFile));
+      }
+      Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(files);
+      success = this.compiler.getTask(out, fileManager, null, options, null, units).call();
+      return success;
+    }
+    finally {
+      releaseFileManager(key, fileManager, success);
+    }
+  }
+
+  /**
+   * Borrow a file manager for the specified classpath, creating one if none is idle.
+   *
+   * @param key The pool key.
+   * @param classpath The classpath.
+   * @param encoding The encoding.
+   * @return The file manager.
+   */
+  protected StandardJavaFileManager borrowFileManager(String key, String classpath, String encoding) throws IOException {
+    synchronized (this.idleFileManagers) {
+      LinkedList<StandardJavaFileManager> idle = this.idleFileManagers.get(key);
+      if (idle != null && !idle.isEmpty()) {
+        return idle.removeFirst();
+      }
+    }
+
+    StandardJavaFileManager fileManager = this.compiler.getStandardFileManager(null, null, encoding == null ? null : Charset.forName(encoding));
+    List<File> path = new ArrayList<File>();
+    for (String entry : classpath.split(File.pathSeparator)) {
+      if (entry.trim().length() > 0) {
+        path.add(new File(entry));
+      }
+    }
+    fileManager.setLocation(StandardLocation.CLASS_PATH, path);
+    synchronized (this.idleFileManagers) {
+      this.fileManagers.add(fileManager);
+    }
+    return fileManager;
+  }
+
+  /**
+   * Return a file manager to the pool. The file manager of a failed compile is discarded.
+   *
+   * @param key The pool key.
+   * @param fileManager The file manager.
+   * @param reuse Whether the file manager can be reused.
+   */
+  protected void releaseFileManager(String key, StandardJavaFileManager fileManager, boolean reuse) throws IOException {
+    if (!reuse) {
+      synchronized (this.idleFileManagers) {
+        this.fileManagers.remove(fileManager);
+      }
+      fileManager.close();
+      return;
+    }
+
+    synchronized (this.idleFileManagers) {
+      LinkedList<StandardJavaFileManager> idle = this.idleFileManagers.get(key);
+      if (idle == null) {
+        idle = new LinkedList<StandardJavaFileManager>();
+        this.idleFileManagers.put(key, idle);
+      }
+      idle.addLast(fileManager);
+    }
+  }
+
+  /**
+   * Close the service, releasing the classpath archives held open by the file managers.
+   */
+  public void close() throws IOException {
+    List<StandardJavaFileManager> toClose;
+    synchronized (this.idleFileManagers) {
+      toClose = new ArrayList<StandardJavaFileManager>(this.fileManagers);
+      this.fileManagers.clear();
+      this.idleFileManagers.clear();
+    }
+
+    for (StandardJavaFileManager fileManager : toClose) {
+      fileManager.close();
+    }
+  }
+}
@@ -107,6 +107,11 @@ public class Main {
     buildDir("b", "dir", "The output directory for the \"build\" step."),
     packageDir("p", "dir", "The output directory for the \"package\" step."),
     classpath("cp", "path", "The classpath to use (defaults to the system classpath)."),
+    classpathIndex("ci", "file", "The file in which to keep an index of the classpath jars between runs."),
+    buildManifest("bm", "file", "The file in which to keep a manifest of the build outputs between runs."),
+    generateThreads("gt", "threads", "The number of threads with which to generate independent modules of the same order (defaults to 1)."),
+    validateThreads("vt", "threads", "The number of threads with which to validate the model (defaults to 1)."),
+    profile("pr", "file", "The file to which to write a profile of the build (JSON). A Chrome trace is written alongside it."),
     target("t", "target", "The target step (defaults to \"package\"). Possible values: \"generate\", \"compile\", \"build\", \"package\"."),
     export("E[artifactId]", "file or dir", "The file (or directory) to which to export the artifact identified by [artifactId]");
 
@@ -279,6 +284,36 @@ public class Main {
           enunciate.setRuntimeClasspath(value);
           return true;
 
+        case classpathIndex:
+          enunciate.setClasspathIndexFile(new File(value));
+          return true;
+
+        case buildManifest:
+          enunciate.setBuildManifestFile(new File(value));
+          return true;
+
+        case generateThreads:
+          try {
+            enunciate.setGenerateThreads(Integer.parseInt(value));
+          }
+          catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal number of generate threads: " + value);
+          }
+          return true;
+
+        case validateThreads:
+          try {
+            enunciate.setValidateThreads(Integer.parseInt(value));
+          }
+          catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal number of validate threads: " + value);
+          }
+          return true;
+
+        case profile:
+          enunciate.setProfileFile(new File(value));
+          return true;
+
         case target:
           try {
             enunciate.setTarget(Enunciate.Target.valueOf(value.toUpperCase()));
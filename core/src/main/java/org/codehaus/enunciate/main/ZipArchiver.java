@@ -0,0 +1,672 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.main;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes the contents of directories to a zip archive. Files that are already compressed (jars, images, etc.) are stored
+ * instead of being deflated again, and the other files are deflated in parallel. If the archive already exists, the entries
+ * for the files that haven't changed (same size, last-modified date and checksum) are copied from it without being
+ * recompressed, and if no file has changed the archive isn't rewritten at all.
+ * <p/>
+ * The archives written are plain (non-zip64) zip archives, so they are limited to 65535 entries and 4 GB.
+ *
+ * @author Ryan Heaton
+ */
+public class ZipArchiver {
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_SIGNATURE = 0x06054b50;
+  private static final int UTF8_FLAG = 0x0800;
+  private static final long MAX_SIZE = 0xffffffffL;
+  private static final int MAX_ENTRIES = 0xffff;
+
+  private final int threads;
+  private final Set<String> storedExtensions = new TreeSet<String>(Arrays.asList("jar", "war", "ear", "zip", "swc", "swf", "gz", "tgz", "bz2", "png", "gif", "jpg", "jpeg"));
+
+  public ZipArchiver() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param threads The number of threads to use to compress the entries.
+   */
+  public ZipArchiver(int threads) {
+    this.threads = Math.max(1, threads);
+  }
+
+  /**
+   * The extensions of the files that are already compressed and are therefore stored instead of deflated.
+   *
+   * @return The extensions of the files that are stored.
+   */
+  public Set<String> getStoredExtensions() {
+    return storedExtensions;
+  }
+
+  /**
+   * Zip up the contents of the specified directories. The entries are named relative to the directory that contains them.
+   *
+   * @param toFile The archive to write.
+   * @param dirs The directories to zip up.
+   * @return Whether the archive was written (false if it was already up to date).
+   */
+  public boolean zip(File toFile, File... dirs) throws IOException {
+    List<Source> sources = new ArrayList<Source>();
+    Set<String> names = new HashSet<String>();
+    for (File dir : dirs) {
+      URI baseURI = dir.toURI();
+      ArrayList<File> files = new ArrayList<File>();
+      listFiles(dir, files);
+      for (File file : files) {
+        String name = baseURI.relativize(file.toURI()).getPath();
+        if (!names.add(name)) {
+          throw new IOException("Duplicate zip entry: " + name);
+        }
+        sources.add(new Source(name, file));
+      }
+    }
+
+    Map<String, PreviousEntry> previousEntries = toFile.exists() ? readEntries(toFile) : null;
+    ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+    File tempFile = new File(toFile.getAbsoluteFile().getParentFile(), toFile.getName() + ".tmp");
+    try {
+      if (previousEntries != null) {
+        boolean allMatched = matchPreviousEntries(sources, previousEntries, executor);
+        if (allMatched && previousEntries.size() == sources.size()) {
+          return false;
+        }
+      }
+
+      if (sources.size() > MAX_ENTRIES) {
+        throw new IOException("Too many entries for " + toFile + ": " + sources.size());
+      }
+
+      RandomAccessFile previousArchive = previousEntries != null ? new RandomAccessFile(toFile, "r") : null;
+      try {
+        CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024));
+        try {
+          write(sources, previousArchive, executor, out);
+        }
+        finally {
+          out.close();
+        }
+      }
+      catch (IOException e) {
+        tempFile.delete();
+        throw e;
+      }
+      finally {
+        if (previousArchive != null) {
+          previousArchive.close();
+        }
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    if (toFile.exists() && !toFile.delete()) {
+      tempFile.delete();
+      throw new IOException("Unable to replace " + toFile);
+    }
+
+    if (!tempFile.renameTo(toFile)) {
+      throw new IOException("Unable to rename " + tempFile + " to " + toFile);
+    }
+
+    return true;
+  }
+
+  /**
+   * Match the sources to the entries of the existing archive. The checksums of the sources that have the same size and
+   * last-modified date as their entries are computed in parallel and compared to the checksums of the entries.
+   *
+   * @param sources The sources.
+   * @param previousEntries The entries of the existing archive.
+   * @param executor The executor.
+   * @return Whether every source matched an entry.
+   */
+  protected boolean matchPreviousEntries(List<Source> sources, Map<String, PreviousEntry> previousEntries, ExecutorService executor) throws IOException {
+    boolean allMatched = true;
+    Map<Source, Future<Long>> checksums = new LinkedHashMap<Source, Future<Long>>();
+    for (final Source source : sources) {
+      PreviousEntry previous = previousEntries.get(source.name);
+      if (previous != null && previous.matches(source)) {
+        checksums.put(source, executor.submit(new Callable<Long>() {
+          public Long call() throws Exception {
+            return checksum(source.file);
+          }
+        }));
+      }
+      else {
+        allMatched = false;
+      }
+    }
+
+    for (Map.Entry<Source, Future<Long>> checksum : checksums.entrySet()) {
+      Source source = checksum.getKey();
+      PreviousEntry previous = previousEntries.get(source.name);
+      try {
+        if (previous.crc == checksum.getValue().get()) {
+          source.previous = previous;
+        }
+        else {
+          allMatched = false;
+        }
+      }
+      catch (InterruptedException e) {
+        throw new InterruptedIOException();
+      }
+      catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new IOException(String.valueOf(e.getCause().getMessage()));
+      }
+    }
+    return allMatched;
+  }
+
+  /**
+   * Write the entries for the sources. The entries are prepared in parallel, keeping a bounded number of prepared entries in
+   * memory, and are written in order.
+   */
+  protected void write(List<Source> sources, RandomAccessFile previousArchive, ExecutorService executor, CountingOutputStream out) throws IOException {
+    int window = this.threads * 4;
+    LinkedList<Future<Entry>> pending = new LinkedList<Future<Entry>>();
+    Iterator<Source> sourceIt = sources.iterator();
+    List<Entry> written = new ArrayList<Entry>(sources.size());
+    while (sourceIt.hasNext() || !pending.isEmpty()) {
+      while (sourceIt.hasNext() && pending.size() < window) {
+        Source source = sourceIt.next();
+        if (source.previous != null) {
+          pending.add(new CompletedFuture(new Entry(source, source.previous)));
+        }
+        else {
+          pending.add(executor.submit(new Compression(source)));
+        }
+      }
+
+      Entry entry;
+      try {
+        entry = pending.removeFirst().get();
+      }
+      catch (InterruptedException e) {
+        throw new InterruptedIOException();
+      }
+      catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new IOException(String.valueOf(e.getCause().getMessage()));
+      }
+
+      entry.offset = out.count;
+      writeLocalHeader(entry, out);
+      if (entry.previous != null) {
+        copy(previousArchive, entry.previous.dataOffset, entry.compressedSize, out);
+      }
+      else if (entry.data != null) {
+        out.write(entry.data);
+        entry.data = null;
+      }
+      else {
+        copy(entry.source.file, out);
+      }
+
+      if (out.count > MAX_SIZE) {
+        throw new IOException("Archive too large.");
+      }
+      written.add(entry);
+    }
+
+    long centralDirectoryOffset = out.count;
+    for (Entry entry : written) {
+      writeCentralHeader(entry, out);
+    }
+    long centralDirectorySize = out.count - centralDirectoryOffset;
+
+    writeInt(END_SIGNATURE, out);
+    writeShort(0, out);
+    writeShort(0, out);
+    writeShort(written.size(), out);
+    writeShort(written.size(), out);
+    writeInt(centralDirectorySize, out);
+    writeInt(centralDirectoryOffset, out);
+    writeShort(0, out);
+  }
+
+  /**
+   * Whether the specified file should be stored instead of deflated.
+   *
+   * @param file The file.
+   * @return Whether the specified file should be stored.
+   */
+  protected boolean isStored(File file) {
+    String name = file.getName();
+    int dot = name.lastIndexOf('.');
+    return dot >= 0 && this.storedExtensions.contains(name.substring(dot + 1).toLowerCase());
+  }
+
+  /**
+   * Read the entries of an existing archive.
+   *
+   * @param archive The archive.
+   * @return The entries by name, or null if the archive can't be read (or has entries that can't be copied).
+   */
+  protected Map<String, PreviousEntry> readEntries(File archive) {
+    try {
+      RandomAccessFile file = new RandomAccessFile(archive, "r");
+      try {
+        long length = file.length();
+        long endOffset = -1;
+        for (long position = length - 22; position >= 0 && position >= length - 22 - 0xffff; position--) {
+          file.seek(position);
+          if (readInt(file) == END_SIGNATURE) {
+            endOffset = position;
+            break;
+          }
+        }
+
+        if (endOffset < 0) {
+          return null;
+        }
+
+        file.seek(endOffset + 10);
+        int count = readShort(file);
+        file.seek(endOffset + 16);
+        long position = readInt(file) & MAX_SIZE;
+        Map<String, PreviousEntry> entries = new HashMap<String, PreviousEntry>();
+        for (int i = 0; i < count; i++) {
+          file.seek(position);
+          if (readInt(file) != CENTRAL_HEADER_SIGNATURE) {
+            return null;
+          }
+
+          file.seek(position + 8);
+          PreviousEntry entry = new PreviousEntry();
+          entry.flags = readShort(file);
+          entry.method = readShort(file);
+          entry.dosTime = readInt(file) & MAX_SIZE;
+          entry.crc = readInt(file) & MAX_SIZE;
+          entry.compressedSize = readInt(file) & MAX_SIZE;
+          entry.size = readInt(file) & MAX_SIZE;
+          int nameLength = readShort(file);
+          int extraLength = readShort(file);
+          int commentLength = readShort(file);
+          file.seek(position + 42);
+          long localHeaderOffset = readInt(file) & MAX_SIZE;
+          byte[] name = new byte[nameLength];
+          file.readFully(name);
+          if ((entry.flags & 1) != 0 || entry.size == MAX_SIZE || entry.compressedSize == MAX_SIZE) {
+            //encrypted or zip64; don't bother.
+            return null;
+          }
+
+          file.seek(localHeaderOffset + 26);
+          entry.dataOffset = localHeaderOffset + 30 + readShort(file) + readShort(file);
+          entries.put(new String(name, "utf-8"), entry);
+          position += 46 + nameLength + extraLength + commentLength;
+        }
+        return entries;
+      }
+      finally {
+        file.close();
+      }
+    }
+    catch (IOException e) {
+      return null;
+    }
+  }
+
+  private void writeLocalHeader(Entry entry, OutputStream out) throws IOException {
+    writeInt(LOCAL_HEADER_SIGNATURE, out);
+    writeShort(entry.method == ZipEntry.DEFLATED ? 20 : 10, out);
+    writeShort(UTF8_FLAG, out);
+    writeShort(entry.method, out);
+    writeInt(entry.dosTime, out);
+    writeInt(entry.crc, out);
+    writeInt(entry.compressedSize, out);
+    writeInt(entry.size, out);
+    writeShort(entry.name.length, out);
+    writeShort(0, out);
+    out.write(entry.name);
+  }
+
+  private void writeCentralHeader(Entry entry, OutputStream out) throws IOException {
+    writeInt(CENTRAL_HEADER_SIGNATURE, out);
+    writeShort(20, out);
+    writeShort(entry.method == ZipEntry.DEFLATED ? 20 : 10, out);
+    writeShort(UTF8_FLAG, out);
+    writeShort(entry.method, out);
+    writeInt(entry.dosTime, out);
+    writeInt(entry.crc, out);
+    writeInt(entry.compressedSize, out);
+    writeInt(entry.size, out);
+    writeShort(entry.name.length, out);
+    writeShort(0, out);
+    writeShort(0, out);
+    writeShort(0, out);
+    writeShort(0, out);
+    writeInt(0, out);
+    writeInt(entry.offset, out);
+    out.write(entry.name);
+  }
+
+  private static long checksum(File file) throws IOException {
+    CRC32 crc = new CRC32();
+    byte[] buffer = new byte[64 * 1024];
+    FileInputStream in = new FileInputStream(file);
+    try {
+      int len;
+      while ((len = in.read(buffer)) > 0) {
+        crc.update(buffer, 0, len);
+      }
+    }
+    finally {
+      in.close();
+    }
+    return crc.getValue();
+  }
+
+  private static void copy(File file, OutputStream out) throws IOException {
+    byte[] buffer = new byte[64 * 1024];
+    FileInputStream in = new FileInputStream(file);
+    try {
+      int len;
+      while ((len = in.read(buffer)) > 0) {
+        out.write(buffer, 0, len);
+      }
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  private static void copy(RandomAccessFile file, long offset, long length, OutputStream out) throws IOException {
+    byte[] buffer = new byte[64 * 1024];
+    file.seek(offset);
+    while (length > 0) {
+      int len = file.read(buffer, 0, (int) Math.min(buffer.length, length));
+      if (len < 0) {
+        throw new EOFException();
+      }
+      out.write(buffer, 0, len);
+      length -= len;
+    }
+  }
+
+  private static void listFiles(File dir, List<File> list) {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.isDirectory()) {
+          listFiles(file, list);
+        }
+        else {
+          list.add(file);
+        }
+      }
+    }
+  }
+
+  /**
+   * The DOS date/time for the specified java time.
+   *
+   * @param time The java time.
+   * @return The DOS date/time.
+   */
+  static long toDosTime(long time) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTimeInMillis(time);
+    int year = calendar.get(Calendar.YEAR);
+    if (year < 1980) {
+      return (1 << 21) | (1 << 16);
+    }
+    return ((long) (year - 1980) << 25) | ((calendar.get(Calendar.MONTH) + 1) << 21) | (calendar.get(Calendar.DAY_OF_MONTH) << 16)
+      | (calendar.get(Calendar.HOUR_OF_DAY) << 11) | (calendar.get(Calendar.MINUTE) << 5) | (calendar.get(Calendar.SECOND) >> 1);
+  }
+
+  private static void writeShort(int value, OutputStream out) throws IOException {
+    out.write(value & 0xff);
+    out.write((value >>> 8) & 0xff);
+  }
+
+  private static void writeInt(long value, OutputStream out) throws IOException {
+    out.write((int) (value & 0xff));
+    out.write((int) ((value >>> 8) & 0xff));
+    out.write((int) ((value >>> 16) & 0xff));
+    out.write((int) ((value >>> 24) & 0xff));
+  }
+
+  private static int readShort(RandomAccessFile file) throws IOException {
+    int b1 = file.read();
+    int b2 = file.read();
+    if ((b1 | b2) < 0) {
+      throw new EOFException();
+    }
+    return b1 | (b2 << 8);
+  }
+
+  private static int readInt(RandomAccessFile file) throws IOException {
+    return readShort(file) | (readShort(file) << 16);
+  }
+
+  /**
+   * A file to add to the archive.
+   */
+  protected static class Source {
+
+    private final String name;
+    private final File file;
+    private final long length;
+    private final long dosTime;
+    private PreviousEntry previous;
+
+    protected Source(String name, File file) {
+      this.name = name;
+      this.file = file;
+      this.length = file.length();
+      this.dosTime = toDosTime(file.lastModified());
+    }
+  }
+
+  /**
+   * An entry of an existing archive.
+   */
+  protected static class PreviousEntry {
+
+    private int flags;
+    private int method;
+    private long dosTime;
+    private long crc;
+    private long compressedSize;
+    private long size;
+    private long dataOffset;
+
+    /**
+     * Whether this entry has the same size and last-modified date as the specified source. The DOS dates only have a
+     * two-second resolution, so the checksums still have to be compared to be sure the source hasn't changed.
+     *
+     * @param source The source.
+     * @return Whether this entry matches the size and date of the source.
+     */
+    boolean matches(Source source) {
+      return this.size == source.length && this.dosTime == source.dosTime;
+    }
+  }
+
+  /**
+   * An entry to write.
+   */
+  protected static class Entry {
+
+    private final Source source;
+    private final byte[] name;
+    private final int method;
+    private final long dosTime;
+    private final long crc;
+    private final long compressedSize;
+    private final long size;
+    private final PreviousEntry previous;
+    private byte[] data;
+    private long offset;
+
+    Entry(Source source, int method, long crc, long compressedSize, long size, byte[] data) throws UnsupportedEncodingException {
+      this.source = source;
+      this.name = source.name.getBytes("utf-8");
+      this.method = method;
+      this.dosTime = source.dosTime;
+      this.crc = crc;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.data = data;
+      this.previous = null;
+    }
+
+    Entry(Source source, PreviousEntry previous) throws UnsupportedEncodingException {
+      this.source = source;
+      this.name = source.name.getBytes("utf-8");
+      this.method = previous.method;
+      this.dosTime = previous.dosTime;
+      this.crc = previous.crc;
+      this.compressedSize = previous.compressedSize;
+      this.size = previous.size;
+      this.previous = previous;
+    }
+  }
+
+  /**
+   * Prepares the entry for a source: computes the checksum of a stored file, or deflates the file into memory.
+   */
+  private class Compression implements Callable<Entry> {
+
+    private final Source source;
+
+    private Compression(Source source) {
+      this.source = source;
+    }
+
+    public Entry call() throws Exception {
+      CRC32 crc = new CRC32();
+      byte[] buffer = new byte[64 * 1024];
+      FileInputStream in = new FileInputStream(this.source.file);
+      long size = 0;
+      try {
+        if (isStored(this.source.file)) {
+          int len;
+          while ((len = in.read(buffer)) > 0) {
+            crc.update(buffer, 0, len);
+            size += len;
+          }
+          return new Entry(this.source, ZipEntry.STORED, crc.getValue(), size, size, null);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(this.source.length, 1024 * 1024) + 64);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+          DeflaterOutputStream deflated = new DeflaterOutputStream(bytes, deflater, buffer.length);
+          int len;
+          while ((len = in.read(buffer)) > 0) {
+            crc.update(buffer, 0, len);
+            deflated.write(buffer, 0, len);
+            size += len;
+          }
+          deflated.finish();
+        }
+        finally {
+          deflater.end();
+        }
+
+        if (bytes.size() >= size) {
+          //didn't compress; store it instead.
+          return new Entry(this.source, ZipEntry.STORED, crc.getValue(), size, size, null);
+        }
+        return new Entry(this.source, ZipEntry.DEFLATED, crc.getValue(), bytes.size(), size, bytes.toByteArray());
+      }
+      finally {
+        in.close();
+      }
+    }
+  }
+
+  /**
+   * A future for an entry that doesn't need to be prepared.
+   */
+  private static class CompletedFuture implements Future<Entry> {
+
+    private final Entry entry;
+
+    private CompletedFuture(Entry entry) {
+      this.entry = entry;
+    }
+
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      return false;
+    }
+
+    public boolean isCancelled() {
+      return false;
+    }
+
+    public boolean isDone() {
+      return true;
+    }
+
+    public Entry get() {
+      return this.entry;
+    }
+
+    public Entry get(long timeout, TimeUnit unit) {
+      return this.entry;
+    }
+  }
+
+  /**
+   * Output stream that counts the bytes written to it.
+   */
+  protected static class CountingOutputStream extends FilterOutputStream {
+
+    private long count = 0;
+
+    public CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      this.out.write(b);
+      this.count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      this.out.write(b, off, len);
+      this.count += len;
+    }
+  }
+}
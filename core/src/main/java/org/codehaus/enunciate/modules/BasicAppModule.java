@@ -26,6 +26,7 @@ import org.codehaus.enunciate.config.war.IncludeExcludeLibs;
 import org.codehaus.enunciate.config.war.WebAppConfig;
 import org.codehaus.enunciate.config.war.WebAppResource;
 import org.codehaus.enunciate.contract.validation.Validator;
+import org.codehaus.enunciate.main.DirectorySync;
 import org.codehaus.enunciate.main.Enunciate;
 import org.codehaus.enunciate.main.FileArtifact;
 import org.codehaus.enunciate.main.webapp.BaseWebAppFragment;
@@ -108,6 +109,9 @@ import java.util.jar.Manifest;
  */
 public class BasicAppModule extends FreemarkerDeploymentModule {
 
+  private DirectorySync buildSync;
+  private boolean baseExtracted = false;
+
   /**
    * @return "basic-app"
    */
@@ -208,7 +212,11 @@ public class BasicAppModule extends FreemarkerDeploymentModule {
     File buildDir = getBuildDir();
 
     if (!enunciate.isUpToDateWithSources(buildDir)) {
+      this.buildSync = new DirectorySync();
+      this.buildSync.setHardLinks(getWebAppConfig() != null && getWebAppConfig().isHardLinks());
+      this.baseExtracted = false;
       copyPreBase();
+      debug("Pre base: %s.", this.buildSync.summarizeStep());
 
       debug("Building the expanded WAR in %s", buildDir);
 
@@ -232,19 +240,22 @@ public class BasicAppModule extends FreemarkerDeploymentModule {
 
       for (WebAppFragment fragment : enunciate.getWebAppFragments()) {
         if (fragment.getBaseDir() != null) {
-          enunciate.copyDir(fragment.getBaseDir(), buildDir);
+          this.buildSync.syncDir(fragment.getBaseDir(), buildDir);
         }
       }
+      debug("Web app fragments: %s.", this.buildSync.summarizeStep());
 
+      File webinf = new File(buildDir, "WEB-INF");
       if (getWebAppConfig() == null || getWebAppConfig().isDoCompile()) {
         //copy the compiled classes to WEB-INF/classes.
-        File webinf = new File(buildDir, "WEB-INF");
         File webinfClasses = new File(webinf, "classes");
-        enunciate.copyDir(getCompileDir(), webinfClasses);
+        this.buildSync.syncDir(getCompileDir(), webinfClasses);
+        debug("Compiled classes: %s.", this.buildSync.summarizeStep());
       }
 
       if (getWebAppConfig() == null || getWebAppConfig().isDoLibCopy()) {
         doLibCopy();
+        debug("Libraries: %s.", this.buildSync.summarizeStep());
       }
       else {
         debug("Lib copy has been disabled.  No libs will be copied, nor any manifest written.");
@@ -253,6 +264,17 @@ public class BasicAppModule extends FreemarkerDeploymentModule {
       generateWebXml();
 
       copyPostBase();
+      debug("Post base: %s.", this.buildSync.summarizeStep());
+
+      if (!this.baseExtracted && (getWebAppConfig() == null || getWebAppConfig().getDir() == null)) {
+        //the build dir is ours and we know where everything in WEB-INF/classes and WEB-INF/lib came from; clear out what's left over from previous builds.
+        this.buildSync.deleteStale(new File(webinf, "classes"));
+        this.buildSync.deleteStale(new File(webinf, "lib"));
+        debug("Stale files: %s.", this.buildSync.summarizeStep());
+      }
+
+      info("Built the expanded war: %s.", this.buildSync);
+      this.buildSync = null;
     }
     else {
       info("Skipping the build of the expanded war as everything appears up-to-date...");
@@ -274,11 +296,12 @@ public class BasicAppModule extends FreemarkerDeploymentModule {
       File postBase = enunciate.resolvePath(webAppConfig.getPostBase());
       if (postBase.isDirectory()) {
         debug("Copying postBase directory %s to %s...", postBase, buildDir);
-        enunciate.copyDir(postBase, buildDir);
+        getBuildSync().syncDir(postBase, buildDir);
       }
       else {
         debug("Extracting postBase zip file %s to %s...", postBase, buildDir);
         enunciate.extractBase(new FileInputStream(postBase), buildDir);
+        this.baseExtracted = true;
       }
     }
   }
@@ -294,11 +317,12 @@ public class BasicAppModule extends FreemarkerDeploymentModule {
       File preBase = enunciate.resolvePath(webAppConfig.getPreBase());
       if (preBase.isDirectory()) {
         debug("Copying preBase directory %s to %s...", preBase, buildDir);
-        enunciate.copyDir(preBase, buildDir);
+        getBuildSync().syncDir(preBase, buildDir);
       }
       else {
         debug("Extracting preBase zip file %s to %s...", preBase, buildDir);
         enunciate.extractBase(new FileInputStream(preBase), buildDir);
+        this.baseExtracted = true;
       }
     }
   }
@@ -395,6 +419,7 @@ public class BasicAppModule extends FreemarkerDeploymentModule {
         StreamSource source = new StreamSource(transformURL.openStream());
         Transformer transformer = TransformerFactory.newInstance().newTransformer(source);
         debug("Transforming %s to %s.", mergedWebXml, destWebXML);
+        DirectorySync.unlink(destWebXML); //the pre base may have linked it.
         transformer.transform(new StreamSource(new FileReader(mergedWebXml)), new StreamResult(destWebXML));
       }
       catch (TransformerException e) {
@@ -565,11 +590,11 @@ public class BasicAppModule extends FreemarkerDeploymentModule {
     for (File includedLib : includedLibs) {
       if (includedLib.isDirectory()) {
         debug("Adding the contents of %s to WEB-INF/classes.", includedLib);
-        enunciate.copyDir(includedLib, webinfClasses);
+        getBuildSync().syncDir(includedLib, webinfClasses);
       }
       else {
         debug("Including %s in WEB-INF/lib.", includedLib);
-        enunciate.copyFile(includedLib, includedLib.getParentFile(), webinfLib);
+        getBuildSync().syncFile(includedLib, new File(webinfLib, includedLib.getName()));
       }
     }
 
@@ -589,7 +614,9 @@ public class BasicAppModule extends FreemarkerDeploymentModule {
     }
     File metaInf = new File(buildDir, "META-INF");
     metaInf.mkdirs();
-    FileOutputStream manifestFileOut = new FileOutputStream(new File(metaInf, "MANIFEST.MF"));
+    File manifestFile = new File(metaInf, "MANIFEST.MF");
+    DirectorySync.unlink(manifestFile); //the pre base may have linked it.
+    FileOutputStream manifestFileOut = new FileOutputStream(manifestFile);
     manifest.write(manifestFileOut);
     manifestFileOut.flush();
     manifestFileOut.close();
@@ -764,6 +791,19 @@ public class BasicAppModule extends FreemarkerDeploymentModule {
     return null;
   }
 
+  /**
+   * The sync used to copy files to the build directory. A new sync is used for each build so that it can keep track of
+   * the files that belong in the build directory.
+   *
+   * @return The sync used to copy files to the build directory.
+   */
+  protected DirectorySync getBuildSync() {
+    if (this.buildSync == null) {
+      this.buildSync = new DirectorySync();
+    }
+    return this.buildSync;
+  }
+
   public WebAppConfig getWebAppConfig() {
     return (getEnunciate() != null && getEnunciate().getConfig() != null) ? getEnunciate().getConfig().getWebAppConfig() : null;
   }
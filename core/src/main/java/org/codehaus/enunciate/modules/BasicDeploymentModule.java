@@ -18,6 +18,7 @@ package org.codehaus.enunciate.modules;
 
 import org.codehaus.enunciate.EnunciateException;
 import org.codehaus.enunciate.contract.validation.Validator;
+import org.codehaus.enunciate.main.BuildProfile;
 import org.codehaus.enunciate.main.Enunciate;
 import org.apache.commons.digester.RuleSet;
 
@@ -102,19 +103,26 @@ public class BasicDeploymentModule implements DeploymentModule {
    * @param target The step.
    */
   public void step(Enunciate.Target target) throws EnunciateException, IOException {
-    switch (target) {
-      case GENERATE:
-        doGenerate();
-        break;
-      case BUILD:
-        doBuild();
-        break;
-      case COMPILE:
-        doCompile();
-        break;
-      case PACKAGE:
-        doPackage();
-        break;
+    Enunciate enunciate = getEnunciate();
+    BuildProfile.Span span = enunciate == null ? BuildProfile.NO_SPAN : enunciate.startSpan("module", getName() + ":" + target.toString().toLowerCase(), getName());
+    try {
+      switch (target) {
+        case GENERATE:
+          doGenerate();
+          break;
+        case BUILD:
+          doBuild();
+          break;
+        case COMPILE:
+          doCompile();
+          break;
+        case PACKAGE:
+          doPackage();
+          break;
+      }
+    }
+    finally {
+      span.end();
     }
   }
 
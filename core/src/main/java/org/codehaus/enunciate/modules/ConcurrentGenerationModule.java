@@ -0,0 +1,29 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules;
+
+/**
+ * Marker interface for a deployment module whose generate step doesn't depend on (or interfere with) the generate step
+ * of any other module of the same order. When Enunciate is configured with more than one generate thread, the generate
+ * steps of such modules are invoked concurrently, each against its own fork of the model. The generate step of a module
+ * that doesn't implement this interface is always invoked alone. While generating concurrently, the
+ * {@link FreemarkerDeploymentModule#getModel() model} of a module is its fork.
+ *
+ * @author Ryan Heaton
+ */
+public interface ConcurrentGenerationModule extends DeploymentModule {
+}
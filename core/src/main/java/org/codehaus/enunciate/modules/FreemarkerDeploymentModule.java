@@ -16,12 +16,15 @@
 
 package org.codehaus.enunciate.modules;
 
+import freemarker.cache.StrongCacheStorage;
 import freemarker.cache.URLTemplateLoader;
 import freemarker.template.*;
 import freemarker.core.Environment;
 import org.codehaus.enunciate.EnunciateException;
 import org.codehaus.enunciate.apt.EnunciateFreemarkerModel;
 import org.codehaus.enunciate.apt.EnunciateModelAware;
+import org.codehaus.enunciate.main.BuildProfile;
+import org.codehaus.enunciate.main.Enunciate;
 import net.sf.jelly.apt.freemarker.FreemarkerModel;
 
 import java.io.IOException;
@@ -30,6 +33,8 @@ import java.io.PrintStream;
 import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Basic module that processes a freemarker template when generating, handling the TemplateException that occurs.
@@ -39,6 +44,11 @@ import java.net.URL;
 public abstract class FreemarkerDeploymentModule extends BasicDeploymentModule implements EnunciateModelAware {
   
   private EnunciateFreemarkerModel model = null;
+  private Configuration configuration = null;
+  private final Set<String> loadedTemplates = new HashSet<String>();
+  private int templateCacheHits = 0;
+  private int templateCacheMisses = 0;
+  private long templateParseTime = 0;
 
   /**
    * Processes the template.  Declared final because we don't ever want to do more than process
@@ -79,10 +89,28 @@ public abstract class FreemarkerDeploymentModule extends BasicDeploymentModule i
    */
   public void processTemplate(URL templateURL, Object model, PrintStream out) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = getConfiguration();
-    configuration.setDefaultEncoding("UTF-8");
-    Template template = configuration.getTemplate(templateURL.toString());
-    processTemplate(template, model, out);
+    processTemplate(getTemplate(templateURL), model, out);
+  }
+
+  /**
+   * Gets the (parsed) template at the specified URL. Templates are parsed once per module and reused.
+   *
+   * @param templateURL The template URL.
+   * @return The template.
+   */
+  protected synchronized Template getTemplate(URL templateURL) throws IOException {
+    String name = templateURL.toString();
+    if (this.loadedTemplates.contains(name)) {
+      this.templateCacheHits++;
+      return getConfiguration().getTemplate(name);
+    }
+
+    long start = System.currentTimeMillis();
+    Template template = getConfiguration().getTemplate(name);
+    this.templateParseTime += System.currentTimeMillis() - start;
+    this.templateCacheMisses++;
+    this.loadedTemplates.add(name);
+    return template;
   }
 
   /**
@@ -103,7 +131,14 @@ public abstract class FreemarkerDeploymentModule extends BasicDeploymentModule i
    * @param out The output stream.
    */
   public void processTemplate(Template template, Object model, PrintStream out) throws TemplateException, IOException {
-    template.process(model, new OutputStreamWriter(out));
+    Enunciate enunciate = getEnunciate();
+    BuildProfile.Span span = enunciate == null ? BuildProfile.NO_SPAN : enunciate.startSpan("template", template.getName(), getName());
+    try {
+      template.process(model, new OutputStreamWriter(out));
+    }
+    finally {
+      span.end();
+    }
   }
 
   /**
@@ -124,6 +159,12 @@ public abstract class FreemarkerDeploymentModule extends BasicDeploymentModule i
   }
 
   protected EnunciateFreemarkerModel getModelInternal() {
+    FreemarkerModel current = FreemarkerModel.get();
+    if (this.model != null && current instanceof EnunciateFreemarkerModel && ((EnunciateFreemarkerModel) current).isForkOf(this.model)) {
+      //we're generating concurrently with other modules against a fork of the model.
+      return (EnunciateFreemarkerModel) current;
+    }
+
     return this.model;
   }
 
@@ -137,15 +178,32 @@ public abstract class FreemarkerDeploymentModule extends BasicDeploymentModule i
   }
 
   /**
-   * Get the freemarker configuration.
+   * Get the freemarker configuration. The configuration is created once per module, so the templates it loads are
+   * parsed once and reused.
    *
    * @return the freemarker configuration.
    */
-  protected Configuration getConfiguration() {
+  protected synchronized Configuration getConfiguration() {
+    if (this.configuration == null) {
+      this.configuration = createConfiguration();
+    }
+    return this.configuration;
+  }
+
+  /**
+   * Create the freemarker configuration.
+   *
+   * @return the freemarker configuration.
+   */
+  protected Configuration createConfiguration() {
     Configuration configuration = new Configuration();
     configuration.setTemplateLoader(getTemplateLoader());
     configuration.setTemplateExceptionHandler(getTemplateExceptionHandler());
     configuration.setLocalizedLookup(false);
+    configuration.setDefaultEncoding("UTF-8");
+    //the templates are packaged with the modules; they don't change during a build, so keep them once they're parsed.
+    configuration.setCacheStorage(new StrongCacheStorage());
+    configuration.setTemplateUpdateDelay(Integer.MAX_VALUE);
     return configuration;
   }
 
@@ -185,8 +243,16 @@ public abstract class FreemarkerDeploymentModule extends BasicDeploymentModule i
   @Override
   public void close() throws EnunciateException {
     super.close();
-    
+
+    if (this.templateCacheHits + this.templateCacheMisses > 0) {
+      debug("Template cache: %s hits, %s misses, %sms parsing.", this.templateCacheHits, this.templateCacheMisses, this.templateParseTime);
+    }
+
     this.model = null;
+    synchronized (this) {
+      this.configuration = null;
+      this.loadedTemplates.clear();
+    }
   }
 
   // Inherited.
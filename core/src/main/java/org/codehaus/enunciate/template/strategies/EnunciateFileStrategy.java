@@ -18,10 +18,18 @@ package org.codehaus.enunciate.template.strategies;
 
 import net.sf.jelly.apt.strategies.FileStrategy;
 import net.sf.jelly.apt.strategies.MissingParameterException;
+import org.codehaus.enunciate.main.BuildProfile;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
 
 /**
  * A file strategy that takes into account a base directory.
@@ -53,12 +61,54 @@ public class EnunciateFileStrategy extends FileStrategy {
       }
       dir.mkdirs();
 
-      String charset = getCharset();
-      if (charset != null) {
-        return new PrintWriter(new File(dir, getName()), charset);
-      }
-      else {
-        return new PrintWriter(new File(dir, getName()));
+      //resolve the charset before the file is opened so a bad charset doesn't leak the stream.
+      Charset charset = toCharset(getCharset());
+      return new ProfiledPrintWriter(new File(dir, getName()), charset);
+    }
+  }
+
+  /**
+   * Look up the specified charset.
+   *
+   * @param charset The name of the charset, or null for the default charset.
+   * @return The charset.
+   * @throws UnsupportedEncodingException If the charset isn't supported.
+   */
+  private static Charset toCharset(String charset) throws UnsupportedEncodingException {
+    if (charset == null) {
+      return Charset.defaultCharset();
+    }
+
+    try {
+      return Charset.forName(charset);
+    }
+    catch (IllegalCharsetNameException e) {
+      throw new UnsupportedEncodingException(charset);
+    }
+    catch (UnsupportedCharsetException e) {
+      throw new UnsupportedEncodingException(charset);
+    }
+  }
+
+  /**
+   * A print writer that records the file it wrote in the build profile when it's closed.
+   */
+  private static class ProfiledPrintWriter extends PrintWriter {
+
+    private final File file;
+    private boolean recorded = false;
+
+    private ProfiledPrintWriter(File file, Charset charset) throws IOException {
+      super(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), charset)));
+      this.file = file;
+    }
+
+    @Override
+    public void close() {
+      super.close();
+      if (!this.recorded) {
+        this.recorded = true;
+        BuildProfile.recordOutput(this.file);
       }
     }
   }
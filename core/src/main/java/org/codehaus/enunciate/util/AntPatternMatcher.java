@@ -56,6 +56,28 @@ public class AntPatternMatcher {
     return doMatch(pattern, path, true);
   }
 
+  /**
+   * Compile the given pattern so it can be matched against any number of paths without being parsed each time.
+   *
+   * @param pattern The pattern.
+   * @return The compiled pattern.
+   */
+  public CompiledPattern compile(String pattern) {
+    return new CompiledPattern(pattern, split(pattern));
+  }
+
+  /**
+   * Split the given pattern or path into its elements.
+   *
+   * @param path The pattern or path.
+   * @return The elements.
+   */
+  protected String[] split(String path) {
+    String pathSeparatorSplitPattern = ".".equals(this.pathSeparator) ? "\\." : this.pathSeparator; //escape the special '.' for regexp splitting.
+    pathSeparatorSplitPattern = "\\".equals(pathSeparatorSplitPattern) ? "\\\\" : pathSeparatorSplitPattern; //escape the special '\' for regexp splitting.
+    return path.split(pathSeparatorSplitPattern);
+  }
+
   /**
    * Actually match the given <code>path</code> against the given <code>pattern</code>.
    * @param pattern the pattern to match against
@@ -66,14 +88,24 @@ public class AntPatternMatcher {
    * <code>false</code> if it didn't
    */
   protected boolean doMatch(String pattern, String path, boolean fullMatch) {
+    return doMatch(pattern, split(pattern), path, fullMatch);
+  }
+
+  /**
+   * Actually match the given <code>path</code> against the given (already split) <code>pattern</code>.
+   * @param pattern the pattern to match against
+   * @param pattDirs the elements of the pattern
+   * @param path the path String to test
+   * @param fullMatch whether a full pattern match is required
+   * @return <code>true</code> if the supplied <code>path</code> matched,
+   * <code>false</code> if it didn't
+   */
+  protected boolean doMatch(String pattern, String[] pattDirs, String path, boolean fullMatch) {
     if (path.startsWith(this.pathSeparator) != pattern.startsWith(this.pathSeparator)) {
       return false;
     }
 
-    String pathSeparatorSplitPattern = ".".equals(this.pathSeparator) ? "\\." : this.pathSeparator; //escape the special '.' for regexp splitting.
-    pathSeparatorSplitPattern = "\\".equals(pathSeparatorSplitPattern) ? "\\\\" : pathSeparatorSplitPattern; //escape the special '\' for regexp splitting.
-    String[] pattDirs = pattern.split(pathSeparatorSplitPattern);
-    String[] pathDirs = path.split(pathSeparatorSplitPattern);
+    String[] pathDirs = split(path);
 
     int pattIdxStart = 0;
     int pattIdxEnd = pattDirs.length - 1;
@@ -339,4 +371,48 @@ public class AntPatternMatcher {
     return true;
   }
 
+  /**
+   * A pattern that has been parsed by this matcher.
+   */
+  public class CompiledPattern {
+
+    private final String pattern;
+    private final String[] pattDirs;
+    private final boolean isPattern;
+
+    private CompiledPattern(String pattern, String[] pattDirs) {
+      this.pattern = pattern;
+      this.pattDirs = pattDirs;
+      this.isPattern = AntPatternMatcher.this.isPattern(pattern);
+    }
+
+    /**
+     * The pattern.
+     *
+     * @return The pattern.
+     */
+    public String getPattern() {
+      return pattern;
+    }
+
+    /**
+     * Whether this is actually a pattern (as opposed to a literal path).
+     *
+     * @return Whether this is actually a pattern.
+     */
+    public boolean isPattern() {
+      return isPattern;
+    }
+
+    /**
+     * Whether the specified path matches this pattern.
+     *
+     * @param path The path.
+     * @return Whether the path matches.
+     */
+    public boolean match(String path) {
+      return doMatch(this.pattern, this.pattDirs, path, true);
+    }
+  }
+
 }
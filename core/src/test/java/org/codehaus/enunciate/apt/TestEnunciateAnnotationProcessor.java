@@ -19,8 +19,10 @@ package org.codehaus.enunciate.apt;
 import com.sun.mirror.declaration.ClassDeclaration;
 import com.sun.mirror.declaration.TypeDeclaration;
 import com.sun.mirror.apt.Messager;
+import freemarker.template.TemplateException;
 import junit.framework.AssertionFailedError;
 import junit.framework.Test;
+import net.sf.jelly.apt.freemarker.FreemarkerModel;
 import org.codehaus.enunciate.EnunciateException;
 import org.codehaus.enunciate.InAPTTestCase;
 import org.codehaus.enunciate.OutsideAPTOkay;
@@ -32,14 +34,21 @@ import org.codehaus.enunciate.contract.validation.ValidationResult;
 import org.codehaus.enunciate.contract.validation.Validator;
 import org.codehaus.enunciate.main.Enunciate;
 import org.codehaus.enunciate.modules.BasicDeploymentModule;
+import org.codehaus.enunciate.modules.ConcurrentGenerationModule;
 import org.codehaus.enunciate.modules.DeploymentModule;
+import org.codehaus.enunciate.modules.FreemarkerDeploymentModule;
 import org.easymock.EasyMock;
 
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * @author Ryan Heaton
@@ -75,6 +84,85 @@ public class TestEnunciateAnnotationProcessor extends InAPTTestCase {
     assertNotNull(mockModule.model);
   }
 
+  /**
+   * Tests that generating the independent modules concurrently establishes the same model and output as generating
+   * the modules in turn.
+   */
+  @OutsideAPTOkay
+  public void testGenerateConcurrently() throws Exception {
+    Map<String, String> sequential = generate(1);
+    assertEquals(sequential, generate(4));
+  }
+
+  private Map<String, String> generate(int threads) throws Exception {
+    final List<DeploymentModule> modules = Arrays.asList(new DeploymentModule[]{
+      new ConcurrentlyGeneratingModule("a"),
+      new ConcurrentlyGeneratingModule("b"),
+      new GeneratingModule("c", 0),
+      new ConcurrentlyGeneratingModule("d"),
+      new ConcurrentlyGeneratingModule("e"),
+      new GeneratingModule("f", 10)
+    });
+    EnunciateConfiguration config = new EnunciateConfiguration() {
+      @Override
+      public List<DeploymentModule> getEnabledModules() {
+        return modules;
+      }
+    };
+    Enunciate enunciate = new Enunciate(new String[0]);
+    enunciate.setConfig(config);
+    enunciate.setGenerateThreads(threads);
+    File generateDir = enunciate.createTempDir();
+    for (DeploymentModule module : modules) {
+      ((GeneratingModule) module).setGenerateDir(new File(generateDir, module.getName()));
+    }
+
+    final EnunciateFreemarkerModel model = new EnunciateFreemarkerModel();
+    model.put("initial", "initial");
+    model.put("removed", "initial");
+    EnunciateAnnotationProcessor processor = new EnunciateAnnotationProcessor(enunciate) {
+      @Override
+      protected EnunciateFreemarkerModel getRootModel() {
+        for (DeploymentModule module : modules) {
+          ((GeneratingModule) module).initModel(model);
+        }
+        FreemarkerModel.set(model);
+        return model;
+      }
+    };
+
+    processor.process();
+    processor.throwAnyErrors();
+
+    Map<String, String> results = new TreeMap<String, String>();
+    for (String variable : GeneratingModule.VARIABLES) {
+      results.put(variable, String.valueOf(model.getVariable(variable)));
+    }
+    for (DeploymentModule module : modules) {
+      GeneratingModule generatingModule = (GeneratingModule) module;
+      results.put(module.getName() + ".txt", read(new File(generatingModule.getGenerateDir(), module.getName() + ".txt")));
+      if (threads == 1 || !(module instanceof ConcurrentGenerationModule)) {
+        assertSame(Thread.currentThread(), generatingModule.thread);
+      }
+      else {
+        assertNotSame(Thread.currentThread(), generatingModule.thread);
+      }
+    }
+    return results;
+  }
+
+  private static String read(File file) throws IOException {
+    FileReader reader = new FileReader(file);
+    StringBuilder contents = new StringBuilder();
+    char[] buffer = new char[64];
+    int len;
+    while ((len = reader.read(buffer)) > 0) {
+      contents.append(buffer, 0, len);
+    }
+    reader.close();
+    return contents.toString();
+  }
+
   /**
    * Tests getting the root model.
    */
@@ -386,6 +474,77 @@ public class TestEnunciateAnnotationProcessor extends InAPTTestCase {
     }
   }
 
+  /**
+   * A module that reads the variables established by the modules before it, sets some of its own and writes what it
+   * read to its output directory.
+   */
+  private static class GeneratingModule extends FreemarkerDeploymentModule {
+    static final String[] VARIABLES = {"initial", "removed", "last", "a", "b", "c", "d", "e", "f"};
+
+    private final String name;
+    private final int order;
+    Thread thread;
+
+    private GeneratingModule(String name, int order) {
+      this.name = name;
+      this.order = order;
+    }
+
+    @Override
+    public String getName() {
+      return this.name;
+    }
+
+    @Override
+    public int getOrder() {
+      return this.order;
+    }
+
+    /**
+     * @return The variables this module reads.
+     */
+    protected String[] getReadVariables() {
+      return VARIABLES;
+    }
+
+    @Override
+    public void doFreemarkerGenerate() throws EnunciateException, IOException, TemplateException {
+      this.thread = Thread.currentThread();
+      EnunciateFreemarkerModel model = getModel();
+      StringBuilder read = new StringBuilder();
+      for (String variable : getReadVariables()) {
+        read.append(variable).append('=').append(model.getVariable(variable)).append('\n');
+      }
+      model.put(this.name, "generated");
+      model.put("last", this.name);
+      if ("b".equals(this.name)) {
+        model.remove("removed");
+      }
+
+      //write where a template would: to the output directory of the model in use on this thread.
+      File outputDir = ((EnunciateFreemarkerModel) FreemarkerModel.get()).getFileOutputDirectory();
+      outputDir.mkdirs();
+      FileWriter writer = new FileWriter(new File(outputDir, this.name + ".txt"));
+      writer.write(read.toString());
+      writer.close();
+    }
+  }
+
+  /**
+   * A module that only reads the variables established before its order, so it's independent of the other modules of its order.
+   */
+  private static class ConcurrentlyGeneratingModule extends GeneratingModule implements ConcurrentGenerationModule {
+
+    private ConcurrentlyGeneratingModule(String name) {
+      super(name, 0);
+    }
+
+    @Override
+    protected String[] getReadVariables() {
+      return new String[]{"initial"};
+    }
+  }
+
   public static Test suite() {
     return createSuite(TestEnunciateAnnotationProcessor.class);
   }
@@ -31,6 +31,7 @@ import org.codehaus.enunciate.contract.json.JsonRootElementDeclaration;
 import org.codehaus.enunciate.contract.json.JsonSchemaInfo;
 import org.codehaus.enunciate.contract.json.JsonTypeDefinition;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -72,6 +73,47 @@ public class TestEnunciateFreemarkerModel extends InAPTTestCase {
     assertNotNull("The model should have a 'ns2wsdl' variable set.", model.getVariable("ns2wsdl"));
   }
 
+  /**
+   * tests that the variables set and removed on a fork are merged back into the model on join.
+   */
+  @OutsideAPTOkay
+  public void testForkAndJoin() throws Exception {
+    EnunciateFreemarkerModel model = new EnunciateFreemarkerModel();
+    model.put("unchanged", "original");
+    model.put("changed", "original");
+    model.put("removed", "original");
+    model.put("changedByModel", "original");
+
+    EnunciateFreemarkerModel fork = model.fork();
+    assertTrue(fork.isForkOf(model));
+    assertTrue(fork.fork().isForkOf(model));
+    assertFalse(model.isForkOf(fork));
+    assertEquals("original", fork.getVariable("unchanged"));
+    fork.put("changed", "fork");
+    fork.put("added", "fork");
+    fork.remove("removed");
+    model.put("changedByModel", "model");
+    assertEquals("original", model.getVariable("changed"));
+    assertNull(model.getVariable("added"));
+    assertEquals("original", model.getVariable("removed"));
+    assertEquals("original", fork.getVariable("changedByModel"));
+
+    model.join(fork);
+    assertEquals("original", model.getVariable("unchanged"));
+    assertEquals("fork", model.getVariable("changed"));
+    assertEquals("fork", model.getVariable("added"));
+    assertNull(model.getVariable("removed"));
+    assertEquals("The variables the fork copied from the model shouldn't have been joined back.", "model", model.getVariable("changedByModel"));
+
+    File wadlFile = new File("application.wadl");
+    fork = model.fork();
+    fork.setWadlFile(wadlFile);
+    assertNull(model.getWadlFile());
+    model.join(fork);
+    assertEquals(wadlFile, model.getWadlFile());
+    assertEquals("application.wadl", model.getVariable("wadlFilename"));
+  }
+
   /**
    * Tests the known types.
    */
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.contract.validation;
+
+import com.sun.mirror.declaration.ClassDeclaration;
+import com.sun.mirror.declaration.EnumDeclaration;
+import com.sun.mirror.util.SourcePosition;
+import junit.framework.Test;
+import net.sf.jelly.apt.freemarker.FreemarkerModel;
+import org.codehaus.enunciate.InAPTTestCase;
+import org.codehaus.enunciate.apt.EnunciateFreemarkerModel;
+import org.codehaus.enunciate.contract.jaxb.ComplexTypeDefinition;
+import org.codehaus.enunciate.contract.jaxb.EnumTypeDefinition;
+import org.codehaus.enunciate.contract.jaxws.EndpointInterface;
+
+import java.util.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestValidatorChain extends InAPTTestCase {
+
+  /**
+   * tests that the checks run concurrently produce the same messages, in the same order, as the checks run in turn.
+   */
+  public void testConcurrentValidation() throws Exception {
+    EnunciateFreemarkerModel model = new EnunciateFreemarkerModel();
+    model.add(new ComplexTypeDefinition((ClassDeclaration) getDeclaration("org.codehaus.enunciate.samples.schema.BeanOne")));
+    model.add(new ComplexTypeDefinition((ClassDeclaration) getDeclaration("org.codehaus.enunciate.samples.schema.BeanTwo")));
+    model.add(new ComplexTypeDefinition((ClassDeclaration) getDeclaration("org.codehaus.enunciate.samples.schema.BeanThree")));
+    model.add(new EnumTypeDefinition((EnumDeclaration) getDeclaration("org.codehaus.enunciate.samples.schema.EnumBeanOne")));
+    FreemarkerModel.set(model);
+
+    ValidatorChain chain = new ValidatorChain();
+    chain.addValidator("names", new NamesValidator());
+    List<String> inTurn = texts(chain.validate(model));
+    assertTrue(inTurn.contains("org.codehaus.enunciate.samples.schema.BeanOne"));
+    assertTrue(inTurn.contains("org.codehaus.enunciate.samples.schema.EnumBeanOne"));
+
+    chain.setThreads(4);
+    assertEquals(inTurn, texts(chain.validate(model)));
+
+    Map<String, Long> timings = chain.getTimings();
+    assertTrue(timings.containsKey("names"));
+    assertTrue(timings.containsKey("names.validateComplexType"));
+    assertTrue(timings.containsKey("names.validateEnumType"));
+  }
+
+  /**
+   * tests that the checks of a validator that isn't partition-safe are run in turn, even with more than one thread.
+   */
+  public void testValidatorThatIsNotPartitionSafe() throws Exception {
+    EnunciateFreemarkerModel model = new EnunciateFreemarkerModel();
+    model.add(new EndpointInterface(getDeclaration("org.codehaus.enunciate.samples.services.SharedServiceNameOne")));
+    model.add(new EndpointInterface(getDeclaration("org.codehaus.enunciate.samples.services.SharedServiceNameTwo")));
+    FreemarkerModel.set(model);
+
+    ValidatorChain chain = new ValidatorChain();
+    chain.setThreads(4);
+    for (int i = 0; i < 20; i++) {
+      ServiceNamesValidator validator = new ServiceNamesValidator();
+      chain.addValidator("services", validator);
+      assertEquals(Arrays.asList("org.codehaus.enunciate.samples.services.SharedServiceNameTwo duplicates the service name SharedService of org.codehaus.enunciate.samples.services.SharedServiceNameOne."), texts(chain.validate(model)));
+      assertEquals(Collections.singleton(Thread.currentThread()), validator.threads);
+    }
+  }
+
+  private List<String> texts(ValidationResult result) {
+    List<String> texts = new ArrayList<String>();
+    for (ValidationMessage error : result.getErrors()) {
+      texts.add(error.getText());
+    }
+    return texts;
+  }
+
+  /**
+   * Validator that reports the name of each type.
+   */
+  private static class NamesValidator extends BaseValidator {
+
+    @Override
+    public boolean isPartitionSafe() {
+      return true;
+    }
+
+    @Override
+    public ValidationResult validateComplexType(ComplexTypeDefinition complexType) {
+      ValidationResult result = new ValidationResult();
+      result.addError((SourcePosition) null, complexType.getQualifiedName());
+      return result;
+    }
+
+    @Override
+    public ValidationResult validateEnumType(EnumTypeDefinition enumType) {
+      ValidationResult result = new ValidationResult();
+      result.addError((SourcePosition) null, enumType.getQualifiedName());
+      return result;
+    }
+  }
+
+  /**
+   * Validator that reports the endpoints that share a service name, keeping track of the endpoints it has visited.
+   */
+  private static class ServiceNamesValidator extends BaseValidator {
+
+    private final Map<String, EndpointInterface> visitedEndpoints = new HashMap<String, EndpointInterface>();
+    private final Set<Thread> threads = new HashSet<Thread>();
+
+    @Override
+    public ValidationResult validateEndpointInterface(EndpointInterface ei) {
+      this.threads.add(Thread.currentThread());
+      ValidationResult result = new ValidationResult();
+      EndpointInterface visited = this.visitedEndpoints.put(ei.getServiceName(), ei);
+      if (visited != null) {
+        result.addError((SourcePosition) null, ei.getQualifiedName() + " duplicates the service name " + ei.getServiceName() + " of " + visited.getQualifiedName() + ".");
+      }
+      return result;
+    }
+  }
+
+  public static Test suite() {
+    return createSuite(TestValidatorChain.class);
+  }
+}
@@ -0,0 +1,79 @@
+package org.codehaus.enunciate.main;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestBuildManifest extends TestCase {
+
+  /**
+   * tests recording and checking outputs.
+   */
+  public void testUpToDate() throws Exception {
+    Enunciate enunciate = new Enunciate();
+    File sourceDir = enunciate.createTempDir();
+    File source = new File(sourceDir, "Source.java");
+    write(source, "public class Source {}");
+    File outputDir = enunciate.createTempDir();
+    File output = new File(outputDir, "output.xml");
+    write(output, "<output/>");
+
+    String fingerprint = BuildManifest.fingerprint(Arrays.asList(source));
+    File manifestFile = File.createTempFile("enunciatetest", ".properties");
+    BuildManifest manifest = BuildManifest.load(manifestFile);
+    assertFalse(manifest.isUpToDate(outputDir, fingerprint));
+    manifest.record(outputDir, fingerprint);
+    manifest.store(manifestFile);
+
+    manifest = BuildManifest.load(manifestFile);
+    assertTrue(manifest.isUpToDate(outputDir, fingerprint));
+
+    //touching the source doesn't change the fingerprint.
+    source.setLastModified(System.currentTimeMillis() + 10000);
+    assertEquals(fingerprint, BuildManifest.fingerprint(Arrays.asList(source)));
+
+    //changing the source does.
+    write(source, "public class Source { int i; }");
+    String newFingerprint = BuildManifest.fingerprint(Arrays.asList(source));
+    assertFalse(fingerprint.equals(newFingerprint));
+    assertFalse(manifest.isUpToDate(outputDir, newFingerprint));
+
+    //changing the output invalidates it.
+    write(new File(outputDir, "another.xml"), "<another/>");
+    assertFalse(manifest.isUpToDate(outputDir, fingerprint));
+  }
+
+  /**
+   * tests that a change to a classpath entry changes the classpath fingerprint.
+   */
+  public void testClasspathFingerprint() throws Exception {
+    File jar = File.createTempFile("enunciatetest", ".jar");
+    write(jar, "jar");
+    File classesDir = new Enunciate().createTempDir();
+    write(new File(classesDir, "Some.class"), "class");
+    String classpath = jar.getAbsolutePath() + File.pathSeparator + classesDir.getAbsolutePath();
+
+    String fingerprint = BuildManifest.fingerprintClasspath(classpath);
+    assertEquals(fingerprint, BuildManifest.fingerprintClasspath(classpath));
+
+    write(jar, "changed jar");
+    String newFingerprint = BuildManifest.fingerprintClasspath(classpath);
+    assertFalse(fingerprint.equals(newFingerprint));
+
+    write(new File(classesDir, "Another.class"), "class");
+    assertFalse(newFingerprint.equals(BuildManifest.fingerprintClasspath(classpath)));
+  }
+
+  private void write(File file, String contents) throws IOException {
+    FileWriter writer = new FileWriter(file);
+    writer.write(contents);
+    writer.close();
+  }
+
+}
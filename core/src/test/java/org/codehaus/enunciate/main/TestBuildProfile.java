@@ -0,0 +1,167 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.main;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestBuildProfile extends TestCase {
+
+  /**
+   * tests the nesting of the spans and the attribution of the files written.
+   */
+  public void testSpans() throws Exception {
+    File file = File.createTempFile("enunciatetest", ".xml");
+    write(file, "<output/>");
+
+    BuildProfile profile = new BuildProfile();
+    profile.setTarget(Enunciate.Target.GENERATE);
+    BuildProfile.Span step = profile.start("step", "generate", null);
+    BuildProfile.Span module = profile.start("module", "xml:generate", "xml");
+    BuildProfile.Span template = profile.start("template", "xml.fmt", null);
+    BuildProfile.recordOutput(file);
+    template.end();
+    module.end();
+    step.end();
+
+    //spans that have ended aren't open anymore.
+    BuildProfile.recordOutput(file);
+
+    List<BuildProfile.Span> spans = profile.getSpans();
+    assertEquals(3, spans.size());
+    assertSame(template, spans.get(0));
+    assertEquals("xml", template.getModule());
+    assertEquals("generate", template.getTarget());
+    assertEquals(1, template.getFiles());
+    assertEquals(file.length(), template.getBytes());
+    assertEquals(1, module.getFiles());
+    assertEquals(1, step.getFiles());
+    assertNull(step.getModule());
+    assertTrue(step.getWallNanos() >= module.getWallNanos());
+  }
+
+  /**
+   * tests that the work forked to other threads is counted in the span that forked it.
+   */
+  public void testFork() throws Exception {
+    final File file = File.createTempFile("enunciatetest", ".xml");
+    write(file, "<output/>");
+
+    BuildProfile profile = new BuildProfile();
+    profile.setTarget(Enunciate.Target.BUILD);
+    BuildProfile.Span step = profile.start("step", "build", null);
+    BuildProfile.Span module = profile.start("module", "docs:build", "docs");
+    final BuildProfile.Span parent = BuildProfile.current();
+    assertSame(module, parent);
+
+    final BuildProfile.Span[] forks = new BuildProfile.Span[2];
+    final boolean[] closed = new boolean[1];
+    Thread worker = new Thread() {
+      @Override
+      public void run() {
+        forks[0] = parent.fork("task", "pages");
+        forks[1] = BuildProfile.current().fork("template", "docs.fmt");
+        BuildProfile.recordOutput(file);
+        StringBuilder work = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+          work.append(i);
+        }
+        forks[1].end();
+        forks[0].end();
+        closed[0] = BuildProfile.current() == BuildProfile.NO_SPAN;
+      }
+    };
+    worker.start();
+    worker.join();
+    module.end();
+    step.end();
+
+    assertTrue(closed[0]);
+    assertEquals("docs", forks[1].getModule());
+    assertEquals("build", forks[1].getTarget());
+    assertEquals(1, forks[0].getFiles());
+    assertEquals(1, module.getFiles());
+    assertEquals(file.length(), step.getBytes());
+    if (forks[0].getCpuNanos() >= 0 && module.getCpuNanos() >= 0) {
+      assertTrue(module.getCpuNanos() >= forks[0].getCpuNanos());
+      assertTrue(step.getCpuNanos() >= module.getCpuNanos());
+    }
+    if (forks[0].getAllocatedBytes() >= 0 && module.getAllocatedBytes() >= 0) {
+      assertTrue(module.getAllocatedBytes() >= forks[0].getAllocatedBytes());
+    }
+
+    StringWriter report = new StringWriter();
+    profile.writeReport(report);
+    assertTrue(report.toString().contains("\"modules\": [\n    {\"module\": \"docs\", \"target\": \"build\""));
+    assertTrue(report.toString().contains("\"name\": \"docs.fmt\", \"module\": \"docs\", \"target\": \"build\""));
+  }
+
+  /**
+   * tests the report and the trace.
+   */
+  public void testWrite() throws Exception {
+    BuildProfile profile = new BuildProfile();
+    profile.setTarget(Enunciate.Target.BUILD);
+    BuildProfile.Span step = profile.start("step", "build", null);
+    BuildProfile.Span module = profile.start("module", "docs:build", "docs");
+    profile.start("io", "copyDir \"base\"", null).end();
+    module.end();
+    step.end();
+
+    StringWriter report = new StringWriter();
+    profile.writeReport(report);
+    String json = report.toString();
+    assertTrue(json.contains("\"targets\": [\n    {\"target\": \"build\""));
+    assertTrue(json.contains("\"modules\": [\n    {\"module\": \"docs\", \"target\": \"build\""));
+    assertTrue(json.contains("\"name\": \"copyDir \\\"base\\\"\", \"module\": \"docs\""));
+
+    StringWriter trace = new StringWriter();
+    profile.writeTrace(trace);
+    json = trace.toString();
+    assertTrue(json.startsWith("{\"displayTimeUnit\": \"ms\", \"traceEvents\": ["));
+    assertTrue(json.contains("\"name\": \"docs:build\", \"cat\": \"module\", \"ph\": \"X\""));
+    assertTrue(json.contains("\"name\": \"thread_name\", \"ph\": \"M\""));
+
+    assertEquals(new File("/tmp", "profile.trace.json"), BuildProfile.getTraceFile(new File("/tmp", "profile.json")));
+  }
+
+  /**
+   * tests that the no-op span doesn't record anything.
+   */
+  public void testNoSpan() throws Exception {
+    BuildProfile.NO_SPAN.addOutput(1, 100);
+    BuildProfile.NO_SPAN.end();
+    assertEquals(0, BuildProfile.NO_SPAN.getFiles());
+    assertSame(BuildProfile.NO_SPAN, BuildProfile.current());
+    assertSame(BuildProfile.NO_SPAN, BuildProfile.NO_SPAN.fork("task", "none"));
+  }
+
+  private void write(File file, String contents) throws IOException {
+    FileWriter writer = new FileWriter(file);
+    writer.write(contents);
+    writer.close();
+  }
+
+}
@@ -0,0 +1,57 @@
+package org.codehaus.enunciate.main;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestClasspathScanIndex extends TestCase {
+
+  /**
+   * tests indexing a jar and loading the index.
+   */
+  public void testIndexAndReload() throws Exception {
+    Enunciate enunciate = new Enunciate();
+    File dirToZipUp = enunciate.createTempDir();
+    File apiExports = new File(dirToZipUp, "META-INF/enunciate/api-exports");
+    apiExports.getParentFile().mkdirs();
+    FileOutputStream fos = new FileOutputStream(apiExports);
+    fos.write("org.codehaus.enunciate.pckg.SampleClass\n".getBytes("utf-8"));
+    fos.flush();
+    fos.close();
+    File classFile = new File(dirToZipUp, "org/codehaus/enunciate/pckg/SampleClass.class");
+    classFile.getParentFile().mkdirs();
+    classFile.createNewFile();
+    File jarFile = File.createTempFile("enunciatetest", ".jar");
+    enunciate.zip(jarFile, dirToZipUp);
+
+    ClasspathScanIndex index = ClasspathScanIndex.load(null);
+    assertFalse(index.isIndexed(jarFile));
+    ClasspathScanIndex.Entry entry = index.getEntry(jarFile);
+    assertNotNull(entry);
+    assertFalse(entry.isRuntime());
+    List<String> resources = Arrays.asList(entry.getResources());
+    assertTrue(resources.contains("META-INF/enunciate/api-exports"));
+    assertTrue(resources.contains("org/codehaus/enunciate/pckg/SampleClass.class"));
+    assertEquals("org.codehaus.enunciate.pckg.SampleClass\n", new String(entry.getContents("META-INF/enunciate/api-exports"), "utf-8"));
+    assertNull(entry.getContents("org/codehaus/enunciate/pckg/SampleClass.class"));
+
+    File indexFile = File.createTempFile("enunciatetest", ".idx");
+    index.store(indexFile);
+    index = ClasspathScanIndex.load(indexFile);
+    assertTrue(index.isIndexed(jarFile));
+    assertEquals(resources, Arrays.asList(index.getEntry(jarFile).getResources()));
+
+    jarFile.setLastModified(jarFile.lastModified() - 10000);
+    assertFalse(index.isIndexed(jarFile));
+
+    File notAJar = File.createTempFile("enunciatetest", ".jar");
+    assertNull(index.getEntry(notAJar));
+  }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.main;
+
+import junit.framework.TestCase;
+import org.codehaus.enunciate.EnunciateException;
+import org.codehaus.enunciate.apt.EnunciateFreemarkerModel;
+import org.codehaus.enunciate.apt.EnunciateModelAware;
+import org.codehaus.enunciate.config.EnunciateConfiguration;
+import org.codehaus.enunciate.contract.jaxb.Element;
+import org.codehaus.enunciate.contract.jaxb.RootElementDeclaration;
+import org.codehaus.enunciate.contract.jaxb.TypeDefinition;
+import org.codehaus.enunciate.modules.BasicDeploymentModule;
+import org.codehaus.enunciate.modules.DeploymentModule;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestConcurrentExecutions extends TestCase {
+
+  private static final int EXECUTIONS_PER_PROJECT = 4;
+
+  /**
+   * tests that concurrent executions of different projects (with the same package names) in the same JVM produce the same
+   * output as executions of the projects in turn.
+   */
+  public void testConcurrentExecutions() throws Exception {
+    final List<String[]> projects = new ArrayList<String[]>();
+    projects.add(writeProject("urn:alpha",
+                              "public class Person { public String name; public int age; public Address address; }",
+                              "public class Address { public String street; public String city; }"));
+    projects.add(writeProject("urn:beta",
+                              "public class Person { public long id; public String email; }",
+                              "public class Order { public Person customer; public double total; }"));
+
+    List<String> expected = new ArrayList<String>();
+    for (String[] project : projects) {
+      expected.add(execute(project));
+    }
+    assertTrue(expected.get(0).contains("com.example.model.Address urn:alpha"));
+    assertFalse(expected.get(0).contains("urn:beta"));
+    assertTrue(expected.get(1).contains("com.example.model.Order urn:beta"));
+    assertFalse(expected.get(1).contains("urn:alpha"));
+
+    ExecutorService executor = Executors.newFixedThreadPool(projects.size() * EXECUTIONS_PER_PROJECT);
+    try {
+      List<Future<String>> outputs = new ArrayList<Future<String>>();
+      for (int i = 0; i < EXECUTIONS_PER_PROJECT; i++) {
+        for (final String[] project : projects) {
+          outputs.add(executor.submit(new Callable<String>() {
+            public String call() throws Exception {
+              return execute(project);
+            }
+          }));
+        }
+      }
+
+      for (int i = 0; i < outputs.size(); i++) {
+        assertEquals(expected.get(i % projects.size()), outputs.get(i).get());
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Execute Enunciate on the specified source files, through the generate step.
+   *
+   * @return The dump of the model.
+   */
+  private String execute(String[] sourceFiles) throws Exception {
+    ModelDumpModule module = new ModelDumpModule();
+    EnunciateConfiguration config = new EnunciateConfiguration(Arrays.asList((DeploymentModule) module));
+    config.setExcludeUnreferencedClasses(false);
+    Enunciate enunciate = new Enunciate(sourceFiles, config);
+    enunciate.setGenerateDir(enunciate.createTempDir());
+    module.init(enunciate);
+    try {
+      enunciate.invokeApt(sourceFiles);
+    }
+    finally {
+      enunciate.doClose();
+    }
+    return read(new File(module.getGenerateDir(), "model.txt"));
+  }
+
+  private String[] writeProject(String namespace, String... classes) throws IOException {
+    File dir = new File(new Enunciate().createTempDir(), "com/example/model");
+    dir.mkdirs();
+    List<String> sourceFiles = new ArrayList<String>();
+    File packageInfo = new File(dir, "package-info.java");
+    write(packageInfo, "@javax.xml.bind.annotation.XmlSchema(namespace = \"" + namespace + "\") package com.example.model;");
+    sourceFiles.add(packageInfo.getAbsolutePath());
+    for (String clazz : classes) {
+      String name = clazz.substring("public class ".length(), clazz.indexOf(' ', "public class ".length()));
+      File source = new File(dir, name + ".java");
+      write(source, "package com.example.model; @javax.xml.bind.annotation.XmlRootElement " + clazz);
+      sourceFiles.add(source.getAbsolutePath());
+    }
+    return sourceFiles.toArray(new String[sourceFiles.size()]);
+  }
+
+  private void write(File file, String contents) throws IOException {
+    FileWriter writer = new FileWriter(file);
+    writer.write(contents);
+    writer.close();
+  }
+
+  private String read(File file) throws IOException {
+    StringWriter out = new StringWriter();
+    Reader reader = new FileReader(file);
+    char[] buffer = new char[1024];
+    int len;
+    while ((len = reader.read(buffer)) > 0) {
+      out.write(buffer, 0, len);
+    }
+    reader.close();
+    return out.toString();
+  }
+
+  /**
+   * Module that dumps the type definitions and root elements of the model.
+   */
+  private static class ModelDumpModule extends BasicDeploymentModule implements EnunciateModelAware {
+
+    private EnunciateFreemarkerModel model;
+
+    @Override
+    public String getName() {
+      return "model-dump";
+    }
+
+    public void initModel(EnunciateFreemarkerModel model) {
+      this.model = model;
+    }
+
+    @Override
+    protected void doGenerate() throws EnunciateException, IOException {
+      StringBuilder dump = new StringBuilder();
+      for (TypeDefinition typeDefinition : this.model.getTypeDefinitions()) {
+        dump.append(typeDefinition.getQualifiedName()).append(' ').append(typeDefinition.getNamespace()).append(' ').append(typeDefinition.getName()).append('\n');
+        for (Element element : typeDefinition.getElements()) {
+          dump.append("  ").append(element.getName()).append(' ').append(element.getBaseType().getQname()).append('\n');
+        }
+      }
+
+      for (RootElementDeclaration rootElement : this.model.getRootElementDeclarations()) {
+        dump.append(rootElement.getQname()).append('\n');
+      }
+
+      File dir = getGenerateDir();
+      dir.mkdirs();
+      FileWriter writer = new FileWriter(new File(dir, "model.txt"));
+      writer.write(dump.toString());
+      writer.close();
+    }
+  }
+}
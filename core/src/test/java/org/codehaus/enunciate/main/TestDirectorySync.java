@@ -0,0 +1,98 @@
+package org.codehaus.enunciate.main;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestDirectorySync extends TestCase {
+
+  /**
+   * tests syncing a directory more than once.
+   */
+  public void testSyncDir() throws Exception {
+    Enunciate enunciate = new Enunciate();
+    File from = enunciate.createTempDir();
+    write(new File(from, "a.txt"), "a");
+    write(new File(from, "dir/b.txt"), "bb");
+    File to = enunciate.createTempDir();
+    write(new File(to, "dir/stale.txt"), "stale");
+
+    DirectorySync sync = new DirectorySync();
+    sync.syncDir(from, to);
+    assertEquals(2, sync.getFilesCopied());
+    assertEquals(3, sync.getBytesCopied());
+    assertEquals(0, sync.getFilesSkipped());
+    assertTrue(new File(to, "a.txt").exists());
+    assertEquals(new File(from, "dir/b.txt").lastModified(), new File(to, "dir/b.txt").lastModified());
+    sync.deleteStale(to);
+    assertEquals(1, sync.getFilesDeleted());
+    assertFalse(new File(to, "dir/stale.txt").exists());
+    assertTrue(new File(to, "dir/b.txt").exists());
+
+    sync = new DirectorySync();
+    write(new File(from, "a.txt"), "changed");
+    sync.syncDir(from, to);
+    assertEquals(1, sync.getFilesCopied());
+    assertEquals(7, sync.getBytesCopied());
+    assertEquals(1, sync.getFilesSkipped());
+    assertEquals(2, sync.getBytesSkipped());
+
+    //excludes apply to the subdirectories, too.
+    write(new File(from, "dir/excluded.txt"), "excluded");
+    sync = new DirectorySync();
+    sync.syncDir(from, to, new File(from, "dir/excluded.txt"));
+    assertEquals(0, sync.getFilesCopied());
+    assertFalse(new File(to, "dir/excluded.txt").exists());
+  }
+
+  /**
+   * tests that copying over a hard-linked file doesn't write the source of the link.
+   */
+  public void testCopyOverLink() throws Exception {
+    Enunciate enunciate = new Enunciate();
+    File from = enunciate.createTempDir();
+    write(new File(from, "web.xml"), "<web-app/>");
+    File other = enunciate.createTempDir();
+    write(new File(other, "web.xml"), "<web-app version=\"2.5\"/>");
+    File to = enunciate.createTempDir();
+
+    DirectorySync sync = new DirectorySync();
+    sync.setHardLinks(true);
+    sync.syncDir(from, to);
+    sync.setHardLinks(false);
+    sync.syncDir(other, to);
+    assertEquals("<web-app version=\"2.5\"/>", read(new File(to, "web.xml")));
+    assertEquals("<web-app/>", read(new File(from, "web.xml")));
+
+    write(new File(to, "web.xml"), "<linked/>");
+    DirectorySync.unlink(new File(to, "web.xml"));
+    assertFalse(new File(to, "web.xml").exists());
+    assertEquals("<web-app/>", read(new File(from, "web.xml")));
+  }
+
+  private String read(File file) throws IOException {
+    FileReader reader = new FileReader(file);
+    StringBuilder contents = new StringBuilder();
+    char[] buffer = new char[64];
+    int len;
+    while ((len = reader.read(buffer)) > 0) {
+      contents.append(buffer, 0, len);
+    }
+    reader.close();
+    return contents.toString();
+  }
+
+  private void write(File file, String contents) throws IOException {
+    file.getParentFile().mkdirs();
+    FileWriter writer = new FileWriter(file);
+    writer.write(contents);
+    writer.close();
+  }
+
+}
@@ -93,6 +93,13 @@ public class TestImportedClassesClasspathHandler extends TestCase {
     assertFalse(classes2Import.containsKey("org.codehaus.enunciate.pckg2.SampleClassEight$SomeInner"));
     assertNotNull(classes2Import.get("org.codehaus.enunciate.pckg3.SampleClassNine"));
     assertFalse(classes2Import.containsKey("org.codehaus.enunciate.pckg3.SampleClassTen"));
+
+    //sources on the filesystem are used in place; only the selected sources in jars are extracted.
+    assertEquals(new File(dirEntry, "org/codehaus/enunciate/pckg1/SampleClassOne.java").getAbsoluteFile(), classes2Import.get("org.codehaus.enunciate.pckg1.SampleClassOne").getAbsoluteFile());
+    File extractedDir = classes2Import.get("org.codehaus.enunciate.pckg2.SampleClassFive").getParentFile();
+    assertTrue(new File(extractedDir, "SampleClassFive.java").exists());
+    assertTrue(new File(extractedDir, "SampleClassSeven.java").exists());
+    assertFalse(new File(extractedDir, "with/nested/pckg/SampleClassSix.java").exists());
   }
 
   private void createClassFile(String classname, File dir) throws IOException {
@@ -0,0 +1,55 @@
+package org.codehaus.enunciate.main;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestJavacService extends TestCase {
+
+  /**
+   * tests compiling against the same classpath more than once.
+   */
+  public void testCompile() throws Exception {
+    JavacService javac = new JavacService();
+    if (!javac.isAvailable()) {
+      //no system compiler; nothing to test.
+      return;
+    }
+
+    Enunciate enunciate = new Enunciate();
+    File sourceDir = enunciate.createTempDir();
+    File source = new File(sourceDir, "Source.java");
+    write(source, "public class Source {}");
+    File compileDir = enunciate.createTempDir();
+    assertTrue(javac.compile(System.getProperty("java.class.path"), null, compileDir, new ArrayList<String>(), new String[]{source.getAbsolutePath()}, null));
+    assertTrue(new File(compileDir, "Source.class").exists());
+
+    write(source, "public class Source { Another another; }");
+    File another = new File(sourceDir, "Another.java");
+    write(another, "public class Another {}");
+    compileDir = enunciate.createTempDir();
+    assertTrue(javac.compile(System.getProperty("java.class.path"), null, compileDir, new ArrayList<String>(), new String[]{source.getAbsolutePath(), another.getAbsolutePath()}, null));
+    assertTrue(new File(compileDir, "Source.class").exists());
+    assertTrue(new File(compileDir, "Another.class").exists());
+
+    write(source, "public class Source { Missing missing; }");
+    StringWriter out = new StringWriter();
+    assertFalse(javac.compile(System.getProperty("java.class.path"), null, enunciate.createTempDir(), new ArrayList<String>(), new String[]{source.getAbsolutePath()}, out));
+    assertTrue(out.toString().contains("Missing"));
+    javac.close();
+  }
+
+  private void write(File file, String contents) throws IOException {
+    FileWriter writer = new FileWriter(file);
+    writer.write(contents);
+    writer.close();
+  }
+
+}
@@ -0,0 +1,80 @@
+package org.codehaus.enunciate.main;
+
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestZipArchiver extends TestCase {
+
+  /**
+   * tests zipping up a directory, and then updating the zip.
+   */
+  public void testZip() throws Exception {
+    Enunciate enunciate = new Enunciate();
+    File dir = enunciate.createTempDir();
+    File text = new File(dir, "a/b/text.txt");
+    text.getParentFile().mkdirs();
+    StringBuilder contents = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      contents.append("line ").append(i).append('\n');
+    }
+    write(text, contents.toString());
+    File jar = new File(dir, "lib/some.jar");
+    jar.getParentFile().mkdirs();
+    write(jar, contents.toString());
+    File other = new File(dir, "other.xml");
+    write(other, "<xml/>");
+
+    File zip = new File(enunciate.createTempDir(), "test.zip");
+    ZipArchiver archiver = new ZipArchiver(3);
+    assertTrue(archiver.zip(zip, dir));
+    ZipFile zipFile = new ZipFile(zip);
+    assertEquals(3, zipFile.size());
+    ZipEntry entry = zipFile.getEntry("a/b/text.txt");
+    assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+    assertEquals(contents.toString(), read(zipFile, entry));
+    entry = zipFile.getEntry("lib/some.jar");
+    assertEquals(ZipEntry.STORED, entry.getMethod());
+    assertEquals(contents.toString(), read(zipFile, entry));
+    assertEquals("<xml/>", read(zipFile, zipFile.getEntry("other.xml")));
+    zipFile.close();
+
+    //nothing changed.
+    assertFalse(archiver.zip(zip, dir));
+
+    //same size and last-modified date.
+    long lastModified = other.lastModified();
+    write(other, "<new/>");
+    other.setLastModified(lastModified);
+    assertTrue(archiver.zip(zip, dir));
+    zipFile = new ZipFile(zip);
+    assertEquals(3, zipFile.size());
+    assertEquals(contents.toString(), read(zipFile, zipFile.getEntry("a/b/text.txt")));
+    assertEquals(contents.toString(), read(zipFile, zipFile.getEntry("lib/some.jar")));
+    assertEquals("<new/>", read(zipFile, zipFile.getEntry("other.xml")));
+    zipFile.close();
+  }
+
+  private void write(File file, String contents) throws IOException {
+    FileWriter writer = new FileWriter(file);
+    writer.write(contents);
+    writer.close();
+  }
+
+  private String read(ZipFile zipFile, ZipEntry entry) throws IOException {
+    InputStream in = zipFile.getInputStream(entry);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int b;
+    while ((b = in.read()) >= 0) {
+      out.write(b);
+    }
+    in.close();
+    return out.toString();
+  }
+
+}
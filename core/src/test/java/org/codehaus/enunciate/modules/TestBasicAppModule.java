@@ -0,0 +1,101 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules;
+
+import freemarker.template.TemplateException;
+import junit.framework.TestCase;
+import org.codehaus.enunciate.apt.EnunciateFreemarkerModel;
+import org.codehaus.enunciate.config.EnunciateConfiguration;
+import org.codehaus.enunciate.config.war.WebAppConfig;
+import org.codehaus.enunciate.main.Enunciate;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestBasicAppModule extends TestCase {
+
+  /**
+   * tests that building the war doesn't write through the hard links to the pre base.
+   */
+  public void testLinkedPreBaseUnchanged() throws Exception {
+    Enunciate enunciate = new Enunciate(new String[0]);
+    File preBase = enunciate.createTempDir();
+    File preBaseWebXml = new File(preBase, "WEB-INF/web.xml");
+    write(preBaseWebXml, "<web-app><!--pre base--></web-app>");
+    File preBaseManifest = new File(preBase, "META-INF/MANIFEST.MF");
+    write(preBaseManifest, "Manifest-Version: 1.0\nCreated-By: pre base\n");
+
+    WebAppConfig webAppConfig = new WebAppConfig();
+    webAppConfig.setPreBase(preBase.getAbsolutePath());
+    webAppConfig.setHardLinks(true);
+    webAppConfig.setDoCompile(false);
+    webAppConfig.setIncludeClasspathLibs(false);
+    EnunciateConfiguration config = new EnunciateConfiguration();
+    config.setWebAppConfig(webAppConfig);
+    enunciate.setConfig(config);
+
+    final EnunciateFreemarkerModel model = new EnunciateFreemarkerModel();
+    model.setEnunciateConfig(config);
+    BasicAppModule module = new BasicAppModule() {
+      @Override
+      public EnunciateFreemarkerModel getModel() {
+        return model;
+      }
+
+      @Override
+      public void processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
+        write(new File(getGenerateDir(), "web.xml"), "<web-app><!--generated--></web-app>");
+      }
+    };
+    module.init(enunciate);
+    module.setGenerateDir(enunciate.createTempDir());
+    File buildDir = new File(enunciate.createTempDir(), "app");
+    module.setBuildDir(buildDir);
+    module.doBuild();
+
+    assertEquals("<web-app><!--generated--></web-app>", read(new File(buildDir, "WEB-INF/web.xml")));
+    assertEquals("<web-app><!--pre base--></web-app>", read(preBaseWebXml));
+    assertFalse(read(new File(buildDir, "META-INF/MANIFEST.MF")).contains("pre base"));
+    assertEquals("Manifest-Version: 1.0\nCreated-By: pre base\n", read(preBaseManifest));
+  }
+
+  private static String read(File file) throws IOException {
+    FileReader reader = new FileReader(file);
+    StringBuilder contents = new StringBuilder();
+    char[] buffer = new char[64];
+    int len;
+    while ((len = reader.read(buffer)) > 0) {
+      contents.append(buffer, 0, len);
+    }
+    reader.close();
+    return contents.toString();
+  }
+
+  private static void write(File file, String contents) throws IOException {
+    file.getParentFile().mkdirs();
+    FileWriter writer = new FileWriter(file);
+    writer.write(contents);
+    writer.close();
+  }
+
+}
@@ -42,4 +42,19 @@ public class TestAntPatternMatcher extends TestCase {
     assertTrue(matcher.match("org\\codehaus\\enunciate\\**", "org\\codehaus\\enunciate\\subpackage\\SomeClass"));
   }
 
+  /**
+   * tests matching a compiled pattern
+   */
+  public void testCompiledMatch() throws Exception {
+    AntPatternMatcher matcher = new AntPatternMatcher();
+    AntPatternMatcher.CompiledPattern pattern = matcher.compile("org.codehaus.enunciate.*");
+    assertTrue(pattern.isPattern());
+    assertFalse(pattern.match("org.codehaus.enunciate.subpackage.SomeClass"));
+    assertTrue(pattern.match("org.codehaus.enunciate.SomeClass"));
+    pattern = matcher.compile("org.codehaus.enunciate.**.*Class");
+    assertTrue(pattern.match("org.codehaus.enunciate.subpackage.SomeClass"));
+    assertFalse(pattern.match("org.codehaus.enunciate.subpackage.SomeType"));
+    assertFalse(matcher.compile("org.codehaus.enunciate.SomeClass").isPattern());
+  }
+
 }
@@ -27,6 +27,7 @@ import org.codehaus.enunciate.contract.jaxws.WebFault;
 import org.codehaus.enunciate.contract.jaxws.WebMethod;
 import org.codehaus.enunciate.contract.validation.Validator;
 import org.codehaus.enunciate.main.*;
+import org.codehaus.enunciate.modules.ConcurrentGenerationModule;
 import org.codehaus.enunciate.modules.FreemarkerDeploymentModule;
 import org.codehaus.enunciate.modules.csharp.config.CSharpRuleSet;
 import org.codehaus.enunciate.modules.csharp.config.PackageNamespaceConversion;
@@ -92,7 +93,7 @@ import net.sf.jelly.apt.freemarker.FreemarkerJavaDoc;
  * @author Ryan Heaton
  * @docFileName module_csharp.html
  */
-public class CSharpDeploymentModule extends FreemarkerDeploymentModule {
+public class CSharpDeploymentModule extends FreemarkerDeploymentModule implements ConcurrentGenerationModule {
 
   private boolean require = false;
   private boolean disableCompile = true;
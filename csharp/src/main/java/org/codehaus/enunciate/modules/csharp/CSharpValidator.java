@@ -165,4 +165,12 @@ public class CSharpValidator extends BaseValidator {
     return result;
   }
 
+  /**
+   * @return true (the checks of this validator don't share any state).
+   */
+  @Override
+  public boolean isPartitionSafe() {
+    return true;
+  }
+
 }
@@ -22,15 +22,18 @@ import freemarker.template.ObjectWrapper;
 import freemarker.template.TemplateException;
 import net.sf.jelly.apt.Context;
 import net.sf.jelly.apt.decorations.declaration.DecoratedPackageDeclaration;
+import net.sf.jelly.apt.freemarker.FreemarkerModel;
 import net.sf.jelly.apt.util.JavaDocTagHandler;
 import net.sf.jelly.apt.util.JavaDocTagHandlerFactory;
 import org.apache.commons.digester.RuleSet;
 import org.codehaus.enunciate.EnunciateException;
 import org.codehaus.enunciate.apt.EnunciateClasspathListener;
 import org.codehaus.enunciate.apt.EnunciateFreemarkerModel;
+import org.codehaus.enunciate.apt.ProcessingContext;
 import org.codehaus.enunciate.config.SchemaInfo;
 import org.codehaus.enunciate.config.WsdlInfo;
 import org.codehaus.enunciate.main.Artifact;
+import org.codehaus.enunciate.main.BuildProfile;
 import org.codehaus.enunciate.main.Enunciate;
 import org.codehaus.enunciate.main.FileArtifact;
 import org.codehaus.enunciate.main.NamedArtifact;
@@ -52,6 +55,7 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.URIResolver;
@@ -62,6 +66,7 @@ import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * <h1>Documentation Module</h1>
@@ -113,6 +118,12 @@ import java.util.*;
  * <a href="https://github.com/stoicflame/enunciate/blob/v1.23/docs/src/main/resources/org/codehaus/enunciate/modules/docs/doc-files/docs.xslt">Click here</a>
  * for an example XSLT file.</p>
  *
+ * <p>If Enunciate is configured to generate with more than one thread, the pages of the default Freemarker processing template
+ * (the pages of the resources, endpoints, namespaces, elements and types) are rendered concurrently by that number of page jobs, each of which
+ * renders its share of the pages. The index and navigation pages are rendered after the page jobs are finished. A custom
+ * Freemarker processing template is processed in a single pass. A compiled stylesheet is cached and reused for as long as
+ * the stylesheet source (the bytes at its URL) is the same.</p>
+ *
  * <h1><a name="config">Configuration</a></h1>
  *
  * <p>The configuration for the documentation deployment module is specified by the "docs" element
@@ -191,6 +202,12 @@ import java.util.*;
  */
 public class DocumentationDeploymentModule extends FreemarkerDeploymentModule implements DocumentationAwareModule, EnunciateClasspathListener {
 
+  /**
+   * The compiled stylesheets, by URL. A compiled stylesheet is only reused for the exact same stylesheet source, so the
+   * cache can be shared by the executions in the JVM.
+   */
+  private static final ConcurrentMap<String, CompiledStylesheet> STYLESHEETS = new ConcurrentHashMap<String, CompiledStylesheet>();
+
   private String splashPackage;
   private String copyright;
   private String title;
@@ -751,10 +768,14 @@ public class DocumentationDeploymentModule extends FreemarkerDeploymentModule im
       model.put("isExcludeFromDocs", new IsExcludeFromDocsMethod());
       model.put("getGroups", new GetGroupsMethod());
       model.put("includeExampleXml", isIncludeExampleXml());
-      model.put("generateExampleXml", new GenerateExampleXmlMethod(getDefaultNamespace(), model));
+      GenerateExampleXmlMethod generateExampleXml = new GenerateExampleXmlMethod(getDefaultNamespace(), model);
+      model.put("generateExampleXml", generateExampleXml);
       model.put("includeExampleJson", (forceExampleJson || (jacksonXcAvailable && isIncludeExampleJson())));
-      model.put("generateExampleJson", new GenerateExampleJsonMethod(model));
+      GenerateExampleJsonMethod generateExampleJson = new GenerateExampleJsonMethod(model);
+      model.put("generateExampleJson", generateExampleJson);
       processTemplate(getDocsTemplateURL(), model);
+      debug("Example xml fragments: %s generated, %s reused.", generateExampleXml.getFragments().getMisses(), generateExampleXml.getFragments().getHits());
+      debug("Example json fragments: %s generated, %s reused.", generateExampleJson.getFragments().getMisses(), generateExampleJson.getFragments().getHits());
     }
     else {
       info("Skipping documentation source generation as everything appears up-to-date...");
@@ -1004,12 +1025,6 @@ public class DocumentationDeploymentModule extends FreemarkerDeploymentModule im
   protected void doFreemarkerXMLProcessing(URL freemarkerXMLProcessingTemplateURL) throws IOException, EnunciateException {
     debug("Using freemarker XML processing template %s", freemarkerXMLProcessingTemplateURL);
     EnunciateFreemarkerModel model = getModel();
-    File docsXml = new File(getGenerateDir(), "docs.xml");
-    model.put("docsxml", loadNodeModel(docsXml));
-    File downloadsXml = new File(getGenerateDir(), "downloads.xml");
-    if (downloadsXml.exists()) {
-      model.put("downloadsxml", loadNodeModel(downloadsXml));
-    }
     File buildDir = getDocsBuildDir();
     buildDir.mkdirs();
     model.setFileOutputDirectory(buildDir);
@@ -1018,15 +1033,117 @@ public class DocumentationDeploymentModule extends FreemarkerDeploymentModule im
     model.put("disableRestMountpoint", isDisableRestMountpoint());
     model.put("groupRestResources", getGroupRestResources());
     model.put("additionalCss", getAdditionalCss());
+
+    int pageJobs = getEnunciate().getGenerateThreads();
+    if (pageJobs > 1 && !freemarkerXMLProcessingTemplateURL.toString().equals(String.valueOf(DocumentationDeploymentModule.class.getResource("docs.fmt")))) {
+      debug("Custom freemarker XML processing template %s will be processed in a single pass.", freemarkerXMLProcessingTemplateURL);
+      pageJobs = 1;
+    }
+
     try {
-      processTemplate(freemarkerXMLProcessingTemplateURL, model);
+      if (pageJobs > 1) {
+        renderPagesConcurrently(freemarkerXMLProcessingTemplateURL, model, pageJobs);
+      }
+      else {
+        loadDocsXml(model);
+        processTemplate(freemarkerXMLProcessingTemplateURL, model);
+      }
     }
     catch (TemplateException e) {
       throw new EnunciateException(e);
     }
   }
 
-  private NodeModel loadNodeModel(File xml) throws EnunciateException {
+  /**
+   * Renders the pages of the documentation concurrently. Each page job renders its share of the pages from its own fork of the
+   * model. The documentation XML is parsed once into a read-only copy that is shared by the page jobs (the DOM of the parser
+   * isn't safe for concurrent reads). The index and navigation pages are rendered after the page jobs are finished.
+   *
+   * @param templateURL The freemarker XML processing template.
+   * @param model The model.
+   * @param pageJobs The number of page jobs.
+   */
+  protected void renderPagesConcurrently(URL templateURL, EnunciateFreemarkerModel model, int pageJobs) throws IOException, TemplateException, EnunciateException {
+    debug("Rendering the documentation pages with %s page jobs.", pageJobs);
+    Document docsXml = ReadOnlyDom.copy(parseXml(new File(getGenerateDir(), "docs.xml")));
+    File downloadsXmlFile = new File(getGenerateDir(), "downloads.xml");
+    Document downloadsXml = downloadsXmlFile.exists() ? ReadOnlyDom.copy(parseXml(downloadsXmlFile)) : null;
+    List<Callable<Object>> jobs = new ArrayList<Callable<Object>>(pageJobs);
+    for (int i = 0; i < pageJobs; i++) {
+      jobs.add(new PageJob(templateURL, model, docsXml, downloadsXml, i, pageJobs));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(pageJobs);
+    try {
+      for (Future<Object> job : executor.invokeAll(jobs)) {
+        try {
+          job.get();
+        }
+        catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof IOException) {
+            throw (IOException) cause;
+          }
+          else if (cause instanceof TemplateException) {
+            throw (TemplateException) cause;
+          }
+          else if (cause instanceof EnunciateException) {
+            throw (EnunciateException) cause;
+          }
+          else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          else if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw new EnunciateException(cause);
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new EnunciateException("Interrupted while rendering the documentation pages.");
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    //now the index and navigation pages.
+    putDocsXml(model, docsXml, downloadsXml);
+    model.put("renderPages", Boolean.FALSE);
+    try {
+      processTemplate(templateURL, model);
+    }
+    finally {
+      model.remove("renderPages");
+    }
+  }
+
+  /**
+   * Loads the documentation XML (and the downloads XML, if it exists) into the model.
+   *
+   * @param model The model.
+   */
+  protected void loadDocsXml(EnunciateFreemarkerModel model) throws EnunciateException {
+    File downloadsXml = new File(getGenerateDir(), "downloads.xml");
+    putDocsXml(model, parseXml(new File(getGenerateDir(), "docs.xml")), downloadsXml.exists() ? parseXml(downloadsXml) : null);
+  }
+
+  /**
+   * Puts the documentation XML (and the downloads XML, if any) into the model.
+   *
+   * @param model The model.
+   * @param docsXml The documentation XML.
+   * @param downloadsXml The downloads XML, or null if there is none.
+   */
+  private void putDocsXml(EnunciateFreemarkerModel model, Document docsXml, Document downloadsXml) {
+    model.put("docsxml", NodeModel.wrap(docsXml.getDocumentElement()));
+    if (downloadsXml != null) {
+      model.put("downloadsxml", NodeModel.wrap(downloadsXml.getDocumentElement()));
+    }
+  }
+
+  private Document parseXml(File xml) throws EnunciateException {
     Document doc;
     try {
       DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
@@ -1046,15 +1163,14 @@ public class DocumentationDeploymentModule extends FreemarkerDeploymentModule im
     }
 
     NodeModel.simplify(doc);
-    return NodeModel.wrap(doc.getDocumentElement());
+    return doc;
   }
 
   protected void doXSLT(URL xsltURL) throws IOException, EnunciateException {
     debug("Using stylesheet %s", xsltURL);
-    StreamSource source = new StreamSource(xsltURL.openStream());
 
     try {
-      Transformer transformer = SAXTransformerFactory.newInstance().newTransformer(source);
+      Transformer transformer = getStylesheet(xsltURL).newTransformer();
       transformer.setURIResolver(new URIResolver() {
         public Source resolve(String href, String base) throws TransformerException {
           return new StreamSource(new File(getGenerateDir(), href));
@@ -1081,6 +1197,40 @@ public class DocumentationDeploymentModule extends FreemarkerDeploymentModule im
     }
   }
 
+  /**
+   * Get the compiled stylesheet at the specified URL. The stylesheet is compiled once and reused as long as its source
+   * stays the same.
+   *
+   * @param xsltURL The URL of the stylesheet.
+   * @return The compiled stylesheet.
+   */
+  protected Templates getStylesheet(URL xsltURL) throws IOException, TransformerException {
+    String key = xsltURL.toString();
+    ByteArrayOutputStream source = new ByteArrayOutputStream();
+    InputStream in = xsltURL.openStream();
+    try {
+      byte[] buffer = new byte[8 * 1024];
+      int len;
+      while ((len = in.read(buffer)) > 0) {
+        source.write(buffer, 0, len);
+      }
+    }
+    finally {
+      in.close();
+    }
+
+    byte[] bytes = source.toByteArray();
+    CompiledStylesheet stylesheet = STYLESHEETS.get(key);
+    if (stylesheet != null && Arrays.equals(stylesheet.source, bytes)) {
+      debug("Reusing the compiled stylesheet %s.", xsltURL);
+      return stylesheet.templates;
+    }
+
+    stylesheet = new CompiledStylesheet(SAXTransformerFactory.newInstance().newTemplates(new StreamSource(new ByteArrayInputStream(bytes))), bytes);
+    STYLESHEETS.put(key, stylesheet);
+    return stylesheet.templates;
+  }
+
   /**
    * Get the relative path to the root directory from the docs directory.
    *
@@ -1127,4 +1277,64 @@ public class DocumentationDeploymentModule extends FreemarkerDeploymentModule im
   public RuleSet getConfigurationRules() {
     return new DocsRuleSet();
   }
+
+  /**
+   * Renders a share of the documentation pages from a fork of the model.
+   */
+  private class PageJob implements Callable<Object> {
+
+    private final URL template;
+    private final EnunciateFreemarkerModel model;
+    private final ProcessingContext context = ProcessingContext.current();
+    private final BuildProfile.Span parentSpan = BuildProfile.current();
+    private final Document docsXml;
+    private final Document downloadsXml;
+    private final int pageShard;
+    private final int pageShardCount;
+
+    private PageJob(URL template, EnunciateFreemarkerModel model, Document docsXml, Document downloadsXml, int pageShard, int pageShardCount) {
+      this.template = template;
+      this.model = model;
+      this.docsXml = docsXml;
+      this.downloadsXml = downloadsXml;
+      this.pageShard = pageShard;
+      this.pageShardCount = pageShardCount;
+    }
+
+    public Object call() throws Exception {
+      ProcessingContext.bind(this.context);
+      BuildProfile.Span span = this.parentSpan.fork("task", "pages " + (this.pageShard + 1) + "/" + this.pageShardCount);
+      try {
+        EnunciateFreemarkerModel fork = this.model.fork();
+        fork.setObjectWrapper(getObjectWrapper());
+        putDocsXml(fork, this.docsXml, this.downloadsXml);
+        fork.put("renderIndexPages", Boolean.FALSE);
+        fork.put("pageShard", this.pageShard);
+        fork.put("pageShardCount", this.pageShardCount);
+
+        FreemarkerModel.set(fork);
+        processTemplate(this.template, fork);
+      }
+      finally {
+        span.end();
+        ProcessingContext.unbind();
+        FreemarkerModel.set(null);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * A compiled stylesheet.
+   */
+  private static class CompiledStylesheet {
+
+    private final Templates templates;
+    private final byte[] source;
+
+    private CompiledStylesheet(Templates templates, byte[] source) {
+      this.templates = templates;
+      this.source = source;
+    }
+  }
 }
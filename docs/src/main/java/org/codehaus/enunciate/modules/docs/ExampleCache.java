@@ -0,0 +1,182 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.docs;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of the example fragments (e.g. example xml or json) generated for type definitions. The example of a type is generated
+ * by recursing through the nested types, keeping a stack of the types being generated to cut off circular references. So the
+ * fragment of a type depends on the stack under which it was generated: if it cut off a reference to a type lower in the
+ * stack, it can't be reused. And a fragment can only be reused under a stack that doesn't contain any of the types it reached.
+ * To track this, the generation of each fragment is bracketed with {@link #begin(List)} and {@link #end(String, Object)}, and
+ * each type that is reached in the meantime is reported with {@link #reached(String, List)}.
+ *
+ * @author Ryan Heaton
+ */
+public class ExampleCache<F> {
+
+  private final ConcurrentMap<String, Fragment<F>> fragments = new ConcurrentHashMap<String, Fragment<F>>();
+  private final ThreadLocal<LinkedList<Frame>> frames = new ThreadLocal<LinkedList<Frame>>() {
+    @Override
+    protected LinkedList<Frame> initialValue() {
+      return new LinkedList<Frame>();
+    }
+  };
+  private int hits = 0;
+  private int misses = 0;
+
+  /**
+   * The cache key for the fragment of a type.
+   *
+   * @param type The (qualified name of the) type.
+   * @param typeStack The stack of the types being generated.
+   * @param maxDepth The maximum depth of the stack, or {@link Integer#MAX_VALUE} for no maximum.
+   * @return The cache key.
+   */
+  public static String key(String type, List<String> typeStack, int maxDepth) {
+    //the fragment only depends on the depth of the stack through the depth that remains.
+    return type + '|' + (maxDepth == Integer.MAX_VALUE ? "*" : String.valueOf(maxDepth - typeStack.size()));
+  }
+
+  /**
+   * Look up a fragment that can be reused under the specified stack.
+   *
+   * @param key The key of the fragment.
+   * @param typeStack The stack of the types being generated.
+   * @return The fragment, or null if no fragment can be reused.
+   */
+  public F lookup(String key, List<String> typeStack) {
+    Fragment<F> fragment = this.fragments.get(key);
+    if (fragment == null || !Collections.disjoint(fragment.reached, typeStack)) {
+      return null;
+    }
+
+    LinkedList<Frame> frames = this.frames.get();
+    if (!frames.isEmpty()) {
+      frames.getLast().reached.addAll(fragment.reached);
+    }
+    synchronized (this) {
+      this.hits++;
+    }
+    return fragment.value;
+  }
+
+  /**
+   * Begin the generation of a fragment.
+   *
+   * @param typeStack The stack of the types being generated, before the type of the fragment is pushed.
+   */
+  public void begin(List<String> typeStack) {
+    this.frames.get().add(new Frame(typeStack.size()));
+  }
+
+  /**
+   * Report that a type was reached during the generation of the fragments.
+   *
+   * @param type The type.
+   * @param typeStack The stack of the types being generated, before the type is pushed.
+   */
+  public void reached(String type, List<String> typeStack) {
+    LinkedList<Frame> frames = this.frames.get();
+    if (frames.isEmpty()) {
+      return;
+    }
+
+    frames.getLast().reached.add(type);
+    int index = typeStack.indexOf(type);
+    if (index >= 0) {
+      //circular reference: the fragments begun after the type was pushed were cut off by their context.
+      for (Iterator<Frame> it = frames.descendingIterator(); it.hasNext(); ) {
+        Frame frame = it.next();
+        if (frame.depth <= index) {
+          break;
+        }
+        frame.contextual = true;
+      }
+    }
+  }
+
+  /**
+   * End the generation of a fragment, caching the fragment if it can be reused.
+   *
+   * @param key The key of the fragment.
+   * @param value The fragment, or null if the generation failed.
+   */
+  public void end(String key, F value) {
+    LinkedList<Frame> frames = this.frames.get();
+    Frame frame = frames.removeLast();
+    if (!frames.isEmpty()) {
+      frames.getLast().reached.addAll(frame.reached);
+    }
+
+    if (value != null && !frame.contextual) {
+      this.fragments.putIfAbsent(key, new Fragment<F>(value, frame.reached));
+    }
+    synchronized (this) {
+      this.misses++;
+    }
+  }
+
+  /**
+   * The number of fragments that were reused.
+   *
+   * @return The number of fragments that were reused.
+   */
+  public synchronized int getHits() {
+    return hits;
+  }
+
+  /**
+   * The number of fragments that were generated.
+   *
+   * @return The number of fragments that were generated.
+   */
+  public synchronized int getMisses() {
+    return misses;
+  }
+
+  /**
+   * A cached fragment.
+   */
+  private static class Fragment<F> {
+
+    private final F value;
+    private final Set<String> reached;
+
+    private Fragment(F value, Set<String> reached) {
+      this.value = value;
+      this.reached = reached;
+    }
+  }
+
+  /**
+   * The generation of a fragment.
+   */
+  private static class Frame {
+
+    private final int depth;
+    private final Set<String> reached = new HashSet<String>();
+    private boolean contextual = false;
+
+    private Frame(int depth) {
+      this.depth = depth;
+    }
+  }
+}
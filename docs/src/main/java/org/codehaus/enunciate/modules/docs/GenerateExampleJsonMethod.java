@@ -35,9 +35,12 @@ import org.codehaus.jackson.node.ObjectNode;
 
 import javax.xml.namespace.QName;
 import java.io.StringWriter;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Ryan Heaton
@@ -51,6 +54,8 @@ public class GenerateExampleJsonMethod implements TemplateMethodModelEx {
   private static final ThreadLocal<Stack<String>> TYPE_DEF_STACK = new ThreadLocal<Stack<String>>();
 
   private final EnunciateFreemarkerModel model;
+  private final ConcurrentMap<String, String> examples = new ConcurrentHashMap<String, String>();
+  private final ExampleCache<ObjectNode> fragments = new ExampleCache<ObjectNode>();
 
   public GenerateExampleJsonMethod(EnunciateFreemarkerModel model) {
     this.model = model;
@@ -86,33 +91,115 @@ public class GenerateExampleJsonMethod implements TemplateMethodModelEx {
       throw new TemplateModelException("The generateExampleJson method must have a root element as a parameter.");
     }
 
+    String key = (type == null ? "" : type.getQualifiedName()) + '|' + maxDepth;
+    String example = this.examples.get(key);
+    if (example != null) {
+      return example;
+    }
+
     try {
-      ObjectNode node = generateExampleJson(type, maxDepth);
+      ObjectNode node = getExampleFragment(type, maxDepth);
       StringWriter sw = new StringWriter();
       JsonGenerator generator = new JsonFactory().createJsonGenerator(sw);
       configure(generator);
       node.serialize(generator, null);
       generator.flush();
       sw.flush();
-      return sw.toString();
+      example = sw.toString();
+      this.examples.put(key, example);
+      return example;
     }
     catch (Exception e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * The cache of the example fragments generated by this method.
+   *
+   * @return The cache of the example fragments generated by this method.
+   */
+  public ExampleCache<ObjectNode> getFragments() {
+    return fragments;
+  }
+
   protected void configure(JsonGenerator generator) {
     generator.useDefaultPrettyPrinter();
     //generator.disable(JsonGenerator.Feature.QUOTE_FIELD_NAMES);
   }
 
+  /**
+   * Generate the example JSON for a type definition.
+   *
+   * @param type The type definition.
+   * @param maxDepth The maximum depth of the example.
+   * @return The example (a copy that the caller is free to modify).
+   */
   public ObjectNode generateExampleJson(TypeDefinition type, int maxDepth) {
+    return (ObjectNode) copy(getExampleFragment(type, maxDepth));
+  }
+
+  /**
+   * Deep copy of a JSON node. (The value nodes are immutable, so they aren't copied.)
+   *
+   * @param node The node to copy.
+   * @return The copy.
+   */
+  private static JsonNode copy(JsonNode node) {
+    if (node instanceof ObjectNode) {
+      ObjectNode copy = JsonNodeFactory.instance.objectNode();
+      Iterator<String> fieldNames = node.getFieldNames();
+      while (fieldNames.hasNext()) {
+        String fieldName = fieldNames.next();
+        copy.put(fieldName, copy(node.get(fieldName)));
+      }
+      return copy;
+    }
+    else if (node instanceof ArrayNode) {
+      ArrayNode copy = JsonNodeFactory.instance.arrayNode();
+      for (JsonNode item : node) {
+        copy.add(copy(item));
+      }
+      return copy;
+    }
+    return node;
+  }
+
+  /**
+   * Get the example JSON fragment for a type definition, generating it if it hasn't been generated yet. The fragment is
+   * shared by all the examples that reach the type, so it must not be modified.
+   *
+   * @param type The type definition.
+   * @param maxDepth The maximum depth of the example.
+   * @return The shared fragment.
+   */
+  private ObjectNode getExampleFragment(TypeDefinition type, int maxDepth) {
     if (TYPE_DEF_STACK.get() == null) {
       TYPE_DEF_STACK.set(new Stack<String>());
     }
 
-    ObjectNode jsonNode = JsonNodeFactory.instance.objectNode();
-    generateExampleJson(type, jsonNode, maxDepth);
+    ObjectNode jsonNode;
+    if (type != null) {
+      //the example of a type is immutable once it's generated, so it can be shared by all the examples that reach it.
+      Stack<String> typeStack = TYPE_DEF_STACK.get();
+      String key = ExampleCache.key(type.getQualifiedName(), typeStack, maxDepth);
+      jsonNode = this.fragments.lookup(key, typeStack);
+      if (jsonNode == null) {
+        jsonNode = JsonNodeFactory.instance.objectNode();
+        boolean complete = false;
+        this.fragments.begin(typeStack);
+        try {
+          generateExampleJson(type, jsonNode, maxDepth);
+          complete = true;
+        }
+        finally {
+          this.fragments.end(key, complete ? jsonNode : null);
+        }
+      }
+    }
+    else {
+      jsonNode = JsonNodeFactory.instance.objectNode();
+    }
     return jsonNode;
   }
 
@@ -141,6 +228,7 @@ public class GenerateExampleJsonMethod implements TemplateMethodModelEx {
 
   protected void generateExampleJson(TypeDefinition type, ObjectNode jsonNode, int maxDepth) {
     if (type != null) {
+      this.fragments.reached(type.getQualifiedName(), TYPE_DEF_STACK.get());
       if (TYPE_DEF_STACK.get().contains(type.getQualifiedName())) {
         jsonNode.put("...", WhateverNode.instance);
       }
@@ -247,7 +335,7 @@ public class GenerateExampleJsonMethod implements TemplateMethodModelEx {
         return generateExampleJson((EnumTypeDefinition) typeDef);
       }
       else {
-        return generateExampleJson(typeDef, maxDepth);
+        return getExampleFragment(typeDef, maxDepth);
       }
     }
     else if (type instanceof MapXmlType) {
@@ -29,6 +29,7 @@ import org.codehaus.enunciate.contract.jaxb.types.XmlClassType;
 import org.codehaus.enunciate.contract.jaxb.types.XmlType;
 import org.codehaus.enunciate.doc.DocumentationExample;
 import org.jdom.Comment;
+import org.jdom.Content;
 import org.jdom.Document;
 import org.jdom.Namespace;
 import org.jdom.Text;
@@ -36,8 +37,11 @@ import org.jdom.output.XMLOutputter;
 
 import javax.xml.namespace.QName;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Ryan Heaton
@@ -52,6 +56,8 @@ public class GenerateExampleXmlMethod implements TemplateMethodModelEx {
 
   private final String defaultNamespace;
   private final EnunciateFreemarkerModel model;
+  private final ConcurrentMap<String, String> examples = new ConcurrentHashMap<String, String>();
+  private final ExampleCache<XmlFragment> fragments = new ExampleCache<XmlFragment>();
 
   public GenerateExampleXmlMethod(String defaultNamespace, EnunciateFreemarkerModel model) {
     this.defaultNamespace = defaultNamespace;
@@ -97,6 +103,12 @@ public class GenerateExampleXmlMethod implements TemplateMethodModelEx {
       throw new TemplateModelException("The generateExampleJson method must have a root element as a parameter.");
     }
 
+    String key = namespace + '|' + name + '|' + (type == null ? "" : type.getQualifiedName()) + '|' + maxDepth;
+    String example = this.examples.get(key);
+    if (example != null) {
+      return example;
+    }
+
     try {
       String prefix = namespace == null ? null : defaultNs == null ? "" : ((EnunciateFreemarkerModel) FreemarkerModel.get()).getNamespacesToPrefixes().get(namespace);
       Namespace jdomNS;
@@ -123,19 +135,57 @@ public class GenerateExampleXmlMethod implements TemplateMethodModelEx {
       StringWriter sw = new StringWriter();
       out.output(document, sw);
       sw.flush();
-      return sw.toString();
+      example = sw.toString();
+      this.examples.put(key, example);
+      return example;
     }
     catch (Exception e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * The cache of the example fragments generated by this method.
+   *
+   * @return The cache of the example fragments generated by this method.
+   */
+  public ExampleCache<XmlFragment> getFragments() {
+    return fragments;
+  }
+
   protected void generateExampleXml(TypeDefinition type, org.jdom.Element parent, String defaultNs, int maxDepth) {
     if (TYPE_DEF_STACK.get() == null) {
       TYPE_DEF_STACK.set(new Stack<String>());
     }
 
+    if (type != null && parent.getContentSize() == 0 && parent.getAttributes().isEmpty()) {
+      //the example of a type generated into an empty element can be copied into any other empty element.
+      Stack<String> typeStack = TYPE_DEF_STACK.get();
+      String key = ExampleCache.key(type.getQualifiedName() + '|' + defaultNs, typeStack, maxDepth);
+      XmlFragment fragment = this.fragments.lookup(key, typeStack);
+      if (fragment == null) {
+        boolean complete = false;
+        this.fragments.begin(typeStack);
+        try {
+          generateTypeExampleXml(type, parent, defaultNs, maxDepth);
+          complete = true;
+        }
+        finally {
+          this.fragments.end(key, complete ? new XmlFragment(parent) : null);
+        }
+      }
+      else {
+        fragment.copyTo(parent);
+      }
+    }
+    else {
+      generateTypeExampleXml(type, parent, defaultNs, maxDepth);
+    }
+  }
+
+  private void generateTypeExampleXml(TypeDefinition type, org.jdom.Element parent, String defaultNs, int maxDepth) {
     if (type != null) {
+      this.fragments.reached(type.getQualifiedName(), TYPE_DEF_STACK.get());
       if (TYPE_DEF_STACK.get().contains(type.getQualifiedName())) {
         parent.addContent(new Comment("..."));
       }
@@ -336,4 +386,35 @@ public class GenerateExampleXmlMethod implements TemplateMethodModelEx {
     }
   }
 
+  /**
+   * The attributes and content generated into an element for the example of a type.
+   */
+  public static class XmlFragment {
+
+    private final List<org.jdom.Attribute> attributes = new ArrayList<org.jdom.Attribute>();
+    private final List<Content> content = new ArrayList<Content>();
+
+    private XmlFragment(org.jdom.Element element) {
+      for (Object attribute : element.getAttributes()) {
+        this.attributes.add((org.jdom.Attribute) ((org.jdom.Attribute) attribute).clone());
+      }
+      for (Object content : element.getContent()) {
+        this.content.add((Content) ((Content) content).clone());
+      }
+    }
+
+    /**
+     * Copy this fragment into the specified element.
+     *
+     * @param element The element.
+     */
+    public void copyTo(org.jdom.Element element) {
+      for (org.jdom.Attribute attribute : this.attributes) {
+        element.setAttribute((org.jdom.Attribute) attribute.clone());
+      }
+      for (Content content : this.content) {
+        element.addContent((Content) content.clone());
+      }
+    }
+  }
 }
\ No newline at end of file
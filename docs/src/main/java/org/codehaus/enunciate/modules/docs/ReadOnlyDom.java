@@ -0,0 +1,827 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.docs;
+
+import org.w3c.dom.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-only copy of a DOM document that can be read by more than one thread at a time. (The DOM implementations of the
+ * JDK aren't safe for concurrent reads: their node lists cache the position of the last item read.) Only the elements,
+ * the attributes and the text of the document are copied, and the methods that would modify the copy throw a
+ * {@link DOMException}.
+ *
+ * @author Ryan Heaton
+ */
+public class ReadOnlyDom {
+
+  private static final ReadOnlyNode[] NO_NODES = new ReadOnlyNode[0];
+  private static final ReadOnlyAttr[] NO_ATTRIBUTES = new ReadOnlyAttr[0];
+  private static final NodeList NO_CHILDREN = new ReadOnlyNodeList(NO_NODES);
+
+  private ReadOnlyDom() {
+  }
+
+  /**
+   * Copy a document.
+   *
+   * @param document The document to copy.
+   * @return The read-only copy.
+   */
+  public static Document copy(Document document) {
+    ReadOnlyDocument copy = new ReadOnlyDocument();
+    Element documentElement = document.getDocumentElement();
+    if (documentElement != null) {
+      copy.setChildren(new ReadOnlyNode[]{copy(documentElement, copy)});
+    }
+    return copy;
+  }
+
+  private static ReadOnlyElement copy(Element element, ReadOnlyDocument document) {
+    ReadOnlyElement copy = new ReadOnlyElement(document, element);
+
+    NamedNodeMap attributes = element.getAttributes();
+    if (attributes != null && attributes.getLength() > 0) {
+      ReadOnlyAttr[] attributeCopies = new ReadOnlyAttr[attributes.getLength()];
+      for (int i = 0; i < attributeCopies.length; i++) {
+        attributeCopies[i] = new ReadOnlyAttr(document, (Attr) attributes.item(i), copy);
+      }
+      copy.setAttributes(attributeCopies);
+    }
+
+    List<ReadOnlyNode> children = new ArrayList<ReadOnlyNode>();
+    for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+      switch (child.getNodeType()) {
+        case Node.ELEMENT_NODE:
+          children.add(copy((Element) child, document));
+          break;
+        case Node.TEXT_NODE:
+        case Node.CDATA_SECTION_NODE:
+          ReadOnlyNode last = children.isEmpty() ? null : children.get(children.size() - 1);
+          if (last instanceof ReadOnlyText) {
+            //merge adjacent text.
+            children.set(children.size() - 1, new ReadOnlyText(document, ((ReadOnlyText) last).data + child.getNodeValue()));
+          }
+          else {
+            children.add(new ReadOnlyText(document, child.getNodeValue()));
+          }
+          break;
+        default:
+          //comments, processing instructions, etc. aren't copied.
+      }
+    }
+    copy.setChildren(children.toArray(new ReadOnlyNode[children.size()]));
+    return copy;
+  }
+
+  private static DOMException readOnly() {
+    return new DOMException(DOMException.NO_MODIFICATION_ALLOWED_ERR, "The document is read-only.");
+  }
+
+  private static DOMException notSupported() {
+    return new DOMException(DOMException.NOT_SUPPORTED_ERR, "Not supported by a read-only document.");
+  }
+
+  private static boolean matches(String value, String pattern) {
+    return "*".equals(pattern) || (value == null ? pattern == null : value.equals(pattern));
+  }
+
+  /**
+   * A node of a read-only document.
+   */
+  private abstract static class ReadOnlyNode implements Node {
+
+    private final ReadOnlyDocument document;
+    private ReadOnlyNode parent;
+    private int index;
+    private ReadOnlyNode[] children = NO_NODES;
+    private NodeList childList = NO_CHILDREN;
+
+    protected ReadOnlyNode(ReadOnlyDocument document) {
+      this.document = document;
+    }
+
+    protected void setChildren(ReadOnlyNode[] children) {
+      for (int i = 0; i < children.length; i++) {
+        children[i].parent = this;
+        children[i].index = i;
+      }
+      this.children = children;
+      this.childList = children.length > 0 ? new ReadOnlyNodeList(children) : NO_CHILDREN;
+    }
+
+    protected void collectElements(String namespaceURI, String localName, boolean ns, List<ReadOnlyNode> elements) {
+      for (ReadOnlyNode child : this.children) {
+        if (child instanceof ReadOnlyElement) {
+          ReadOnlyElement element = (ReadOnlyElement) child;
+          if (ns ? matches(element.namespaceURI, namespaceURI) && matches(element.localName, localName) : matches(element.name, localName)) {
+            elements.add(element);
+          }
+          element.collectElements(namespaceURI, localName, ns, elements);
+        }
+      }
+    }
+
+    public String getNodeValue() throws DOMException {
+      return null;
+    }
+
+    public void setNodeValue(String nodeValue) throws DOMException {
+      throw readOnly();
+    }
+
+    public Node getParentNode() {
+      return this.parent;
+    }
+
+    public NodeList getChildNodes() {
+      return this.childList;
+    }
+
+    public Node getFirstChild() {
+      return this.children.length > 0 ? this.children[0] : null;
+    }
+
+    public Node getLastChild() {
+      return this.children.length > 0 ? this.children[this.children.length - 1] : null;
+    }
+
+    public Node getPreviousSibling() {
+      return this.parent != null && this.index > 0 ? this.parent.children[this.index - 1] : null;
+    }
+
+    public Node getNextSibling() {
+      return this.parent != null && this.index + 1 < this.parent.children.length ? this.parent.children[this.index + 1] : null;
+    }
+
+    public NamedNodeMap getAttributes() {
+      return null;
+    }
+
+    public Document getOwnerDocument() {
+      return this.document;
+    }
+
+    public Node insertBefore(Node newChild, Node refChild) throws DOMException {
+      throw readOnly();
+    }
+
+    public Node replaceChild(Node newChild, Node oldChild) throws DOMException {
+      throw readOnly();
+    }
+
+    public Node removeChild(Node oldChild) throws DOMException {
+      throw readOnly();
+    }
+
+    public Node appendChild(Node newChild) throws DOMException {
+      throw readOnly();
+    }
+
+    public boolean hasChildNodes() {
+      return this.children.length > 0;
+    }
+
+    public Node cloneNode(boolean deep) {
+      throw notSupported();
+    }
+
+    public void normalize() {
+      //already normal.
+    }
+
+    public boolean isSupported(String feature, String version) {
+      return false;
+    }
+
+    public String getNamespaceURI() {
+      return null;
+    }
+
+    public String getPrefix() {
+      return null;
+    }
+
+    public void setPrefix(String prefix) throws DOMException {
+      throw readOnly();
+    }
+
+    public String getLocalName() {
+      return null;
+    }
+
+    public boolean hasAttributes() {
+      return false;
+    }
+
+    public String getBaseURI() {
+      return null;
+    }
+
+    public short compareDocumentPosition(Node other) throws DOMException {
+      throw notSupported();
+    }
+
+    public String getTextContent() throws DOMException {
+      StringBuilder text = new StringBuilder();
+      appendText(text);
+      return text.toString();
+    }
+
+    protected void appendText(StringBuilder text) {
+      for (ReadOnlyNode child : this.children) {
+        child.appendText(text);
+      }
+    }
+
+    public void setTextContent(String textContent) throws DOMException {
+      throw readOnly();
+    }
+
+    public boolean isSameNode(Node other) {
+      return this == other;
+    }
+
+    public String lookupPrefix(String namespaceURI) {
+      return null;
+    }
+
+    public boolean isDefaultNamespace(String namespaceURI) {
+      return false;
+    }
+
+    public String lookupNamespaceURI(String prefix) {
+      return null;
+    }
+
+    public boolean isEqualNode(Node arg) {
+      throw notSupported();
+    }
+
+    public Object getFeature(String feature, String version) {
+      return null;
+    }
+
+    public Object setUserData(String key, Object data, UserDataHandler handler) {
+      throw readOnly();
+    }
+
+    public Object getUserData(String key) {
+      return null;
+    }
+  }
+
+  /**
+   * A read-only document.
+   */
+  private static class ReadOnlyDocument extends ReadOnlyNode implements Document {
+
+    private ReadOnlyDocument() {
+      super(null);
+    }
+
+    public String getNodeName() {
+      return "#document";
+    }
+
+    public short getNodeType() {
+      return DOCUMENT_NODE;
+    }
+
+    @Override
+    public String getTextContent() throws DOMException {
+      return null;
+    }
+
+    public DocumentType getDoctype() {
+      return null;
+    }
+
+    public DOMImplementation getImplementation() {
+      return null;
+    }
+
+    public Element getDocumentElement() {
+      return (Element) getFirstChild();
+    }
+
+    public Element createElement(String tagName) throws DOMException {
+      throw readOnly();
+    }
+
+    public DocumentFragment createDocumentFragment() {
+      throw readOnly();
+    }
+
+    public Text createTextNode(String data) {
+      throw readOnly();
+    }
+
+    public Comment createComment(String data) {
+      throw readOnly();
+    }
+
+    public CDATASection createCDATASection(String data) throws DOMException {
+      throw readOnly();
+    }
+
+    public ProcessingInstruction createProcessingInstruction(String target, String data) throws DOMException {
+      throw readOnly();
+    }
+
+    public Attr createAttribute(String name) throws DOMException {
+      throw readOnly();
+    }
+
+    public EntityReference createEntityReference(String name) throws DOMException {
+      throw readOnly();
+    }
+
+    public NodeList getElementsByTagName(String tagname) {
+      List<ReadOnlyNode> elements = new ArrayList<ReadOnlyNode>();
+      collectElements(null, tagname, false, elements);
+      return new ReadOnlyNodeList(elements.toArray(new ReadOnlyNode[elements.size()]));
+    }
+
+    public Node importNode(Node importedNode, boolean deep) throws DOMException {
+      throw readOnly();
+    }
+
+    public Element createElementNS(String namespaceURI, String qualifiedName) throws DOMException {
+      throw readOnly();
+    }
+
+    public Attr createAttributeNS(String namespaceURI, String qualifiedName) throws DOMException {
+      throw readOnly();
+    }
+
+    public NodeList getElementsByTagNameNS(String namespaceURI, String localName) {
+      List<ReadOnlyNode> elements = new ArrayList<ReadOnlyNode>();
+      collectElements(namespaceURI, localName, true, elements);
+      return new ReadOnlyNodeList(elements.toArray(new ReadOnlyNode[elements.size()]));
+    }
+
+    public Element getElementById(String elementId) {
+      return null;
+    }
+
+    public String getInputEncoding() {
+      return null;
+    }
+
+    public String getXmlEncoding() {
+      return null;
+    }
+
+    public boolean getXmlStandalone() {
+      return false;
+    }
+
+    public void setXmlStandalone(boolean xmlStandalone) throws DOMException {
+      throw readOnly();
+    }
+
+    public String getXmlVersion() {
+      return "1.0";
+    }
+
+    public void setXmlVersion(String xmlVersion) throws DOMException {
+      throw readOnly();
+    }
+
+    public boolean getStrictErrorChecking() {
+      return true;
+    }
+
+    public void setStrictErrorChecking(boolean strictErrorChecking) {
+      throw readOnly();
+    }
+
+    public String getDocumentURI() {
+      return null;
+    }
+
+    public void setDocumentURI(String documentURI) {
+      throw readOnly();
+    }
+
+    public Node adoptNode(Node source) throws DOMException {
+      throw readOnly();
+    }
+
+    public DOMConfiguration getDomConfig() {
+      return null;
+    }
+
+    public void normalizeDocument() {
+      //already normal.
+    }
+
+    public Node renameNode(Node n, String namespaceURI, String qualifiedName) throws DOMException {
+      throw readOnly();
+    }
+  }
+
+  /**
+   * A read-only element.
+   */
+  private static class ReadOnlyElement extends ReadOnlyNode implements Element {
+
+    private final String name;
+    private final String localName;
+    private final String namespaceURI;
+    private final String prefix;
+    private ReadOnlyAttr[] attributes = NO_ATTRIBUTES;
+    private ReadOnlyAttributes attributeMap = new ReadOnlyAttributes(NO_ATTRIBUTES);
+
+    private ReadOnlyElement(ReadOnlyDocument document, Element element) {
+      super(document);
+      this.name = element.getTagName();
+      this.localName = element.getLocalName();
+      this.namespaceURI = element.getNamespaceURI();
+      this.prefix = element.getPrefix();
+    }
+
+    private void setAttributes(ReadOnlyAttr[] attributes) {
+      this.attributes = attributes;
+      this.attributeMap = new ReadOnlyAttributes(attributes);
+    }
+
+    public String getNodeName() {
+      return this.name;
+    }
+
+    public short getNodeType() {
+      return ELEMENT_NODE;
+    }
+
+    @Override
+    public NamedNodeMap getAttributes() {
+      return this.attributeMap;
+    }
+
+    @Override
+    public boolean hasAttributes() {
+      return this.attributes.length > 0;
+    }
+
+    @Override
+    public String getNamespaceURI() {
+      return this.namespaceURI;
+    }
+
+    @Override
+    public String getPrefix() {
+      return this.prefix;
+    }
+
+    @Override
+    public String getLocalName() {
+      return this.localName;
+    }
+
+    public String getTagName() {
+      return this.name;
+    }
+
+    public String getAttribute(String name) {
+      Attr attr = getAttributeNode(name);
+      return attr == null ? "" : attr.getValue();
+    }
+
+    public void setAttribute(String name, String value) throws DOMException {
+      throw readOnly();
+    }
+
+    public void removeAttribute(String name) throws DOMException {
+      throw readOnly();
+    }
+
+    public Attr getAttributeNode(String name) {
+      return (Attr) this.attributeMap.getNamedItem(name);
+    }
+
+    public Attr setAttributeNode(Attr newAttr) throws DOMException {
+      throw readOnly();
+    }
+
+    public Attr removeAttributeNode(Attr oldAttr) throws DOMException {
+      throw readOnly();
+    }
+
+    public NodeList getElementsByTagName(String name) {
+      List<ReadOnlyNode> elements = new ArrayList<ReadOnlyNode>();
+      collectElements(null, name, false, elements);
+      return new ReadOnlyNodeList(elements.toArray(new ReadOnlyNode[elements.size()]));
+    }
+
+    public String getAttributeNS(String namespaceURI, String localName) throws DOMException {
+      Attr attr = getAttributeNodeNS(namespaceURI, localName);
+      return attr == null ? "" : attr.getValue();
+    }
+
+    public void setAttributeNS(String namespaceURI, String qualifiedName, String value) throws DOMException {
+      throw readOnly();
+    }
+
+    public void removeAttributeNS(String namespaceURI, String localName) throws DOMException {
+      throw readOnly();
+    }
+
+    public Attr getAttributeNodeNS(String namespaceURI, String localName) throws DOMException {
+      return (Attr) this.attributeMap.getNamedItemNS(namespaceURI, localName);
+    }
+
+    public Attr setAttributeNodeNS(Attr newAttr) throws DOMException {
+      throw readOnly();
+    }
+
+    public NodeList getElementsByTagNameNS(String namespaceURI, String localName) throws DOMException {
+      List<ReadOnlyNode> elements = new ArrayList<ReadOnlyNode>();
+      collectElements(namespaceURI, localName, true, elements);
+      return new ReadOnlyNodeList(elements.toArray(new ReadOnlyNode[elements.size()]));
+    }
+
+    public boolean hasAttribute(String name) {
+      return getAttributeNode(name) != null;
+    }
+
+    public boolean hasAttributeNS(String namespaceURI, String localName) throws DOMException {
+      return getAttributeNodeNS(namespaceURI, localName) != null;
+    }
+
+    public TypeInfo getSchemaTypeInfo() {
+      return null;
+    }
+
+    public void setIdAttribute(String name, boolean isId) throws DOMException {
+      throw readOnly();
+    }
+
+    public void setIdAttributeNS(String namespaceURI, String localName, boolean isId) throws DOMException {
+      throw readOnly();
+    }
+
+    public void setIdAttributeNode(Attr idAttr, boolean isId) throws DOMException {
+      throw readOnly();
+    }
+  }
+
+  /**
+   * A read-only attribute.
+   */
+  private static class ReadOnlyAttr extends ReadOnlyNode implements Attr {
+
+    private final String name;
+    private final String localName;
+    private final String namespaceURI;
+    private final String prefix;
+    private final String value;
+    private final ReadOnlyElement ownerElement;
+
+    private ReadOnlyAttr(ReadOnlyDocument document, Attr attr, ReadOnlyElement ownerElement) {
+      super(document);
+      this.name = attr.getName();
+      this.localName = attr.getLocalName();
+      this.namespaceURI = attr.getNamespaceURI();
+      this.prefix = attr.getPrefix();
+      this.value = attr.getValue();
+      this.ownerElement = ownerElement;
+    }
+
+    public String getNodeName() {
+      return this.name;
+    }
+
+    public short getNodeType() {
+      return ATTRIBUTE_NODE;
+    }
+
+    @Override
+    public String getNodeValue() throws DOMException {
+      return this.value;
+    }
+
+    @Override
+    protected void appendText(StringBuilder text) {
+      text.append(this.value);
+    }
+
+    @Override
+    public String getNamespaceURI() {
+      return this.namespaceURI;
+    }
+
+    @Override
+    public String getPrefix() {
+      return this.prefix;
+    }
+
+    @Override
+    public String getLocalName() {
+      return this.localName;
+    }
+
+    public String getName() {
+      return this.name;
+    }
+
+    public boolean getSpecified() {
+      return true;
+    }
+
+    public String getValue() {
+      return this.value;
+    }
+
+    public void setValue(String value) throws DOMException {
+      throw readOnly();
+    }
+
+    public Element getOwnerElement() {
+      return this.ownerElement;
+    }
+
+    public TypeInfo getSchemaTypeInfo() {
+      return null;
+    }
+
+    public boolean isId() {
+      return false;
+    }
+  }
+
+  /**
+   * Read-only text.
+   */
+  private static class ReadOnlyText extends ReadOnlyNode implements Text {
+
+    private final String data;
+
+    private ReadOnlyText(ReadOnlyDocument document, String data) {
+      super(document);
+      this.data = data;
+    }
+
+    public String getNodeName() {
+      return "#text";
+    }
+
+    public short getNodeType() {
+      return TEXT_NODE;
+    }
+
+    @Override
+    public String getNodeValue() throws DOMException {
+      return this.data;
+    }
+
+    @Override
+    protected void appendText(StringBuilder text) {
+      text.append(this.data);
+    }
+
+    public String getData() throws DOMException {
+      return this.data;
+    }
+
+    public void setData(String data) throws DOMException {
+      throw readOnly();
+    }
+
+    public int getLength() {
+      return this.data.length();
+    }
+
+    public String substringData(int offset, int count) throws DOMException {
+      if (offset < 0 || count < 0 || offset > this.data.length()) {
+        throw new DOMException(DOMException.INDEX_SIZE_ERR, "Invalid offset or count.");
+      }
+      return this.data.substring(offset, Math.min(this.data.length(), offset + count));
+    }
+
+    public void appendData(String arg) throws DOMException {
+      throw readOnly();
+    }
+
+    public void insertData(int offset, String arg) throws DOMException {
+      throw readOnly();
+    }
+
+    public void deleteData(int offset, int count) throws DOMException {
+      throw readOnly();
+    }
+
+    public void replaceData(int offset, int count, String arg) throws DOMException {
+      throw readOnly();
+    }
+
+    public Text splitText(int offset) throws DOMException {
+      throw readOnly();
+    }
+
+    public boolean isElementContentWhitespace() {
+      return false;
+    }
+
+    public String getWholeText() {
+      return this.data;
+    }
+
+    public Text replaceWholeText(String content) throws DOMException {
+      throw readOnly();
+    }
+  }
+
+  /**
+   * A read-only list of nodes.
+   */
+  private static class ReadOnlyNodeList implements NodeList {
+
+    private final ReadOnlyNode[] nodes;
+
+    private ReadOnlyNodeList(ReadOnlyNode[] nodes) {
+      this.nodes = nodes;
+    }
+
+    public Node item(int index) {
+      return index >= 0 && index < this.nodes.length ? this.nodes[index] : null;
+    }
+
+    public int getLength() {
+      return this.nodes.length;
+    }
+  }
+
+  /**
+   * The read-only attributes of an element.
+   */
+  private static class ReadOnlyAttributes implements NamedNodeMap {
+
+    private final ReadOnlyAttr[] attributes;
+
+    private ReadOnlyAttributes(ReadOnlyAttr[] attributes) {
+      this.attributes = attributes;
+    }
+
+    public Node getNamedItem(String name) {
+      for (ReadOnlyAttr attribute : this.attributes) {
+        if (attribute.name.equals(name)) {
+          return attribute;
+        }
+      }
+      return null;
+    }
+
+    public Node setNamedItem(Node arg) throws DOMException {
+      throw readOnly();
+    }
+
+    public Node removeNamedItem(String name) throws DOMException {
+      throw readOnly();
+    }
+
+    public Node item(int index) {
+      return index >= 0 && index < this.attributes.length ? this.attributes[index] : null;
+    }
+
+    public int getLength() {
+      return this.attributes.length;
+    }
+
+    public Node getNamedItemNS(String namespaceURI, String localName) throws DOMException {
+      for (ReadOnlyAttr attribute : this.attributes) {
+        String attributeLocalName = attribute.localName == null ? attribute.name : attribute.localName;
+        boolean sameNamespace = namespaceURI == null || namespaceURI.length() == 0 ? attribute.namespaceURI == null : namespaceURI.equals(attribute.namespaceURI);
+        if (sameNamespace && attributeLocalName.equals(localName)) {
+          return attribute;
+        }
+      }
+      return null;
+    }
+
+    public Node setNamedItemNS(Node arg) throws DOMException {
+      throw readOnly();
+    }
+
+    public Node removeNamedItemNS(String namespaceURI, String localName) throws DOMException {
+      throw readOnly();
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.docs;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestExampleCache extends TestCase {
+
+  /**
+   * tests the reuse of the fragments of types.
+   */
+  public void testReuse() throws Exception {
+    Map<String, List<String>> types = new HashMap<String, List<String>>();
+    types.put("Order", Arrays.asList("Person", "Address"));
+    types.put("Person", Arrays.asList("Address"));
+    types.put("Address", Collections.<String>emptyList());
+
+    ExampleCache<String> cache = new ExampleCache<String>();
+    assertEquals("Order(Person(Address()),Address())", generate("Order", types, cache, new Stack<String>()));
+    assertEquals(3, cache.getMisses());
+    assertEquals(1, cache.getHits());
+
+    assertEquals("Person(Address())", generate("Person", types, cache, new Stack<String>()));
+    assertEquals(2, cache.getHits());
+  }
+
+  /**
+   * tests that the fragments that were cut off by their context aren't reused.
+   */
+  public void testCircularReferences() throws Exception {
+    Map<String, List<String>> types = new HashMap<String, List<String>>();
+    types.put("Person", Arrays.asList("Company"));
+    types.put("Company", Arrays.asList("Person"));
+
+    ExampleCache<String> cache = new ExampleCache<String>();
+    assertEquals("Person(Company(...))", generate("Person", types, cache, new Stack<String>()));
+    assertEquals("Company(Person(...))", generate("Company", types, cache, new Stack<String>()));
+    assertEquals(0, cache.getHits());
+
+    //a complete fragment isn't reused under a stack that contains one of the types it reached.
+    assertEquals("Person(Company(...))", generate("Person", types, cache, new Stack<String>()));
+    assertEquals(1, cache.getHits());
+    Stack<String> stack = new Stack<String>();
+    stack.push("Company");
+    assertNull(cache.lookup(ExampleCache.key("Person", stack, Integer.MAX_VALUE), stack));
+  }
+
+  /**
+   * tests that the fragments are keyed by the depth that remains.
+   */
+  public void testKey() throws Exception {
+    Stack<String> stack = new Stack<String>();
+    assertEquals("Person|*", ExampleCache.key("Person", stack, Integer.MAX_VALUE));
+    assertEquals("Person|2", ExampleCache.key("Person", stack, 2));
+    stack.push("Order");
+    assertEquals("Person|1", ExampleCache.key("Person", stack, 2));
+  }
+
+  /**
+   * Generates a fragment for a type in the same way as the example methods: cutting off the circular references.
+   */
+  private String generate(String type, Map<String, List<String>> types, ExampleCache<String> cache, Stack<String> typeStack) {
+    String key = ExampleCache.key(type, typeStack, Integer.MAX_VALUE);
+    String fragment = cache.lookup(key, typeStack);
+    if (fragment == null) {
+      cache.begin(typeStack);
+      cache.reached(type, typeStack);
+      if (typeStack.contains(type)) {
+        fragment = "...";
+      }
+      else {
+        typeStack.push(type);
+        StringBuilder builder = new StringBuilder(type).append('(');
+        Iterator<String> it = types.get(type).iterator();
+        while (it.hasNext()) {
+          builder.append(generate(it.next(), types, cache, typeStack));
+          if (it.hasNext()) {
+            builder.append(',');
+          }
+        }
+        typeStack.pop();
+        fragment = builder.append(')').toString();
+      }
+      cache.end(key, fragment);
+    }
+    return fragment;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.docs;
+
+import freemarker.ext.dom.NodeModel;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import junit.framework.TestCase;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestReadOnlyDom extends TestCase {
+
+  private static final String TEMPLATE =
+    "[#ftl][#list docsxml.data.schema as schema]${schema.@namespaceId}:[#list schema.types.type?sort_by(\"@name\") as type]" +
+      " ${type.@name}(${type?parent?parent.@namespaceId}, ${type?node_name}, ${type.@name?node_type}, ${type.documentation}, ${type.element?size}," +
+      "[#list type?children as child] ${child?node_type}[/#list])[/#list];[/#list] ${docsxml.@title} ${docsxml.@missing?size}";
+
+  /**
+   * tests that the copy renders the same as the original.
+   */
+  public void testCopy() throws Exception {
+    Document original = parse();
+    Document copy = ReadOnlyDom.copy(original);
+    String expected = render(original);
+    assertTrue(expected, expected.contains("b(ns1, type, attribute, the <b> type, 2, element text element element)"));
+    assertEquals(expected, render(copy));
+    assertEquals("b", copy.getElementsByTagName("type").item(0).getAttributes().getNamedItem("name").getNodeValue());
+    assertEquals(4, copy.getDocumentElement().getElementsByTagName("type").getLength());
+
+    try {
+      copy.getDocumentElement().setAttribute("title", "changed");
+      fail();
+    }
+    catch (DOMException e) {
+      assertEquals(DOMException.NO_MODIFICATION_ALLOWED_ERR, e.code);
+    }
+  }
+
+  /**
+   * tests reading the copy from more than one thread at a time.
+   */
+  public void testConcurrentReads() throws Exception {
+    Document original = parse();
+    final String expected = render(original);
+    final Document copy = ReadOnlyDom.copy(original);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> renders = new ArrayList<Future<String>>();
+      for (int i = 0; i < 200; i++) {
+        renders.add(executor.submit(new Callable<String>() {
+          public String call() throws Exception {
+            return render(copy);
+          }
+        }));
+      }
+
+      for (Future<String> render : renders) {
+        assertEquals(expected, render.get());
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Document parse() throws Exception {
+    StringBuilder xml = new StringBuilder("<docs title=\"API\"><data>");
+    for (int i = 1; i <= 2; i++) {
+      xml.append("<schema namespaceId=\"ns").append(i).append("\"><types>");
+      xml.append("<type name=\"b\"><documentation>the &lt;b&gt; type</documentation>text<element name=\"x\"/><element name=\"y\"/></type>");
+      xml.append("<type name=\"a\"><!--comment--><documentation><![CDATA[the ]]>a type</documentation></type>");
+      xml.append("</types></schema>");
+    }
+    xml.append("</data></docs>");
+
+    DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+    Document document = builderFactory.newDocumentBuilder().parse(new InputSource(new StringReader(xml.toString())));
+    NodeModel.simplify(document);
+    return document;
+  }
+
+  private String render(Document document) throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setTagSyntax(Configuration.SQUARE_BRACKET_TAG_SYNTAX);
+    Template template = new Template("test", new StringReader(TEMPLATE), configuration);
+    Map<String, Object> model = new HashMap<String, Object>();
+    model.put("docsxml", NodeModel.wrap(document.getDocumentElement()));
+    StringWriter out = new StringWriter();
+    template.process(model, out);
+    return out.toString();
+  }
+
+}
@@ -19,19 +19,31 @@ package org.codehaus.enunciate.modules.gwt;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 
 /**
- * GWT mapper that applies an XmlAdapter before mapping to an GWT object.
+ * GWT mapper that applies an XmlAdapter before mapping to an GWT object. If the mapper is created with the class of the
+ * adapter, a new adapter is created for each mapping, since adapters aren't required to be thread-safe and the mapper
+ * may be shared by request threads.
  *
  * @author Ryan Heaton
  */
 public class AdaptingGWTMapper implements CustomGWTMapper {
 
   private final XmlAdapter adapter;
+  private final Class<? extends XmlAdapter> adapterClass;
   private final GWTMapper adaptingMapper;
   private final Class jaxbClass;
   private final Class gwtClass;
 
   public AdaptingGWTMapper(XmlAdapter adapter, GWTMapper adaptingMapper, Class jaxbClass, Class gwtClass) {
     this.adapter = adapter;
+    this.adapterClass = null;
+    this.adaptingMapper = adaptingMapper;
+    this.jaxbClass = jaxbClass;
+    this.gwtClass = gwtClass;
+  }
+
+  public AdaptingGWTMapper(Class<? extends XmlAdapter> adapterClass, GWTMapper adaptingMapper, Class jaxbClass, Class gwtClass) {
+    this.adapter = null;
+    this.adapterClass = adapterClass;
     this.adaptingMapper = adaptingMapper;
     this.jaxbClass = jaxbClass;
     this.gwtClass = gwtClass;
@@ -39,7 +51,7 @@ public class AdaptingGWTMapper implements CustomGWTMapper {
 
   public Object toGWT(Object jaxbObject, GWTMappingContext context) throws GWTMappingException {
     try {
-      return adaptingMapper.toGWT(adapter.marshal(jaxbObject), context);
+      return adaptingMapper.toGWT(getAdapter().marshal(jaxbObject), context);
     }
     catch (Exception e) {
       throw new GWTMappingException(e);
@@ -48,13 +60,22 @@ public class AdaptingGWTMapper implements CustomGWTMapper {
 
   public Object toJAXB(Object gwtObject, GWTMappingContext context) throws GWTMappingException {
     try {
-      return adapter.unmarshal(adaptingMapper.toJAXB(gwtObject, context));
+      return getAdapter().unmarshal(adaptingMapper.toJAXB(gwtObject, context));
     }
     catch (Exception e) {
       throw new GWTMappingException(e);
     }
   }
 
+  /**
+   * The adapter to use for a mapping.
+   *
+   * @return The adapter to use for a mapping.
+   */
+  protected XmlAdapter getAdapter() throws IllegalAccessException, InstantiationException {
+    return this.adapterClass == null ? this.adapter : this.adapterClass.newInstance();
+  }
+
   public Class getJaxbClass() {
     return this.jaxbClass;
   }
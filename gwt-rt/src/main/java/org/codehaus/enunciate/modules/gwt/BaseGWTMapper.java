@@ -23,7 +23,10 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 
 /**
  * Base implementation of an GWTMapper. If a custom mapper exists for a certain JAXB class, it is assumed to
@@ -37,7 +40,9 @@ public abstract class BaseGWTMapper<J, G> implements CustomGWTMapper<J, G> {
   private final Class<J> jaxbClass;
   private final Class<G> gwtClass;
   private final String[] properties;
-  private final PropertyDescriptor[][] jaxbProperties2gwtProperties;
+  private final PropertyPlan[] plans;
+  private final Constructor<J> jaxbConstructor;
+  private final Constructor<G> gwtConstructor;
 
   /**
    * Construct a base GWT mapper.
@@ -54,7 +59,9 @@ public abstract class BaseGWTMapper<J, G> implements CustomGWTMapper<J, G> {
     }
 
     this.properties = properties;
-    this.jaxbProperties2gwtProperties = new PropertyDescriptor[this.properties.length][];
+    this.jaxbConstructor = findConstructor(jaxbClass);
+    this.gwtConstructor = findConstructor(gwtClass);
+    this.plans = new PropertyPlan[this.properties.length];
     for (int i = 0; i < properties.length; i++) {
       String property = properties[i];
       PropertyDescriptor jaxbProperty = findProperty(jaxbClass, property);
@@ -67,10 +74,43 @@ public abstract class BaseGWTMapper<J, G> implements CustomGWTMapper<J, G> {
         throw new IllegalStateException("Unknown property '" + property + "' on class " + gwtClass.getName() + ".");
       }
 
-      this.jaxbProperties2gwtProperties[i] = new PropertyDescriptor[]{jaxbProperty, gwtProperty};
+      this.plans[i] = new PropertyPlan(jaxbProperty, gwtProperty, findTypeAdapter(jaxbProperty), findXmlElement(jaxbProperty));
     }
   }
 
+  /**
+   * Find the no-arg constructor for the given class, made accessible so it can be invoked without an access check.
+   *
+   * @param clazz The class.
+   * @return The constructor, or null if there is no no-arg constructor or it can't be made accessible.
+   */
+  private static <T> Constructor<T> findConstructor(Class<T> clazz) {
+    try {
+      return makeAccessible(clazz.getDeclaredConstructor());
+    }
+    catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Make the specified member accessible so it can be invoked without an access check, if allowed.
+   *
+   * @param member The member.
+   * @return The member.
+   */
+  private static <M extends AccessibleObject> M makeAccessible(M member) {
+    if (member != null) {
+      try {
+        member.setAccessible(true);
+      }
+      catch (SecurityException e) {
+        //fall through; the member will be access-checked.
+      }
+    }
+    return member;
+  }
+
   /**
    * Find the specified property for the given class.
    *
@@ -119,47 +159,171 @@ public abstract class BaseGWTMapper<J, G> implements CustomGWTMapper<J, G> {
 
     G gwtObject;
     try {
-      gwtObject = gwtClass.newInstance();
+      gwtObject = newGWTObject();
     }
     catch (Exception e) {
       throw new GWTMappingException("Unable to instantiate an instance GWT class " + gwtClass.getName() + ".", e);
     }
 
     context.objectMapped(jaxbObject, gwtObject);
-    for (PropertyDescriptor[] pds : this.jaxbProperties2gwtProperties) {
-      PropertyDescriptor jaxbProperty = pds[0];
-      PropertyDescriptor gwtProperty = pds[1];
-      Method getter = jaxbProperty.getReadMethod();
-      if (getter == null) {
+    for (int i = 0; i < this.plans.length; i++) {
+      PropertyPlan plan = this.plans[i];
+      if (plan.jaxbGetter == null) {
         throw new GWTMappingException("In order to convert from JAXB classes to GWT, you must provide a getter for property '"
-          + jaxbProperty.getName() + "' on class " + jaxbProperty.getWriteMethod().getDeclaringClass());
+          + plan.name + "' on class " + plan.jaxbSetter.getDeclaringClass());
       }
 
       Object propertyValue;
       try {
-        propertyValue = getter.invoke(jaxbObject);
+        propertyValue = plan.jaxbGetter.invoke(jaxbObject);
       }
       catch (Exception e) {
-        throw new GWTMappingException("Unable to read property '" + jaxbProperty.getName() + "' on " + jaxbObject, e);
+        throw new GWTMappingException("Unable to read property '" + plan.name + "' on " + jaxbObject, e);
       }
 
       if (propertyValue == null) {
         continue;
       }
 
-      GWTMapper mapper = GWTMapperIntrospector.getGWTMapper(propertyValue.getClass(), getter.getGenericReturnType(),
-                                                            findTypeAdapter(jaxbProperty), findXmlElement(jaxbProperty));
+      GWTMapper mapper = plan.getGWTMapper(propertyValue.getClass());
       try {
-        gwtProperty.getWriteMethod().invoke(gwtObject, mapper.toGWT(propertyValue, context));
+        setGWTProperty(i, gwtObject, mapper.toGWT(propertyValue, context));
       }
       catch (Exception e) {
-        throw new GWTMappingException("Unable to set property " + jaxbProperty.getName() + " for the gwt bean " + gwtClass.getName(), e);
+        throw new GWTMappingException("Unable to set property " + plan.name + " for the gwt bean " + gwtClass.getName(), e);
       }
     }
 
     return gwtObject;
   }
 
+  /**
+   * Read the property at the specified index from a GWT object. Generated mappers override this to call the getters of
+   * the GWT class directly.
+   *
+   * @param index The index of the property.
+   * @param gwtObject The GWT object.
+   * @return The value of the property.
+   */
+  protected Object getGWTProperty(int index, G gwtObject) throws Exception {
+    return this.plans[index].gwtGetter.invoke(gwtObject);
+  }
+
+  /**
+   * Write the property at the specified index to a GWT object. Generated mappers override this to call the setters of
+   * the GWT class directly.
+   *
+   * @param index The index of the property.
+   * @param gwtObject The GWT object.
+   * @param value The (non-null) value of the property.
+   */
+  protected void setGWTProperty(int index, G gwtObject, Object value) throws Exception {
+    this.plans[index].gwtSetter.invoke(gwtObject, value);
+  }
+
+  /**
+   * The number of properties mapped by this mapper. The properties of a superclass come before the properties of its
+   * subclasses, so a generated mapper finds the index of its first property by subtracting the properties it and its
+   * subclasses added.
+   *
+   * @return The number of properties mapped by this mapper.
+   */
+  protected int getPropertyCount() {
+    return this.plans.length;
+  }
+
+  /**
+   * Create a new instance of the GWT class. Generated mappers override this to invoke the constructor directly.
+   *
+   * @return The new instance.
+   */
+  protected G newGWTObject() throws Exception {
+    return this.gwtConstructor != null ? this.gwtConstructor.newInstance() : this.gwtClass.newInstance();
+  }
+
+  /**
+   * Create a new instance of the JAXB class.
+   *
+   * @return The new instance.
+   */
+  protected J newJAXBObject() throws Exception {
+    return this.jaxbConstructor != null ? this.jaxbConstructor.newInstance() : this.jaxbClass.newInstance();
+  }
+
+  /**
+   * The mapping plan for a property: the (accessible) accessors and the mapping metadata, resolved once when the mapper is
+   * constructed. The child mappers are resolved when first needed (the property type may refer back to the class
+   * being mapped) and remembered.
+   */
+  private static final class PropertyPlan {
+
+    private final String name;
+    private final Method jaxbGetter;
+    private final Method jaxbSetter;
+    private final Method gwtGetter;
+    private final Method gwtSetter;
+    private final XmlJavaTypeAdapter adapterInfo;
+    private final XmlElement elementInfo;
+    private volatile ResolvedMapper lastGWTMapper;
+    private volatile GWTMapper jaxbMapper;
+
+    private PropertyPlan(PropertyDescriptor jaxbProperty, PropertyDescriptor gwtProperty, XmlJavaTypeAdapter adapterInfo, XmlElement elementInfo) {
+      this.name = jaxbProperty.getName();
+      this.jaxbGetter = makeAccessible(jaxbProperty.getReadMethod());
+      this.jaxbSetter = makeAccessible(jaxbProperty.getWriteMethod());
+      this.gwtGetter = makeAccessible(gwtProperty.getReadMethod());
+      this.gwtSetter = makeAccessible(gwtProperty.getWriteMethod());
+      this.adapterInfo = adapterInfo;
+      this.elementInfo = elementInfo;
+    }
+
+    /**
+     * The mapper for converting a value of the specified (runtime) type to GWT.
+     *
+     * @param realType The runtime type of the property value.
+     * @return The mapper.
+     */
+    GWTMapper getGWTMapper(Class realType) {
+      ResolvedMapper last = this.lastGWTMapper;
+      if (last != null && last.realType == realType) {
+        return last.mapper;
+      }
+
+      GWTMapper mapper = GWTMapperIntrospector.getGWTMapper(realType, this.jaxbGetter.getGenericReturnType(), this.adapterInfo, this.elementInfo);
+      this.lastGWTMapper = new ResolvedMapper(realType, mapper);
+      return mapper;
+    }
+
+    /**
+     * The mapper for converting a GWT value of the property to JAXB, based on the declared type of the JAXB property.
+     *
+     * @return The mapper.
+     */
+    GWTMapper getJAXBMapper() {
+      GWTMapper mapper = this.jaxbMapper;
+      if (mapper == null) {
+        Type type = this.jaxbSetter.getGenericParameterTypes()[0];
+        mapper = GWTMapperIntrospector.getGWTMapper(type, this.adapterInfo, this.elementInfo);
+        this.jaxbMapper = mapper;
+      }
+      return mapper;
+    }
+  }
+
+  /**
+   * A mapper resolved for a runtime type.
+   */
+  private static final class ResolvedMapper {
+
+    private final Class realType;
+    private final GWTMapper mapper;
+
+    private ResolvedMapper(Class realType, GWTMapper mapper) {
+      this.realType = realType;
+      this.mapper = mapper;
+    }
+  }
+
   /**
    * Find the type adapter for the specified JAXB property.
    *
@@ -189,11 +353,11 @@ public abstract class BaseGWTMapper<J, G> implements CustomGWTMapper<J, G> {
         propertyType = jaxbProperty.getWriteMethod().getParameterTypes()[0];
       }
 
-      XmlJavaTypeAdapter possibleAdapterInfo = pckg.getAnnotation(XmlJavaTypeAdapter.class);
+      XmlJavaTypeAdapter possibleAdapterInfo = pckg == null ? null : pckg.getAnnotation(XmlJavaTypeAdapter.class);
       if ((possibleAdapterInfo != null) && (propertyType.equals(possibleAdapterInfo.type()))) {
         adapterInfo = possibleAdapterInfo;
       }
-      else if (pckg.isAnnotationPresent(XmlJavaTypeAdapters.class)) {
+      else if (pckg != null && pckg.isAnnotationPresent(XmlJavaTypeAdapters.class)) {
         XmlJavaTypeAdapters adapters = pckg.getAnnotation(XmlJavaTypeAdapters.class);
         for (XmlJavaTypeAdapter possibility : adapters.value()) {
           if (propertyType.equals(possibility.type())) {
@@ -244,23 +408,21 @@ public abstract class BaseGWTMapper<J, G> implements CustomGWTMapper<J, G> {
 
     J jaxbObject;
     try {
-      jaxbObject = jaxbClass.newInstance();
+      jaxbObject = newJAXBObject();
     }
     catch (Exception e) {
       throw new GWTMappingException("Unable to instantiate an instance JAXB class " + jaxbClass.getName() + ".", e);
     }
 
     context.objectMapped(gwtObject, jaxbObject);
-    for (PropertyDescriptor[] pds : this.jaxbProperties2gwtProperties) {
-      PropertyDescriptor jaxbProperty = pds[0];
-      PropertyDescriptor gwtProperty = pds[1];
-      Method getter = gwtProperty.getReadMethod();
+    for (int i = 0; i < this.plans.length; i++) {
+      PropertyPlan plan = this.plans[i];
       Object propertyValue;
       try {
-        propertyValue = getter.invoke(gwtObject);
+        propertyValue = getGWTProperty(i, gwtObject);
       }
       catch (Exception e) {
-        throw new GWTMappingException("Unable to read property '" + gwtProperty.getName() + "' on " + gwtObject, e);
+        throw new GWTMappingException("Unable to read property '" + plan.name + "' on " + gwtObject, e);
       }
 
       if (propertyValue == null) {
@@ -268,21 +430,20 @@ public abstract class BaseGWTMapper<J, G> implements CustomGWTMapper<J, G> {
       }
 
       GWTMapper mapper = GWTMapperIntrospector.getGWTMapperForGWTObject(propertyValue);
-      Method setter = jaxbProperty.getWriteMethod();
-      if (setter == null) {
+      if (plan.jaxbSetter == null) {
         throw new GWTMappingException("In order to convert from GWT back to JAXB classes, you must provide a setter for property '"
-          + jaxbProperty.getName() + "' on class " + jaxbProperty.getReadMethod().getDeclaringClass());
+          + plan.name + "' on class " + plan.jaxbGetter.getDeclaringClass());
       }
 
       if (mapper == null) {
-        mapper = GWTMapperIntrospector.getGWTMapper(setter.getGenericParameterTypes()[0], findTypeAdapter(jaxbProperty), findXmlElement(jaxbProperty));
+        mapper = plan.getJAXBMapper();
       }
 
       try {
-        setter.invoke(jaxbObject, mapper.toJAXB(propertyValue, context));
+        plan.jaxbSetter.invoke(jaxbObject, mapper.toJAXB(propertyValue, context));
       }
       catch (Exception e) {
-        throw new GWTMappingException("Unable to set property " + jaxbProperty.getName() + " for the gwt bean " + gwtClass.getName(), e);
+        throw new GWTMappingException("Unable to set property " + plan.name + " for the gwt bean " + gwtClass.getName(), e);
       }
     }
 
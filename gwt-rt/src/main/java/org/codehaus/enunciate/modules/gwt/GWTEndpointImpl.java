@@ -18,6 +18,7 @@ package org.codehaus.enunciate.modules.gwt;
 
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import org.codehaus.enunciate.service.DefaultSecurityExceptionChecker;
+import org.codehaus.enunciate.service.OperationStatistics;
 import org.codehaus.enunciate.service.SecurityExceptionChecker;
 import org.codehaus.enunciate.webapp.ComponentPostProcessor;
 
@@ -30,7 +31,11 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Base implementation for a GWT endpoint.
@@ -39,7 +44,7 @@ import java.util.HashMap;
  */
 public abstract class GWTEndpointImpl extends RemoteServiceServlet {
 
-  private final HashMap<String, Method> operationNames2Methods = new HashMap<String, Method>();
+  private final HashMap<String, OperationPlan> operationNames2Plans = new HashMap<String, OperationPlan>();
   protected Object serviceBean;
   private SecurityExceptionChecker securityChecker = new DefaultSecurityExceptionChecker();
 
@@ -53,7 +58,7 @@ public abstract class GWTEndpointImpl extends RemoteServiceServlet {
         operationName = webMethodInfo.operationName();
       }
 
-      this.operationNames2Methods.put(operationName, method);
+      this.operationNames2Plans.put(operationName, new OperationPlan(operationName, method));
     }
   }
 
@@ -69,52 +74,34 @@ public abstract class GWTEndpointImpl extends RemoteServiceServlet {
   }
 
   protected final Object invokeOperation(String operationName, Object... params) throws Exception {
-    Method method = this.operationNames2Methods.get(operationName);
-    if (method == null) {
+    OperationPlan plan = this.operationNames2Plans.get(operationName);
+    if (plan == null) {
       throw new NoSuchMethodError("No such method: " + operationName);
     }
-    GWTMappingContext mappingContext = new GWTMappingContext();
 
-    Type[] paramTypes = method.getGenericParameterTypes();
-    if (paramTypes.length != params.length) {
-      throw new IllegalArgumentException(String.format("Wrong number of parameters for operation '%s'.  Expected %s, got %s.", operationName, paramTypes.length, params.length));
-    }
-
-    Object[] mappedParams = new Object[paramTypes.length];
-    for (int i = 0; i < paramTypes.length; i++) {
-      GWTMapper paramMapper = GWTMapperIntrospector.getGWTMapperForGWTObject(params[i]);
-      if (paramMapper == null) {
-        paramMapper = GWTMapperIntrospector.getGWTMapper(paramTypes[i]);
-      }
-      mappedParams[i] = paramMapper.toJAXB(params[i], mappingContext);
-    }
-
-    Object returnValue;
+    long start = System.nanoTime();
+    boolean failed = true;
     try {
-      returnValue = method.invoke(serviceBean, mappedParams);
+      Object returnValue = plan.invoke(this.serviceBean, params);
+      failed = false;
+      return returnValue;
     }
-    catch (InvocationTargetException e) {
-      Throwable targetException = e.getTargetException();
-      for (int i = 0; i < method.getExceptionTypes().length; i++) {
-        Class exceptionType = method.getExceptionTypes()[i];
-        if (exceptionType.isInstance(targetException)) {
-          throw (Exception) GWTMapperIntrospector.getGWTMapper(targetException.getClass(), exceptionType, null, null).toGWT(targetException, mappingContext);
-        }
-      }
-
-      if (targetException instanceof Error) {
-        throw (Error) targetException;
-      }
-      else {
-        throw (Exception) targetException;
-      }
+    finally {
+      plan.statistics.record(System.nanoTime() - start, failed);
     }
+  }
 
-    if (method.getReturnType() != Void.TYPE) {
-      returnValue = returnValue != null ? GWTMapperIntrospector.getGWTMapper(returnValue.getClass(), method.getGenericReturnType(), null, null).toGWT(returnValue, mappingContext) : null;
+  /**
+   * The invocation statistics for each operation of this endpoint, by operation name.
+   *
+   * @return The invocation statistics for each operation of this endpoint.
+   */
+  public Map<String, OperationStatistics> getOperationStatistics() {
+    TreeMap<String, OperationStatistics> statistics = new TreeMap<String, OperationStatistics>();
+    for (Map.Entry<String, OperationPlan> entry : this.operationNames2Plans.entrySet()) {
+      statistics.put(entry.getKey(), entry.getValue().statistics);
     }
-    
-    return returnValue;
+    return Collections.unmodifiableMap(statistics);
   }
 
   @Override
@@ -154,4 +141,120 @@ public abstract class GWTEndpointImpl extends RemoteServiceServlet {
    * @return The service interface.
    */
   protected abstract Class getServiceInterface();
+
+  /**
+   * The invocation plan for an operation, compiled once when the endpoint is constructed so that an invocation
+   * doesn't have to introspect the method or look up the parameter mappers.
+   */
+  private static final class OperationPlan {
+
+    private final String operationName;
+    private final Method method;
+    private final Type[] paramTypes;
+    private final GWTMapper[] paramMappers;
+    private final Class[] exceptionTypes;
+    private final boolean returnsVoid;
+    private final Type returnType;
+    private final ConcurrentHashMap<Class, GWTMapper> returnMappers = new ConcurrentHashMap<Class, GWTMapper>();
+    private final ConcurrentHashMap<Class, GWTMapper> faultMappers = new ConcurrentHashMap<Class, GWTMapper>();
+    private final OperationStatistics statistics;
+
+    OperationPlan(String operationName, Method method) {
+      this.operationName = operationName;
+      this.method = method;
+      try {
+        //skip the access checks on invoke.
+        method.setAccessible(true);
+      }
+      catch (SecurityException e) {
+        //fall through; we'll just have to pay for the access checks.
+      }
+
+      this.paramTypes = method.getGenericParameterTypes();
+      this.paramMappers = new GWTMapper[this.paramTypes.length];
+      for (int i = 0; i < this.paramTypes.length; i++) {
+        try {
+          this.paramMappers[i] = GWTMapperIntrospector.getGWTMapper(this.paramTypes[i]);
+        }
+        catch (RuntimeException e) {
+          //fall through: the mapper will be resolved (and the error reported) when the operation is invoked.
+        }
+      }
+
+      this.exceptionTypes = method.getExceptionTypes();
+      this.returnsVoid = method.getReturnType() == Void.TYPE;
+      this.returnType = method.getGenericReturnType();
+      this.statistics = new OperationStatistics(operationName);
+    }
+
+    Object invoke(Object serviceBean, Object... params) throws Exception {
+      if (this.paramTypes.length != params.length) {
+        throw new IllegalArgumentException(String.format("Wrong number of parameters for operation '%s'.  Expected %s, got %s.", this.operationName, this.paramTypes.length, params.length));
+      }
+
+      GWTMappingContext mappingContext = new GWTMappingContext();
+      Object[] mappedParams = new Object[params.length];
+      for (int i = 0; i < params.length; i++) {
+        GWTMapper paramMapper = GWTMapperIntrospector.getGWTMapperForGWTObject(params[i]);
+        if (paramMapper == null) {
+          paramMapper = this.paramMappers[i];
+          if (paramMapper == null) {
+            paramMapper = GWTMapperIntrospector.getGWTMapper(this.paramTypes[i]);
+          }
+        }
+        mappedParams[i] = paramMapper.toJAXB(params[i], mappingContext);
+      }
+
+      Object returnValue;
+      try {
+        returnValue = this.method.invoke(serviceBean, mappedParams);
+      }
+      catch (InvocationTargetException e) {
+        Throwable targetException = e.getTargetException();
+        GWTMapper faultMapper = getFaultMapper(targetException.getClass());
+        if (faultMapper != null) {
+          throw (Exception) faultMapper.toGWT(targetException, mappingContext);
+        }
+
+        if (targetException instanceof Error) {
+          throw (Error) targetException;
+        }
+        else {
+          throw (Exception) targetException;
+        }
+      }
+
+      if (this.returnsVoid || returnValue == null) {
+        return null;
+      }
+
+      Class returnClass = returnValue.getClass();
+      GWTMapper returnMapper = this.returnMappers.get(returnClass);
+      if (returnMapper == null) {
+        returnMapper = GWTMapperIntrospector.getGWTMapper(returnClass, this.returnType, null, null);
+        this.returnMappers.put(returnClass, returnMapper);
+      }
+      return returnMapper.toGWT(returnValue, mappingContext);
+    }
+
+    /**
+     * Get the mapper for the specified exception class, or null if it isn't one of the declared faults.
+     *
+     * @param exceptionClass The exception class.
+     * @return The fault mapper, or null.
+     */
+    private GWTMapper getFaultMapper(Class exceptionClass) {
+      GWTMapper faultMapper = this.faultMappers.get(exceptionClass);
+      if (faultMapper == null) {
+        for (Class exceptionType : this.exceptionTypes) {
+          if (exceptionType.isAssignableFrom(exceptionClass)) {
+            faultMapper = GWTMapperIntrospector.getGWTMapper(exceptionClass, exceptionType, null, null);
+            this.faultMappers.put(exceptionClass, faultMapper);
+            break;
+          }
+        }
+      }
+      return faultMapper;
+    }
+  }
 }
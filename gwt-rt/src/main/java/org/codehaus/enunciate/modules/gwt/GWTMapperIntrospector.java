@@ -28,15 +28,20 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Introspector used to lookup GWT mappers.
+ * Introspector used to lookup GWT mappers. Resolved mappers are cached in concurrent maps, so lookups from
+ * request threads don't need to synchronize.
  *
  * @author Ryan Heaton
  */
 public class GWTMapperIntrospector {
 
-  private static final Map<Type, GWTMapper> MAPPERS = new HashMap<Type, GWTMapper>();
+  private static final Map<Type, GWTMapper> MAPPERS = new ConcurrentHashMap<Type, GWTMapper>();
+  private static final Map<AdaptedTypeKey, GWTMapper> ADAPTED_MAPPERS = new ConcurrentHashMap<AdaptedTypeKey, GWTMapper>();
+  private static final Map<Class, Boolean> CUSTOM_MAPPER_EXISTS = new ConcurrentHashMap<Class, Boolean>();
+  private static final Map<Class, Class> GWT2JAXBCLASSES = new ConcurrentHashMap<Class, Class>();
   private static final Properties GWT2JAXBMAPPINGS = new Properties();
 
   static {
@@ -89,10 +94,24 @@ public class GWTMapperIntrospector {
     if (gwtObject != null) {
       Class gwtType = gwtObject.getClass();
       if ((gwtType != null) && (!gwtType.isArray()) && (!gwtType.isPrimitive())) {
-        String jaxbType = GWT2JAXBMAPPINGS.getProperty(gwtType.getName());
-        if (jaxbType != null) {
+        Class jaxbClass = GWT2JAXBCLASSES.get(gwtType);
+        if (jaxbClass == null) {
+          jaxbClass = Void.class; //no mapping.
+          String jaxbType = GWT2JAXBMAPPINGS.getProperty(gwtType.getName());
+          if (jaxbType != null) {
+            try {
+              jaxbClass = Class.forName(jaxbType);
+            }
+            catch (Throwable e) {
+              //fall through.
+            }
+          }
+          GWT2JAXBCLASSES.put(gwtType, jaxbClass);
+        }
+
+        if (jaxbClass != Void.class) {
           try {
-            result = getGWTMapper(Class.forName(jaxbType));
+            result = getGWTMapper(jaxbClass);
           }
           catch (Throwable e) {
             result = null;
@@ -106,17 +125,14 @@ public class GWTMapperIntrospector {
   public static GWTMapper getGWTMapper(Class realType, Type jaxbType, XmlJavaTypeAdapter adapterInfo, XmlElement elementInfo) {
     if (adapterInfo == null && (realType != null) && (!realType.isArray()) && (!realType.isPrimitive()) && (realType.getPackage() != null)) {
       //first check the real type.  if a mapper exists, use it, otherwise use the type defined in the signature.
-      if (MAPPERS.containsKey(realType)) {
-        return MAPPERS.get(realType);
+      GWTMapper mapper = MAPPERS.get(realType);
+      if (mapper != null) {
+        return mapper;
       }
 
-      try {
-        loadCustomMapperClass(realType);
+      if (customMapperExists(realType)) {
         jaxbType = realType;
       }
-      catch (Throwable e) {
-        //fall through.
-      }
     }
 
     if (adapterInfo == null && jaxbType instanceof Class) {
@@ -124,15 +140,22 @@ public class GWTMapperIntrospector {
     }
 
     if (adapterInfo != null) {
-      Type adaptingType = findAdaptingType(adapterInfo.value());
-      GWTMapper adaptingMapper = getGWTMapper(adaptingType);
-      try {
-        //if it's adapted, don't cache it (return it directly).
-        return new AdaptingGWTMapper(adapterInfo.value().newInstance(), adaptingMapper, narrowType(jaxbType), narrowType(adaptingType));
-      }
-      catch (Exception e) {
-        throw new GWTMappingException(e);
+      AdaptedTypeKey key = new AdaptedTypeKey(jaxbType, adapterInfo.value());
+      GWTMapper mapper = ADAPTED_MAPPERS.get(key);
+      if (mapper == null) {
+        Type adaptingType = findAdaptingType(adapterInfo.value());
+        GWTMapper adaptingMapper = getGWTMapper(adaptingType);
+        try {
+          //make sure the adapter can be instantiated; the (shared) mapper creates a new adapter for each mapping.
+          adapterInfo.value().newInstance();
+        }
+        catch (Exception e) {
+          throw new GWTMappingException(e);
+        }
+        mapper = new AdaptingGWTMapper(adapterInfo.value(), adaptingMapper, narrowType(jaxbType), narrowType(adaptingType));
+        ADAPTED_MAPPERS.put(key, mapper);
       }
+      return mapper;
     }
 
     if (jaxbType == null) {
@@ -140,11 +163,8 @@ public class GWTMapperIntrospector {
     }
     
     Class specifiedType = ((elementInfo != null) && (elementInfo.type() != null) && (elementInfo.type() != XmlElement.DEFAULT.class)) ? elementInfo.type() : null;
-    GWTMapper mapper;
-    if (adapterInfo == null && MAPPERS.containsKey(jaxbType)) {
-      mapper = MAPPERS.get(jaxbType);
-    }
-    else {
+    GWTMapper mapper = specifiedType == null ? MAPPERS.get(jaxbType) : null;
+    if (mapper == null) {
       if (jaxbType instanceof ParameterizedType) {
         Type rawType = ((ParameterizedType) jaxbType).getRawType();
 
@@ -258,6 +278,27 @@ public class GWTMapperIntrospector {
     }
   }
 
+  /**
+   * Whether a custom mapper class exists for the specified class. The answer is cached per class.
+   *
+   * @param jaxbClass The class.
+   * @return Whether a custom mapper class exists.
+   */
+  private static boolean customMapperExists(Class jaxbClass) {
+    Boolean exists = CUSTOM_MAPPER_EXISTS.get(jaxbClass);
+    if (exists == null) {
+      try {
+        loadCustomMapperClass(jaxbClass);
+        exists = Boolean.TRUE;
+      }
+      catch (Throwable e) {
+        exists = Boolean.FALSE;
+      }
+      CUSTOM_MAPPER_EXISTS.put(jaxbClass, exists);
+    }
+    return exists;
+  }
+
   private static Class<? extends GWTMapper> loadCustomMapperClass(Class jaxbClass) throws ClassNotFoundException {
     if (String.valueOf(jaxbClass.getPackage()).startsWith("java.")) {
       throw new ClassNotFoundException();
@@ -286,4 +327,36 @@ public class GWTMapperIntrospector {
   private GWTMapperIntrospector() {
   }
 
+  /**
+   * Key for an adapted type: the type and the class of the adapter applied to it.
+   */
+  private static final class AdaptedTypeKey {
+
+    private final Type type;
+    private final Class adapterClass;
+
+    private AdaptedTypeKey(Type type, Class adapterClass) {
+      this.type = type;
+      this.adapterClass = adapterClass;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof AdaptedTypeKey)) {
+        return false;
+      }
+
+      AdaptedTypeKey other = (AdaptedTypeKey) o;
+      return adapterClass.equals(other.adapterClass) && (type == null ? other.type == null : type.equals(other.type));
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (type == null ? 0 : type.hashCode()) + adapterClass.hashCode();
+    }
+  }
+
 }
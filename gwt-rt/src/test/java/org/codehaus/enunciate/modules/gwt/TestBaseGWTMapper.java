@@ -18,6 +18,8 @@ package org.codehaus.enunciate.modules.gwt;
 
 import junit.framework.TestCase;
 
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
 import java.util.*;
 import java.net.URI;
 import java.net.URL;
@@ -126,4 +128,75 @@ public class TestBaseGWTMapper extends TestCase {
     assertEquals(date2, jaxbObject.getProperty9().getMyDate());
   }
 
+  /**
+   * Tests that the mappers are resolved once and reused, including adapted mappers.
+   */
+  public void testMappersAreMemoized() throws Exception {
+    GWTMapper mapper = GWTMapperIntrospector.getGWTMapper(BeanOne.class);
+    assertSame(mapper, GWTMapperIntrospector.getGWTMapper(BeanOne.class));
+
+    GWTMapper adaptingMapper = GWTMapperIntrospector.getGWTMapper(DateWrapper.class);
+    assertTrue(adaptingMapper instanceof AdaptingGWTMapper);
+    assertSame(adaptingMapper, GWTMapperIntrospector.getGWTMapper(DateWrapper.class));
+
+    //the adapters aren't shared: they aren't required to be thread-safe.
+    XmlAdapter adapter = ((AdaptingGWTMapper) adaptingMapper).getAdapter();
+    assertTrue(adapter instanceof DateWrapperAdapter);
+    assertNotSame(adapter, ((AdaptingGWTMapper) adaptingMapper).getAdapter());
+  }
+
+  /**
+   * Tests that the GWT properties are read and written through the accessor hooks, as overridden by the generated mappers.
+   */
+  public void testPropertyAccessors() throws Exception {
+    DirectMapper mapper = new DirectMapper();
+    BeanOneDotTwo jaxbObject = new BeanOneDotTwo();
+    jaxbObject.setProperty3(new URI("uri:one"));
+    GWTBeanOneDotTwo gwtObject = mapper.toGWT(jaxbObject, new GWTMappingContext());
+    assertEquals("uri:one", gwtObject.getProperty3());
+    assertEquals(1, mapper.writes);
+
+    gwtObject.setProperty3("uri:two");
+    assertEquals(new URI("uri:two"), mapper.toJAXB(gwtObject, new GWTMappingContext()).getProperty3());
+    assertEquals(1, mapper.reads);
+  }
+
+  /**
+   * A mapper that accesses the GWT properties directly, like a generated mapper.
+   */
+  private static class DirectMapper extends BaseGWTMapper<BeanOneDotTwo, GWTBeanOneDotTwo> {
+
+    private final int propertyOffset;
+    private int reads = 0;
+    private int writes = 0;
+
+    private DirectMapper() {
+      super(BeanOneDotTwo.class, GWTBeanOneDotTwo.class, "property3");
+      this.propertyOffset = getPropertyCount() - 1;
+    }
+
+    @Override
+    protected Object getGWTProperty(int index, GWTBeanOneDotTwo gwtObject) throws Exception {
+      switch (index - this.propertyOffset) {
+        case 0:
+          reads++;
+          return gwtObject.getProperty3();
+        default:
+          return super.getGWTProperty(index, gwtObject);
+      }
+    }
+
+    @Override
+    protected void setGWTProperty(int index, GWTBeanOneDotTwo gwtObject, Object value) throws Exception {
+      switch (index - this.propertyOffset) {
+        case 0:
+          writes++;
+          gwtObject.setProperty3((String) value);
+          return;
+        default:
+          super.setGWTProperty(index, gwtObject, value);
+      }
+    }
+  }
+
 }
@@ -17,10 +17,12 @@
 package org.codehaus.enunciate.modules.gwt;
 
 import junit.framework.TestCase;
+import org.codehaus.enunciate.service.OperationStatistics;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.replay;
 
 import javax.servlet.ServletConfig;
+import java.util.Map;
 import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -91,6 +93,13 @@ public class TestGWTEndpointImpl extends TestCase {
       assertEquals((byte) 8, ex.getProperty2());
       assertEquals(new Character('h'), ex.getProperty3());
     }
+
+    Map<String, OperationStatistics> statistics = impl.getOperationStatistics();
+    assertEquals(1, statistics.get("getSomething").getInvocationCount());
+    assertEquals(0, statistics.get("getSomething").getFailureCount());
+    assertEquals(1, statistics.get("throwAnException").getInvocationCount());
+    assertEquals(1, statistics.get("throwAnException").getFailureCount());
+    assertTrue(statistics.get("throwAnException").getTotalNanos() > 0);
   }
 
 }
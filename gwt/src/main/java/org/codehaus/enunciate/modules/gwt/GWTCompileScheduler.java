@@ -0,0 +1,288 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.gwt;
+
+import org.codehaus.enunciate.EnunciateException;
+import org.codehaus.enunciate.main.BuildProfile;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Scheduler for the external GWT compiles. Each compile is a separate (java) process. The compiles are independent of each other,
+ * so they're run concurrently, bounded by a number of concurrent compiles and by a memory budget. The output of each compile is
+ * streamed, line by line, with the label of the compile. Each compile is profiled as a fork of the span that runs the compiles.
+ *
+ * @author Ryan Heaton
+ */
+public class GWTCompileScheduler {
+
+  /**
+   * The memory (in megabytes) assumed for a compile if the JVM args don't specify a maximum heap size.
+   */
+  public static final int DEFAULT_COMPILE_MEMORY = 512;
+
+  private final int concurrency;
+  private final int memoryBudget;
+  private final OutputHandler outputHandler;
+  private final List<Compile> compiles = new ArrayList<Compile>();
+
+  /**
+   * @param concurrency The maximum number of concurrent compiles (1 runs the compiles in turn).
+   * @param memoryBudget The memory budget (in megabytes) for the concurrent compiles, or 0 for no budget.
+   * @param outputHandler The handler for the output of the compiles.
+   */
+  public GWTCompileScheduler(int concurrency, int memoryBudget, OutputHandler outputHandler) {
+    this.concurrency = Math.max(1, concurrency);
+    this.memoryBudget = memoryBudget;
+    this.outputHandler = outputHandler;
+  }
+
+  /**
+   * Schedule a compile.
+   *
+   * @param label The label of the compile (e.g. the module name).
+   * @param command The command of the compile.
+   * @param workingDir The working directory of the compile.
+   * @param memory The memory (in megabytes) needed by the compile.
+   */
+  public void schedule(String label, List<String> command, File workingDir, int memory) {
+    this.compiles.add(new Compile(label, new ArrayList<String>(command), workingDir, memory));
+  }
+
+  /**
+   * The compiles that have been scheduled.
+   *
+   * @return The labels of the compiles that have been scheduled.
+   */
+  public List<String> getScheduledCompiles() {
+    List<String> labels = new ArrayList<String>(this.compiles.size());
+    for (Compile compile : this.compiles) {
+      labels.add(compile.label);
+    }
+    return labels;
+  }
+
+  /**
+   * Run the scheduled compiles and wait for them to finish. If a compile fails, the compiles that are still running are stopped.
+   *
+   * @throws EnunciateException If a compile fails.
+   */
+  public void run() throws EnunciateException {
+    final BuildProfile.Span parentSpan = BuildProfile.current();
+    if (this.concurrency == 1 || this.compiles.size() < 2) {
+      for (Compile compile : this.compiles) {
+        compile.run(null, parentSpan);
+      }
+      return;
+    }
+
+    final Semaphore memory = this.memoryBudget > 0 ? new Semaphore(this.memoryBudget, true) : null;
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.concurrency, this.compiles.size()));
+    try {
+      List<Future<Object>> results = new ArrayList<Future<Object>>(this.compiles.size());
+      for (final Compile compile : this.compiles) {
+        results.add(executor.submit(new Callable<Object>() {
+          public Object call() throws Exception {
+            compile.run(memory, parentSpan);
+            return null;
+          }
+        }));
+      }
+
+      for (Future<Object> result : results) {
+        try {
+          result.get();
+        }
+        catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof EnunciateException) {
+            throw (EnunciateException) cause;
+          }
+          else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          else if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          else {
+            throw new EnunciateException(cause);
+          }
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new EnunciateException("Unexpected interruption of the GWT compile process.");
+        }
+      }
+    }
+    finally {
+      executor.shutdownNow();
+      for (Compile compile : this.compiles) {
+        compile.destroy();
+      }
+    }
+  }
+
+  /**
+   * The memory (in megabytes) needed by a compile with the specified JVM args, according to the maximum heap size (-Xmx).
+   *
+   * @param jvmArgs The JVM args.
+   * @return The memory needed by the compile.
+   */
+  public static int memoryOf(List<String> jvmArgs) {
+    int memory = DEFAULT_COMPILE_MEMORY;
+    for (String arg : jvmArgs) {
+      if (arg.startsWith("-Xmx") && arg.length() > 4) {
+        String size = arg.substring(4).trim().toLowerCase();
+        char unit = size.charAt(size.length() - 1);
+        try {
+          long value = Character.isDigit(unit) ? Long.parseLong(size) : Long.parseLong(size.substring(0, size.length() - 1));
+          switch (unit) {
+            case 'g':
+              value *= 1024;
+              break;
+            case 'm':
+              break;
+            case 'k':
+              value /= 1024;
+              break;
+            default:
+              value /= (1024 * 1024);
+          }
+          memory = (int) Math.max(1, value);
+        }
+        catch (NumberFormatException e) {
+          //fall through; use the default.
+        }
+      }
+    }
+    return memory;
+  }
+
+  /**
+   * Handler for the output of the compiles.
+   */
+  public static interface OutputHandler {
+
+    /**
+     * Handle a line of output of a compile.
+     *
+     * @param label The label of the compile.
+     * @param line The line.
+     */
+    void output(String label, String line);
+  }
+
+  /**
+   * A compile.
+   */
+  private class Compile {
+
+    private final String label;
+    private final List<String> command;
+    private final File workingDir;
+    private final int memory;
+    private volatile Process process;
+    private volatile boolean destroyed = false;
+
+    private Compile(String label, List<String> command, File workingDir, int memory) {
+      this.label = label;
+      this.command = command;
+      this.workingDir = workingDir;
+      this.memory = memory;
+    }
+
+    /**
+     * Run the compile.
+     *
+     * @param memoryBudget The memory budget, or null if there's no budget.
+     * @param parentSpan The span of which the compile is profiled as a fork.
+     */
+    void run(Semaphore memoryBudget, BuildProfile.Span parentSpan) throws EnunciateException {
+      int permits = memoryBudget == null ? 0 : Math.max(1, Math.min(this.memory, GWTCompileScheduler.this.memoryBudget));
+      try {
+        if (memoryBudget != null) {
+          memoryBudget.acquire(permits);
+        }
+
+        BuildProfile.Span span = parentSpan.fork("compile", "gwtCompile " + this.label);
+        try {
+          execute();
+        }
+        finally {
+          span.end();
+          if (memoryBudget != null) {
+            memoryBudget.release(permits);
+          }
+        }
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new EnunciateException("Unexpected interruption of the GWT compile process.");
+      }
+      catch (IOException e) {
+        throw new EnunciateException("GWT compile failed for module " + this.label, e);
+      }
+    }
+
+    private void execute() throws IOException, InterruptedException, EnunciateException {
+      synchronized (this) {
+        if (this.destroyed) {
+          throw new InterruptedException();
+        }
+
+        ProcessBuilder processBuilder = new ProcessBuilder(this.command);
+        processBuilder.directory(this.workingDir);
+        processBuilder.redirectErrorStream(true);
+        this.process = processBuilder.start();
+      }
+
+      BufferedReader procReader = new BufferedReader(new InputStreamReader(this.process.getInputStream()));
+      String line = procReader.readLine();
+      while (line != null) {
+        try {
+          line = URLDecoder.decode(line, "utf-8"); //GWT URL-encodes spaces and other weird Windows characters.
+        }
+        catch (IllegalArgumentException e) {
+          //not encoded; use the line as-is.
+        }
+        outputHandler.output(this.label, line.trim());
+        line = procReader.readLine();
+      }
+
+      if (this.process.waitFor() != 0) {
+        throw new EnunciateException("GWT compile failed for module " + this.label);
+      }
+    }
+
+    /**
+     * Stop the compile if it's still running.
+     */
+    synchronized void destroy() {
+      this.destroyed = true;
+      if (this.process != null) {
+        this.process.destroy();
+      }
+    }
+  }
+}
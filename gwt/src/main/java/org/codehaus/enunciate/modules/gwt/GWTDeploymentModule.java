@@ -50,7 +50,6 @@ import org.codehaus.enunciate.util.TypeDeclarationComparator;
 
 import java.io.*;
 import java.net.URL;
-import java.net.URLDecoder;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -129,6 +128,12 @@ import java.util.regex.Pattern;
  * <li>The "useWrappedServices" attribute specifies whether to use wrapped GWT client services. This is an artifact from when GWT 1.4 was supported
  * and the generic types were unavailable. Default: false</li>
  * <li>The "disableCompile" attribute prevents Enunciate from compiling its generated client source files.</li>
+ * <li>The "gwtCompileThreads" attribute specifies the maximum number of GWT compiles (each a separate process) that are run concurrently.
+ * The output of each compile is prefixed with the name of its module(s). Default: 1.</li>
+ * <li>The "gwtCompileMemoryBudget" attribute specifies the memory (in megabytes) that the concurrent GWT compiles may use, according
+ * to the maximum heap size ("-Xmx") of the "gwtCompileJVMArg" elements (512 megabytes if not specified). Default: no budget.</li>
+ * <li>The "gwtCompilerJvmShared" attribute specifies whether the modules of an app are compiled by the same compiler process (GWT 1.6 and
+ * later). Default: false.</li>
  * </ul>
  *
  * <h3>The "war" element</h3>
@@ -272,6 +277,9 @@ public class GWTDeploymentModule extends FreemarkerDeploymentModule implements P
   private int[] gwtVersion = null;
   private GWTModuleClasspathHandler gwtClasspathHandler;
   private boolean disableCompile = false;
+  private int gwtCompileThreads = 1;
+  private int gwtCompileMemoryBudget = 0;
+  private boolean gwtCompilerJvmShared = false;
 
   /**
    * @return "gwt"
@@ -701,7 +709,7 @@ public class GWTDeploymentModule extends FreemarkerDeploymentModule implements P
     classpath.append(File.pathSeparatorChar).append(gwtDevJar.getAbsolutePath());
 
     //so here's the GWT compile command:
-    //java [extra jvm args] -cp [classpath] [compilerClass] -gen [gwt-gen-dir] -style [style] -out [out] [moduleName]
+    //java [extra jvm args] -cp [classpath] [compilerClass] -gen [gwt-gen-dir] -style [style] -out [out] [moduleName(s)]
     List<String> jvmargs = getGwtCompileJVMArgs();
     List<String> compilerArgs = getGwtCompilerArgs();
     List<String> gwtcCommand = new ArrayList<String>(jvmargs.size() + compilerArgs.size() + 11);
@@ -716,6 +724,7 @@ public class GWTDeploymentModule extends FreemarkerDeploymentModule implements P
     int compileClassIndex = argIndex;
     gwtcCommand.add(argIndex++, getGwtCompilerClass());
     gwtcCommand.add(argIndex++, "-gen");
+    int genArgIndex = argIndex;
     gwtcCommand.add(argIndex++, getGwtGenDir().getAbsolutePath());
     gwtcCommand.add(argIndex++, "-style");
     int styleArgIndex = argIndex;
@@ -726,9 +735,18 @@ public class GWTDeploymentModule extends FreemarkerDeploymentModule implements P
     for (String arg : compilerArgs) {
       gwtcCommand.add(argIndex++, arg);
     }
-    int moduleNameIndex = argIndex;
-    gwtcCommand.add(argIndex, null); //module-specific arg.
+    int moduleNameIndex = argIndex; //module-specific arg(s).
+
+    //the GWT compiler of 1.6 and later compiles all the modules that are passed to it, so the modules of an app can share a compiler JVM.
+    boolean shareCompilerJvm = isGwtCompilerJvmShared() && gwtVersionGreaterThan(1, 5);
+    int compileMemory = GWTCompileScheduler.memoryOf(jvmargs);
+    GWTCompileScheduler scheduler = new GWTCompileScheduler(getGwtCompileThreads(), getGwtCompileMemoryBudget(), new GWTCompileScheduler.OutputHandler() {
+      public void output(String label, String line) {
+        info("[%s] %s", label, line);
+      }
+    });
 
+    Map<GWTApp, List<String>> appCommands = new LinkedHashMap<GWTApp, List<String>>();
     for (GWTApp gwtApp : gwtApps) {
       String appName = gwtApp.getName();
       File appSource = enunciate.resolvePath(gwtApp.getSrcDir());
@@ -741,110 +759,128 @@ public class GWTDeploymentModule extends FreemarkerDeploymentModule implements P
 
       boolean upToDate = enunciate.isUpToDate(getClientSideGenerateDir(), appDir) && enunciate.isUpToDate(appSource, appDir);
       if (!upToDate) {
-        for (GWTAppModule appModule : gwtApp.getModules()) {
-          String moduleName = appModule.getName();
+        appCommands.put(gwtApp, new ArrayList<String>(gwtcCommand));
 
-          gwtcCommand.set(moduleNameIndex, moduleName);
-          debug("Executing GWTCompile for module '%s'...", moduleName);
-          if (enunciate.isDebug()) {
-            StringBuilder command = new StringBuilder();
-            for (String commandPiece : gwtcCommand) {
-              command.append(' ').append(commandPiece);
-            }
-            debug("Executing GWTCompile for module %s with the command: %s", moduleName, command);
-          }
-          ProcessBuilder processBuilder = new ProcessBuilder(gwtcCommand);
-          processBuilder.directory(getGenerateDir());
-          processBuilder.redirectErrorStream(true);
-          Process process = processBuilder.start();
-          BufferedReader procReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-          String line = procReader.readLine();
-          while (line != null) {
-            line = URLDecoder.decode(line, "utf-8").replaceAll("%", "%%").trim(); //GWT URL-encodes spaces and other weird Windows characters.
-            info(line);
-            line = procReader.readLine();
-          }
-          int procCode;
-          try {
-            procCode = process.waitFor();
-          }
-          catch (InterruptedException e1) {
-            throw new EnunciateException("Unexpected inturruption of the GWT compile process.");
+        List<List<GWTAppModule>> compiles = new ArrayList<List<GWTAppModule>>();
+        if (shareCompilerJvm) {
+          compiles.add(gwtApp.getModules());
+        }
+        else {
+          for (GWTAppModule appModule : gwtApp.getModules()) {
+            compiles.add(Arrays.asList(appModule));
           }
+        }
 
-          if (procCode != 0) {
-            throw new EnunciateException("GWT compile failed for module " + moduleName);
+        for (List<GWTAppModule> modules : compiles) {
+          if (modules.isEmpty()) {
+            continue;
           }
 
-          if (!gwtVersionGreaterThan(1, 5)) {
-            File moduleOutputDir = appDir;
-            String outputPath = appModule.getOutputPath();
-            if ((outputPath != null) && (!"".equals(outputPath.trim()))) {
-              moduleOutputDir = new File(appDir, outputPath);
+          StringBuilder label = new StringBuilder();
+          List<String> compileCommand = new ArrayList<String>(gwtcCommand);
+          for (GWTAppModule appModule : modules) {
+            if (label.length() > 0) {
+              label.append(", ");
             }
+            label.append(appModule.getName());
+            compileCommand.add(appModule.getName());
+          }
 
-            File moduleGenDir = new File(appDir, moduleName);
-            if (!moduleOutputDir.equals(moduleGenDir)) {
-              moduleOutputDir.mkdirs();
-              enunciate.copyDir(moduleGenDir, moduleOutputDir);
-              deleteDir(moduleGenDir);
-            }
+          if (getGwtCompileThreads() > 1) {
+            //concurrent compiles each get their own directory for the generated sources.
+            compileCommand.set(genArgIndex, new File(getGwtGenDir(), modules.get(0).getName()).getAbsolutePath());
           }
 
-          StringBuilder shellCommand = new StringBuilder();
-          for (int i = 0; i < moduleNameIndex; i++) {
-            String commandArg = gwtcCommand.get(i);
-            if (i == compileClassIndex) {
-              commandArg = gwtVersionGreaterThan(1, 5) ? "com.google.gwt.dev.HostedMode" : "com.google.gwt.dev.GWTShell";
-            }
-            else if (commandArg.indexOf(' ') >= 0) {
-              commandArg = '"' + commandArg + '"';
+          debug("Scheduling GWTCompile for module(s) '%s'...", label);
+          if (enunciate.isDebug()) {
+            StringBuilder command = new StringBuilder();
+            for (String commandPiece : compileCommand) {
+              command.append(' ').append(commandPiece);
             }
-
-            shellCommand.append(commandArg).append(' ');
+            debug("GWTCompile for module(s) %s will be executed with the command: %s", label, command);
           }
+          scheduler.schedule(label.toString(), compileCommand, getGenerateDir(), compileMemory);
+        }
+      }
+      else {
+        info("Skipping GWT compile for app %s as everything appears up-to-date...", appName);
+      }
+    }
 
-          //add any extra args before the module name.
-          shellCommand.append(windows ? "%*" : "$@").append(' ');
+    scheduler.run();
 
-          String shellPage = getModuleId(moduleName) + ".html";
-          if (appModule.getShellPage() != null) {
-            shellPage = appModule.getShellPage();
+    for (Map.Entry<GWTApp, List<String>> appCommand : appCommands.entrySet()) {
+      GWTApp gwtApp = appCommand.getKey();
+      List<String> appCompileCommand = appCommand.getValue();
+      String appName = gwtApp.getName();
+      File appDir = getAppGenerateDir(appName);
+      for (GWTAppModule appModule : gwtApp.getModules()) {
+        String moduleName = appModule.getName();
+        if (!gwtVersionGreaterThan(1, 5)) {
+          File moduleOutputDir = appDir;
+          String outputPath = appModule.getOutputPath();
+          if ((outputPath != null) && (!"".equals(outputPath.trim()))) {
+            moduleOutputDir = new File(appDir, outputPath);
           }
 
-          if (!gwtVersionGreaterThan(1, 5)) {
-            //when invoking the shell for GWT 1.4 or 1.5, it requires a URL to load.
-            //The URL is the [moduleName]/[shellPage.html]
-            shellCommand.append(moduleName).append('/').append(shellPage);
-          }
-          else {
-            //as of 1.6, you invoke it with -startupUrl [shellPage.html] [moduleName]
-            shellCommand.append("-startupUrl ").append(shellPage).append(' ').append(moduleName);
+          File moduleGenDir = new File(appDir, moduleName);
+          if (!moduleOutputDir.equals(moduleGenDir)) {
+            moduleOutputDir.mkdirs();
+            enunciate.copyDir(moduleGenDir, moduleOutputDir);
+            deleteDir(moduleGenDir);
           }
+        }
 
-          File scriptFile = getShellScriptFile(appName, moduleName);
-          scriptFile.getParentFile().mkdirs();
-          FileWriter writer = new FileWriter(scriptFile);
-          writer.write(shellCommand.toString());
-          writer.flush();
-          writer.close();
-
-          File shellFile = getShellScriptFile(appName, moduleName);
-          if (shellFile.exists()) {
-            StringBuilder scriptArtifactId = new StringBuilder();
-            if ((appName != null) && (appName.trim().length() > 0)) {
-              scriptArtifactId.append(appName).append('.');
-            }
-            scriptArtifactId.append(moduleName).append(".shell");
-            getEnunciate().addArtifact(new FileArtifact(getName(), scriptArtifactId.toString(), shellFile));
+        StringBuilder shellCommand = new StringBuilder();
+        for (int i = 0; i < moduleNameIndex; i++) {
+          String commandArg = appCompileCommand.get(i);
+          if (i == compileClassIndex) {
+            commandArg = gwtVersionGreaterThan(1, 5) ? "com.google.gwt.dev.HostedMode" : "com.google.gwt.dev.GWTShell";
           }
-          else {
-            debug("No GWT shell script file exists at %s.  No artifact added.", shellFile);
+          else if (commandArg.indexOf(' ') >= 0) {
+            commandArg = '"' + commandArg + '"';
           }
+
+          shellCommand.append(commandArg).append(' ');
+        }
+
+        //add any extra args before the module name.
+        shellCommand.append(windows ? "%*" : "$@").append(' ');
+
+        String shellPage = getModuleId(moduleName) + ".html";
+        if (appModule.getShellPage() != null) {
+          shellPage = appModule.getShellPage();
+        }
+
+        if (!gwtVersionGreaterThan(1, 5)) {
+          //when invoking the shell for GWT 1.4 or 1.5, it requires a URL to load.
+          //The URL is the [moduleName]/[shellPage.html]
+          shellCommand.append(moduleName).append('/').append(shellPage);
+        }
+        else {
+          //as of 1.6, you invoke it with -startupUrl [shellPage.html] [moduleName]
+          shellCommand.append("-startupUrl ").append(shellPage).append(' ').append(moduleName);
+        }
+
+        File scriptFile = getShellScriptFile(appName, moduleName);
+        scriptFile.getParentFile().mkdirs();
+        FileWriter writer = new FileWriter(scriptFile);
+        writer.write(shellCommand.toString());
+        writer.flush();
+        writer.close();
+
+        File shellFile = getShellScriptFile(appName, moduleName);
+        if (shellFile.exists()) {
+          StringBuilder scriptArtifactId = new StringBuilder();
+          if ((appName != null) && (appName.trim().length() > 0)) {
+            scriptArtifactId.append(appName).append('.');
+          }
+          scriptArtifactId.append(moduleName).append(".shell");
+          getEnunciate().addArtifact(new FileArtifact(getName(), scriptArtifactId.toString(), shellFile));
+        }
+        else {
+          debug("No GWT shell script file exists at %s.  No artifact added.", shellFile);
         }
-      }
-      else {
-        info("Skipping GWT compile for app %s as everything appears up-to-date...", appName);
       }
     }
   }
@@ -1605,4 +1641,58 @@ public class GWTDeploymentModule extends FreemarkerDeploymentModule implements P
   public void setDisableCompile(boolean disableCompile) {
     this.disableCompile = disableCompile;
   }
+
+  /**
+   * The maximum number of concurrent GWT compiles (default: 1).
+   *
+   * @return The maximum number of concurrent GWT compiles.
+   */
+  public int getGwtCompileThreads() {
+    return gwtCompileThreads;
+  }
+
+  /**
+   * The maximum number of concurrent GWT compiles (default: 1).
+   *
+   * @param gwtCompileThreads The maximum number of concurrent GWT compiles.
+   */
+  public void setGwtCompileThreads(int gwtCompileThreads) {
+    this.gwtCompileThreads = gwtCompileThreads;
+  }
+
+  /**
+   * The memory budget (in megabytes) of the concurrent GWT compiles (default: 0, no budget).
+   *
+   * @return The memory budget of the concurrent GWT compiles.
+   */
+  public int getGwtCompileMemoryBudget() {
+    return gwtCompileMemoryBudget;
+  }
+
+  /**
+   * The memory budget (in megabytes) of the concurrent GWT compiles (default: 0, no budget).
+   *
+   * @param gwtCompileMemoryBudget The memory budget of the concurrent GWT compiles.
+   */
+  public void setGwtCompileMemoryBudget(int gwtCompileMemoryBudget) {
+    this.gwtCompileMemoryBudget = gwtCompileMemoryBudget;
+  }
+
+  /**
+   * Whether the modules of an app are compiled by the same compiler process (default: false).
+   *
+   * @return Whether the modules of an app are compiled by the same compiler process.
+   */
+  public boolean isGwtCompilerJvmShared() {
+    return gwtCompilerJvmShared;
+  }
+
+  /**
+   * Whether the modules of an app are compiled by the same compiler process (default: false).
+   *
+   * @param gwtCompilerJvmShared Whether the modules of an app are compiled by the same compiler process.
+   */
+  public void setGwtCompilerJvmShared(boolean gwtCompilerJvmShared) {
+    this.gwtCompilerJvmShared = gwtCompilerJvmShared;
+  }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.gwt;
+
+import junit.framework.TestCase;
+import org.codehaus.enunciate.EnunciateException;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestGWTCompileScheduler extends TestCase {
+
+  private static final long COMPILE_MILLIS = 1000;
+
+  /**
+   * tests that the compiles are run concurrently and that their output is streamed with their labels.
+   */
+  public void testConcurrentCompiles() throws Exception {
+    RecordingOutputHandler output = new RecordingOutputHandler();
+    GWTCompileScheduler scheduler = new GWTCompileScheduler(4, 0, output);
+    for (int i = 0; i < 4; i++) {
+      scheduler.schedule("module" + i, stubCompile("module" + i), null, 256);
+    }
+    assertEquals(Arrays.asList("module0", "module1", "module2", "module3"), scheduler.getScheduledCompiles());
+
+    long start = System.currentTimeMillis();
+    scheduler.run();
+    long elapsed = System.currentTimeMillis() - start;
+    assertTrue("compiles weren't concurrent: " + elapsed + "ms", elapsed < COMPILE_MILLIS * 3);
+
+    for (int i = 0; i < 4; i++) {
+      assertEquals(Arrays.asList("compiled module" + i), output.lines.get("module" + i));
+    }
+  }
+
+  /**
+   * tests that the memory budget bounds the concurrent compiles.
+   */
+  public void testMemoryBudget() throws Exception {
+    GWTCompileScheduler scheduler = new GWTCompileScheduler(2, 512, new RecordingOutputHandler());
+    scheduler.schedule("module0", stubCompile("module0"), null, 512);
+    scheduler.schedule("module1", stubCompile("module1"), null, 1024);
+
+    long start = System.currentTimeMillis();
+    scheduler.run();
+    assertTrue(System.currentTimeMillis() - start >= COMPILE_MILLIS * 2);
+  }
+
+  /**
+   * tests that a failed compile fails the run.
+   */
+  public void testFailedCompile() throws Exception {
+    GWTCompileScheduler scheduler = new GWTCompileScheduler(2, 0, new RecordingOutputHandler());
+    scheduler.schedule("module0", stubCompile("module0"), null, 256);
+    scheduler.schedule("fail", stubCompile("fail"), null, 256);
+    try {
+      scheduler.run();
+      fail("should have failed.");
+    }
+    catch (EnunciateException e) {
+      assertTrue(e.getMessage().contains("fail"));
+    }
+  }
+
+  /**
+   * tests the memory of a compile.
+   */
+  public void testMemoryOf() throws Exception {
+    assertEquals(GWTCompileScheduler.DEFAULT_COMPILE_MEMORY, GWTCompileScheduler.memoryOf(Arrays.asList("-Dsome.property=true")));
+    assertEquals(1024, GWTCompileScheduler.memoryOf(Arrays.asList("-Xmx1g")));
+    assertEquals(768, GWTCompileScheduler.memoryOf(Arrays.asList("-Xss4m", "-Xmx768M")));
+    assertEquals(2, GWTCompileScheduler.memoryOf(Arrays.asList("-Xmx2048k")));
+  }
+
+  private List<String> stubCompile(String moduleName) {
+    File java = new File(new File(System.getProperty("java.home"), "bin"), "java");
+    return Arrays.asList(java.getAbsolutePath(), "-cp", System.getProperty("java.class.path"), StubCompiler.class.getName(), String.valueOf(COMPILE_MILLIS), moduleName);
+  }
+
+  /**
+   * Output handler that records the output of each compile.
+   */
+  private static class RecordingOutputHandler implements GWTCompileScheduler.OutputHandler {
+
+    private final Map<String, List<String>> lines = new HashMap<String, List<String>>();
+
+    public synchronized void output(String label, String line) {
+      List<String> labelLines = this.lines.get(label);
+      if (labelLines == null) {
+        labelLines = new ArrayList<String>();
+        this.lines.put(label, labelLines);
+      }
+      labelLines.add(line);
+    }
+  }
+
+  /**
+   * Stub for the GWT compiler: waits, then reports the (URL-encoded) module name, failing for modules named "fail".
+   */
+  public static class StubCompiler {
+
+    public static void main(String[] args) throws Exception {
+      Thread.sleep(Long.parseLong(args[0]));
+      System.out.println("compiled%20" + args[1]);
+      System.exit("fail".equals(args[1]) ? 1 : 0);
+    }
+  }
+}
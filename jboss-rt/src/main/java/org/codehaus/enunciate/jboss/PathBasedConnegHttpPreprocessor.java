@@ -1,5 +1,6 @@
 package org.codehaus.enunciate.jboss;
 
+import org.codehaus.enunciate.rest.PathConnegRouter;
 import org.jboss.resteasy.spi.HttpRequest;
 import org.jboss.resteasy.spi.HttpRequestPreprocessor;
 
@@ -11,22 +12,18 @@ import java.util.Map;
  */
 public class PathBasedConnegHttpPreprocessor implements HttpRequestPreprocessor {
 
-  private Map<String,MediaType> mediaTypeMappings;
+  private final PathConnegRouter<MediaType> router;
 
   public PathBasedConnegHttpPreprocessor(Map<String,MediaType> mediaTypeMappings) {
-    this.mediaTypeMappings = mediaTypeMappings;
+    this.router = new PathConnegRouter<MediaType>(mediaTypeMappings);
   }
 
   public void preProcess(HttpRequest request) {
     String preprocessedPath = request.getPreprocessedPath();
-    for (Map.Entry<String, MediaType> mediaType : mediaTypeMappings.entrySet()) {
-      int mediaTypeMappingIndex = preprocessedPath.indexOf("/" + mediaType.getKey() + "/");
-      if (mediaTypeMappingIndex >= 0) {
-        preprocessedPath = preprocessedPath.substring(mediaTypeMappingIndex + mediaType.getKey().length() + 1);
-        request.setPreprocessedPath(preprocessedPath);
-        request.getHttpHeaders().getAcceptableMediaTypes().add(0, mediaType.getValue());
-        break;
-      }
+    PathConnegRouter.Match<MediaType> mediaType = this.router.matchSegment(preprocessedPath);
+    if (mediaType != null) {
+      request.setPreprocessedPath(preprocessedPath.substring(mediaType.getEnd()));
+      request.getHttpHeaders().getAcceptableMediaTypes().add(0, mediaType.getValue());
     }
   }
 }
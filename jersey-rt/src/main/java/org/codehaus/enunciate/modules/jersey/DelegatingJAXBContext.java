@@ -17,29 +17,105 @@
 package org.codehaus.enunciate.modules.jersey;
 
 import javax.xml.bind.*;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
 
 /**
- * Convenience context that just delegates its methods.
+ * Convenience context that just delegates its methods. The context can be configured to preset a namespace prefix
+ * mapper on the marshallers it creates, and to reuse a marshaller and an unmarshaller per thread (instead of creating
+ * new ones each time). Reused marshallers and unmarshallers keep track of whatever gets changed on them and are reset
+ * before they're handed out again; one that can't be reset, or that's still in use (e.g. by an outer marshal call on
+ * the same thread), is replaced with a new one.
  *
  * @author Ryan Heaton
  */
 public class DelegatingJAXBContext extends JAXBContext {
 
   private final JAXBContext delegate;
+  private final Object prefixMapper;
+  private final boolean reuse;
+  private final ThreadLocal<SoftReference<ResettableMarshaller>> marshallers = new ThreadLocal<SoftReference<ResettableMarshaller>>();
+  private final ThreadLocal<SoftReference<ResettableUnmarshaller>> unmarshallers = new ThreadLocal<SoftReference<ResettableUnmarshaller>>();
 
   public DelegatingJAXBContext(JAXBContext delegate) {
+    this(delegate, null, false);
+  }
+
+  /**
+   * @param delegate The delegate.
+   * @param prefixMapper The namespace prefix mapper to set on the marshallers (null for none).
+   * @param reuse Whether to reuse a marshaller and an unmarshaller per thread.
+   */
+  public DelegatingJAXBContext(JAXBContext delegate, Object prefixMapper, boolean reuse) {
     this.delegate = delegate;
+    this.prefixMapper = prefixMapper;
+    this.reuse = reuse;
   }
 
   public Unmarshaller createUnmarshaller() throws JAXBException {
-    return this.delegate.createUnmarshaller();
+    if (!this.reuse) {
+      return this.delegate.createUnmarshaller();
+    }
+
+    SoftReference<ResettableUnmarshaller> ref = this.unmarshallers.get();
+    ResettableUnmarshaller unmarshaller = ref == null ? null : ref.get();
+    if (unmarshaller == null || !unmarshaller.claim()) {
+      unmarshaller = new ResettableUnmarshaller(this.delegate.createUnmarshaller());
+      this.unmarshallers.set(new SoftReference<ResettableUnmarshaller>(unmarshaller));
+      unmarshaller.claim();
+    }
+    return unmarshaller;
   }
 
   public Marshaller createMarshaller() throws JAXBException {
-    return this.delegate.createMarshaller();
+    if (!this.reuse) {
+      return newMarshaller();
+    }
+
+    SoftReference<ResettableMarshaller> ref = this.marshallers.get();
+    ResettableMarshaller marshaller = ref == null ? null : ref.get();
+    if (marshaller == null || !marshaller.claim()) {
+      marshaller = new ResettableMarshaller(newMarshaller());
+      this.marshallers.set(new SoftReference<ResettableMarshaller>(marshaller));
+      marshaller.claim();
+    }
+    return marshaller;
+  }
+
+  /**
+   * Create a new marshaller from the delegate, setting the prefix mapper if one is configured.
+   *
+   * @return The new marshaller.
+   */
+  protected Marshaller newMarshaller() throws JAXBException {
+    Marshaller marshaller = this.delegate.createMarshaller();
+    if (this.prefixMapper != null) {
+      try {
+        marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper", this.prefixMapper);
+      }
+      catch (PropertyException e) {
+        //fall through...
+      }
+    }
+    return marshaller;
   }
 
   public Validator createValidator() throws JAXBException {
     return this.delegate.createValidator();
   }
+
+  @Override
+  public <T> Binder<T> createBinder(Class<T> domType) {
+    return this.delegate.createBinder(domType);
+  }
+
+  @Override
+  public JAXBIntrospector createJAXBIntrospector() {
+    return this.delegate.createJAXBIntrospector();
+  }
+
+  @Override
+  public void generateSchema(SchemaOutputResolver outputResolver) throws IOException {
+    this.delegate.generateSchema(outputResolver);
+  }
 }
@@ -19,16 +19,11 @@ package org.codehaus.enunciate.modules.jersey;
 import javax.ws.rs.ext.ContextResolver;
 import javax.ws.rs.ext.Provider;
 import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.PropertyException;
 import javax.xml.bind.annotation.XmlRootElement;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.HashSet;
-import java.util.Properties;
-import java.util.Set;
+import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,33 +36,39 @@ import java.util.logging.Logger;
 public class EnunciateJAXBContextResolver implements ContextResolver<JAXBContext> {
 
   private static final Logger LOG = Logger.getLogger(EnunciateJAXBContextResolver.class.getName());
+  private static final int MAX_ROOT_ELEMENT_CONTEXTS = 256;
 
   private final JAXBContext context;
   private final Object prefixMapper;
 
   private final Set<Class> types;
 
+  /**
+   * The contexts for the root elements that aren't one of the known types, keyed by type. The cache is bounded, evicting
+   * the least recently used context. (The types are held strongly, which is fine because they're loaded by the same
+   * webapp classloader as this resolver.)
+   */
+  private final Map<Class, JAXBContext> rootElementContexts = new LinkedHashMap<Class, JAXBContext>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Class, JAXBContext> eldest) {
+      return size() > getMaxRootElementContexts();
+    }
+  };
+
   public EnunciateJAXBContextResolver() throws Exception {
     this.types = loadTypes();
     this.prefixMapper = loadPrefixMapper();
 
-    JAXBContext context = JAXBContext.newInstance(this.types.toArray(new Class[types.size()]));
-    if (this.prefixMapper != null) {
-      context = new DelegatingJAXBContext(context) {
-        @Override
-        public Marshaller createMarshaller() throws JAXBException {
-          Marshaller marshaller = super.createMarshaller();
-          try {
-            marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper", prefixMapper);
-          }
-          catch (PropertyException e) {
-            //fall through...
-          }
-          return marshaller;
-        }
-      };
-    }
-    this.context = context;
+    this.context = new DelegatingJAXBContext(JAXBContext.newInstance(this.types.toArray(new Class[types.size()])), this.prefixMapper, true);
+  }
+
+  /**
+   * The maximum number of contexts to cache for the root elements that aren't one of the known types.
+   *
+   * @return The maximum number of contexts to cache for the root elements that aren't one of the known types.
+   */
+  protected int getMaxRootElementContexts() {
+    return MAX_ROOT_ELEMENT_CONTEXTS;
   }
 
   public Set<Class> loadTypes() {
@@ -166,22 +167,17 @@ public class EnunciateJAXBContextResolver implements ContextResolver<JAXBContext
     }
     else if (objectType.isAnnotationPresent(XmlRootElement.class)) {
       //if this is a root element, we'll do our best to apply our namespace prefix mapper.
+      synchronized (this.rootElementContexts) {
+        JAXBContext context = this.rootElementContexts.get(objectType);
+        if (context != null) {
+          return context;
+        }
+      }
+
       try {
-        JAXBContext context = JAXBContext.newInstance(objectType);
-        if (this.prefixMapper != null) {
-          context = new DelegatingJAXBContext(context) {
-            @Override
-            public Marshaller createMarshaller() throws JAXBException {
-              Marshaller marshaller = super.createMarshaller();
-              try {
-                marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper", prefixMapper);
-              }
-              catch (PropertyException e) {
-                //fall through...
-              }
-              return marshaller;
-            }
-          };
+        JAXBContext context = new DelegatingJAXBContext(JAXBContext.newInstance(objectType), this.prefixMapper, true);
+        synchronized (this.rootElementContexts) {
+          this.rootElementContexts.put(objectType, context);
         }
         return context;
       }
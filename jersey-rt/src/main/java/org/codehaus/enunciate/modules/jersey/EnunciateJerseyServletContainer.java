@@ -6,6 +6,7 @@ import com.sun.jersey.api.uri.UriComponent;
 import com.sun.jersey.core.spi.component.ioc.IoCComponentProviderFactory;
 import com.sun.jersey.spi.container.WebApplication;
 import com.sun.jersey.spi.container.servlet.ServletContainer;
+import org.codehaus.enunciate.rest.PathConnegRouter;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
@@ -45,6 +46,7 @@ public class EnunciateJerseyServletContainer extends ServletContainer {
   private WebApplication wa;
   private String servletPath;
   private boolean pathBasedConneg = true;
+  private PathConnegRouter<MediaType> connegRouter;
 
   @Override
   protected void configure(ServletConfig sc, ResourceConfig rc, WebApplication wa) {
@@ -130,6 +132,7 @@ public class EnunciateJerseyServletContainer extends ServletContainer {
   protected void initiate(ResourceConfig rc, WebApplication wa) {
     wa.initiate(rc, loadResourceProviderFacotry(rc));
     this.resourceConfig = rc;
+    this.connegRouter = new PathConnegRouter<MediaType>(rc.getMediaTypeMappings());
   }
 
   @Override
@@ -206,21 +209,18 @@ public class EnunciateJerseyServletContainer extends ServletContainer {
       requestPath = requestPath.substring(this.servletPath.length());
     }
     else if (this.pathBasedConneg) {
-      //the enunciate-configured servlet path ("rest subcontext") is NOT part of the request. Iterate through
-      //each media type mapping and see if it's part of the path.
-      if (requestPath.startsWith("/")) {
-        requestPath = requestPath.substring(1);
+      //the enunciate-configured servlet path ("rest subcontext") is NOT part of the request. Look up
+      //the media type mapping (if any) that starts the path.
+      int offset = requestPath.startsWith("/") ? 1 : 0;
+      PathConnegRouter.Match<MediaType> mediaMapping = this.connegRouter.matchPrefix(requestPath, offset);
+      if (mediaMapping != null) {
+        //found a match to a specific media type, so we need to append the media type's 'key' to the base uri.
+        baseUriPathBuilder.append('/').append(mediaMapping.getKey());
+        requestPath = requestPath.substring(mediaMapping.getEnd());
+        mediaType = mediaMapping.getValue();
       }
-
-      for (Map.Entry<String, MediaType> mediaMapping : this.resourceConfig.getMediaTypeMappings().entrySet()) {
-        if (requestPath.startsWith(mediaMapping.getKey())) {
-          //found a match to a specific media type, so we need to append the media type's 'key' to the base uri.
-          String mediaKey = mediaMapping.getKey();
-          baseUriPathBuilder.append('/').append(mediaKey);
-          requestPath = requestPath.substring(mediaKey.length());
-          mediaType = mediaMapping.getValue();
-          break;
-        }
+      else if (offset > 0) {
+        requestPath = requestPath.substring(offset);
       }
     }
 
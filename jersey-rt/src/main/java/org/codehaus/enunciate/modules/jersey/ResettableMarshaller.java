@@ -0,0 +1,245 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.jersey;
+
+import org.w3c.dom.Node;
+import org.xml.sax.ContentHandler;
+
+import javax.xml.bind.*;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.attachment.AttachmentMarshaller;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import javax.xml.validation.Schema;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Marshaller that delegates to another marshaller, keeping track of everything that gets changed on it so that it
+ * can be reset before it's reused.
+ *
+ * @author Ryan Heaton
+ */
+public class ResettableMarshaller implements Marshaller {
+
+  private final Marshaller delegate;
+  private final Map<String, Object> originalProperties = new HashMap<String, Object>();
+  private final Set<Class> adapterTypes = new HashSet<Class>();
+  private boolean resettable = true;
+  private boolean inUse = false;
+
+  public ResettableMarshaller(Marshaller delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Reset the delegate to the state it was in when it was wrapped.
+   *
+   * @return Whether the delegate could be reset. If not, it mustn't be reused.
+   */
+  public boolean reset() {
+    if (!this.resettable) {
+      return false;
+    }
+
+    try {
+      for (Map.Entry<String, Object> property : this.originalProperties.entrySet()) {
+        this.delegate.setProperty(property.getKey(), property.getValue());
+      }
+      for (Class adapterType : this.adapterTypes) {
+        this.delegate.setAdapter(adapterType, null);
+      }
+      this.delegate.setSchema(null);
+      this.delegate.setListener(null);
+      this.delegate.setEventHandler(null);
+      this.delegate.setAttachmentMarshaller(null);
+    }
+    catch (Exception e) {
+      this.resettable = false;
+      return false;
+    }
+
+    this.originalProperties.clear();
+    this.adapterTypes.clear();
+    return true;
+  }
+
+  /**
+   * Claim this marshaller for a caller, resetting it first. It stays claimed until one of its marshal methods returns,
+   * so a nested marshal on the same thread (e.g. from an adapter or a listener) doesn't reset it from under the outer
+   * call.
+   *
+   * @return Whether the marshaller could be claimed. If not, it's still in use or it couldn't be reset, so a new one
+   * must be used.
+   */
+  public boolean claim() {
+    if (this.inUse || !reset()) {
+      return false;
+    }
+
+    this.inUse = true;
+    return true;
+  }
+
+  public void setProperty(String name, Object value) throws PropertyException {
+    if (!this.originalProperties.containsKey(name)) {
+      try {
+        this.originalProperties.put(name, this.delegate.getProperty(name));
+      }
+      catch (PropertyException e) {
+        //we don't know what to reset it to.
+        this.resettable = false;
+      }
+    }
+    this.delegate.setProperty(name, value);
+  }
+
+  public Object getProperty(String name) throws PropertyException {
+    return this.delegate.getProperty(name);
+  }
+
+  public void setAdapter(XmlAdapter adapter) {
+    if (adapter == null) {
+      throw new IllegalArgumentException();
+    }
+
+    setAdapter((Class) adapter.getClass(), adapter);
+  }
+
+  public <A extends XmlAdapter> void setAdapter(Class<A> type, A adapter) {
+    this.adapterTypes.add(type);
+    this.delegate.setAdapter(type, adapter);
+  }
+
+  public <A extends XmlAdapter> A getAdapter(Class<A> type) {
+    return this.delegate.getAdapter(type);
+  }
+
+  public void marshal(Object jaxbElement, Result result) throws JAXBException {
+    try {
+      this.delegate.marshal(jaxbElement, result);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public void marshal(Object jaxbElement, OutputStream os) throws JAXBException {
+    try {
+      this.delegate.marshal(jaxbElement, os);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public void marshal(Object jaxbElement, File output) throws JAXBException {
+    try {
+      this.delegate.marshal(jaxbElement, output);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public void marshal(Object jaxbElement, Writer writer) throws JAXBException {
+    try {
+      this.delegate.marshal(jaxbElement, writer);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public void marshal(Object jaxbElement, ContentHandler handler) throws JAXBException {
+    try {
+      this.delegate.marshal(jaxbElement, handler);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public void marshal(Object jaxbElement, Node node) throws JAXBException {
+    try {
+      this.delegate.marshal(jaxbElement, node);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public void marshal(Object jaxbElement, XMLStreamWriter writer) throws JAXBException {
+    try {
+      this.delegate.marshal(jaxbElement, writer);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public void marshal(Object jaxbElement, XMLEventWriter writer) throws JAXBException {
+    try {
+      this.delegate.marshal(jaxbElement, writer);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public Node getNode(Object contentTree) throws JAXBException {
+    return this.delegate.getNode(contentTree);
+  }
+
+  public void setEventHandler(ValidationEventHandler handler) throws JAXBException {
+    this.delegate.setEventHandler(handler);
+  }
+
+  public ValidationEventHandler getEventHandler() throws JAXBException {
+    return this.delegate.getEventHandler();
+  }
+
+  public void setAttachmentMarshaller(AttachmentMarshaller am) {
+    this.delegate.setAttachmentMarshaller(am);
+  }
+
+  public AttachmentMarshaller getAttachmentMarshaller() {
+    return this.delegate.getAttachmentMarshaller();
+  }
+
+  public void setSchema(Schema schema) {
+    this.delegate.setSchema(schema);
+  }
+
+  public Schema getSchema() {
+    return this.delegate.getSchema();
+  }
+
+  public void setListener(Listener listener) {
+    this.delegate.setListener(listener);
+  }
+
+  public Listener getListener() {
+    return this.delegate.getListener();
+  }
+}
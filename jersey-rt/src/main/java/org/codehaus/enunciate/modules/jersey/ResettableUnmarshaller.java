@@ -0,0 +1,307 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.jersey;
+
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import javax.xml.bind.*;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.attachment.AttachmentUnmarshaller;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.validation.Schema;
+import java.io.File;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unmarshaller that delegates to another unmarshaller, keeping track of everything that gets changed on it so that it
+ * can be reset before it's reused.
+ *
+ * @author Ryan Heaton
+ */
+public class ResettableUnmarshaller implements Unmarshaller {
+
+  private final Unmarshaller delegate;
+  private final Map<String, Object> originalProperties = new HashMap<String, Object>();
+  private final Set<Class> adapterTypes = new HashSet<Class>();
+  private Boolean originalValidating = null;
+  private boolean resettable = true;
+  private boolean inUse = false;
+
+  public ResettableUnmarshaller(Unmarshaller delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Reset the delegate to the state it was in when it was wrapped.
+   *
+   * @return Whether the delegate could be reset. If not, it mustn't be reused.
+   */
+  public boolean reset() {
+    if (!this.resettable) {
+      return false;
+    }
+
+    try {
+      for (Map.Entry<String, Object> property : this.originalProperties.entrySet()) {
+        this.delegate.setProperty(property.getKey(), property.getValue());
+      }
+      for (Class adapterType : this.adapterTypes) {
+        this.delegate.setAdapter(adapterType, null);
+      }
+      if (this.originalValidating != null) {
+        this.delegate.setValidating(this.originalValidating);
+      }
+      this.delegate.setSchema(null);
+      this.delegate.setListener(null);
+      this.delegate.setEventHandler(null);
+      this.delegate.setAttachmentUnmarshaller(null);
+    }
+    catch (Exception e) {
+      this.resettable = false;
+      return false;
+    }
+
+    this.originalProperties.clear();
+    this.adapterTypes.clear();
+    this.originalValidating = null;
+    return true;
+  }
+
+  /**
+   * Claim this unmarshaller for a caller, resetting it first. It stays claimed until one of its unmarshal methods
+   * returns, so a nested unmarshal on the same thread (e.g. from an adapter or a listener) doesn't reset it from under
+   * the outer call.
+   *
+   * @return Whether the unmarshaller could be claimed. If not, it's still in use or it couldn't be reset, so a new one
+   * must be used.
+   */
+  public boolean claim() {
+    if (this.inUse || !reset()) {
+      return false;
+    }
+
+    this.inUse = true;
+    return true;
+  }
+
+  public void setProperty(String name, Object value) throws PropertyException {
+    if (!this.originalProperties.containsKey(name)) {
+      try {
+        this.originalProperties.put(name, this.delegate.getProperty(name));
+      }
+      catch (PropertyException e) {
+        //we don't know what to reset it to.
+        this.resettable = false;
+      }
+    }
+    this.delegate.setProperty(name, value);
+  }
+
+  public Object getProperty(String name) throws PropertyException {
+    return this.delegate.getProperty(name);
+  }
+
+  public void setAdapter(XmlAdapter adapter) {
+    if (adapter == null) {
+      throw new IllegalArgumentException();
+    }
+
+    setAdapter((Class) adapter.getClass(), adapter);
+  }
+
+  public <A extends XmlAdapter> void setAdapter(Class<A> type, A adapter) {
+    this.adapterTypes.add(type);
+    this.delegate.setAdapter(type, adapter);
+  }
+
+  public <A extends XmlAdapter> A getAdapter(Class<A> type) {
+    return this.delegate.getAdapter(type);
+  }
+
+  public void setValidating(boolean validating) throws JAXBException {
+    if (this.originalValidating == null) {
+      this.originalValidating = this.delegate.isValidating();
+    }
+    this.delegate.setValidating(validating);
+  }
+
+  public boolean isValidating() throws JAXBException {
+    return this.delegate.isValidating();
+  }
+
+  public Object unmarshal(File f) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(f);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public Object unmarshal(InputStream is) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(is);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public Object unmarshal(Reader reader) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(reader);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public Object unmarshal(URL url) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(url);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public Object unmarshal(InputSource source) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(source);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public Object unmarshal(Node node) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(node);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public <T> JAXBElement<T> unmarshal(Node node, Class<T> declaredType) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(node, declaredType);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public Object unmarshal(Source source) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(source);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public <T> JAXBElement<T> unmarshal(Source source, Class<T> declaredType) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(source, declaredType);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public Object unmarshal(XMLStreamReader reader) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(reader);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public <T> JAXBElement<T> unmarshal(XMLStreamReader reader, Class<T> declaredType) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(reader, declaredType);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public Object unmarshal(XMLEventReader reader) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(reader);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public <T> JAXBElement<T> unmarshal(XMLEventReader reader, Class<T> declaredType) throws JAXBException {
+    try {
+      return this.delegate.unmarshal(reader, declaredType);
+    }
+    finally {
+      this.inUse = false;
+    }
+  }
+
+  public UnmarshallerHandler getUnmarshallerHandler() {
+    return this.delegate.getUnmarshallerHandler();
+  }
+
+  public void setEventHandler(ValidationEventHandler handler) throws JAXBException {
+    this.delegate.setEventHandler(handler);
+  }
+
+  public ValidationEventHandler getEventHandler() throws JAXBException {
+    return this.delegate.getEventHandler();
+  }
+
+  public void setAttachmentUnmarshaller(AttachmentUnmarshaller au) {
+    this.delegate.setAttachmentUnmarshaller(au);
+  }
+
+  public AttachmentUnmarshaller getAttachmentUnmarshaller() {
+    return this.delegate.getAttachmentUnmarshaller();
+  }
+
+  public void setSchema(Schema schema) {
+    this.delegate.setSchema(schema);
+  }
+
+  public Schema getSchema() {
+    return this.delegate.getSchema();
+  }
+
+  public void setListener(Listener listener) {
+    this.delegate.setListener(listener);
+  }
+
+  public Listener getListener() {
+    return this.delegate.getListener();
+  }
+}
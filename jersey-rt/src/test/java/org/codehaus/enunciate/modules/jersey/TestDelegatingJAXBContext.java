@@ -0,0 +1,191 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.jersey;
+
+import junit.framework.TestCase;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestDelegatingJAXBContext extends TestCase {
+
+  /**
+   * tests that a marshaller isn't reused unless configured to be.
+   */
+  public void testNoReuse() throws Exception {
+    DelegatingJAXBContext context = new DelegatingJAXBContext(JAXBContext.newInstance(Bean.class));
+    assertNotSame(context.createMarshaller(), context.createMarshaller());
+    assertNotSame(context.createUnmarshaller(), context.createUnmarshaller());
+  }
+
+  /**
+   * tests that the properties set on a reused marshaller are reset.
+   */
+  public void testResetProperties() throws Exception {
+    DelegatingJAXBContext context = new DelegatingJAXBContext(JAXBContext.newInstance(Bean.class), null, true);
+    Marshaller marshaller = context.createMarshaller();
+    assertEquals(Boolean.FALSE, marshaller.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+    marshaller.setProperty(Marshaller.JAXB_ENCODING, "ISO-8859-1");
+    marshaller.marshal(new Bean("one"), new StringWriter());
+
+    Marshaller reused = context.createMarshaller();
+    assertSame(marshaller, reused);
+    assertEquals(Boolean.FALSE, reused.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    assertEquals("UTF-8", reused.getProperty(Marshaller.JAXB_ENCODING));
+  }
+
+  /**
+   * tests that the adapters set on a reused marshaller and unmarshaller are reset.
+   */
+  public void testResetAdapters() throws Exception {
+    DelegatingJAXBContext context = new DelegatingJAXBContext(JAXBContext.newInstance(Bean.class), null, true);
+    Marshaller marshaller = context.createMarshaller();
+    marshaller.setAdapter(new UppercaseAdapter());
+    marshaller.marshal(new Bean("one"), new StringWriter());
+    Marshaller reused = context.createMarshaller();
+    assertSame(marshaller, reused);
+    assertNull(reused.getAdapter(UppercaseAdapter.class));
+
+    Unmarshaller unmarshaller = context.createUnmarshaller();
+    unmarshaller.setAdapter(new UppercaseAdapter());
+    unmarshaller.unmarshal(new StringReader("<bean><name>one</name></bean>"));
+    Unmarshaller reusedUnmarshaller = context.createUnmarshaller();
+    assertSame(unmarshaller, reusedUnmarshaller);
+    assertNull(reusedUnmarshaller.getAdapter(UppercaseAdapter.class));
+  }
+
+  /**
+   * tests that the schema set on a reused marshaller and unmarshaller is reset.
+   */
+  public void testResetSchema() throws Exception {
+    Schema schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema();
+    DelegatingJAXBContext context = new DelegatingJAXBContext(JAXBContext.newInstance(Bean.class), null, true);
+    Marshaller marshaller = context.createMarshaller();
+    marshaller.setSchema(schema);
+    try {
+      marshaller.marshal(new Bean("one"), new StringWriter());
+    }
+    catch (JAXBException e) {
+      //fall through (the bean isn't declared in the schema).
+    }
+    Marshaller reused = context.createMarshaller();
+    assertSame("A failed marshal should release the marshaller.", marshaller, reused);
+    assertNull(reused.getSchema());
+    reused.marshal(new Bean("one"), new StringWriter());
+
+    Unmarshaller unmarshaller = context.createUnmarshaller();
+    unmarshaller.setSchema(schema);
+    try {
+      unmarshaller.unmarshal(new StringReader("<bean><name>one</name></bean>"));
+    }
+    catch (JAXBException e) {
+      //fall through (the bean isn't declared in the schema).
+    }
+    Unmarshaller reusedUnmarshaller = context.createUnmarshaller();
+    assertSame(unmarshaller, reusedUnmarshaller);
+    assertNull(reusedUnmarshaller.getSchema());
+    assertEquals("one", ((Bean) reusedUnmarshaller.unmarshal(new StringReader("<bean><name>one</name></bean>"))).name);
+  }
+
+  /**
+   * tests that a marshaller that's still in use isn't reset and handed out again.
+   */
+  public void testMarshallerInUse() throws Exception {
+    DelegatingJAXBContext context = new DelegatingJAXBContext(JAXBContext.newInstance(Bean.class), null, true);
+    Marshaller marshaller = context.createMarshaller();
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+    Marshaller other = context.createMarshaller();
+    assertNotSame(marshaller, other);
+    assertEquals(Boolean.TRUE, marshaller.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    assertEquals(Boolean.FALSE, other.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+  }
+
+  /**
+   * tests a marshal on the same thread nested within another marshal.
+   */
+  public void testNestedMarshal() throws Exception {
+    final DelegatingJAXBContext context = new DelegatingJAXBContext(JAXBContext.newInstance(Bean.class), null, true);
+    final StringWriter nested = new StringWriter();
+    Marshaller marshaller = context.createMarshaller();
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+    marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+    marshaller.setListener(new Marshaller.Listener() {
+      @Override
+      public void beforeMarshal(Object source) {
+        //(the listener may be notified more than once for the root element.)
+        if (source instanceof Bean && nested.getBuffer().length() == 0) {
+          try {
+            Marshaller nestedMarshaller = context.createMarshaller();
+            nestedMarshaller.marshal(new Bean("nested"), nested);
+          }
+          catch (JAXBException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      }
+    });
+    StringWriter out = new StringWriter();
+    marshaller.marshal(new Bean("outer"), out);
+
+    assertEquals("<bean>\n    <name>outer</name>\n</bean>", out.toString().trim());
+    assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><bean><name>nested</name></bean>", nested.toString());
+    Marshaller reused = context.createMarshaller();
+    assertNotSame(marshaller, reused);
+    assertEquals(Boolean.FALSE, reused.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    assertNull(reused.getListener());
+  }
+
+  @XmlRootElement (name = "bean")
+  public static class Bean {
+
+    public String name;
+
+    public Bean() {
+    }
+
+    public Bean(String name) {
+      this.name = name;
+    }
+  }
+
+  public static class UppercaseAdapter extends XmlAdapter<String, String> {
+
+    @Override
+    public String unmarshal(String value) throws Exception {
+      return value.toUpperCase();
+    }
+
+    @Override
+    public String marshal(String value) throws Exception {
+      return value.toUpperCase();
+    }
+  }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.jersey;
+
+import junit.framework.TestCase;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestEnunciateJAXBContextResolver extends TestCase {
+
+  /**
+   * tests that the least recently used context of a root element is evicted.
+   */
+  public void testRootElementContextsEvicted() throws Exception {
+    EnunciateJAXBContextResolver resolver = new EnunciateJAXBContextResolver() {
+      @Override
+      protected int getMaxRootElementContexts() {
+        return 2;
+      }
+    };
+
+    JAXBContext one = resolver.getContext(RootOne.class);
+    JAXBContext two = resolver.getContext(RootTwo.class);
+    assertNotNull(one);
+    assertNotNull(two);
+    assertNotSame(one, two);
+    assertSame(one, resolver.getContext(RootOne.class));
+
+    //RootTwo is now the least recently used.
+    JAXBContext three = resolver.getContext(RootThree.class);
+    assertNotNull(three);
+    assertSame(one, resolver.getContext(RootOne.class));
+    assertSame(three, resolver.getContext(RootThree.class));
+    assertNotSame(two, resolver.getContext(RootTwo.class));
+  }
+
+  /**
+   * tests that a type that isn't a root element has no context.
+   */
+  public void testNotRootElement() throws Exception {
+    assertNull(new EnunciateJAXBContextResolver().getContext(String.class));
+  }
+
+  @XmlRootElement
+  public static class RootOne {
+  }
+
+  @XmlRootElement
+  public static class RootTwo {
+  }
+
+  @XmlRootElement
+  public static class RootThree {
+  }
+}
@@ -146,4 +146,12 @@ public class JerseyValidator extends BaseValidator {
         || (declaration.getAnnotation(javax.ws.rs.core.Context.class) != null);
   }
 
+  /**
+   * @return true (the checks of this validator don't share any state).
+   */
+  @Override
+  public boolean isPartitionSafe() {
+    return true;
+  }
+
 }
\ No newline at end of file
@@ -16,6 +16,7 @@ import java.io.File;
  * @goal assemble
  * @phase process-sources
  * @requiresDependencyResolution test
+ * @threadSafe
  */
 public class AssembleMojo extends ConfigMojo {
 
@@ -66,14 +67,12 @@ public class AssembleMojo extends ConfigMojo {
       target = Enunciate.Target.valueOf(stepTo.toUpperCase());
     }
 
-    synchronized(ThreadSafety.lock) {
-      try {
-        stepper.stepTo(target);
-        stepper.close();
-      }
-      catch (Exception e) {
-        throw new MojoExecutionException("Problem assembling the enunciate app.", e);
-      }
+    try {
+      stepper.stepTo(target);
+      stepper.close();
+    }
+    catch (Exception e) {
+      throw new MojoExecutionException("Problem assembling the enunciate app.", e);
     }
 
     Enunciate enunciate = (Enunciate) getPluginContext().get(ConfigMojo.ENUNCIATE_PROPERTY);
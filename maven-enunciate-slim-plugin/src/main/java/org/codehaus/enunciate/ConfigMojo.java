@@ -42,6 +42,7 @@ import java.util.*;
  * @goal config
  * @phase validate
  * @requiresDependencyResolution test
+ * @threadSafe
  */
 public class ConfigMojo extends AbstractMojo {
 
@@ -129,6 +130,41 @@ public class ConfigMojo extends AbstractMojo {
    */
   private File scratchDir = null;
 
+  /**
+   * The file in which Enunciate keeps an index of the jars on the classpath between builds.
+   *
+   * @parameter expression="${enunciate.classpathIndexFile}" default-value="${project.build.directory}/enunciate-scratch/classpath.idx"
+   */
+  private File classpathIndexFile = null;
+
+  /**
+   * The file in which Enunciate keeps a manifest of the build outputs between builds.
+   *
+   * @parameter expression="${enunciate.buildManifestFile}" default-value="${project.build.directory}/enunciate-scratch/build-manifest.properties"
+   */
+  private File buildManifestFile = null;
+
+  /**
+   * The number of threads with which Enunciate generates the independent modules of the same order.
+   *
+   * @parameter expression="${enunciate.generateThreads}" default-value="1"
+   */
+  private int generateThreads = 1;
+
+  /**
+   * The file to which Enunciate writes a profile of the build (JSON), with a Chrome trace alongside it. No profile is written if not set.
+   *
+   * @parameter expression="${enunciate.profile}"
+   */
+  private File profileFile = null;
+
+  /**
+   * The number of threads with which Enunciate validates the model.
+   *
+   * @parameter expression="${enunciate.validateThreads}" default-value="1"
+   */
+  private int validateThreads = 1;
+
   /**
    * The directory for the generated WAR.
    *
@@ -398,6 +434,21 @@ public class ConfigMojo extends AbstractMojo {
       enunciate.setScratchDir(this.scratchDir);
     }
 
+    if (this.classpathIndexFile != null) {
+      enunciate.setClasspathIndexFile(this.classpathIndexFile);
+    }
+
+    if (this.buildManifestFile != null) {
+      enunciate.setBuildManifestFile(this.buildManifestFile);
+    }
+
+    enunciate.setGenerateThreads(this.generateThreads);
+    enunciate.setValidateThreads(this.validateThreads);
+
+    if (this.profileFile != null) {
+      enunciate.setProfileFile(this.profileFile);
+    }
+
     if (this.exports != null) {
       for (String exportId : this.exports.keySet()) {
         String filename = this.exports.get(exportId);
@@ -25,6 +25,7 @@ import java.util.Set;
  * @goal docs
  * @phase process-sources
  * @requiresDependencyResolution test
+ * @threadSafe
  */
 public class DocsMojo extends ConfigMojo implements MavenReport {
 
@@ -91,14 +92,12 @@ public class DocsMojo extends ConfigMojo implements MavenReport {
       target = Enunciate.Target.valueOf(stepTo.toUpperCase());
     }
 
-    synchronized(ThreadSafety.lock) {
-      try {
-        stepper.stepTo(target);
-        stepper.close();
-        }
-        catch (Exception e) {
-        throw new MojoExecutionException("Problem assembling the enunciate app.", e);
-      }
+    try {
+      stepper.stepTo(target);
+      stepper.close();
+    }
+    catch (Exception e) {
+      throw new MojoExecutionException("Problem assembling the enunciate app.", e);
     }
   }
 
@@ -34,6 +34,7 @@ import org.codehaus.enunciate.contract.validation.Validator;
 import org.codehaus.enunciate.main.ClientLibraryArtifact;
 import org.codehaus.enunciate.main.NamedFileArtifact;
 import org.codehaus.enunciate.main.ArtifactType;
+import org.codehaus.enunciate.modules.ConcurrentGenerationModule;
 import org.codehaus.enunciate.modules.FreemarkerDeploymentModule;
 import org.codehaus.enunciate.modules.objc.config.ObjCRuleSet;
 import org.codehaus.enunciate.modules.objc.config.PackageIdentifier;
@@ -96,7 +97,7 @@ import java.util.regex.Pattern;
  * @author Ryan Heaton
  * @docFileName module_obj_c.html
  */
-public class ObjCDeploymentModule extends FreemarkerDeploymentModule {
+public class ObjCDeploymentModule extends FreemarkerDeploymentModule implements ConcurrentGenerationModule {
 
   /**
    * The pattern to scrub is any non-word character.
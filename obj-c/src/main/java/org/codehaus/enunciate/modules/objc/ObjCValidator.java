@@ -86,4 +86,12 @@ public class ObjCValidator extends BaseValidator {
     return result;
   }
 
+  /**
+   * @return true (the checks of this validator don't share any state).
+   */
+  @Override
+  public boolean isPartitionSafe() {
+    return true;
+  }
+
 }
@@ -33,6 +33,7 @@ import org.codehaus.enunciate.contract.jaxrs.ResourceMethod;
 import org.codehaus.enunciate.main.NamedFileArtifact;
 import org.codehaus.enunciate.main.ClientLibraryArtifact;
 import org.codehaus.enunciate.main.ArtifactType;
+import org.codehaus.enunciate.modules.ConcurrentGenerationModule;
 import org.codehaus.enunciate.modules.FreemarkerDeploymentModule;
 import org.codehaus.enunciate.modules.ruby.config.PackageModuleConversion;
 import org.codehaus.enunciate.modules.ruby.config.RubyRuleSet;
@@ -93,7 +94,7 @@ import com.sun.mirror.type.ClassType;
  * @author Ryan Heaton
  * @docFileName module_ruby.html
  */
-public class RubyDeploymentModule extends FreemarkerDeploymentModule implements EnunciateClasspathListener {
+public class RubyDeploymentModule extends FreemarkerDeploymentModule implements EnunciateClasspathListener, ConcurrentGenerationModule {
 
   private boolean forceEnable = false;
   private String label = null;
@@ -47,4 +47,12 @@ public class RubyValidator extends BaseValidator {
     }
     return result;
   }
+
+  /**
+   * @return true (the checks of this validator don't share any state).
+   */
+  @Override
+  public boolean isPartitionSafe() {
+    return true;
+  }
 }
@@ -0,0 +1,468 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.xml;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedList;
+
+/**
+ * A writer that pretty-prints the XML that is written to it as it's written, in the same format as the {@link PrettyPrinter}.
+ * The markup is tokenized as it streams through; a token that is split across writes is held until the rest of it is
+ * written. Some important assumptions are made by this writer:
+ *
+ * <ol>
+ *   <li>The XML is well-formed.</li>
+ *   <li>The XML contains no comments that are important (comments are dropped).</li>
+ *   <li>The XML declaration and the document type declaration can be replaced by a new XML declaration.</li>
+ * </ol>
+ *
+ * Unlike the {@link PrettyPrinter}, attribute values are written as-is and processing instructions are preserved.
+ *
+ * @author Ryan Heaton
+ */
+public class PrettyPrintWriter extends Writer {
+
+  private static final String NEWLINE = System.getProperty("line.separator");
+
+  private final Writer out;
+  private final String encoding;
+  private final StringBuilder pending = new StringBuilder();
+  private final StringBuilder text = new StringBuilder();
+  private final StringBuilder indentation = new StringBuilder();
+  private final LinkedList<Boolean> bodyStack = new LinkedList<Boolean>();
+  private boolean started = false;
+  private boolean closed = false;
+
+  /**
+   * @param out The writer to which to write the pretty-printed XML.
+   * @param encoding The encoding to declare in the XML declaration.
+   */
+  public PrettyPrintWriter(Writer out, String encoding) {
+    this.out = out;
+    this.encoding = encoding == null ? "UTF-8" : encoding;
+    this.bodyStack.add(true);
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    if (this.closed) {
+      throw new IOException("Writer closed.");
+    }
+
+    this.pending.append(cbuf, off, len);
+    int consumed = process(false);
+    if (consumed > 0) {
+      this.pending.delete(0, consumed);
+    }
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    if (this.closed) {
+      throw new IOException("Writer closed.");
+    }
+
+    this.pending.append(str, off, off + len);
+    int consumed = process(false);
+    if (consumed > 0) {
+      this.pending.delete(0, consumed);
+    }
+  }
+
+  /**
+   * Flushes the XML that has been pretty-printed so far. Incomplete tokens are held until they are completed.
+   */
+  @Override
+  public void flush() throws IOException {
+    this.out.flush();
+  }
+
+  /**
+   * Finishes the document and closes the underlying writer.
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+
+    this.closed = true;
+    try {
+      process(true);
+      this.pending.setLength(0);
+      flushText();
+      startDocument();
+      this.out.flush();
+    }
+    finally {
+      this.out.close();
+    }
+  }
+
+  /**
+   * Process the complete tokens that are pending.
+   *
+   * @param end Whether the end of the document has been reached.
+   * @return The number of pending characters that were consumed.
+   */
+  protected int process(boolean end) throws IOException {
+    StringBuilder buffer = this.pending;
+    int length = buffer.length();
+    int pos = 0;
+    while (pos < length) {
+      if (buffer.charAt(pos) != '<') {
+        int markup = buffer.indexOf("<", pos);
+        if (markup < 0) {
+          if (end) {
+            appendText(buffer, pos, length);
+            flushText();
+            pos = length;
+          }
+          break;
+        }
+
+        appendText(buffer, pos, markup);
+        pos = markup;
+        continue;
+      }
+
+      int tokenEnd;
+      if (startsWith(buffer, pos, "<!--")) {
+        tokenEnd = indexOf(buffer, "-->", pos + 4, end);
+        if (tokenEnd < 0) {
+          break;
+        }
+        //comments are dropped.
+      }
+      else if (startsWith(buffer, pos, "<![CDATA[")) {
+        tokenEnd = indexOf(buffer, "]]>", pos + 9, end);
+        if (tokenEnd < 0) {
+          break;
+        }
+        this.text.append(buffer, pos + 9, tokenEnd - 3);
+      }
+      else if (startsWith(buffer, pos, "<!")) {
+        //document type declaration (with an optional internal subset).
+        int subset = buffer.indexOf("[", pos);
+        int close = buffer.indexOf(">", pos);
+        tokenEnd = subset >= 0 && (close < 0 || subset < close) ? indexOf(buffer, "]>", subset, end) : indexOf(buffer, ">", pos, end);
+        if (tokenEnd < 0) {
+          break;
+        }
+        flushText();
+      }
+      else if (startsWith(buffer, pos, "<?")) {
+        tokenEnd = indexOf(buffer, "?>", pos + 2, end);
+        if (tokenEnd < 0) {
+          break;
+        }
+        flushText();
+        String instruction = buffer.substring(pos, tokenEnd);
+        if (!instruction.startsWith("<?xml ") && !instruction.startsWith("<?xml?")) {
+          processingInstruction(instruction);
+        }
+      }
+      else if (startsWith(buffer, pos, "</")) {
+        tokenEnd = indexOf(buffer, ">", pos + 2, end);
+        if (tokenEnd < 0) {
+          break;
+        }
+        flushText();
+        endElement(buffer.substring(pos + 2, tokenEnd - 1).trim());
+      }
+      else {
+        tokenEnd = tagEnd(buffer, pos + 1, end);
+        if (tokenEnd < 0) {
+          break;
+        }
+        flushText();
+        startElement(buffer, pos + 1, tokenEnd - 1);
+      }
+
+      pos = tokenEnd;
+    }
+
+    if (end && pos < length) {
+      //malformed trailing markup; write it as it is.
+      startDocument();
+      this.out.write(buffer.substring(pos));
+      pos = length;
+    }
+
+    return pos;
+  }
+
+  /**
+   * Handle the start of an element.
+   *
+   * @param buffer The buffer holding the tag.
+   * @param start The index of the element name.
+   * @param end The index of the closing '&gt;' of the tag.
+   */
+  protected void startElement(CharSequence buffer, int start, int end) throws IOException {
+    boolean empty = end > start && buffer.charAt(end - 1) == '/';
+    if (empty) {
+      end--;
+    }
+
+    openBody();
+    this.out.write(this.indentation.toString());
+    this.out.write('<');
+    int pos = start;
+    while (pos < end && !Character.isWhitespace(buffer.charAt(pos))) {
+      this.out.write(buffer.charAt(pos++));
+    }
+
+    while (pos < end) {
+      while (pos < end && Character.isWhitespace(buffer.charAt(pos))) {
+        pos++;
+      }
+
+      if (pos >= end) {
+        break;
+      }
+
+      this.out.write(' ');
+      while (pos < end && buffer.charAt(pos) != '=' && !Character.isWhitespace(buffer.charAt(pos))) {
+        this.out.write(buffer.charAt(pos++));
+      }
+
+      while (pos < end && buffer.charAt(pos) != '\'' && buffer.charAt(pos) != '"') {
+        pos++;
+      }
+
+      if (pos < end) {
+        char quote = buffer.charAt(pos);
+        int valueEnd = pos + 1;
+        while (valueEnd < end && buffer.charAt(valueEnd) != quote) {
+          valueEnd++;
+        }
+        this.out.write('=');
+        this.out.append(buffer, pos, Math.min(valueEnd + 1, end));
+        pos = valueEnd + 1;
+      }
+    }
+
+    if (empty) {
+      this.out.write("/>");
+      this.out.write(NEWLINE);
+    }
+    else {
+      this.bodyStack.addFirst(false);
+      this.indentation.append("  ");
+    }
+  }
+
+  /**
+   * Handle the end of an element.
+   *
+   * @param qName The name of the element.
+   */
+  protected void endElement(String qName) throws IOException {
+    startDocument();
+    if (this.indentation.length() >= 2) {
+      this.indentation.delete(0, 2);
+    }
+
+    if (this.bodyStack.size() > 1 && !this.bodyStack.removeFirst()) {
+      this.out.write("/>");
+    }
+    else {
+      this.out.write(this.indentation.toString());
+      this.out.write("</");
+      this.out.write(qName);
+      this.out.write('>');
+    }
+    this.out.write(NEWLINE);
+  }
+
+  /**
+   * Handle a processing instruction.
+   *
+   * @param instruction The processing instruction.
+   */
+  protected void processingInstruction(String instruction) throws IOException {
+    openBody();
+    this.out.write(this.indentation.toString());
+    this.out.write(instruction);
+    this.out.write(NEWLINE);
+  }
+
+  /**
+   * Append (decoded) character data to the current text.
+   *
+   * @param buffer The buffer.
+   * @param start The start of the character data.
+   * @param end The end of the character data.
+   */
+  protected void appendText(CharSequence buffer, int start, int end) {
+    int pos = start;
+    while (pos < end) {
+      char ch = buffer.charAt(pos);
+      int semicolon = -1;
+      if (ch == '&') {
+        for (int i = pos + 1; i < end && i - pos < 12; i++) {
+          if (buffer.charAt(i) == ';') {
+            semicolon = i;
+            break;
+          }
+        }
+      }
+
+      if (semicolon < 0) {
+        this.text.append(ch);
+        pos++;
+      }
+      else {
+        String entity = buffer.subSequence(pos + 1, semicolon).toString();
+        String decoded = decodeEntity(entity);
+        this.text.append(decoded == null ? "&" + entity + ";" : decoded);
+        pos = semicolon + 1;
+      }
+    }
+  }
+
+  /**
+   * Decode a character or predefined entity reference.
+   *
+   * @param entity The name of the entity.
+   * @return The decoded entity, or null if the entity isn't known.
+   */
+  protected String decodeEntity(String entity) {
+    if ("lt".equals(entity)) {
+      return "<";
+    }
+    else if ("gt".equals(entity)) {
+      return ">";
+    }
+    else if ("amp".equals(entity)) {
+      return "&";
+    }
+    else if ("quot".equals(entity)) {
+      return "\"";
+    }
+    else if ("apos".equals(entity)) {
+      return "'";
+    }
+    else if (entity.startsWith("#")) {
+      try {
+        int codePoint = entity.startsWith("#x") ? Integer.parseInt(entity.substring(2), 16) : Integer.parseInt(entity.substring(1));
+        return new String(Character.toChars(codePoint));
+      }
+      catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Write the current text, if any, as a CDATA section.
+   */
+  protected void flushText() throws IOException {
+    String chars = this.text.toString().trim();
+    this.text.setLength(0);
+    if (chars.length() > 0) {
+      openBody();
+      this.out.write(this.indentation.toString());
+      this.out.write("<![CDATA[");
+      this.out.write(chars.replace("]]>", "]]]]><![CDATA[>"));
+      this.out.write("]]>");
+      this.out.write(NEWLINE);
+    }
+  }
+
+  /**
+   * Close the start tag of the current element, if it's still open.
+   */
+  private void openBody() throws IOException {
+    startDocument();
+    if (!this.bodyStack.getFirst()) {
+      this.out.write('>');
+      this.out.write(NEWLINE);
+      this.bodyStack.removeFirst();
+      this.bodyStack.addFirst(true);
+    }
+  }
+
+  /**
+   * Write the XML declaration, if it hasn't been written.
+   */
+  private void startDocument() throws IOException {
+    if (!this.started) {
+      this.started = true;
+      this.out.write("<?xml version=\"1.0\" encoding=\"");
+      this.out.write(this.encoding);
+      this.out.write("\"?>");
+      this.out.write(NEWLINE);
+    }
+  }
+
+  /**
+   * Find the end of the tag starting at the specified index, taking quoted attribute values into account.
+   *
+   * @return The index after the closing '&gt;', or -1 if the tag isn't complete.
+   */
+  private static int tagEnd(CharSequence buffer, int start, boolean end) {
+    char quote = 0;
+    for (int i = start; i < buffer.length(); i++) {
+      char ch = buffer.charAt(i);
+      if (quote != 0) {
+        if (ch == quote) {
+          quote = 0;
+        }
+      }
+      else if (ch == '"' || ch == '\'') {
+        quote = ch;
+      }
+      else if (ch == '>') {
+        return i + 1;
+      }
+    }
+    return end ? buffer.length() : -1;
+  }
+
+  /**
+   * Find the specified delimiter.
+   *
+   * @return The index after the delimiter, or -1 if the delimiter hasn't been written yet.
+   */
+  private static int indexOf(StringBuilder buffer, String delimiter, int from, boolean end) {
+    int index = buffer.indexOf(delimiter, from);
+    return index < 0 ? (end ? buffer.length() : -1) : index + delimiter.length();
+  }
+
+  private static boolean startsWith(StringBuilder buffer, int pos, String prefix) {
+    if (buffer.length() - pos < prefix.length()) {
+      //not enough characters to tell yet; treat a partial match as a match so we wait for the rest.
+      for (int i = 0; pos + i < buffer.length(); i++) {
+        if (buffer.charAt(pos + i) != prefix.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    for (int i = 0; i < prefix.length(); i++) {
+      if (buffer.charAt(pos + i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -18,7 +18,9 @@ package org.codehaus.enunciate.modules.xml;
 
 import freemarker.template.ObjectWrapper;
 import freemarker.template.TemplateException;
+import net.sf.jelly.apt.freemarker.FreemarkerModel;
 import org.codehaus.enunciate.apt.EnunciateFreemarkerModel;
+import org.codehaus.enunciate.apt.ProcessingContext;
 import org.codehaus.enunciate.config.EnunciateConfiguration;
 import org.codehaus.enunciate.config.SchemaInfo;
 import org.codehaus.enunciate.config.WsdlInfo;
@@ -30,6 +32,7 @@ import org.codehaus.enunciate.modules.FreemarkerDeploymentModule;
 import org.codehaus.enunciate.modules.xml.config.SchemaConfig;
 import org.codehaus.enunciate.modules.xml.config.WsdlConfig;
 import org.codehaus.enunciate.modules.xml.config.XMLRuleSet;
+import org.codehaus.enunciate.main.BuildProfile;
 import org.codehaus.enunciate.main.FileArtifact;
 import org.codehaus.enunciate.main.Enunciate;
 import org.codehaus.enunciate.EnunciateException;
@@ -39,12 +42,11 @@ import org.codehaus.enunciate.template.freemarker.IsExcludeFromIDLMethod;
 import org.codehaus.enunciate.template.freemarker.UniqueContentTypesMethod;
 import org.apache.commons.digester.RuleSet;
 
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * <h1>XML Module</h1>
@@ -137,6 +139,16 @@ public class XMLDeploymentModule extends FreemarkerDeploymentModule {
     return XMLDeploymentModule.class.getResource("xml.fmt");
   }
 
+  /**
+   * The URL to the specified template.
+   *
+   * @param template The template ("xml-wsdl.fmt", "xml-wadl.fmt" or "xml-schema.fmt").
+   * @return The URL to the specified template.
+   */
+  protected URL getTemplateURL(String template) {
+    return XMLDeploymentModule.class.getResource(template);
+  }
+
   /**
    * Add a custom schema configuration.
    *
@@ -308,11 +320,18 @@ public class XMLDeploymentModule extends FreemarkerDeploymentModule {
     model.put("wadlStylesheetUri", this.wadlStylesheetUri);
     model.put("accessorOverridesAnother", new AccessorOverridesAnotherMethod());
     model.put("qnameForType", new QNameForTypeMethod());
+    model.put("xmlFile", new XMLFileTransform(null, this.prettyPrint));
     File artifactDir = getGenerateDir();
     model.setFileOutputDirectory(artifactDir);
     boolean upToDate = isUpToDate(artifactDir);
     if (!upToDate) {
-      processTemplate(getTemplateURL(), model);
+      int threads = getEnunciate().getGenerateThreads();
+      if (threads > 1) {
+        generateConcurrently(model, artifactDir, threads);
+      }
+      else {
+        processTemplate(getTemplateURL(), model);
+      }
     }
     else {
       info("Skipping generation of XML files since everything appears up-to-date...");
@@ -324,10 +343,6 @@ public class XMLDeploymentModule extends FreemarkerDeploymentModule {
         String file = (String) wsdl.getProperty("filename");
         wsdlFile = new File(artifactDir, file);
         wsdl.setProperty("file", wsdlFile);
-
-        if (!upToDate && prettyPrint) {
-          prettyPrint(wsdlFile);
-        }
       }
 
       FileArtifact wsdlArtifact = new FileArtifact(getName(), wsdl.getId() + ".wsdl", wsdlFile);
@@ -342,10 +357,6 @@ public class XMLDeploymentModule extends FreemarkerDeploymentModule {
         schemaFile = new File(artifactDir, file);
         schemaInfo.setProperty("file", schemaFile);
 
-        if (!upToDate && prettyPrint) {
-          prettyPrint(schemaFile);
-        }
-
         if (!upToDate && validateSchemas) {
           //todo: write some logic to validate the schemas.
         }
@@ -362,7 +373,6 @@ public class XMLDeploymentModule extends FreemarkerDeploymentModule {
         FileArtifact wadlArtifact = new FileArtifact(getName(), "application.wadl", wadl);
         wadlArtifact.setDescription("WADL document");
         getEnunciate().addArtifact(wadlArtifact);
-        prettyPrint(wadl);
         model.setWadlFile(wadl);
       }
     }
@@ -379,32 +389,60 @@ public class XMLDeploymentModule extends FreemarkerDeploymentModule {
   }
 
   /**
-   * Pretty-prints the specified xml file.
+   * Generates the WSDLs, the WADL and the schemas concurrently, each from a fork of the model.
    *
-   * @param file The file to pretty-print.
+   * @param model The model.
+   * @param artifactDir The directory to which to generate the documents.
+   * @param threads The number of threads.
    */
-  protected void prettyPrint(File file) {
-    try {
-      SAXParserFactory factory = SAXParserFactory.newInstance();
-      factory.setNamespaceAware(false);
-      SAXParser parser = factory.newSAXParser();
-      File prettyFile = enunciate.createTempFile("enunciate", file.getName());
-      parser.parse(file, new PrettyPrinter(prettyFile));
-
-      if (file.delete()) {
-        enunciate.copyFile(prettyFile, file);
+  protected void generateConcurrently(EnunciateFreemarkerModel model, File artifactDir, int threads) throws IOException, TemplateException {
+    List<Callable<Object>> documents = new ArrayList<Callable<Object>>();
+    for (WsdlInfo wsdl : model.getNamespacesToWSDLs().values()) {
+      if (wsdl.getProperty("file") == null) {
+        documents.add(new DocumentGenerator(getTemplateURL("xml-wsdl.fmt"), model, artifactDir, "wsdl", wsdl));
       }
-      else {
-        warn("Unable to delete %s.  Skipping pretty-print transformation....", file);
+    }
+
+    documents.add(new DocumentGenerator(getTemplateURL("xml-wadl.fmt"), model, artifactDir, null, null));
+
+    for (SchemaInfo schema : model.getNamespacesToSchemas().values()) {
+      if (schema.getProperty("file") == null) {
+        documents.add(new DocumentGenerator(getTemplateURL("xml-schema.fmt"), model, artifactDir, "schema", schema));
       }
     }
-    catch (Exception e) {
-      //fall through... skip pretty printing.
-      warn("Unable to pretty-print %s (%s).", file, e.getMessage());
-      if (enunciate.isDebug()) {
-        e.printStackTrace(System.err);
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, documents.size()));
+    try {
+      for (Future<Object> document : executor.invokeAll(documents)) {
+        try {
+          document.get();
+        }
+        catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof IOException) {
+            throw (IOException) cause;
+          }
+          else if (cause instanceof TemplateException) {
+            throw (TemplateException) cause;
+          }
+          else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          else if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw new IllegalStateException(cause);
+        }
       }
     }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while generating the XML files.");
+    }
+    finally {
+      executor.shutdownNow();
+      FreemarkerModel.set(model);
+    }
   }
 
   @Override
@@ -466,4 +504,49 @@ public class XMLDeploymentModule extends FreemarkerDeploymentModule {
   public void setDisableWadl(boolean disableWadl) {
     this.disableWadl = disableWadl;
   }
+
+  /**
+   * Generates a single document from a fork of the model.
+   */
+  private class DocumentGenerator implements Callable<Object> {
+
+    private final URL template;
+    private final EnunciateFreemarkerModel model;
+    private final ProcessingContext context = ProcessingContext.current();
+    private final BuildProfile.Span parentSpan = BuildProfile.current();
+    private final File artifactDir;
+    private final String variable;
+    private final Object info;
+
+    private DocumentGenerator(URL template, EnunciateFreemarkerModel model, File artifactDir, String variable, Object info) {
+      this.template = template;
+      this.model = model;
+      this.artifactDir = artifactDir;
+      this.variable = variable;
+      this.info = info;
+    }
+
+    public Object call() throws Exception {
+      ProcessingContext.bind(this.context);
+      String templateName = this.template.getPath().substring(this.template.getPath().lastIndexOf('/') + 1);
+      BuildProfile.Span span = this.parentSpan.fork("task", "generate " + templateName);
+      try {
+        EnunciateFreemarkerModel fork = this.model.fork();
+        fork.setObjectWrapper(getObjectWrapper());
+        fork.setFileOutputDirectory(this.artifactDir);
+        if (this.variable != null) {
+          fork.setVariable(this.variable, this.info);
+        }
+
+        FreemarkerModel.set(fork);
+        processTemplate(this.template, fork);
+      }
+      finally {
+        span.end();
+        ProcessingContext.unbind();
+        FreemarkerModel.set(null);
+      }
+      return null;
+    }
+  }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.xml;
+
+import net.sf.jelly.apt.freemarker.FreemarkerModel;
+import net.sf.jelly.apt.strategies.FileStrategy;
+import net.sf.jelly.apt.strategies.MissingParameterException;
+import org.codehaus.enunciate.apt.EnunciateFreemarkerModel;
+import org.codehaus.enunciate.template.freemarker.EnunciateFileTransform;
+import org.codehaus.enunciate.template.strategies.EnunciateFileStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * A file transform for the XML documents that (optionally) pretty-prints each document as it's written.
+ *
+ * @author Ryan Heaton
+ */
+public class XMLFileTransform extends EnunciateFileTransform {
+
+  private final boolean prettyPrint;
+
+  /**
+   * @param namespace The namespace.
+   * @param prettyPrint Whether to pretty-print the documents.
+   */
+  public XMLFileTransform(String namespace, boolean prettyPrint) {
+    super(namespace);
+    this.prettyPrint = prettyPrint;
+  }
+
+  @Override
+  public FileStrategy newStrategy() {
+    EnunciateFreemarkerModel model = (EnunciateFreemarkerModel) FreemarkerModel.get();
+    File outputDir = (model != null) ? model.getFileOutputDirectory() : null;
+    return new XMLFileStrategy(outputDir, this.prettyPrint);
+  }
+
+  @Override
+  public String getTransformName() {
+    return "xmlFile";
+  }
+
+  /**
+   * Whether to pretty-print the documents.
+   *
+   * @return Whether to pretty-print the documents.
+   */
+  public boolean isPrettyPrint() {
+    return prettyPrint;
+  }
+
+  /**
+   * File strategy that wraps the file writer in a pretty-printing writer.
+   */
+  public static class XMLFileStrategy extends EnunciateFileStrategy {
+
+    private final boolean prettyPrint;
+
+    public XMLFileStrategy(File outputDirectory, boolean prettyPrint) {
+      super(outputDirectory);
+      this.prettyPrint = prettyPrint;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException, MissingParameterException {
+      PrintWriter writer = super.getWriter();
+      return this.prettyPrint ? new PrintWriter(new PrettyPrintWriter(writer, getCharset())) : writer;
+    }
+  }
+}
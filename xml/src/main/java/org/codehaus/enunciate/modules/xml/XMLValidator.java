@@ -71,4 +71,12 @@ public class XMLValidator extends BaseValidator {
     return result;
   }
 
+  /**
+   * @return true (the checks of this validator don't share any state).
+   */
+  @Override
+  public boolean isPartitionSafe() {
+    return true;
+  }
+
 }
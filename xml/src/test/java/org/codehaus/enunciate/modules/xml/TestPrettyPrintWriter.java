@@ -0,0 +1,108 @@
+/*
+ * Copyright 2006-2008 Web Cohesion
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.enunciate.modules.xml;
+
+import junit.framework.TestCase;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestPrettyPrintWriter extends TestCase {
+
+  private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><!-- a comment --><definitions xmlns=\"urn:wsdl\" name=\"api\">"
+    + "<types><schema   targetNamespace=\"urn:api\"><element name=\"a\" type=\"string\"/>\n  <element name=\"b\"></element></schema></types>"
+    + "<documentation>  some docs  </documentation><empty/></definitions>";
+
+  /**
+   * tests that the writer formats the document the same as the SAX pretty printer.
+   */
+  public void testSameAsPrettyPrinter() throws Exception {
+    File file = File.createTempFile("enunciate", ".xml");
+    File prettyFile = File.createTempFile("enunciate", ".xml");
+    try {
+      FileWriter fileWriter = new FileWriter(file);
+      fileWriter.write(XML);
+      fileWriter.close();
+      SAXParserFactory.newInstance().newSAXParser().parse(file, new PrettyPrinter(prettyFile));
+
+      assertEquals(read(prettyFile), prettyPrint(XML, XML.length()));
+    }
+    finally {
+      file.delete();
+      prettyFile.delete();
+    }
+  }
+
+  /**
+   * tests that the output doesn't depend on how the document is split into writes.
+   */
+  public void testSplitWrites() throws Exception {
+    String whole = prettyPrint(XML, XML.length());
+    for (int chunk = 1; chunk < 12; chunk++) {
+      assertEquals("chunk size " + chunk, whole, prettyPrint(XML, chunk));
+    }
+  }
+
+  /**
+   * tests that character data (including entity references and CDATA sections) is written as a single CDATA section.
+   */
+  public void testCharacterData() throws Exception {
+    String nl = System.getProperty("line.separator");
+    String xml = "<documentation>  some &lt;docs&gt; &amp; <![CDATA[more <docs>]]>  </documentation>";
+    assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + nl
+      + "<documentation>" + nl
+      + "  <![CDATA[some <docs> & more <docs>]]>" + nl
+      + "</documentation>" + nl, prettyPrint(xml, xml.length()));
+    assertEquals(prettyPrint(xml, xml.length()), prettyPrint(xml, 3));
+  }
+
+  /**
+   * tests that processing instructions and attribute values are kept.
+   */
+  public void testProcessingInstructionsAndAttributes() throws Exception {
+    String nl = System.getProperty("line.separator");
+    String xml = "<?xml version=\"1.0\"?>\n<?xml-stylesheet type=\"text/xsl\" href=\"wadl.xsl\"?>\n<application a=\"x &amp; y\" b='\"'/>";
+    assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + nl
+      + "<?xml-stylesheet type=\"text/xsl\" href=\"wadl.xsl\"?>" + nl
+      + "<application a=\"x &amp; y\" b='\"'/>" + nl, prettyPrint(xml, xml.length()));
+  }
+
+  private String prettyPrint(String xml, int chunk) throws IOException {
+    StringWriter out = new StringWriter();
+    Writer writer = new PrettyPrintWriter(out, "UTF-8");
+    for (int i = 0; i < xml.length(); i += chunk) {
+      writer.write(xml, i, Math.min(chunk, xml.length() - i));
+    }
+    writer.close();
+    return out.toString();
+  }
+
+  private String read(File file) throws IOException {
+    StringWriter out = new StringWriter();
+    Reader reader = new FileReader(file);
+    char[] buffer = new char[1024];
+    int len;
+    while ((len = reader.read(buffer)) > 0) {
+      out.write(buffer, 0, len);
+    }
+    reader.close();
+    return out.toString();
+  }
+}